@@ -80,4 +80,9 @@ public final class TestFrameConstants {
      * Default cluster context name
      */
     public static final String DEFAULT_CONTEXT_NAME = "primary";
+
+    /**
+     * Annotation with hash of the content applied by the test frame, used to skip updates without any change
+     */
+    public static final String CONTENT_HASH_ANNOTATION = "test-frame.skodjob.io/content-hash";
 }
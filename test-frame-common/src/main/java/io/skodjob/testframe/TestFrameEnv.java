@@ -17,6 +17,13 @@ public final class TestFrameEnv {
 
     private static final String CLIENT_TYPE_ENV = "CLIENT_TYPE";
     private static final String IP_FAMILY_ENV = "IP_FAMILY";
+    private static final String EXEC_MAX_CONCURRENT_PROCESSES_ENV = "EXEC_MAX_CONCURRENT_PROCESSES";
+    private static final String NATIVE_CMD_CLIENT_ENV = "NATIVE_CMD_CLIENT";
+    private static final String KUBE_CLIENT_BULK_CONCURRENCY_ENV = "KUBE_CLIENT_BULK_CONCURRENCY";
+    private static final String POD_CACHE_ENV = "POD_CACHE";
+    private static final String API_CALLS_REPORT_SIZE_ENV = "API_CALLS_REPORT_SIZE";
+    private static final String MANIFEST_CACHE_SIZE_ENV = "MANIFEST_CACHE_SIZE";
+    private static final String ELIDE_NOOP_UPDATES_ENV = "ELIDE_NOOP_UPDATES";
 
     /**
      * Represents the default IP family, which is IPv4.
@@ -61,6 +68,58 @@ public final class TestFrameEnv {
      */
     public static final String IP_FAMILY = ENV_VARIABLES.getOrDefault(IP_FAMILY_ENV, IP_FAMILY_DEFAULT);
 
+    /**
+     * Maximal number of external processes (kubectl, oc, ...) spawned by the executor at the same time.
+     * Other executions are queued until some of the running processes finish.
+     * The default is twice the number of available processors, but at least 4.
+     */
+    public static final int EXEC_MAX_CONCURRENT_PROCESSES = ENV_VARIABLES.getOrDefault(
+        EXEC_MAX_CONCURRENT_PROCESSES_ENV, Integer::parseInt,
+        Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    /**
+     * Use the in-process {@link io.skodjob.testframe.clients.cmdClient.NativeKubeCmdClient} as kube cmd client.
+     * The CLI client selected by {@link #CLIENT_TYPE} is still used for commands without native implementation.
+     */
+    public static final boolean NATIVE_CMD_CLIENT = ENV_VARIABLES.getOrDefault(
+        NATIVE_CMD_CLIENT_ENV, Boolean::parseBoolean, false);
+
+    /**
+     * Default maximal number of API requests issued at the same time by the bulk operations
+     * ({@link io.skodjob.testframe.clients.KubeClient#bulk}). Value 1 processes the resources one by one.
+     */
+    public static final int KUBE_CLIENT_BULK_CONCURRENCY = ENV_VARIABLES.getOrDefault(
+        KUBE_CLIENT_BULK_CONCURRENCY_ENV, Integer::parseInt, 8);
+
+    /**
+     * Answer pod queries of {@link io.skodjob.testframe.clients.KubeClient} and waits of the pod and job utils
+     * from the informer based {@link io.skodjob.testframe.clients.PodCache} instead of listing the pods
+     * on every call. The cache is eventually consistent, pods created a moment ago may not be visible yet.
+     */
+    public static final boolean POD_CACHE = ENV_VARIABLES.getOrDefault(
+        POD_CACHE_ENV, Boolean::parseBoolean, false);
+
+    /**
+     * Number of the most frequent API requests reported after every test, see
+     * {@link io.skodjob.testframe.clients.ApiCallAccounting}. Value 0 disables the report.
+     */
+    public static final int API_CALLS_REPORT_SIZE = ENV_VARIABLES.getOrDefault(
+        API_CALLS_REPORT_SIZE_ENV, Integer::parseInt, 0);
+
+    /**
+     * Max number of parsed manifests kept by {@link io.skodjob.testframe.clients.ManifestCache}
+     * for reading of resources from files. Value 0 disables the cache.
+     */
+    public static final int MANIFEST_CACHE_SIZE = ENV_VARIABLES.getOrDefault(
+        MANIFEST_CACHE_SIZE_ENV, Integer::parseInt, 64);
+
+    /**
+     * Stamp resources created or updated by {@link io.skodjob.testframe.resources.KubeResourceManager}
+     * with hash of their content and skip updates, which would not change the content applied last time.
+     */
+    public static final boolean ELIDE_NOOP_UPDATES = ENV_VARIABLES.getOrDefault(
+        ELIDE_NOOP_UPDATES_ENV, Boolean::parseBoolean, false);
+
     private TestFrameEnv() {
         // Private constructor to prevent instantiation
     }
@@ -0,0 +1,17 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+/**
+ * Kind of API request accounted by {@link ApiCallAccounting}.
+ *
+ * @param test       test which issued the request, {@link ApiCallAccounting#NO_TEST} outside of test context
+ * @param verb       verb of the request (get, list, watch, create, update, patch, delete, deletecollection)
+ * @param resource   resource with API group and subresource, e.g. {@code deployments.apps} or {@code pods/log}
+ * @param namespace  namespace of the request, empty for cluster-scoped requests
+ * @param statusCode HTTP status code, {@code 0} when the connection failed
+ */
+public record ApiCall(String test, String verb, String resource, String namespace, int statusCode) {
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.client.http.AsyncBody;
+import io.fabric8.kubernetes.client.http.HttpRequest;
+import io.fabric8.kubernetes.client.http.HttpResponse;
+import io.fabric8.kubernetes.client.http.Interceptor;
+import io.skodjob.testframe.resources.KubeResourceManager;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * HTTP interceptor of the fabric8 client which counts and times every API request.
+ * Requests are accounted by the test which issued them (taken from {@link KubeResourceManager#getTestContext()}
+ * of the calling thread), verb, resource, namespace and status code. Tasks executed by other threads on behalf
+ * of the test have to be wrapped by {@link KubeResourceManager#withTestContext(Runnable)}. Retries of a request,
+ * which the client sends from its scheduler thread, are accounted to the test which issued the first attempt.
+ * Time of the request is measured until the response headers are received, so long-running watches and log
+ * streams count only their start.
+ * Web socket requests (exec, attach, port-forward) are not accounted.
+ */
+public class ApiCallAccounting implements Interceptor {
+
+    /**
+     * Name under which the interceptor is registered in the http client
+     */
+    public static final String NAME = "api-call-accounting";
+
+    /**
+     * Test name used for requests issued outside of test context
+     */
+    public static final String NO_TEST = "<none>";
+
+    private final Map<UUID, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<ApiCall, Counter> counters = new ConcurrentHashMap<>();
+    // every attempt of a request shares the response consumer, weak keys forget finished requests
+    private final Map<AsyncBody.Consumer<List<ByteBuffer>>, String> owners =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public AsyncBody.Consumer<List<ByteBuffer>> consumer(AsyncBody.Consumer<List<ByteBuffer>> consumer,
+                                                         HttpRequest request) {
+        // called with the final request (after all before hooks) right before it is sent
+        String test = owners.computeIfAbsent(consumer, c -> currentTest());
+        inFlight.put(request.id(), new InFlight(System.nanoTime(), test, request));
+        return consumer;
+    }
+
+    @Override
+    public void after(HttpRequest request, HttpResponse<?> response, AsyncBody.Consumer<List<ByteBuffer>> consumer) {
+        record(request, response.code());
+    }
+
+    @Override
+    public void afterConnectionFailure(HttpRequest request, Throwable failure) {
+        record(request, 0);
+    }
+
+    /**
+     * Returns statistics of all accounted requests
+     *
+     * @return statistics sorted from the most frequent request
+     */
+    public List<ApiCallStats> stats() {
+        return counters.entrySet().stream()
+            .map(e -> e.getValue().stats(e.getKey()))
+            .sorted(Comparator.comparingLong(ApiCallStats::count).reversed()
+                .thenComparing(Comparator.comparingLong(ApiCallStats::totalTimeMs).reversed()))
+            .toList();
+    }
+
+    /**
+     * Returns statistics of requests issued by the test
+     *
+     * @param test test name, see {@link #testName(ExtensionContext)}
+     * @return statistics sorted from the most frequent request
+     */
+    public List<ApiCallStats> stats(String test) {
+        return stats().stream().filter(s -> s.call().test().equals(test)).toList();
+    }
+
+    /**
+     * Returns the most frequent requests issued by the test
+     *
+     * @param test  test name, see {@link #testName(ExtensionContext)}
+     * @param limit max number of returned statistics
+     * @return statistics sorted from the most frequent request
+     */
+    public List<ApiCallStats> topTalkers(String test, int limit) {
+        return stats(test).stream().limit(limit).toList();
+    }
+
+    /**
+     * Returns the slowest requests issued by the test
+     *
+     * @param test  test name, see {@link #testName(ExtensionContext)}
+     * @param limit max number of returned statistics
+     * @return statistics sorted from the slowest request
+     */
+    public List<ApiCallStats> slowest(String test, int limit) {
+        return stats(test).stream()
+            .sorted(Comparator.comparingLong(ApiCallStats::maxTimeMs).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Returns total number of requests issued by the test
+     *
+     * @param test test name, see {@link #testName(ExtensionContext)}
+     * @return number of requests
+     */
+    public long totalCalls(String test) {
+        return stats(test).stream().mapToLong(ApiCallStats::count).sum();
+    }
+
+    /**
+     * Formats report of the most frequent requests issued by the test
+     *
+     * @param test  test name, see {@link #testName(ExtensionContext)}
+     * @param limit max number of reported kinds of requests
+     * @return report, empty when the test did not issue any request
+     */
+    public String report(String test, int limit) {
+        List<ApiCallStats> top = topTalkers(test, limit);
+        if (top.isEmpty()) {
+            return "";
+        }
+        return String.format("%d API calls, top %d:%n", totalCalls(test), top.size())
+            + top.stream().map(s -> String.format("%8d x %-16s %-40s %-20s %3d  avg %6d ms  max %6d ms",
+                    s.count(), s.call().verb(), s.call().resource(), s.call().namespace(), s.call().statusCode(),
+                    s.averageTimeMs(), s.maxTimeMs()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    /**
+     * Forgets all accounted requests
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    /**
+     * Returns name of the test used for accounting, i.e. simple class name and method name
+     *
+     * @param ctx extension context of the test
+     * @return test name, {@link #NO_TEST} for {@code null} context
+     */
+    public static String testName(ExtensionContext ctx) {
+        if (ctx == null) {
+            return NO_TEST;
+        }
+        String className = ctx.getTestClass().map(Class::getSimpleName).orElse(ctx.getDisplayName());
+        return ctx.getTestMethod().map(m -> className + "." + m.getName()).orElse(className);
+    }
+
+    private static String currentTest() {
+        return testName(KubeResourceManager.get().getTestContext());
+    }
+
+    private void record(HttpRequest request, int statusCode) {
+        InFlight call = inFlight.remove(request.id());
+        if (call == null) {
+            return;
+        }
+        counters.computeIfAbsent(call.describe(statusCode), k -> new Counter())
+            .add(System.nanoTime() - call.startNanos);
+    }
+
+    /**
+     * Request waiting for the response
+     */
+    private record InFlight(long startNanos, String test, HttpRequest request) {
+
+        /**
+         * Derives verb, resource and namespace from the request URI, e.g.
+         * {@code /apis/apps/v1/namespaces/ns/deployments/name/scale} or {@code /api/v1/nodes}
+         */
+        private ApiCall describe(int statusCode) {
+            List<String> parts = Arrays.stream(request.uri().getPath().split("/")).filter(p -> !p.isEmpty()).toList();
+            String method = request.method().toLowerCase();
+            int i;
+            String group = "";
+            if (parts.size() >= 2 && parts.get(0).equals("api")) {
+                i = 2;
+            } else if (parts.size() >= 3 && parts.get(0).equals("apis")) {
+                group = "." + parts.get(1);
+                i = 3;
+            } else {
+                return new ApiCall(test, method, request.uri().getPath(), "", statusCode);
+            }
+
+            String namespace = "";
+            if (parts.size() > i + 2 && parts.get(i).equals("namespaces")) {
+                namespace = parts.get(i + 1);
+                i += 2;
+            }
+            if (parts.size() <= i) {
+                return new ApiCall(test, method, "discovery", namespace, statusCode);
+            }
+            boolean named = parts.size() > i + 1;
+            String resource = parts.get(i) + group + (parts.size() > i + 2 ? "/" + parts.get(i + 2) : "");
+            String query = request.uri().getQuery();
+            boolean watch = query != null && query.contains("watch=true");
+
+            String verb = switch (method) {
+                case "get" -> watch ? "watch" : named ? "get" : "list";
+                case "post" -> "create";
+                case "put" -> "update";
+                case "delete" -> named ? "delete" : "deletecollection";
+                default -> method;
+            };
+            return new ApiCall(test, verb, resource, namespace, statusCode);
+        }
+    }
+
+    /**
+     * Aggregated numbers of one kind of request
+     */
+    private static final class Counter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        private void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        private ApiCallStats stats(ApiCall call) {
+            return new ApiCallStats(call, count.sum(), TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+        }
+    }
+}
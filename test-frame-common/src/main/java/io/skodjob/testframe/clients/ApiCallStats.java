@@ -0,0 +1,25 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+/**
+ * Statistics of one kind of API request accounted by {@link ApiCallAccounting}.
+ *
+ * @param call        kind of the request
+ * @param count       number of requests
+ * @param totalTimeMs total time in ms until the response headers were received
+ * @param maxTimeMs   time in ms of the slowest request
+ */
+public record ApiCallStats(ApiCall call, long count, long totalTimeMs, long maxTimeMs) {
+
+    /**
+     * Returns average time of the request
+     *
+     * @return average time in ms
+     */
+    public long averageTimeMs() {
+        return count == 0 ? 0 : totalTimeMs / count;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+
+/**
+ * Result of one resource processed by {@link BulkOperation}.
+ *
+ * @param resource resource after the modifier was applied
+ * @param outcome  what happened with the resource
+ * @param error    failure of the operation, {@code null} when it succeeded
+ */
+public record BulkItemResult(HasMetadata resource, Outcome outcome, Throwable error) {
+
+    /**
+     * Outcome of the operation on the resource
+     */
+    public enum Outcome {
+        /**
+         * Resource was created
+         */
+        CREATED,
+        /**
+         * Resource was updated
+         */
+        UPDATED,
+        /**
+         * Resource was deleted
+         */
+        DELETED,
+        /**
+         * Nothing was done, the modifier returned {@code null} or the deleted resource did not exist
+         */
+        SKIPPED,
+        /**
+         * Operation failed, see {@link BulkItemResult#error()}
+         */
+        FAILED
+    }
+
+    /**
+     * Returns whether the operation on the resource succeeded
+     *
+     * @return true if the operation did not fail
+     */
+    public boolean isSuccess() {
+        return outcome != Outcome.FAILED;
+    }
+}
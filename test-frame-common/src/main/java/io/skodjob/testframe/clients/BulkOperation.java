@@ -0,0 +1,274 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.skodjob.testframe.TestFrameEnv;
+import io.skodjob.testframe.utils.LoggerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates, updates or deletes list of resources in parallel.
+ * Number of requests issued at the same time is limited by the concurrency. When ordering by kind is enabled
+ * (default), resources are processed in stages, e.g. namespaces and CRDs first, then RBAC and configuration,
+ * then workloads and custom resources. Resources in one stage are processed in parallel and the stages
+ * are processed in reverse order for delete. Failure of one resource does not stop the others, unless fail fast
+ * is enabled, result of every resource is reported in {@link BulkResult}.
+ * With concurrency 1 the resources are processed one by one by the calling thread.
+ */
+public class BulkOperation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkOperation.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // install order of the kinds, the same as Helm uses, unknown kinds (custom resources) go last
+    private static final List<String> KIND_ORDER = List.of(
+        "Namespace", "NetworkPolicy", "ResourceQuota", "LimitRange", "PodDisruptionBudget", "ServiceAccount",
+        "Secret", "ConfigMap", "StorageClass", "PersistentVolume", "PersistentVolumeClaim",
+        "CustomResourceDefinition", "ClusterRole", "ClusterRoleBinding", "Role", "RoleBinding", "Service",
+        "DaemonSet", "Pod", "ReplicationController", "ReplicaSet", "Deployment", "HorizontalPodAutoscaler",
+        "StatefulSet", "Job", "CronJob", "IngressClass", "Ingress", "APIService",
+        "MutatingWebhookConfiguration", "ValidatingWebhookConfiguration");
+
+    private final KubernetesClient client;
+    private final List<HasMetadata> resources;
+    private String namespace;
+    private UnaryOperator<HasMetadata> modifier = UnaryOperator.identity();
+    private int concurrency = TestFrameEnv.KUBE_CLIENT_BULK_CONCURRENCY;
+    private boolean orderedByKind = true;
+    private boolean failFast = false;
+    private UnaryOperator<Runnable> contextPropagation = UnaryOperator.identity();
+
+    /**
+     * Constructs the operation
+     *
+     * @param client    kubernetes client
+     * @param resources resources to process
+     */
+    public BulkOperation(KubernetesClient client, List<HasMetadata> resources) {
+        this.client = client;
+        this.resources = resources;
+    }
+
+    /**
+     * Sets namespace of the resources, {@code null} keeps namespaces from the resources
+     *
+     * @param namespace namespace
+     * @return this operation
+     */
+    public BulkOperation inNamespace(String namespace) {
+        this.namespace = namespace;
+        return this;
+    }
+
+    /**
+     * Sets modifier applied to every resource before the operation, resources for which the modifier
+     * returns {@code null} are skipped
+     *
+     * @param modifier modifier
+     * @return this operation
+     */
+    public BulkOperation withModifier(UnaryOperator<HasMetadata> modifier) {
+        this.modifier = modifier;
+        return this;
+    }
+
+    /**
+     * Sets max number of requests issued at the same time
+     *
+     * @param concurrency concurrency limit, default {@link TestFrameEnv#KUBE_CLIENT_BULK_CONCURRENCY}
+     * @return this operation
+     */
+    public BulkOperation withConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency has to be positive");
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Enables or disables processing of the resources in stages by their kind
+     *
+     * @param orderedByKind process resources in stages by kind, default true
+     * @return this operation
+     */
+    public BulkOperation orderedByKind(boolean orderedByKind) {
+        this.orderedByKind = orderedByKind;
+        return this;
+    }
+
+    /**
+     * Enables or disables skipping of the remaining resources after the first failure
+     *
+     * @param failFast skip the resources which were not processed yet after the first failure, default false
+     * @return this operation
+     */
+    public BulkOperation withFailFast(boolean failFast) {
+        this.failFast = failFast;
+        return this;
+    }
+
+    /**
+     * Sets propagation of the context of the calling thread to the tasks processing the resources in parallel,
+     * for example {@code KubeResourceManager.get()::withTestContext} for accounting of the API calls to the test
+     *
+     * @param contextPropagation wraps the task, so it runs in the context of the calling thread
+     * @return this operation
+     */
+    public BulkOperation withContextPropagation(UnaryOperator<Runnable> contextPropagation) {
+        this.contextPropagation = contextPropagation;
+        return this;
+    }
+
+    /**
+     * Creates the resources
+     *
+     * @return results
+     */
+    public BulkResult create() {
+        return run(false, h -> {
+            log("Creating", h);
+            resource(h).create();
+            return BulkItemResult.Outcome.CREATED;
+        });
+    }
+
+    /**
+     * Updates the resources
+     *
+     * @return results
+     */
+    public BulkResult update() {
+        return run(false, h -> {
+            log("Updating", h);
+            resource(h).update();
+            return BulkItemResult.Outcome.UPDATED;
+        });
+    }
+
+    /**
+     * Creates the resources which do not exist and updates the rest of them
+     *
+     * @return results
+     */
+    public BulkResult createOrUpdate() {
+        return run(false, h -> {
+            if (resource(h).get() == null) {
+                log("Creating", h);
+                resource(h).create();
+                return BulkItemResult.Outcome.CREATED;
+            }
+            log("Updating", h);
+            resource(h).update();
+            return BulkItemResult.Outcome.UPDATED;
+        });
+    }
+
+    /**
+     * Deletes the resources which exist
+     *
+     * @return results
+     */
+    public BulkResult delete() {
+        return run(true, h -> {
+            if (resource(h).get() == null) {
+                return BulkItemResult.Outcome.SKIPPED;
+            }
+            log("Deleting", h);
+            resource(h).delete();
+            return BulkItemResult.Outcome.DELETED;
+        });
+    }
+
+    private BulkResult run(boolean reverse, Function<HasMetadata, BulkItemResult.Outcome> action) {
+        BulkItemResult[] results = new BulkItemResult[resources.size()];
+        Semaphore slots = new Semaphore(concurrency);
+        AtomicBoolean failed = new AtomicBoolean(false);
+
+        for (List<Integer> stage : stages(reverse)) {
+            if (concurrency == 1) {
+                stage.forEach(i -> results[i] = process(resources.get(i), action, failed));
+                continue;
+            }
+            CompletableFuture.allOf(stage.stream().map(i -> CompletableFuture.runAsync(contextPropagation.apply(() -> {
+                slots.acquireUninterruptibly();
+                try {
+                    results[i] = process(resources.get(i), action, failed);
+                } finally {
+                    slots.release();
+                }
+            }), EXECUTOR)).toArray(CompletableFuture[]::new)).join();
+        }
+        return new BulkResult(List.of(results));
+    }
+
+    private BulkItemResult process(HasMetadata original, Function<HasMetadata, BulkItemResult.Outcome> action,
+                                   AtomicBoolean failed) {
+        if (original == null || (failFast && failed.get())) {
+            return new BulkItemResult(original, BulkItemResult.Outcome.SKIPPED, null);
+        }
+        HasMetadata h = original;
+        try {
+            h = modifier.apply(original);
+            if (h == null) {
+                return new BulkItemResult(original, BulkItemResult.Outcome.SKIPPED, null);
+            }
+            return new BulkItemResult(h, action.apply(h), null);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Operation on {}/{} failed: {}", h.getKind(), h.getMetadata().getName(), e.getMessage());
+            failed.set(true);
+            return new BulkItemResult(h, BulkItemResult.Outcome.FAILED, e);
+        }
+    }
+
+    /**
+     * Splits indexes of the resources into stages processed one after another
+     *
+     * @param reverse reverse order of the stages
+     * @return stages
+     */
+    private List<List<Integer>> stages(boolean reverse) {
+        Map<Integer, List<Integer>> stages = new TreeMap<>(reverse ? Comparator.reverseOrder() : null);
+        for (int i = 0; i < resources.size(); i++) {
+            stages.computeIfAbsent(orderedByKind ? rank(resources.get(i)) : 0, k -> new ArrayList<>()).add(i);
+        }
+        return new ArrayList<>(stages.values());
+    }
+
+    private static int rank(HasMetadata resource) {
+        if (resource == null) {
+            return 0;
+        }
+        int idx = KIND_ORDER.indexOf(resource.getKind());
+        return idx < 0 ? KIND_ORDER.size() : idx;
+    }
+
+    private Resource<HasMetadata> resource(HasMetadata h) {
+        return namespace == null ? client.resource(h) : client.resource(h).inNamespace(namespace);
+    }
+
+    private void log(String action, HasMetadata h) {
+        LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN, action, h.getKind(),
+            h.getMetadata().getName(), namespace != null ? namespace : h.getMetadata().getNamespace());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.util.List;
+
+/**
+ * Results of {@link BulkOperation}, in the same order as the input resources.
+ *
+ * @param items result of every resource
+ */
+public record BulkResult(List<BulkItemResult> items) {
+
+    /**
+     * Returns results of the resources which failed
+     *
+     * @return failed items
+     */
+    public List<BulkItemResult> failures() {
+        return items.stream().filter(item -> !item.isSuccess()).toList();
+    }
+
+    /**
+     * Returns whether all resources were processed successfully
+     *
+     * @return true if there is no failure
+     */
+    public boolean isSuccess() {
+        return items.stream().allMatch(BulkItemResult::isSuccess);
+    }
+
+    /**
+     * Throws the first failure, the other failures are attached to it as suppressed exceptions
+     *
+     * @return this result when there is no failure
+     */
+    public BulkResult throwOnFailure() {
+        List<BulkItemResult> failures = failures();
+        if (failures.isEmpty()) {
+            return this;
+        }
+        Throwable first = failures.getFirst().error();
+        RuntimeException ex = first instanceof RuntimeException re ? re : new KubeClusterException(first);
+        failures.stream().skip(1).forEach(failure -> ex.addSuppressed(failure.error()));
+        throw ex;
+    }
+}
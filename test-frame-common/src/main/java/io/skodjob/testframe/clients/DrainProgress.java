@@ -0,0 +1,43 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+/**
+ * Progress of one pod reported by {@link NodeDrainer}.
+ *
+ * @param node      name of the drained node
+ * @param namespace namespace of the pod
+ * @param pod       name of the pod
+ * @param state     current state of the pod
+ * @param message   details of the state, e.g. reason of the failure
+ */
+public record DrainProgress(String node, String namespace, String pod, State state, String message) {
+
+    /**
+     * State of the pod during the drain
+     */
+    public enum State {
+        /**
+         * Pod is left on the node (DaemonSet-managed, mirror or finished pod)
+         */
+        SKIPPED,
+        /**
+         * Eviction was refused, because it would violate PodDisruptionBudget, it will be retried
+         */
+        BLOCKED,
+        /**
+         * Eviction (or deletion) was accepted and the pod is terminating
+         */
+        EVICTING,
+        /**
+         * Pod is gone from the node
+         */
+        EVICTED,
+        /**
+         * Pod cannot be evicted
+         */
+        FAILED
+    }
+}
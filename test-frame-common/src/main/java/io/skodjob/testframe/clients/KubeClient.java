@@ -22,10 +22,13 @@ import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.ConfigBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
+import io.fabric8.kubernetes.client.dsl.ExecWatch;
+import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.skodjob.testframe.TestFrameEnv;
 import io.skodjob.testframe.executor.Exec;
-import io.skodjob.testframe.utils.LoggerUtils;
+import io.skodjob.testframe.resources.ManifestTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +39,8 @@ import org.slf4j.LoggerFactory;
 public class KubeClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(KubeClient.class);
 
+    private static final ManifestCache MANIFEST_CACHE = new ManifestCache(TestFrameEnv.MANIFEST_CACHE_SIZE);
+
     private KubernetesClient client;
 
     /**
@@ -43,6 +48,10 @@ public class KubeClient {
      */
     private String kubeconfigPath;
 
+    private PodCache podCache;
+
+    private final ApiCallAccounting apiCalls = new ApiCallAccounting();
+
     /* --------------------------------------------------------------------- */
     /* Constructors / factories                                              */
     /* --------------------------------------------------------------------- */
@@ -52,7 +61,7 @@ public class KubeClient {
      */
     public KubeClient() {
         Config cfg = Config.autoConfigure(null);
-        this.client = new KubernetesClientBuilder().withConfig(cfg).build();
+        this.client = buildClient(cfg);
     }
 
     /**
@@ -63,7 +72,7 @@ public class KubeClient {
     public KubeClient(String kubeconfigPath) {
         this.kubeconfigPath = kubeconfigPath;
         Config cfg = Config.fromKubeconfig(readFile(kubeconfigPath));
-        this.client = new KubernetesClientBuilder().withConfig(cfg).build();
+        this.client = buildClient(cfg);
     }
 
     /**
@@ -79,7 +88,7 @@ public class KubeClient {
             .withTrustCerts(true)
             .withDisableHostnameVerification(true)
             .build();
-        this.client = new KubernetesClientBuilder().withConfig(cfg).build();
+        this.client = buildClient(cfg);
         this.kubeconfigPath = generateTempKubeconfig(apiUrl, token);
     }
 
@@ -94,6 +103,30 @@ public class KubeClient {
         return new KubeClient(apiUrl, token);
     }
 
+    private KubernetesClient buildClient(Config cfg) {
+        return new KubernetesClientBuilder().withConfig(cfg)
+            .withHttpClientBuilderConsumer(b -> b.addOrReplaceInterceptor(ApiCallAccounting.NAME, apiCalls))
+            .build();
+    }
+
+    /**
+     * Returns reader of resources deserialized directly into the requested classes
+     *
+     * @return typed resources reader
+     */
+    public TypedResources typedResources() {
+        return new TypedResources(client);
+    }
+
+    /**
+     * Returns accounting of API requests issued by this client
+     *
+     * @return API call accounting
+     */
+    public ApiCallAccounting apiCalls() {
+        return apiCalls;
+    }
+
     /**
      * Returns the Kubernetes client.
      *
@@ -110,7 +143,7 @@ public class KubeClient {
      * @param config kubernetes config
      */
     void testReconnect(Config config) {
-        this.client = new KubernetesClientBuilder().withConfig(config).build();
+        this.client = buildClient(config);
     }
 
     /**
@@ -139,7 +172,7 @@ public class KubeClient {
      * @throws IOException If an I/O error occurs reading from the file.
      */
     public List<HasMetadata> readResourcesFromFile(Path file) throws IOException {
-        return readResourcesFromFile(Files.newInputStream(file));
+        return MANIFEST_CACHE.read(client, file);
     }
 
     /**
@@ -150,9 +183,39 @@ public class KubeClient {
      * @throws IOException If an I/O error occurs.
      */
     public List<HasMetadata> readResourcesFromFile(InputStream is) throws IOException {
-        try (is) {
-            return client.load(is).items();
-        }
+        return MANIFEST_CACHE.read(client, is);
+    }
+
+    /**
+     * Reads Kubernetes resources from a classpath resource.
+     *
+     * @param resource name of the classpath resource
+     * @return A list of {@link HasMetadata} resources defined in the resource.
+     * @throws IOException If the resource does not exist or an I/O error occurs.
+     */
+    public List<HasMetadata> readResourcesFromClasspath(String resource) throws IOException {
+        return MANIFEST_CACHE.readClasspathResource(client, resource);
+    }
+
+    /**
+     * Compiles template from the resources in the file, variants of the template are instantiated
+     * without parsing the file again.
+     *
+     * @param file The path to the file containing Kubernetes resources.
+     * @return compiled template
+     * @throws IOException If an I/O error occurs reading from the file.
+     */
+    public ManifestTemplate compileTemplate(Path file) throws IOException {
+        return ManifestTemplate.compile(client.getKubernetesSerialization(), readResourcesFromFile(file));
+    }
+
+    /**
+     * Returns cache of parsed manifests shared by all clients
+     *
+     * @return manifest cache
+     */
+    public static ManifestCache manifestCache() {
+        return MANIFEST_CACHE;
     }
 
     /**
@@ -194,16 +257,7 @@ public class KubeClient {
      * @param modifier  modifier
      */
     public void create(String namespace, List<HasMetadata> resources, UnaryOperator<HasMetadata> modifier) {
-        resources.forEach(res -> {
-            HasMetadata h = modifier.apply(res);
-            LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN,
-                "Creating", h.getKind(), h.getMetadata().getName(), namespace);
-            if (namespace == null) {
-                client.resource(h).create();
-            } else {
-                client.resource(h).inNamespace(namespace).create();
-            }
-        });
+        sequential(resources).inNamespace(namespace).withModifier(modifier).create().throwOnFailure();
     }
 
     /**
@@ -214,16 +268,7 @@ public class KubeClient {
      * @param modifier  modifier
      */
     public void update(String namespace, List<HasMetadata> resources, UnaryOperator<HasMetadata> modifier) {
-        resources.forEach(res -> {
-            HasMetadata h = modifier.apply(res);
-            LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN,
-                "Updating", h.getKind(), h.getMetadata().getName(), namespace);
-            if (namespace == null) {
-                client.resource(h).update();
-            } else {
-                client.resource(h).inNamespace(namespace).update();
-            }
-        });
+        sequential(resources).inNamespace(namespace).withModifier(modifier).update().throwOnFailure();
     }
 
     /**
@@ -244,28 +289,7 @@ public class KubeClient {
      * @param modifier  modifier method
      */
     public void createOrUpdate(String ns, List<HasMetadata> resources, UnaryOperator<HasMetadata> modifier) {
-        resources.forEach(i -> {
-            HasMetadata h = modifier.apply(i);
-            if (h != null) {
-                if (client.resource(h).get() == null) {
-                    LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN,
-                        "Creating", h.getKind(), h.getMetadata().getName(), h.getMetadata().getNamespace());
-                    if (ns == null) {
-                        client.resource(h).create();
-                    } else {
-                        client.resource(h).inNamespace(ns).create();
-                    }
-                } else {
-                    LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN,
-                        "Updating", h.getKind(), h.getMetadata().getName(), h.getMetadata().getNamespace());
-                    if (ns == null) {
-                        client.resource(h).update();
-                    } else {
-                        client.resource(h).inNamespace(ns).update();
-                    }
-                }
-            }
-        });
+        sequential(resources).inNamespace(ns).withModifier(modifier).createOrUpdate().throwOnFailure();
     }
 
     /**
@@ -274,15 +298,7 @@ public class KubeClient {
      * @param resources resources
      */
     public void delete(List<HasMetadata> resources) {
-        resources.forEach(h -> {
-            if (h != null) {
-                if (client.resource(h).get() != null) {
-                    LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN,
-                        "Deleting", h.getKind(), h.getMetadata().getName(), h.getMetadata().getNamespace());
-                    client.resource(h).delete();
-                }
-            }
-        });
+        sequential(resources).delete().throwOnFailure();
     }
 
     /**
@@ -292,15 +308,25 @@ public class KubeClient {
      * @param namespace namespace
      */
     public void delete(List<HasMetadata> resources, String namespace) {
-        resources.forEach(h -> {
-            if (h != null) {
-                if (client.resource(h).inNamespace(namespace).get() != null) {
-                    LOGGER.debug(LoggerUtils.RESOURCE_WITH_NAMESPACE_LOGGER_PATTERN,
-                        "Deleting", h.getKind(), h.getMetadata().getName(), namespace);
-                    client.resource(h).inNamespace(namespace).delete();
-                }
-            }
-        });
+        sequential(resources).inNamespace(namespace).delete().throwOnFailure();
+    }
+
+    /**
+     * Creates parallel bulk operation on the resources, processed in stages by their kind.
+     * The list methods ({@link #create}, {@link #update}, {@link #createOrUpdate} and {@link #delete}) process
+     * the resources one by one in order of the list and stop at the first failure.
+     * API calls of the parallel tasks are accounted to the test only when the context is propagated by
+     * {@link BulkOperation#withContextPropagation}.
+     *
+     * @param resources resources
+     * @return bulk operation
+     */
+    public BulkOperation bulk(List<HasMetadata> resources) {
+        return new BulkOperation(client, resources);
+    }
+
+    private BulkOperation sequential(List<HasMetadata> resources) {
+        return bulk(resources).withConcurrency(1).orderedByKind(false).withFailFast(true);
     }
 
     /**
@@ -310,6 +336,9 @@ public class KubeClient {
      * @return list of pods
      */
     public List<Pod> listPods(String namespaceName) {
+        if (isPodCacheEnabled()) {
+            return podCache().list(namespaceName);
+        }
         return client.pods().inNamespace(namespaceName).list().getItems();
     }
 
@@ -321,6 +350,9 @@ public class KubeClient {
      * @return lust of pods
      */
     public List<Pod> listPods(String namespaceName, LabelSelector selector) {
+        if (isPodCacheEnabled()) {
+            return podCache().list(namespaceName, selector);
+        }
         return client.pods().inNamespace(namespaceName).withLabelSelector(selector).list().getItems();
     }
 
@@ -332,11 +364,46 @@ public class KubeClient {
      * @return List of pods
      */
     public List<Pod> listPodsByPrefixInName(String namespaceName, String podNamePrefix) {
+        if (isPodCacheEnabled()) {
+            return podCache().listByPrefix(namespaceName, podNamePrefix);
+        }
         return listPods(namespaceName)
             .stream().filter(p -> p.getMetadata().getName().startsWith(podNamePrefix))
             .collect(Collectors.toList());
     }
 
+    /**
+     * Returns whether pod queries are answered from {@link PodCache}, see {@link TestFrameEnv#POD_CACHE}
+     *
+     * @return true if the pod cache is used
+     */
+    public boolean isPodCacheEnabled() {
+        return TestFrameEnv.POD_CACHE;
+    }
+
+    /**
+     * Returns informer based cache of pods of this client, it is created on the first call
+     *
+     * @return pod cache
+     */
+    public synchronized PodCache podCache() {
+        if (podCache == null) {
+            podCache = new PodCache(client);
+        }
+        return podCache;
+    }
+
+    /**
+     * Stops the pod informer of the namespace, if the pod cache watches it, typically once the namespace is deleted
+     *
+     * @param namespaceName namespace
+     */
+    public synchronized void stopPodCache(String namespaceName) {
+        if (podCache != null) {
+            podCache.stop(namespaceName);
+        }
+    }
+
     /**
      * Return log from pod with one container
      *
@@ -360,6 +427,45 @@ public class KubeClient {
         return client.pods().inNamespace(namespaceName).withName(podName).inContainer(containerName).getLog();
     }
 
+    /**
+     * Creates follower of the pod container log, which waits for patterns in the streamed log
+     *
+     * @param namespaceName namespace of the pod
+     * @param podName       pod name
+     * @param containerName container name, {@code null} for the default container
+     * @return log follower
+     */
+    public LogFollower followLog(String namespaceName, String podName, String containerName) {
+        return new LogFollower(client, namespaceName, podName, containerName);
+    }
+
+    /**
+     * Creates native drainer of nodes, which evicts pods through the Eviction API
+     *
+     * @param nodeNames names of the nodes which should be drained
+     * @return node drainer
+     */
+    public NodeDrainer nodeDrainer(String... nodeNames) {
+        return new NodeDrainer(client).withNodes(nodeNames);
+    }
+
+    /**
+     * Opens persistent exec session (shell over the exec websocket) in the pod container.
+     * The session should be closed once it is not needed anymore.
+     *
+     * @param namespaceName namespace of the pod
+     * @param podName       pod name
+     * @param containerName container name, {@code null} for the default container
+     * @return opened exec session
+     */
+    public PodExecSession openExecSession(String namespaceName, String podName, String containerName) {
+        PodResource pod = client.pods().inNamespace(namespaceName).withName(podName);
+        ContainerResource container = containerName == null ? pod : pod.inContainer(containerName);
+        ExecWatch watch = container.redirectingInput().redirectingOutput().redirectingError().exec("sh");
+        return new PodExecSession(namespaceName + "/" + podName, watch.getInput(), watch.getOutput(),
+            watch.getError(), watch);
+    }
+
     /**
      * Returns list of deployments with prefix name
      *
@@ -0,0 +1,204 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.kubernetes.client.dsl.Loggable;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.skodjob.testframe.TestFrameConstants;
+import io.skodjob.testframe.wait.WaitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows log of the pod container and searches for patterns as the log arrives.
+ * Instead of downloading the whole log again and again, the log is streamed once and every byte is checked
+ * only once by {@link LogPatternMatcher}, so the wait finishes right after the pattern appears.
+ * The follower remembers byte offset in the stream, so the following wait (or reconnect after the stream was
+ * interrupted) continues from the place where the previous one ended.
+ */
+public class LogFollower {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogFollower.class);
+
+    private final KubernetesClient client;
+    private final String namespaceName;
+    private final String podName;
+    private final String containerName;
+    private String sinceTime;
+    private long offset;
+
+    /**
+     * Constructs the follower
+     *
+     * @param client        kubernetes client
+     * @param namespaceName namespace of the pod
+     * @param podName       pod name
+     * @param containerName container name, {@code null} for the default container
+     */
+    public LogFollower(KubernetesClient client, String namespaceName, String podName, String containerName) {
+        this.client = client;
+        this.namespaceName = namespaceName;
+        this.podName = podName;
+        this.containerName = containerName;
+    }
+
+    /**
+     * Follows only log newer than the time, offset is reset as it is relative to the start of the stream
+     *
+     * @param sinceTime RFC3339 timestamp
+     * @return this follower
+     */
+    public LogFollower sinceTime(String sinceTime) {
+        this.sinceTime = sinceTime;
+        this.offset = 0;
+        return this;
+    }
+
+    /**
+     * Skips the beginning of the stream which was already processed
+     *
+     * @param offset byte offset in the stream
+     * @return this follower
+     */
+    public LogFollower fromOffset(long offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Returns byte offset in the stream where the next search starts
+     *
+     * @return byte offset
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Waits until any of the patterns appears in the log.
+     * When the stream ends while the pod is still running, the follower reconnects and skips already checked
+     * bytes. When the pod is finished, no more log can appear and the wait fails immediately.
+     *
+     * @param timeoutMs timeout in ms
+     * @param patterns  patterns to search for
+     * @return first found pattern
+     * @throws WaitException when no pattern is found within the timeout or the pod is finished
+     */
+    public synchronized LogMatch waitFor(long timeoutMs, String... patterns) {
+        LogPatternMatcher matcher = new LogPatternMatcher(patterns);
+        String description = namespaceName + "/" + podName + (containerName == null ? "" : "/" + containerName);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        LOGGER.debug("Following log of {} from offset {} for {}", description, offset, Arrays.toString(patterns));
+
+        while (true) {
+            MatchingStream sink = new MatchingStream(matcher, offset);
+            try (LogWatch watch = loggable().watchLog(sink)) {
+                CompletableFuture.anyOf(sink.match, watch.onClose().toCompletableFuture())
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // handled below together with the time spent by reconnecting
+                LOGGER.trace("Log of {} did not contain any pattern within timeout", description);
+            } catch (KubernetesClientException | ExecutionException e) {
+                LOGGER.debug("Log stream of {} failed: {}", description, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KubeClusterException(e);
+            }
+            offset = Math.max(offset, sink.position());
+
+            if (sink.match.isDone()) {
+                LogMatch match = sink.match.join();
+                LOGGER.debug("Found '{}' in log of {} at offset {}", match.pattern(), description, match.offset());
+                return match;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new WaitException("Timeout after " + timeoutMs + " ms waiting for " + Arrays.toString(patterns)
+                    + " in log of " + description);
+            }
+            if (isFinished()) {
+                throw new WaitException("Log of " + description + " ended without any of "
+                    + Arrays.toString(patterns));
+            }
+            try {
+                Thread.sleep(Math.min(TestFrameConstants.GLOBAL_POLL_INTERVAL_1_SEC,
+                    Math.max(0, deadline - System.currentTimeMillis())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KubeClusterException(e);
+            }
+        }
+    }
+
+    private Loggable loggable() {
+        PodResource pod = client.pods().inNamespace(namespaceName).withName(podName);
+        ContainerResource container = containerName == null ? pod : pod.inContainer(containerName);
+        return sinceTime == null ? container : container.sinceTime(sinceTime);
+    }
+
+    private boolean isFinished() {
+        Pod pod;
+        try {
+            pod = client.pods().inNamespace(namespaceName).withName(podName).get();
+        } catch (KubernetesClientException e) {
+            // unknown state, the stream is simply opened again
+            LOGGER.debug("Cannot get pod {}/{}: {}", namespaceName, podName, e.getMessage());
+            return false;
+        }
+        return pod == null || pod.getStatus() != null
+            && ("Succeeded".equals(pod.getStatus().getPhase()) || "Failed".equals(pod.getStatus().getPhase()));
+    }
+
+    /**
+     * Sink of the log stream which feeds the matcher and stops counting once the pattern is found
+     */
+    private static final class MatchingStream extends OutputStream {
+        private final LogPatternMatcher matcher;
+        private final long skip;
+        private final CompletableFuture<LogMatch> match = new CompletableFuture<>();
+        private long position;
+
+        private MatchingStream(LogPatternMatcher matcher, long skip) {
+            this.matcher = matcher;
+            this.skip = skip;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int off, int len) {
+            if (match.isDone()) {
+                return;
+            }
+            int skipped = (int) Math.min(len, Math.max(0, skip - position));
+            position += skipped;
+            int consumed = matcher.feed(bytes, off + skipped, len - skipped);
+            if (consumed < 0) {
+                position += len - skipped;
+            } else {
+                position += consumed;
+                match.complete(new LogMatch(matcher.pattern(matcher.lastMatch()), position));
+            }
+        }
+
+        private synchronized long position() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+/**
+ * Pattern found in the log by {@link LogFollower}.
+ *
+ * @param pattern matched pattern
+ * @param offset  byte offset in the log stream right after the match, following search can resume from it
+ */
+public record LogMatch(String pattern, long offset) {
+}
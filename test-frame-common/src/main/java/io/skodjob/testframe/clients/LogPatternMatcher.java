@@ -0,0 +1,155 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Multi-pattern matcher (Aho-Corasick automaton) fed by raw log bytes.
+ * All patterns are searched in a single pass and the state is kept between calls,
+ * so the log can be fed in arbitrary chunks as it arrives and a pattern split across chunks is still found.
+ * The instance is not thread safe.
+ */
+public class LogPatternMatcher {
+
+    private static final int ALPHABET = 256;
+
+    private final List<String> patterns;
+    private final int[][] transitions;
+    // index of the pattern which ends in the state, -1 if none
+    private final int[] matches;
+    private int state;
+
+    /**
+     * Builds the automaton for the patterns
+     *
+     * @param patterns patterns to search for, matched as UTF-8 bytes
+     */
+    public LogPatternMatcher(String... patterns) {
+        if (patterns.length == 0) {
+            throw new IllegalArgumentException("At least one pattern has to be specified");
+        }
+        this.patterns = List.of(patterns);
+
+        List<int[]> next = new ArrayList<>();
+        List<Integer> out = new ArrayList<>();
+        newState(next, out);
+        for (int i = 0; i < patterns.length; i++) {
+            byte[] bytes = patterns[i].getBytes(StandardCharsets.UTF_8);
+            if (bytes.length == 0) {
+                throw new IllegalArgumentException("Pattern cannot be empty");
+            }
+            int s = 0;
+            for (byte b : bytes) {
+                int c = b & 0xff;
+                if (next.get(s)[c] < 0) {
+                    next.get(s)[c] = newState(next, out);
+                }
+                s = next.get(s)[c];
+            }
+            if (out.get(s) < 0) {
+                out.set(s, i);
+            }
+        }
+
+        // breadth-first pass turns the trie into complete DFA using failure links
+        int[] fail = new int[next.size()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int t = next.get(0)[c];
+            if (t < 0) {
+                next.get(0)[c] = 0;
+            } else {
+                fail[t] = 0;
+                queue.add(t);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            if (out.get(s) < 0) {
+                out.set(s, out.get(fail[s]));
+            }
+            for (int c = 0; c < ALPHABET; c++) {
+                int t = next.get(s)[c];
+                if (t < 0) {
+                    next.get(s)[c] = next.get(fail[s])[c];
+                } else {
+                    fail[t] = next.get(fail[s])[c];
+                    queue.add(t);
+                }
+            }
+        }
+
+        this.transitions = next.toArray(new int[0][]);
+        this.matches = out.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Feeds one byte into the automaton
+     *
+     * @param b next byte of the log
+     * @return index of the pattern which ends with this byte, -1 when there is no match
+     */
+    public int feed(byte b) {
+        state = transitions[state][b & 0xff];
+        return matches[state];
+    }
+
+    /**
+     * Feeds bytes into the automaton until the first match
+     *
+     * @param bytes  buffer
+     * @param offset offset of the first byte in the buffer
+     * @param length number of bytes to feed
+     * @return number of bytes consumed including the last byte of the match, -1 when there is no match
+     */
+    public int feed(byte[] bytes, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (feed(bytes[offset + i]) >= 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns index of the pattern matched by the last fed byte
+     *
+     * @return index of the pattern, -1 when there is no match
+     */
+    public int lastMatch() {
+        return matches[state];
+    }
+
+    /**
+     * Returns the pattern on the index
+     *
+     * @param index index of the pattern
+     * @return pattern
+     */
+    public String pattern(int index) {
+        return patterns.get(index);
+    }
+
+    /**
+     * Forgets already fed bytes
+     */
+    public void reset() {
+        state = 0;
+    }
+
+    private static int newState(List<int[]> next, List<Integer> out) {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        next.add(row);
+        out.add(-1);
+        return next.size() - 1;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of parsed manifests.
+ * Parsed resources are stored by hash of the manifest content and every read returns deep copies of them,
+ * so callers can modify the returned resources. Files are additionally remembered by path, modification time
+ * and size, so unchanged files are not even read again. Classpath resources are remembered by name,
+ * as they do not change during the run.
+ */
+public class ManifestCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManifestCache.class);
+
+    private final int maxEntries;
+    private final Map<String, List<HasMetadata>> parsed;
+    private final Map<Path, FileStamp> files = new ConcurrentHashMap<>();
+    private final Map<String, String> classpathResources = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs the cache
+     *
+     * @param maxEntries max number of cached manifests, the least recently used are evicted, 0 disables the cache
+     */
+    public ManifestCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.parsed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<HasMetadata>> eldest) {
+                return size() > ManifestCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Reads resources from the file
+     *
+     * @param client client used for parsing and copying of the resources
+     * @param file   manifest file
+     * @return copies of the resources
+     * @throws IOException If an I/O error occurs reading from the file.
+     */
+    public List<HasMetadata> read(KubernetesClient client, Path file) throws IOException {
+        if (maxEntries <= 0) {
+            return parse(client, Files.readAllBytes(file));
+        }
+        Path path = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        FileStamp stamp = files.get(path);
+        if (stamp != null && stamp.modified == modified && stamp.size == attributes.size()) {
+            List<HasMetadata> cached = lookup(client, stamp.hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] content = Files.readAllBytes(path);
+        String hash = hash(content);
+        files.put(path, new FileStamp(modified, content.length, hash));
+        return read(client, content, hash);
+    }
+
+    /**
+     * Reads resources from the stream, the stream is closed
+     *
+     * @param client client used for parsing and copying of the resources
+     * @param is     stream with the manifest
+     * @return copies of the resources
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<HasMetadata> read(KubernetesClient client, InputStream is) throws IOException {
+        byte[] content;
+        try (is) {
+            content = is.readAllBytes();
+        }
+        if (maxEntries <= 0) {
+            return parse(client, content);
+        }
+        return read(client, content, hash(content));
+    }
+
+    /**
+     * Reads resources from the classpath resource
+     *
+     * @param client   client used for parsing and copying of the resources
+     * @param resource name of the classpath resource
+     * @return copies of the resources
+     * @throws IOException If the resource does not exist or an I/O error occurs.
+     */
+    public List<HasMetadata> readClasspathResource(KubernetesClient client, String resource) throws IOException {
+        String hash = classpathResources.get(resource);
+        if (hash != null) {
+            List<HasMetadata> cached = lookup(client, hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] content;
+        try (InputStream is = openClasspathResource(resource)) {
+            content = is.readAllBytes();
+        }
+        if (maxEntries <= 0) {
+            return parse(client, content);
+        }
+        hash = hash(content);
+        classpathResources.put(resource, hash);
+        return read(client, content, hash);
+    }
+
+    /**
+     * Returns number of reads answered from the cache
+     *
+     * @return number of hits
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns number of reads which had to parse the manifest
+     *
+     * @return number of misses
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Forgets all cached manifests
+     */
+    public void clear() {
+        synchronized (parsed) {
+            parsed.clear();
+        }
+        files.clear();
+        classpathResources.clear();
+    }
+
+    private List<HasMetadata> read(KubernetesClient client, byte[] content, String hash) {
+        List<HasMetadata> cached = lookup(client, hash);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+        List<HasMetadata> resources = parse(client, content);
+        synchronized (parsed) {
+            parsed.put(hash, copy(client, resources));
+        }
+        return resources;
+    }
+
+    private List<HasMetadata> lookup(KubernetesClient client, String hash) {
+        List<HasMetadata> cached;
+        synchronized (parsed) {
+            cached = parsed.get(hash);
+        }
+        if (cached == null) {
+            return null;
+        }
+        hits.incrementAndGet();
+        LOGGER.trace("Manifest {} found in cache", hash);
+        return copy(client, cached);
+    }
+
+    private static InputStream openClasspathResource(String resource) throws IOException {
+        InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource);
+        if (is == null) {
+            is = ManifestCache.class.getClassLoader().getResourceAsStream(resource);
+        }
+        if (is == null) {
+            throw new IOException("Classpath resource " + resource + " not found");
+        }
+        return is;
+    }
+
+    private static List<HasMetadata> parse(KubernetesClient client, byte[] content) {
+        return client.load(new ByteArrayInputStream(content)).items();
+    }
+
+    private static List<HasMetadata> copy(KubernetesClient client, List<HasMetadata> resources) {
+        // converted from the object tree, which is much cheaper than parsing of YAML, lists stay mutable
+        return resources.stream()
+            .map(r -> r == null ? null : client.getKubernetesSerialization().clone(r))
+            .collect(Collectors.toList());
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Modification time, size and content hash of a file
+     */
+    private record FileStamp(long modified, long size, String hash) {
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.policy.v1.Eviction;
+import io.fabric8.kubernetes.api.model.policy.v1.EvictionBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.skodjob.testframe.TestFrameConstants;
+import io.skodjob.testframe.resources.KubeResourceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains nodes natively through the API, without {@code kubectl drain}.
+ * Nodes are cordoned and their pods are evicted through the policy/v1 Eviction API concurrently.
+ * Evictions refused because of PodDisruptionBudget are retried until the timeout, the same way as
+ * {@code kubectl drain} does. Several nodes can be drained in parallel, the number of nodes which are drained
+ * (and so unavailable) at the same time is limited by the node budget.
+ * <p>
+ * Same as {@code kubectl drain}, the drain fails when the node runs pods which are not managed by any controller
+ * (they would not be recreated), unless {@link #force(boolean)} is set, or pods using emptyDir volumes
+ * (their data would be lost), unless {@link #deleteEmptyDirData(boolean)} is set.
+ */
+public class NodeDrainer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodeDrainer.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final String MIRROR_POD_ANNOTATION = "kubernetes.io/config.mirror";
+
+    private final KubernetesClient client;
+    private final List<String> nodes = new ArrayList<>();
+    private int maxParallelNodes = 1;
+    private int maxConcurrentEvictions = 10;
+    private boolean ignoreDaemonSets;
+    private boolean disableEviction;
+    private boolean force;
+    private boolean deleteEmptyDirData;
+    private Duration timeout = Duration.ofMillis(TestFrameConstants.GLOBAL_TIMEOUT);
+    private Duration retryInterval = Duration.ofSeconds(5);
+    private Consumer<DrainProgress> progressListener = progress -> LOGGER.debug("Drain of node {}: pod {}/{} {} {}",
+        progress.node(), progress.namespace(), progress.pod(), progress.state(), progress.message());
+
+    /**
+     * Constructs the drainer
+     *
+     * @param client kubernetes client
+     */
+    public NodeDrainer(KubernetesClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Adds nodes which should be drained
+     *
+     * @param nodeNames names of the nodes
+     * @return this drainer
+     */
+    public NodeDrainer withNodes(String... nodeNames) {
+        return withNodes(Arrays.asList(nodeNames));
+    }
+
+    /**
+     * Adds nodes which should be drained
+     *
+     * @param nodeNames names of the nodes
+     * @return this drainer
+     */
+    public NodeDrainer withNodes(List<String> nodeNames) {
+        this.nodes.addAll(nodeNames);
+        return this;
+    }
+
+    /**
+     * Sets how many nodes can be drained at the same time (disruption budget of the cluster)
+     *
+     * @param maxParallelNodes max number of nodes drained in parallel, default 1
+     * @return this drainer
+     */
+    public NodeDrainer withMaxParallelNodes(int maxParallelNodes) {
+        if (maxParallelNodes < 1) {
+            throw new IllegalArgumentException("Max parallel nodes has to be positive");
+        }
+        this.maxParallelNodes = maxParallelNodes;
+        return this;
+    }
+
+    /**
+     * Sets how many evictions can be in progress on one node at the same time
+     *
+     * @param maxConcurrentEvictions max number of concurrent evictions per node, default 10
+     * @return this drainer
+     */
+    public NodeDrainer withMaxConcurrentEvictions(int maxConcurrentEvictions) {
+        if (maxConcurrentEvictions < 1) {
+            throw new IllegalArgumentException("Max concurrent evictions has to be positive");
+        }
+        this.maxConcurrentEvictions = maxConcurrentEvictions;
+        return this;
+    }
+
+    /**
+     * Leaves DaemonSet-managed pods on the node, otherwise drain fails when there are such pods
+     *
+     * @param ignoreDaemonSets ignore DaemonSet-managed pods
+     * @return this drainer
+     */
+    public NodeDrainer ignoreDaemonSets(boolean ignoreDaemonSets) {
+        this.ignoreDaemonSets = ignoreDaemonSets;
+        return this;
+    }
+
+    /**
+     * Deletes pods instead of eviction.
+     * This will bypass checking PodDisruptionBudgets, use it with caution.
+     *
+     * @param disableEviction delete pods instead of eviction
+     * @return this drainer
+     */
+    public NodeDrainer disableEviction(boolean disableEviction) {
+        this.disableEviction = disableEviction;
+        return this;
+    }
+
+    /**
+     * Evicts also pods which are not managed by any controller (ReplicationController, ReplicaSet, Job, DaemonSet
+     * or StatefulSet), otherwise drain fails when there are such pods. Same as {@code kubectl drain --force}.
+     *
+     * @param force evict pods not managed by any controller
+     * @return this drainer
+     */
+    public NodeDrainer force(boolean force) {
+        this.force = force;
+        return this;
+    }
+
+    /**
+     * Evicts also pods using emptyDir volumes, whose data is deleted with the pod, otherwise drain fails when there
+     * are such pods. Same as {@code kubectl drain --delete-emptydir-data}.
+     *
+     * @param deleteEmptyDirData evict pods using emptyDir volumes
+     * @return this drainer
+     */
+    public NodeDrainer deleteEmptyDirData(boolean deleteEmptyDirData) {
+        this.deleteEmptyDirData = deleteEmptyDirData;
+        return this;
+    }
+
+    /**
+     * Sets timeout of the drain of one node
+     *
+     * @param timeout timeout, zero means infinite
+     * @return this drainer
+     */
+    public NodeDrainer withTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets interval of retries of evictions blocked by PodDisruptionBudget and of checks of terminated pods
+     *
+     * @param retryInterval retry interval, default 5 seconds
+     * @return this drainer
+     */
+    public NodeDrainer withRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+        return this;
+    }
+
+    /**
+     * Sets listener of the progress, it is called from several threads concurrently
+     *
+     * @param progressListener listener called on every change of the pod state
+     * @return this drainer
+     */
+    public NodeDrainer withProgressListener(Consumer<DrainProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Drains the nodes and waits until all pods are evicted
+     *
+     * @throws KubeClusterException when some of the nodes cannot be drained
+     */
+    public void drain() {
+        Semaphore nodeSlots = new Semaphore(maxParallelNodes);
+        Map<String, Throwable> failures = new ConcurrentSkipListMap<>();
+
+        KubeResourceManager manager = KubeResourceManager.get();
+
+        CompletableFuture.allOf(nodes.stream().distinct().map(node -> manager.withTestContext(() -> {
+            nodeSlots.acquireUninterruptibly();
+            try {
+                drainNode(node);
+            } catch (RuntimeException e) {
+                LOGGER.error("Drain of node {} failed: {}", node, e.getMessage());
+                failures.put(node, e);
+            } finally {
+                nodeSlots.release();
+            }
+        })).map(task -> CompletableFuture.runAsync(task, EXECUTOR)).toArray(CompletableFuture[]::new)).join();
+
+        if (!failures.isEmpty()) {
+            KubeClusterException ex = new KubeClusterException(new IllegalStateException("Drain of nodes "
+                + failures.keySet() + " failed: " + failures.entrySet().stream()
+                .map(e -> e.getKey() + ": " + e.getValue().getMessage()).collect(Collectors.joining("; "))));
+            failures.values().forEach(ex::addSuppressed);
+            throw ex;
+        }
+    }
+
+    private void drainNode(String node) {
+        long deadline = timeout.isZero() ? Long.MAX_VALUE : System.currentTimeMillis() + timeout.toMillis();
+        LOGGER.info("Draining node {}", node);
+        client.nodes().withName(node).edit(n -> new NodeBuilder(n)
+            .editOrNewSpec()
+                .withUnschedulable(true)
+            .endSpec()
+            .build());
+
+        List<Pod> pods = podsToEvict(node);
+        Semaphore evictionSlots = new Semaphore(maxConcurrentEvictions);
+        Map<String, String> failed = new ConcurrentSkipListMap<>();
+
+        KubeResourceManager manager = KubeResourceManager.get();
+
+        CompletableFuture.allOf(pods.stream().map(pod -> CompletableFuture.runAsync(manager.withTestContext(() -> {
+            evictionSlots.acquireUninterruptibly();
+            try {
+                evict(node, pod, deadline);
+            } catch (RuntimeException e) {
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                report(node, pod, DrainProgress.State.FAILED, message);
+                failed.put(pod.getMetadata().getNamespace() + "/" + pod.getMetadata().getName(), message);
+            } finally {
+                evictionSlots.release();
+            }
+        }), EXECUTOR)).toArray(CompletableFuture[]::new)).join();
+
+        if (!failed.isEmpty()) {
+            throw new KubeClusterException(new IllegalStateException("Cannot evict pods " + failed));
+        }
+        LOGGER.info("Node {} was drained, {} pods evicted", node, pods.size());
+    }
+
+    private List<Pod> podsToEvict(String node) {
+        List<Pod> pods = new ArrayList<>();
+        List<String> daemonSetPods = new ArrayList<>();
+        List<String> unmanagedPods = new ArrayList<>();
+        List<String> emptyDirPods = new ArrayList<>();
+        for (Pod pod : client.pods().inAnyNamespace().withField("spec.nodeName", node).list().getItems()) {
+            String phase = pod.getStatus() == null ? null : pod.getStatus().getPhase();
+            if (pod.getMetadata().getAnnotations() != null
+                && pod.getMetadata().getAnnotations().containsKey(MIRROR_POD_ANNOTATION)) {
+                report(node, pod, DrainProgress.State.SKIPPED, "mirror pod");
+            } else if ("Succeeded".equals(phase) || "Failed".equals(phase)) {
+                report(node, pod, DrainProgress.State.SKIPPED, "pod is finished");
+            } else if (pod.getMetadata().getOwnerReferences() != null && pod.getMetadata().getOwnerReferences()
+                .stream().anyMatch(o -> "DaemonSet".equals(o.getKind()))) {
+                if (!ignoreDaemonSets) {
+                    daemonSetPods.add(pod.getMetadata().getNamespace() + "/" + pod.getMetadata().getName());
+                }
+                report(node, pod, DrainProgress.State.SKIPPED, "DaemonSet-managed pod");
+            } else {
+                String name = pod.getMetadata().getNamespace() + "/" + pod.getMetadata().getName();
+                if (!force && (pod.getMetadata().getOwnerReferences() == null || pod.getMetadata()
+                    .getOwnerReferences().stream().noneMatch(o -> Boolean.TRUE.equals(o.getController())))) {
+                    unmanagedPods.add(name);
+                }
+                if (!deleteEmptyDirData && pod.getSpec() != null && pod.getSpec().getVolumes() != null
+                    && pod.getSpec().getVolumes().stream().anyMatch(v -> v.getEmptyDir() != null)) {
+                    emptyDirPods.add(name);
+                }
+                pods.add(pod);
+            }
+        }
+        List<String> errors = new ArrayList<>();
+        if (!daemonSetPods.isEmpty()) {
+            errors.add("Cannot evict DaemonSet-managed pods (use ignoreDaemonSets): " + daemonSetPods);
+        }
+        if (!unmanagedPods.isEmpty()) {
+            errors.add("Cannot evict pods not managed by any controller (use force): " + unmanagedPods);
+        }
+        if (!emptyDirPods.isEmpty()) {
+            errors.add("Cannot evict pods with emptyDir volumes (use deleteEmptyDirData): " + emptyDirPods);
+        }
+        if (!errors.isEmpty()) {
+            throw new KubeClusterException(new IllegalStateException(String.join("; ", errors)));
+        }
+        return pods;
+    }
+
+    private void evict(String node, Pod pod, long deadline) {
+        PodResource resource = client.pods().inNamespace(pod.getMetadata().getNamespace())
+            .withName(pod.getMetadata().getName());
+
+        while (!requestEviction(resource, pod)) {
+            report(node, pod, DrainProgress.State.BLOCKED, "eviction would violate PodDisruptionBudget");
+            sleepUntil(deadline, pod, "eviction blocked by PodDisruptionBudget");
+        }
+        report(node, pod, DrainProgress.State.EVICTING, disableEviction ? "deleted" : "eviction accepted");
+
+        String uid = pod.getMetadata().getUid();
+        while (true) {
+            Pod current = resource.get();
+            // pods of StatefulSets come back with the same name, but they are new pods
+            if (current == null || uid != null && !uid.equals(current.getMetadata().getUid())) {
+                report(node, pod, DrainProgress.State.EVICTED, "pod is gone");
+                return;
+            }
+            sleepUntil(deadline, pod, "pod termination");
+        }
+    }
+
+    private boolean requestEviction(PodResource resource, Pod pod) {
+        try {
+            if (disableEviction) {
+                resource.delete();
+                return true;
+            }
+            Eviction eviction = new EvictionBuilder()
+                .withNewMetadata()
+                    .withName(pod.getMetadata().getName())
+                    .withNamespace(pod.getMetadata().getNamespace())
+                .endMetadata()
+                .build();
+            // false means 429 Too Many Requests, which is returned when the PodDisruptionBudget does not allow it
+            return resource.evict(eviction);
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                // already gone
+                return true;
+            }
+            throw e;
+        }
+    }
+
+    private void sleepUntil(long deadline, Pod pod, String waitingFor) {
+        if (System.currentTimeMillis() + retryInterval.toMillis() > deadline) {
+            throw new KubeClusterException(new IllegalStateException("Timeout waiting for " + waitingFor
+                + " of pod " + pod.getMetadata().getNamespace() + "/" + pod.getMetadata().getName()));
+        }
+        try {
+            Thread.sleep(retryInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KubeClusterException(e);
+        }
+    }
+
+    private void report(String node, Pod pod, DrainProgress.State state, String message) {
+        try {
+            progressListener.accept(new DrainProgress(node, pod.getMetadata().getNamespace(),
+                pod.getMetadata().getName(), state, message));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Drain progress listener failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.api.model.LabelSelector;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.skodjob.testframe.TestFrameConstants;
+import io.skodjob.testframe.utils.KubeUtils;
+import io.skodjob.testframe.wait.WaitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory cache of pods kept up to date by one informer per namespace.
+ * The namespace is watched since the first query on it, until {@link #stop(String)} - the informer is stopped
+ * by {@link io.skodjob.testframe.resources.KubeResourceManager} once it deletes the namespace.
+ * Pods are indexed by name (for prefix queries), by owner uid and by labels, so queries do not list the pods
+ * from the API server at all. Waits are woken up by the cache events instead of polling.
+ */
+public class PodCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PodCache.class);
+
+    private static final String OWNER_INDEX = "owner";
+    private static final String LABEL_INDEX = "label";
+
+    // waits re-check the condition at least this often, it may depend on something else than pods
+    private static final long RECHECK_INTERVAL = TestFrameConstants.GLOBAL_POLL_INTERVAL_MEDIUM;
+
+    private final KubernetesClient client;
+    private final Map<String, NamespaceCache> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the cache
+     *
+     * @param client kubernetes client
+     */
+    public PodCache(KubernetesClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Returns all pods in the namespace
+     *
+     * @param namespaceName namespace
+     * @return pods sorted by name
+     */
+    public List<Pod> list(String namespaceName) {
+        return new ArrayList<>(namespace(namespaceName).byName.values());
+    }
+
+    /**
+     * Returns pods matching the label selector
+     *
+     * @param namespaceName namespace
+     * @param selector      label selector
+     * @return pods
+     */
+    public List<Pod> list(String namespaceName, LabelSelector selector) {
+        NamespaceCache cache = namespace(namespaceName);
+        List<Pod> candidates;
+        if (selector != null && selector.getMatchLabels() != null && !selector.getMatchLabels().isEmpty()) {
+            Map.Entry<String, String> label = selector.getMatchLabels().entrySet().iterator().next();
+            candidates = cache.informer.getIndexer().byIndex(LABEL_INDEX, label.getKey() + "=" + label.getValue());
+        } else {
+            candidates = list(namespaceName);
+        }
+        return candidates.stream()
+            .filter(pod -> KubeUtils.matchesLabelSelector(selector, pod.getMetadata().getLabels()))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Returns pods which names start with the prefix
+     *
+     * @param namespaceName namespace
+     * @param prefix        prefix of the pod name
+     * @return pods sorted by name
+     */
+    public List<Pod> listByPrefix(String namespaceName, String prefix) {
+        return namespace(namespaceName).byName.tailMap(prefix).entrySet().stream()
+            .takeWhile(e -> e.getKey().startsWith(prefix))
+            .map(Map.Entry::getValue)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Returns pods owned by the resource (ReplicaSet, StatefulSet, Job, ...)
+     *
+     * @param namespaceName namespace
+     * @param ownerUid      uid of the owner
+     * @return pods
+     */
+    public List<Pod> listByOwner(String namespaceName, String ownerUid) {
+        return new ArrayList<>(namespace(namespaceName).informer.getIndexer().byIndex(OWNER_INDEX, ownerUid));
+    }
+
+    /**
+     * Waits until the condition is true, the condition is evaluated after every change of pods in the namespace
+     *
+     * @param description   information about on what we are waiting
+     * @param namespaceName namespace
+     * @param timeoutMs     timeout in ms
+     * @param ready         condition, typically query of this cache
+     * @param onTimeout     executed once timeout is reached and before the {@link WaitException} is thrown
+     */
+    public void waitUntil(String description, String namespaceName, long timeoutMs, BooleanSupplier ready,
+                          Runnable onTimeout) {
+        LOGGER.info("Waiting for {}", description);
+        NamespaceCache cache = namespace(namespaceName);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            long version = cache.version();
+            boolean result;
+            try {
+                result = ready.getAsBoolean();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Exception waiting for {}: {}", description, e.getMessage());
+                result = false;
+            }
+            if (result) {
+                return;
+            }
+            long timeLeft = deadline - System.currentTimeMillis();
+            if (timeLeft <= 0) {
+                onTimeout.run();
+                WaitException waitException = new WaitException("Timeout after " + timeoutMs
+                    + " ms waiting for " + description);
+                LOGGER.error(waitException.getMessage(), waitException);
+                throw waitException;
+            }
+            try {
+                cache.awaitChange(version, Math.min(timeLeft, RECHECK_INTERVAL));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KubeClusterException(e);
+            }
+        }
+    }
+
+    /**
+     * Stops the informer of the namespace, typically once the namespace is deleted.
+     * The namespace is watched again on the next query on it.
+     *
+     * @param namespaceName namespace
+     */
+    public void stop(String namespaceName) {
+        NamespaceCache cache = namespaces.remove(namespaceName);
+        if (cache != null) {
+            LOGGER.debug("Stopping pod informer in namespace {}", namespaceName);
+            cache.informer.stop();
+        }
+    }
+
+    /**
+     * Stops all informers of the cache
+     */
+    @Override
+    public void close() {
+        namespaces.values().forEach(cache -> cache.informer.stop());
+        namespaces.clear();
+    }
+
+    private NamespaceCache namespace(String namespaceName) {
+        NamespaceCache cache = namespaces.computeIfAbsent(namespaceName, NamespaceCache::new);
+        // the initial sync is awaited outside of computeIfAbsent, so it doesn't block queries on other namespaces
+        try {
+            cache.awaitSync();
+        } catch (KubeClusterException e) {
+            namespaces.remove(namespaceName, cache);
+            throw e;
+        }
+        return cache;
+    }
+
+    /**
+     * Informer of one namespace and index of its pods by name
+     */
+    private final class NamespaceCache implements ResourceEventHandler<Pod> {
+        private final String namespaceName;
+        private final SharedIndexInformer<Pod> informer;
+        private final ConcurrentSkipListMap<String, Pod> byName = new ConcurrentSkipListMap<>();
+        private CompletableFuture<Void> started;
+        private long version;
+
+        private NamespaceCache(String namespaceName) {
+            this.namespaceName = namespaceName;
+            informer = client.pods().inNamespace(namespaceName).runnableInformer(0);
+            informer.addIndexers(Map.of(
+                OWNER_INDEX, pod -> pod.getMetadata().getOwnerReferences() == null ? List.of()
+                    : pod.getMetadata().getOwnerReferences().stream().map(OwnerReference::getUid).toList(),
+                LABEL_INDEX, pod -> pod.getMetadata().getLabels() == null ? List.of()
+                    : pod.getMetadata().getLabels().entrySet().stream().map(e -> e.getKey() + "=" + e.getValue())
+                    .toList()));
+            informer.addEventHandler(this);
+        }
+
+        /**
+         * Starts the informer on the first call and waits until it is synced
+         */
+        private void awaitSync() {
+            CompletableFuture<Void> sync;
+            synchronized (this) {
+                if (started == null) {
+                    LOGGER.debug("Starting pod informer in namespace {}", namespaceName);
+                    started = informer.start().toCompletableFuture();
+                }
+                sync = started;
+            }
+            try {
+                sync.get(TestFrameConstants.GLOBAL_TIMEOUT_SHORT, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                informer.stop();
+                throw new KubeClusterException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                informer.stop();
+                throw new KubeClusterException(e);
+            }
+        }
+
+        @Override
+        public void onAdd(Pod pod) {
+            byName.put(pod.getMetadata().getName(), pod);
+            changed();
+        }
+
+        @Override
+        public void onUpdate(Pod oldPod, Pod newPod) {
+            byName.put(newPod.getMetadata().getName(), newPod);
+            changed();
+        }
+
+        @Override
+        public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+            byName.remove(pod.getMetadata().getName());
+            changed();
+        }
+
+        private synchronized void changed() {
+            version++;
+            notifyAll();
+        }
+
+        private synchronized long version() {
+            return version;
+        }
+
+        private synchronized void awaitChange(long seenVersion, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            long left = timeoutMs;
+            while (version == seenVersion && left > 0) {
+                wait(left);
+                left = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+}
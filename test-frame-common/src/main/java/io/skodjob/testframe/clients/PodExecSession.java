@@ -0,0 +1,222 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.skodjob.testframe.executor.ExecResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.lang.String.join;
+
+/**
+ * Long-lived shell running inside a pod container, which executes commands one by one.
+ * The session is opened once (one exec websocket or one {@code kubectl exec} process) and every command
+ * is then just written into the shell, so the per-command cost is a round trip instead of a full exec setup.
+ * Output of every command is framed by a unique marker carrying its exit code.
+ * Commands are executed sequentially, concurrent callers wait for each other.
+ */
+public class PodExecSession implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PodExecSession.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Sentinel put into the queues once the stream is closed
+    private static final String EOF = "\u0000EOF";
+
+    private final String description;
+    private final OutputStream stdin;
+    private final AutoCloseable resource;
+    private final String marker = "__TF_" + UUID.randomUUID().toString().replace("-", "") + "__";
+    private final BlockingQueue<String> stdOutLines = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> stdErrLines = new LinkedBlockingQueue<>();
+    private volatile boolean open = true;
+
+    /**
+     * Constructs the session on top of streams of a running shell
+     *
+     * @param description description of the session used in logs and errors (e.g. pod name)
+     * @param stdin       stdin of the shell
+     * @param stdout      stdout of the shell
+     * @param stderr      stderr of the shell
+     * @param resource    resource closed together with the session (exec watch, process, ...)
+     */
+    public PodExecSession(String description, OutputStream stdin, InputStream stdout, InputStream stderr,
+                          AutoCloseable resource) {
+        this.description = description;
+        this.stdin = stdin;
+        this.resource = resource;
+        pump(stdout, stdOutLines);
+        pump(stderr, stdErrLines);
+    }
+
+    /**
+     * Executes the command in the session and throws exception in case of failure
+     *
+     * @param command command with arguments
+     * @return execution result
+     */
+    public ExecResult exec(String... command) {
+        return exec(true, 0, command);
+    }
+
+    /**
+     * Executes the command in the session
+     *
+     * @param throwError throw {@link KubeClusterException} when the command returns non-zero code
+     * @param command    command with arguments
+     * @return execution result
+     */
+    public ExecResult exec(boolean throwError, String... command) {
+        return exec(throwError, 0, command);
+    }
+
+    /**
+     * Executes the command in the session.
+     * When the command does not finish within the timeout, the session is closed,
+     * because the state of the shell is unknown.
+     *
+     * @param throwError throw {@link KubeClusterException} when the command returns non-zero code
+     * @param timeoutMs  timeout in ms, zero means no timeout
+     * @param command    command with arguments
+     * @return execution result
+     */
+    public synchronized ExecResult exec(boolean throwError, long timeoutMs, String... command) {
+        if (!open) {
+            throw new KubeClusterException(new IllegalStateException("Exec session " + description + " is closed"));
+        }
+        LOGGER.debug("Command (in session {}): {}", description, join(" ", command));
+
+        // stdin of the command is detached, so it cannot consume the following commands
+        String line = Arrays.stream(command).map(PodExecSession::quote).collect(Collectors.joining(" "))
+            + " < /dev/null; printf '%s%d\\n' '" + marker + "' \"$?\"; printf '%s\\n' '" + marker + "' >&2\n";
+        try {
+            stdin.write(line.getBytes(StandardCharsets.UTF_8));
+            stdin.flush();
+
+            long deadline = timeoutMs > 0 ? System.currentTimeMillis() + timeoutMs : Long.MAX_VALUE;
+            StringBuilder out = new StringBuilder();
+            String exitCode = readFrame(stdOutLines, out, deadline);
+            StringBuilder err = new StringBuilder();
+            readFrame(stdErrLines, err, deadline);
+
+            int ret = Integer.parseInt(exitCode.trim());
+            ExecResult result = new ExecResult(ret, out.toString(), err.toString());
+            if (throwError && ret != 0) {
+                throw new KubeClusterException(result, "`" + join(" ", command) + "` in session " + description
+                    + " got status code " + ret + " and stderr:\n------\n" + result.err()
+                    + "\n------\nand stdout:\n------\n" + result.out() + "\n------");
+            }
+            return result;
+        } catch (IOException e) {
+            close();
+            throw new KubeClusterException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new KubeClusterException(e);
+        }
+    }
+
+    /**
+     * Returns whether the session can still execute commands
+     *
+     * @return true if the session is open
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Terminates the shell and closes the underlying resource
+     */
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            stdin.write("exit\n".getBytes(StandardCharsets.UTF_8));
+            stdin.flush();
+            stdin.close();
+        } catch (IOException e) {
+            LOGGER.debug("Cannot terminate shell of session {}: {}", description, e.getMessage());
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            LOGGER.warn("Cannot close exec session {}: {}", description, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads lines of one command output until the marker
+     *
+     * @param lines    queue with lines of the stream
+     * @param output   output of the command
+     * @param deadline deadline in ms
+     * @return rest of the marker line (exit code on stdout)
+     * @throws InterruptedException InterruptedException
+     */
+    private String readFrame(BlockingQueue<String> lines, StringBuilder output, long deadline)
+        throws InterruptedException {
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+            String line = deadline == Long.MAX_VALUE ? lines.take() : lines.poll(remaining, TimeUnit.MILLISECONDS);
+            if (line == null) {
+                close();
+                throw new KubeClusterException(new IllegalStateException(
+                    "Command in exec session " + description + " timed out, session was closed"));
+            }
+            if (EOF.equals(line)) {
+                close();
+                throw new KubeClusterException(new IllegalStateException(
+                    "Exec session " + description + " was terminated"));
+            }
+            int idx = line.indexOf(marker);
+            if (idx >= 0) {
+                // output without trailing new line is followed by the marker on the same line
+                output.append(line, 0, idx);
+                return line.substring(idx + marker.length());
+            }
+            output.append(line).append('\n');
+        }
+    }
+
+    private void pump(InputStream stream, BlockingQueue<String> lines) {
+        EXECUTOR.execute(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Stream of exec session {} failed: {}", description, e.getMessage());
+            } finally {
+                lines.add(EOF);
+            }
+        });
+    }
+
+    private static String quote(String arg) {
+        return "'" + arg.replace("'", "'\\''") + "'";
+    }
+}
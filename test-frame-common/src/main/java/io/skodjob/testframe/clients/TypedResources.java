@@ -0,0 +1,362 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.fabric8.kubernetes.api.model.APIResource;
+import io.fabric8.kubernetes.api.model.APIResourceList;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.http.HttpRequest;
+import io.fabric8.kubernetes.client.http.HttpResponse;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads resources of any API version straight into the requested class.
+ * The raw response of the API server is deserialized directly into the class, without the intermediate
+ * {@link io.fabric8.kubernetes.api.model.GenericKubernetesResource} and JSON tree. This is useful for reading
+ * a custom resource in different version than the typed class is annotated with. Discovered plural names
+ * of the kinds and Jackson types of the classes are cached. Kinds not served by the API server are not cached,
+ * they are discovered again on the next request.
+ */
+public class TypedResources {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TypedResources.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // discovered resources by master url, api version and kind
+    private static final Map<String, ResourceInfo> RESOURCES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, TypeReference<ItemList<?>>> LIST_TYPES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, TypeReference<Event<?>>> EVENT_TYPES = new ConcurrentHashMap<>();
+
+    private final KubernetesClient client;
+
+    /**
+     * Constructs the reader
+     *
+     * @param client kubernetes client
+     */
+    public TypedResources(KubernetesClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Gets the resource
+     *
+     * @param namespaceName namespace, {@code null} for cluster-scoped resources
+     * @param name          name of the resource
+     * @param apiVersion    API version, e.g. {@code kafka.strimzi.io/v1beta2}
+     * @param kind          kind of the resource
+     * @param type          class to which the resource is deserialized
+     * @param <T>           type of the resource
+     * @return resource or {@code null} when it does not exist
+     */
+    public <T extends HasMetadata> T get(String namespaceName, String name, String apiVersion, String kind,
+                                         Class<T> type) {
+        byte[] body = read(path(namespaceName, apiVersion, kind) + "/" + encode(name), true);
+        return body == null ? null : serialization().unmarshal(new ByteArrayInputStream(body), type);
+    }
+
+    /**
+     * Lists the resources
+     *
+     * @param namespaceName namespace, {@code null} for all namespaces or cluster-scoped resources
+     * @param apiVersion    API version, e.g. {@code kafka.strimzi.io/v1beta2}
+     * @param kind          kind of the resources
+     * @param type          class to which the resources are deserialized
+     * @param <T>           type of the resources
+     * @return resources
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends HasMetadata> List<T> list(String namespaceName, String apiVersion, String kind,
+                                                Class<T> type) {
+        byte[] body = read(path(namespaceName, apiVersion, kind), false);
+        ItemList<T> list = (ItemList<T>) serialization().unmarshal(new ByteArrayInputStream(body), listType(type));
+        return list.items() == null ? List.of() : list.items();
+    }
+
+    /**
+     * Watches the resources, every event is deserialized directly into the class.
+     * The watch ends when it is closed or when the API server ends it, it is not re-established.
+     *
+     * @param namespaceName namespace, {@code null} for all namespaces or cluster-scoped resources
+     * @param apiVersion    API version, e.g. {@code kafka.strimzi.io/v1beta2}
+     * @param kind          kind of the resources
+     * @param type          class to which the resources are deserialized
+     * @param handler       receives type of the event (ADDED, MODIFIED, DELETED) and the resource
+     * @param <T>           type of the resources
+     * @return handle closing the watch
+     */
+    public <T extends HasMetadata> TypedWatch watch(String namespaceName, String apiVersion, String kind,
+                                                    Class<T> type, BiConsumer<String, T> handler) {
+        return watch(namespaceName, apiVersion, kind, type, null, handler);
+    }
+
+    /**
+     * Watches the resources from the resourceVersion, every event is deserialized directly into the class.
+     * The watch ends when it is closed or when the API server ends it, it is not re-established. It can be
+     * continued by a new watch from {@link TypedWatch#getResourceVersion()} of the ended one, unless the API server
+     * reports the resourceVersion as too old.
+     *
+     * @param namespaceName   namespace, {@code null} for all namespaces or cluster-scoped resources
+     * @param apiVersion      API version, e.g. {@code kafka.strimzi.io/v1beta2}
+     * @param kind            kind of the resources
+     * @param type            class to which the resources are deserialized
+     * @param resourceVersion resourceVersion to continue from, {@code null} for all current resources
+     * @param handler         receives type of the event (ADDED, MODIFIED, DELETED) and the resource
+     * @param <T>             type of the resources
+     * @return handle closing the watch
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends HasMetadata> TypedWatch watch(String namespaceName, String apiVersion, String kind,
+                                                    Class<T> type, String resourceVersion,
+                                                    BiConsumer<String, T> handler) {
+        String query = resourceVersion == null ? "?watch=true"
+            : "?watch=true&resourceVersion=" + encode(resourceVersion);
+        InputStream is = stream(path(namespaceName, apiVersion, kind) + query);
+        TypedWatch watch = new TypedWatch(is, resourceVersion);
+        TypeReference<Event<?>> eventType = eventType(type);
+        CompletableFuture.runAsync(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    Event<T> event = (Event<T>) serialization().unmarshal(
+                        new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8)), eventType);
+                    if (event.object() == null || "ERROR".equals(event.type())) {
+                        continue;
+                    }
+                    if (event.object().getMetadata() != null
+                        && event.object().getMetadata().getResourceVersion() != null) {
+                        watch.resourceVersion = event.object().getMetadata().getResourceVersion();
+                    }
+                    if (!"BOOKMARK".equals(event.type())) {
+                        handler.accept(event.type(), event.object());
+                    }
+                }
+            } catch (IOException | KubernetesClientException e) {
+                LOGGER.debug("Watch of {} {} ended: {}", apiVersion, kind, e.getMessage());
+            }
+        }, EXECUTOR);
+        return watch;
+    }
+
+    private KubernetesSerialization serialization() {
+        return client.getKubernetesSerialization();
+    }
+
+    /**
+     * Sends GET request and returns the whole response body
+     *
+     * @param path         path of the request
+     * @param allowMissing return {@code null} for 404
+     * @return response body
+     */
+    private byte[] read(String path, boolean allowMissing) {
+        HttpResponse<byte[]> response = send(path, byte[].class);
+        if (response.isSuccessful()) {
+            return response.body();
+        }
+        if (allowMissing && response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+            return null;
+        }
+        throw failure(path, response.code(), response.body() == null ? ""
+            : new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends GET request and returns stream of the response body
+     *
+     * @param path path of the request
+     * @return response body
+     */
+    private InputStream stream(String path) {
+        HttpResponse<InputStream> response = send(path, InputStream.class);
+        if (response.isSuccessful()) {
+            return response.body();
+        }
+        try (InputStream body = response.body()) {
+            throw failure(path, response.code(), body == null ? ""
+                : new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new KubeClusterException(e);
+        }
+    }
+
+    private <B> HttpResponse<B> send(String path, Class<B> bodyType) {
+        HttpRequest request = client.getHttpClient().newHttpRequestBuilder()
+            .uri(client.getMasterUrl().toString().replaceAll("/$", "") + path)
+            .build();
+        try {
+            return client.getHttpClient().sendAsync(request, bodyType).get();
+        } catch (ExecutionException e) {
+            throw new KubeClusterException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KubeClusterException(e);
+        }
+    }
+
+    private static KubeClusterException failure(String path, int code, String message) {
+        return new KubeClusterException(new KubernetesClientException("GET " + path + " failed with "
+            + code + ": " + message, code, null));
+    }
+
+    private String path(String namespaceName, String apiVersion, String kind) {
+        // only discovered resources are cached, the guess is used until the resource is served
+        ResourceInfo info = RESOURCES.computeIfAbsent(client.getMasterUrl() + "|" + apiVersion + "|" + kind,
+            k -> discover(apiVersion, kind));
+        if (info == null) {
+            info = guess(kind);
+        }
+        String prefix = apiVersion.contains("/") ? "/apis/" + apiVersion : "/api/" + apiVersion;
+        if (info.namespaced() && namespaceName != null) {
+            prefix += "/namespaces/" + encode(namespaceName);
+        }
+        return prefix + "/" + info.plural();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private ResourceInfo discover(String apiVersion, String kind) {
+        try {
+            APIResourceList resources = client.getApiResources(apiVersion);
+            if (resources != null && resources.getResources() != null) {
+                for (APIResource resource : resources.getResources()) {
+                    if (kind.equals(resource.getKind()) && !resource.getName().contains("/")) {
+                        return new ResourceInfo(resource.getName(), Boolean.TRUE.equals(resource.getNamespaced()));
+                    }
+                }
+            }
+        } catch (KubernetesClientException e) {
+            LOGGER.debug("Discovery of {} failed: {}", apiVersion, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Guesses the usual plural of the kind, which is not served (yet), and namespaced scope
+     */
+    private static ResourceInfo guess(String kind) {
+        String plural = kind.toLowerCase(Locale.ROOT);
+        if (plural.endsWith("s")) {
+            plural += "es";
+        } else if (plural.endsWith("y")) {
+            plural = plural.substring(0, plural.length() - 1) + "ies";
+        } else {
+            plural += "s";
+        }
+        return new ResourceInfo(plural, true);
+    }
+
+    private TypeReference<ItemList<?>> listType(Class<?> type) {
+        return LIST_TYPES.computeIfAbsent(type, t -> typeReference(serialization()
+            .constructParametricType(ItemList.class, t)));
+    }
+
+    private TypeReference<Event<?>> eventType(Class<?> type) {
+        return EVENT_TYPES.computeIfAbsent(type, t -> typeReference(serialization()
+            .constructParametricType(Event.class, t)));
+    }
+
+    private static <R> TypeReference<R> typeReference(Type type) {
+        return new TypeReference<>() {
+            @Override
+            public Type getType() {
+                return type;
+            }
+        };
+    }
+
+    /**
+     * Handle of the watch, which tracks resourceVersion of the last received event
+     */
+    public static final class TypedWatch implements AutoCloseable {
+        private final InputStream stream;
+        private volatile String resourceVersion;
+
+        private TypedWatch(InputStream stream, String resourceVersion) {
+            this.stream = stream;
+            this.resourceVersion = resourceVersion;
+        }
+
+        /**
+         * Returns resourceVersion of the last received event, from which a new watch can continue
+         *
+         * @return resourceVersion, {@code null} when no event was received and the watch started from current state
+         */
+        public String getResourceVersion() {
+            return resourceVersion;
+        }
+
+        /**
+         * Closes the watch
+         *
+         * @throws IOException If an I/O error occurs closing the stream.
+         */
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+    }
+
+    /**
+     * Plural name of the kind and its scope
+     *
+     * @param plural     plural name used in the URL
+     * @param namespaced true for namespaced resources
+     */
+    private record ResourceInfo(String plural, boolean namespaced) {
+    }
+
+    /**
+     * List response, only items are deserialized
+     *
+     * @param items items of the list
+     * @param <T>   type of the items
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ItemList<T>(List<T> items) {
+    }
+
+    /**
+     * Watch event
+     *
+     * @param type   type of the event
+     * @param object resource
+     * @param <T>    type of the resource
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record Event<T>(String type, T object) {
+    }
+}
@@ -6,6 +6,8 @@
 package io.skodjob.testframe.clients.cmdClient;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,12 +16,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import io.fabric8.kubernetes.api.model.LabelSelector;
 import io.skodjob.testframe.clients.KubeClusterException;
+import io.skodjob.testframe.clients.PodExecSession;
 import io.skodjob.testframe.enums.LogLevel;
 import io.skodjob.testframe.executor.Exec;
 import io.skodjob.testframe.executor.ExecResult;
+import io.skodjob.testframe.utils.KubeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +47,9 @@ public abstract class BaseCmdKubeClient<K extends BaseCmdKubeClient<K>> implemen
     private static final String REPLACE = "replace";
     private static final String PROCESS = "process";
     private static final String GET = "get";
+    private static final int FILE_BATCH_SIZE = 50;
+    private static final Pattern CRD_KIND =
+        Pattern.compile("(?m)^\\s*kind:\\s*[\"']?CustomResourceDefinition[\"']?\\s*$");
 
     protected String config;
     protected int timeout;
@@ -208,23 +217,128 @@ public abstract class BaseCmdKubeClient<K extends BaseCmdKubeClient<K>> implemen
     }
 
     private Map<File, ExecResult> execRecursive(String subcommand, File[] files, Comparator<File> cmp) {
-        Map<File, ExecResult> execResults = new HashMap<>(25);
+        List<File> yamlFiles = new ArrayList<>();
+        collectYamlFiles(files, cmp, yamlFiles);
+        return execFiles(subcommand, yamlFiles);
+    }
+
+    private static void collectYamlFiles(File[] files, Comparator<File> cmp, List<File> yamlFiles) {
         for (File f : files) {
             if (f.isFile()) {
                 if (f.getName().endsWith(".yaml")) {
-                    execResults.put(f, Exec.exec(null, command(subcommand, "-f",
-                        f.getAbsolutePath()), timeout, false, false));
+                    yamlFiles.add(f);
                 }
             } else if (f.isDirectory()) {
                 File[] children = f.listFiles();
                 if (children != null) {
                     Arrays.sort(children, cmp);
-                    execResults.putAll(execRecursive(subcommand, children, cmp));
+                    collectYamlFiles(children, cmp, yamlFiles);
                 }
             } else if (!f.exists()) {
                 throw new RuntimeException(new NoSuchFileException(f.getPath()));
             }
         }
+    }
+
+    /**
+     * Executes the subcommand ({@code create}, {@code apply}, {@code delete} or {@code replace})
+     * for every file in the given order. The files are passed to the CLI in batches,
+     * so a bundle of many files does not fork a process per file.
+     * The CLI resolves resource types only once per invocation, so every file containing
+     * a CustomResourceDefinition ends its batch - custom resources in the following files
+     * are then handled by another invocation, once the CRD exists.
+     * The standard output of the invocation is not split per file, every successful file of the batch
+     * gets the whole output.
+     *
+     * @param subcommand subcommand to execute
+     * @param files      yaml files
+     * @return execution result per file
+     */
+    protected Map<File, ExecResult> execFiles(String subcommand, List<File> files) {
+        List<List<File>> batches = new ArrayList<>();
+        List<File> currentBatch = new ArrayList<>();
+        for (File f : files) {
+            currentBatch.add(f);
+            if (currentBatch.size() == FILE_BATCH_SIZE || containsCrd(f)) {
+                batches.add(currentBatch);
+                currentBatch = new ArrayList<>();
+            }
+        }
+        if (!currentBatch.isEmpty()) {
+            batches.add(currentBatch);
+        }
+
+        // batches run one by one, so for example CRD is deleted only after its custom resources
+        Map<File, ExecResult> execResults = new HashMap<>(25);
+        batches.forEach(batch -> execResults.putAll(execBatch(subcommand, batch)));
+        return execResults;
+    }
+
+    /**
+     * Checks whether the file contains a CustomResourceDefinition
+     *
+     * @param file yaml file
+     * @return true when the file contains a CRD, false also when it can't be read (the CLI reports that)
+     */
+    static boolean containsCrd(File file) {
+        try {
+            return CRD_KIND.matcher(Files.readString(file.toPath())).find();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Executes the subcommand for all the files in one invocation ({@code -f a.yaml -f b.yaml ...})
+     * and maps the failures back to the particular files based on the file paths in the error output.
+     * When the invocation failed without any output, the CLI rejected it as a whole before processing
+     * the files (for example due to invalid YAML in one of them), so the files without error are executed
+     * again one by one.
+     *
+     * @param subcommand subcommand to execute
+     * @param files      yaml files
+     * @return execution result per file
+     */
+    private Map<File, ExecResult> execBatch(String subcommand, List<File> files) {
+        List<String> args = new ArrayList<>();
+        args.add(subcommand);
+        for (File f : files) {
+            args.add("-f");
+            args.add(f.getAbsolutePath());
+        }
+        ExecResult result = Exec.exec(null, command(args), timeout, false, false);
+
+        Map<File, ExecResult> execResults = new HashMap<>(files.size());
+        if (files.size() == 1) {
+            execResults.put(files.get(0), result);
+            return execResults;
+        }
+
+        String err = result.err() == null ? "" : result.err();
+        List<String> errLines = err.lines().toList();
+        boolean anyMatched = false;
+        boolean rejected = !result.exitStatus() && (result.out() == null || result.out().isBlank());
+        for (File f : files) {
+            // the path has to be whole, so /x/a.yaml doesn't match errors of /y/x/a.yaml
+            Pattern path = Pattern.compile("(^|[\\s\"])" + Pattern.quote(f.getAbsolutePath()) + "(\"|:|$)");
+            String fileErr = errLines.stream()
+                .filter(line -> path.matcher(line).find())
+                .collect(Collectors.joining(System.lineSeparator()));
+            if (fileErr.isEmpty()) {
+                execResults.put(f, rejected ? null : new ExecResult(0, result.out(), ""));
+            } else {
+                anyMatched = true;
+                execResults.put(f, new ExecResult(result.returnCode(), result.out(), fileErr));
+            }
+        }
+        if (!result.exitStatus() && !anyMatched) {
+            // failure not related to any particular file (e.g. unreachable cluster), so all of them failed
+            files.forEach(f -> execResults.put(f, result));
+        } else if (rejected) {
+            files.stream()
+                .filter(f -> execResults.get(f) == null)
+                .forEach(f -> execResults.putAll(execBatch(subcommand, List.of(f))));
+        }
         return execResults;
     }
 
@@ -507,6 +621,46 @@ public abstract class BaseCmdKubeClient<K extends BaseCmdKubeClient<K>> implemen
         return Exec.exec(null, cmd, timeout, logLevel, logToOutput, throwError);
     }
 
+    /**
+     * Executes the command concurrently in the container of all pods matching the selector.
+     * Failures are not thrown, they are reported in the particular results.
+     *
+     * @param namespace   namespace of the pods
+     * @param selector    label selector of the pods
+     * @param container   name of the container, {@code null} for the default container
+     * @param parallelism maximal number of commands running at the same time
+     * @param command     the command to execute
+     * @return results per pod name, sorted by the pod name
+     */
+    @Override
+    public Map<String, PodExecResult> execInPods(String namespace, LabelSelector selector, String container,
+                                                 int parallelism, String... command) {
+        LOGGER.info("Executing `{}` in pods matching {} in namespace {}", join(" ", command),
+            KubeUtils.labelSelectorToString(selector), namespace);
+        return KubeCmdClient.super.execInPods(namespace, selector, container, parallelism, command);
+    }
+
+    /**
+     * Opens persistent exec session backed by one long-running {@code exec -i} process with a shell.
+     *
+     * @param pod       The name of the pod.
+     * @param container The name of the container, {@code null} for the default container.
+     * @return opened exec session
+     */
+    @Override
+    public PodExecSession openExecSession(String pod, String container) {
+        List<String> cmd = container == null
+            ? command("exec", "-i", pod, "--", "sh")
+            : command("exec", "-i", pod, "-c", container, "--", "sh");
+        try {
+            Process process = new ProcessBuilder(cmd).start();
+            return new PodExecSession(pod, process.getOutputStream(), process.getInputStream(),
+                process.getErrorStream(), process::destroy);
+        } catch (IOException e) {
+            throw new KubeClusterException(e);
+        }
+    }
+
     /**
      * Executes a command.
      *
@@ -5,13 +5,23 @@
 package io.skodjob.testframe.clients.cmdClient;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
 
+import io.fabric8.kubernetes.api.model.LabelSelector;
+import io.skodjob.testframe.clients.KubeClusterException;
+import io.skodjob.testframe.clients.PodExecSession;
 import io.skodjob.testframe.enums.LogLevel;
 import io.skodjob.testframe.executor.ExecResult;
+import io.skodjob.testframe.utils.KubeUtils;
 
 /**
  * Abstraction for a Kubernetes client.
@@ -307,6 +317,64 @@ public interface KubeCmdClient<K extends KubeCmdClient<K>> {
     ExecResult execInPodContainer(boolean throwError, LogLevel logLevel, boolean logToOutput,
                                   String pod, String container, String... command);
 
+    /**
+     * Executes the command concurrently in all pods matching the selector, by {@link #execInPod} or
+     * {@link #execInPodContainer} for every pod. Failures are not thrown, they are reported in the particular results.
+     * <p>
+     * The command runs in one container of every pod - the given one, or the default container. To run it in several
+     * containers of the pods, call this method once per container.
+     *
+     * @param namespace   namespace of the pods
+     * @param selector    label selector of the pods
+     * @param container   name of the container, {@code null} for the default container
+     * @param parallelism maximal number of commands running at the same time
+     * @param command     the command to execute
+     * @return results per pod name, sorted by the pod name
+     */
+    default Map<String, PodExecResult> execInPods(String namespace, LabelSelector selector, String container,
+                                                  int parallelism, String... command) {
+        KubeCmdClient<?> client = inNamespace(namespace);
+        List<String> pods = client.listResourcesByLabel("pod", KubeUtils.labelSelectorToString(selector)).stream()
+            .filter(pod -> !pod.isBlank())
+            .toList();
+
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        Map<String, CompletableFuture<PodExecResult>> futures = new TreeMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String pod : pods) {
+                futures.put(pod, CompletableFuture.supplyAsync(() -> {
+                    permits.acquireUninterruptibly();
+                    long start = System.nanoTime();
+                    ExecResult result;
+                    try {
+                        result = container == null
+                            ? client.execInPod(false, LogLevel.DEBUG, pod, command)
+                            : client.execInPodContainer(false, LogLevel.DEBUG, false, pod, container, command);
+                    } catch (KubeClusterException e) {
+                        result = e.result != null ? e.result : new ExecResult(1, "", e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                    return new PodExecResult(pod, container, result, Duration.ofNanos(System.nanoTime() - start));
+                }, executor));
+            }
+
+            Map<String, PodExecResult> results = new TreeMap<>();
+            futures.forEach((pod, future) -> results.put(pod, future.join()));
+            return results;
+        }
+    }
+
+    /**
+     * Opens persistent exec session (long-lived shell) in the pod container.
+     * Commands executed in the session do not pay the exec setup cost each time.
+     *
+     * @param pod       The name of the pod.
+     * @param container The name of the container, {@code null} for the default container.
+     * @return opened exec session, which should be closed after use
+     */
+    PodExecSession openExecSession(String pod, String container);
+
     /**
      * Executes a command.
      *
@@ -0,0 +1,738 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients.cmdClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResource;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResourceList;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
+import io.fabric8.kubernetes.client.dsl.ExecWatch;
+import io.fabric8.kubernetes.client.dsl.NamespaceableResource;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.fabric8.kubernetes.client.dsl.base.ResourceDefinitionContext;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.skodjob.testframe.clients.KubeClient;
+import io.skodjob.testframe.clients.KubeClusterException;
+import io.skodjob.testframe.clients.NodeDrainer;
+import io.skodjob.testframe.clients.PodExecSession;
+import io.skodjob.testframe.enums.LogLevel;
+import io.skodjob.testframe.executor.Exec;
+import io.skodjob.testframe.executor.ExecResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import static java.lang.String.join;
+
+/**
+ * A {@link KubeCmdClient} which talks to the API server directly through the already opened
+ * {@link KubernetesClient} instead of forking {@code kubectl}/{@code oc} for every call.
+ * Commands which depend on client side logic of the CLI ({@code describe}, {@code process},
+ * generic {@code exec}, ...) are still executed by the wrapped CLI client.
+ * <p>
+ * {@code apply} creates the resource, or merges the manifest into the existing one by JSON merge patch, so fields
+ * set by other clients (for example by an operator) are kept, same as with {@code kubectl apply}. Unlike
+ * {@code kubectl apply}, fields removed from the manifest since the previous apply are not removed from the object.
+ */
+public class NativeKubeCmdClient extends BaseCmdKubeClient<NativeKubeCmdClient> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NativeKubeCmdClient.class);
+    private final KubeClient kubeClient;
+    private final BaseCmdKubeClient<?> cliClient;
+    private final ResourceTypeResolver resolver;
+
+    /**
+     * Constructs a new NativeKubeCmdClient instance.
+     *
+     * @param kubeClient kube client used for the API calls
+     * @param cliClient  cli client ({@link Kubectl} or {@link Oc}) used for commands without native implementation
+     */
+    public NativeKubeCmdClient(KubeClient kubeClient, BaseCmdKubeClient<?> cliClient) {
+        this(kubeClient, cliClient, new ResourceTypeResolver(kubeClient.getClient()));
+    }
+
+    private NativeKubeCmdClient(KubeClient kubeClient, BaseCmdKubeClient<?> cliClient,
+                                ResourceTypeResolver resolver) {
+        super(cliClient.config, cliClient.timeout);
+        this.namespace = cliClient.namespace;
+        this.kubeClient = kubeClient;
+        this.cliClient = cliClient;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Sets the namespace for the client.
+     *
+     * @param namespace The namespace to set.
+     * @return A new NativeKubeCmdClient instance with the specified namespace.
+     */
+    @Override
+    public NativeKubeCmdClient inNamespace(String namespace) {
+        return new NativeKubeCmdClient(kubeClient, (BaseCmdKubeClient<?>) cliClient.inNamespace(namespace),
+            resolver);
+    }
+
+    /**
+     * Sets the timeout for subsequent operations.
+     *
+     * @param timeout timeout for execution of command.
+     * @return This kube client.
+     */
+    @Override
+    public NativeKubeCmdClient withTimeout(int timeout) {
+        return new NativeKubeCmdClient(kubeClient, (BaseCmdKubeClient<?>) cliClient.withTimeout(timeout),
+            resolver);
+    }
+
+    /**
+     * Sets the timeout for subsequent operations.
+     *
+     * @param timeout timeout for execution of command.
+     * @return This kube client.
+     */
+    @Override
+    public NativeKubeCmdClient withTimeout(long timeout) {
+        return new NativeKubeCmdClient(kubeClient, (BaseCmdKubeClient<?>) cliClient.withTimeout(timeout),
+            resolver);
+    }
+
+    /**
+     * Gets the current namespace of the client.
+     *
+     * @return The current namespace.
+     */
+    @Override
+    public String getCurrentNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Gets the default OLM (Operator Lifecycle Manager) namespace of the wrapped CLI client.
+     *
+     * @return The default OLM namespace.
+     */
+    @Override
+    public String defaultOlmNamespace() {
+        return cliClient.defaultOlmNamespace();
+    }
+
+    /**
+     * Gets the command name of the wrapped CLI client.
+     *
+     * @return The command name.
+     */
+    @Override
+    public String cmd() {
+        return cliClient.cmd();
+    }
+
+    /**
+     * Deletes a resource by its name.
+     *
+     * @param resourceType The type of the resource.
+     * @param resourceName The name of the resource.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient deleteByName(String resourceType, String resourceName) {
+        call(() -> operation(resourceType).withName(resourceName).delete());
+        return this;
+    }
+
+    /**
+     * Retrieves the YAML representation of a resource.
+     *
+     * @param resource     The type of the resource.
+     * @param resourceName The name of the resource.
+     * @return The YAML representation of the resource.
+     */
+    @Override
+    public String get(String resource, String resourceName) {
+        return Serialization.asYaml(getResource(resource, resourceName));
+    }
+
+    /**
+     * Retrieves the events from the namespace in a table similar to the {@code get events} command.
+     *
+     * @return The events as a string.
+     */
+    @Override
+    public String getEvents() {
+        List<Event> events = call(() -> client().v1().events().inNamespace(ns()).list().getItems());
+        if (events.isEmpty()) {
+            return "";
+        }
+        String format = "%-10s %-30s %-50s %s%n";
+        StringBuilder sb = new StringBuilder(String.format(format, "TYPE", "REASON", "OBJECT", "MESSAGE"));
+        for (Event event : events) {
+            String object = event.getInvolvedObject().getKind().toLowerCase() + "/"
+                + event.getInvolvedObject().getName();
+            sb.append(String.format(format, event.getType(), event.getReason(), object, event.getMessage()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Executes the subcommand for every resource from the given files through the API.
+     *
+     * @param subcommand subcommand to execute
+     * @param files      yaml files
+     * @return execution result per file
+     */
+    @Override
+    protected Map<File, ExecResult> execFiles(String subcommand, List<File> files) {
+        Map<File, ExecResult> execResults = new HashMap<>(25);
+        for (File f : files) {
+            try (InputStream is = Files.newInputStream(f.toPath())) {
+                List<HasMetadata> resources = client().load(is).items();
+                applyOperation(subcommand, resources);
+                execResults.put(f, new ExecResult(0, "", ""));
+            } catch (IOException | KubernetesClientException e) {
+                execResults.put(f, new ExecResult(1, "", e.getMessage()));
+            }
+        }
+        return execResults;
+    }
+
+    /**
+     * Applies YAML content - creates the resources, or merges the manifests into the existing ones.
+     *
+     * @param yamlContent The YAML content.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient applyContent(String yamlContent) {
+        call(() -> applyOperation("apply", client().resourceList(yamlContent).items()));
+        return this;
+    }
+
+    /**
+     * Replaces YAML content.
+     *
+     * @param yamlContent The YAML content.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient replaceContent(String yamlContent) {
+        call(() -> applyOperation("replace", client().resourceList(yamlContent).items()));
+        return this;
+    }
+
+    /**
+     * Deletes YAML content. Failures are only logged.
+     *
+     * @param yamlContent The YAML content.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient deleteContent(String yamlContent) {
+        try {
+            applyOperation("delete", client().resourceList(yamlContent).items());
+        } catch (KubernetesClientException e) {
+            LOGGER.warn("Failed to delete content: {}", e.getMessage());
+        }
+        return this;
+    }
+
+    /**
+     * Creates a namespace. On OpenShift the namespace is created as project by the CLI client.
+     *
+     * @param name The name of the namespace.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient createNamespace(String name) {
+        if (cliClient instanceof Oc) {
+            cliClient.createNamespace(name);
+        } else {
+            call(() -> client().namespaces()
+                .resource(new NamespaceBuilder().withNewMetadata().withName(name).endMetadata().build())
+                .create());
+        }
+        return this;
+    }
+
+    /**
+     * Deletes a namespace. Failures are only logged.
+     *
+     * @param name The name of the namespace.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient deleteNamespace(String name) {
+        try {
+            client().namespaces().withName(name).delete();
+        } catch (KubernetesClientException e) {
+            LOGGER.warn("Failed to delete namespace {}: {}", name, e.getMessage());
+        }
+        return this;
+    }
+
+    /**
+     * Scales resources by name.
+     *
+     * @param kind     The kind of the resource.
+     * @param name     The name of the resource.
+     * @param replicas The number of replicas.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient scaleByName(String kind, String name, int replicas) {
+        call(() -> operation(kind).withName(name).scale(replicas));
+        return this;
+    }
+
+    /**
+     * Executes a command within a pod over the exec websocket.
+     *
+     * @param throwError Whether to throw errors.
+     * @param logLevel   Desired log level where the log from the command execution should be printed.
+     * @param pod        The name of the pod.
+     * @param command    The command to execute.
+     * @return The execution result.
+     */
+    @Override
+    public ExecResult execInPod(boolean throwError, LogLevel logLevel, String pod, String... command) {
+        return execInContainer(throwError, logLevel, false, pod, null, command);
+    }
+
+    /**
+     * Executes a command within a pod container over the exec websocket.
+     *
+     * @param throwError  Whether to throw errors.
+     * @param logLevel    Desired log level where the log from the command execution should be printed.
+     * @param logToOutput Determines if the output should be logged.
+     * @param pod         The name of the pod.
+     * @param container   The name of the container.
+     * @param command     The command to execute.
+     * @return The execution result.
+     */
+    @Override
+    public ExecResult execInPodContainer(boolean throwError, LogLevel logLevel, boolean logToOutput,
+                                         String pod, String container, String... command) {
+        return execInContainer(throwError, logLevel, logToOutput, pod, container, command);
+    }
+
+    /**
+     * Opens persistent exec session over the exec websocket.
+     *
+     * @param pod       The name of the pod.
+     * @param container The name of the container, {@code null} for the default container.
+     * @return opened exec session
+     */
+    @Override
+    public PodExecSession openExecSession(String pod, String container) {
+        return kubeClient.openExecSession(ns(), pod, container);
+    }
+
+    /**
+     * Lists resources of a certain type.
+     *
+     * @param resourceType The type of the resource.
+     * @return A list of resource names.
+     */
+    @Override
+    public List<String> list(String resourceType) {
+        return call(() -> operation(resourceType).list().getItems()).stream()
+            .map(r -> r.getMetadata().getName())
+            .toList();
+    }
+
+    /**
+     * Retrieves a resource as JSON.
+     *
+     * @param resourceType The type of the resource.
+     * @param resourceName The name of the resource.
+     * @return The resource as JSON.
+     */
+    @Override
+    public String getResourceAsJson(String resourceType, String resourceName) {
+        return Serialization.asJson(getResource(resourceType, resourceName));
+    }
+
+    /**
+     * Retrieves a resource as YAML.
+     *
+     * @param resourceType The type of the resource.
+     * @param resourceName The name of the resource.
+     * @return The resource as YAML.
+     */
+    @Override
+    public String getResourceAsYaml(String resourceType, String resourceName) {
+        return Serialization.asYaml(getResource(resourceType, resourceName));
+    }
+
+    /**
+     * Retrieves resources as YAML list.
+     *
+     * @param resourceType The type of the resource.
+     * @return The resources as YAML.
+     */
+    @Override
+    public String getResourcesAsYaml(String resourceType) {
+        GenericKubernetesResourceList list = call(() -> operation(resourceType).list());
+        list.setApiVersion("v1");
+        list.setKind("List");
+        return Serialization.asYaml(list);
+    }
+
+    /**
+     * Retrieves the description of a resource by the CLI client.
+     *
+     * @param resourceType The type of the resource.
+     * @param resourceName The name of the resource.
+     * @return The description of the resource.
+     */
+    @Override
+    public String describe(String resourceType, String resourceName) {
+        return cliClient.describe(resourceType, resourceName);
+    }
+
+    /**
+     * Retrieves logs of a pod/container.
+     *
+     * @param pod       The name of the pod.
+     * @param container The name of the container.
+     * @return The logs as a string.
+     */
+    @Override
+    public String logs(String pod, String container) {
+        return call(() -> logResource(pod, container).getLog());
+    }
+
+    /**
+     * Retrieves logs for previous instance of the Pod and container.
+     *
+     * @param pod       The name of the pod.
+     * @param container The name of the container.
+     * @return logs for previous instance of the Pod and container.
+     */
+    @Override
+    public String previousLogs(String pod, String container) {
+        return call(() -> logResource(pod, container).terminated().getLog());
+    }
+
+    /**
+     * Searches for patterns in logs. Logs of pods are filtered in-process,
+     * other resource types are handled by the CLI client.
+     *
+     * @param resourceType The type of the resource.
+     * @param resourceName The name of the resource.
+     * @param sinceSeconds The duration since the logs should be searched.
+     * @param grepPattern  The patterns to search for.
+     * @return The matching lines from logs.
+     */
+    @Override
+    public String searchInLog(String resourceType, String resourceName, long sinceSeconds, String... grepPattern) {
+        return searchInLog(resourceType, resourceName, null, sinceSeconds, grepPattern);
+    }
+
+    /**
+     * Searches for patterns in logs of a specific container. Logs of pods are filtered in-process,
+     * other resource types are handled by the CLI client.
+     *
+     * @param resourceType      The type of the resource.
+     * @param resourceName      The name of the resource.
+     * @param resourceContainer The name of the container.
+     * @param sinceSeconds      The duration since the logs should be searched.
+     * @param grepPattern       The patterns to search for.
+     * @return The matching lines from logs.
+     */
+    @Override
+    public String searchInLog(String resourceType, String resourceName, String resourceContainer,
+                              long sinceSeconds, String... grepPattern) {
+        if (!ResourceTypeResolver.isPod(resourceType)) {
+            return resourceContainer == null
+                ? cliClient.searchInLog(resourceType, resourceName, sinceSeconds, grepPattern)
+                : cliClient.searchInLog(resourceType, resourceName, resourceContainer, sinceSeconds, grepPattern);
+        }
+        try {
+            String log = logResource(resourceName, resourceContainer).sinceSeconds((int) sinceSeconds).getLog();
+            String found = grep(log, grepPattern);
+            if (found.isEmpty()) {
+                LOGGER.info("{} not found", Arrays.stream(grepPattern).toList());
+            }
+            return found;
+        } catch (KubernetesClientException e) {
+            LOGGER.error("Caught exception while searching {} in logs", Arrays.stream(grepPattern).toList());
+        }
+        return "";
+    }
+
+    /**
+     * Lists resources by label.
+     *
+     * @param resourceType The type of the resource.
+     * @param label        The label selector.
+     * @return A list of resource names.
+     */
+    @Override
+    public List<String> listResourcesByLabel(String resourceType, String label) {
+        return call(() -> operation(resourceType)
+            .list(new ListOptionsBuilder().withLabelSelector(label).build()).getItems()).stream()
+            .map(r -> r.getMetadata().getName())
+            .toList();
+    }
+
+    /**
+     * Processes a template file with parameters by the CLI client.
+     *
+     * @param parameters The parameters for the template.
+     * @param file       The template file.
+     * @param c          The consumer to process the output.
+     * @return The instance of the client.
+     */
+    @Override
+    public NativeKubeCmdClient process(Map<String, String> parameters, String file, Consumer<String> c) {
+        cliClient.process(parameters, file, c);
+        return this;
+    }
+
+    /**
+     * Gets the username by the CLI client.
+     *
+     * @return The username.
+     */
+    @Override
+    public String getUsername() {
+        return cliClient.getUsername();
+    }
+
+    /**
+     * Set node unschedule
+     *
+     * @param nodeName name of node
+     */
+    @Override
+    public void cordon(String nodeName) {
+        setUnschedulable(nodeName, true);
+    }
+
+    /**
+     * Set node schedule
+     *
+     * @param nodeName name of node
+     */
+    @Override
+    public void uncordon(String nodeName) {
+        setUnschedulable(nodeName, false);
+    }
+
+    /**
+     * Drain node natively by {@link NodeDrainer}
+     *
+     * @param nodeName         name of the node
+     * @param ignoreDaemonSets ignore DaemonSet-managed pods
+     * @param disableEviction  force drain to use delete, even if eviction is supported.
+     *                         This will bypass checking PodDisruptionBudgets, use it with caution.
+     * @param timeoutInSeconds the length of time to wait before giving up, zero means infinite
+     */
+    @Override
+    public void drain(String nodeName, boolean ignoreDaemonSets, boolean disableEviction, long timeoutInSeconds) {
+        new NodeDrainer(client())
+            .withNodes(nodeName)
+            .ignoreDaemonSets(ignoreDaemonSets)
+            .disableEviction(disableEviction)
+            .withTimeout(Duration.ofSeconds(timeoutInSeconds))
+            .drain();
+    }
+
+    private KubernetesClient client() {
+        return kubeClient.getClient();
+    }
+
+    /**
+     * Namespace used for namespaced resources, defaults to the namespace of the client configuration
+     *
+     * @return namespace
+     */
+    private String ns() {
+        if (namespace != null) {
+            return namespace;
+        }
+        return client().getNamespace() != null ? client().getNamespace() : "default";
+    }
+
+    private NonNamespaceOperation<GenericKubernetesResource, GenericKubernetesResourceList,
+        Resource<GenericKubernetesResource>> operation(String resourceType) {
+        ResourceDefinitionContext ctx = resolver.resolve(resourceType);
+        if (ctx.isNamespaceScoped()) {
+            return client().genericKubernetesResources(ctx).inNamespace(ns());
+        }
+        return client().genericKubernetesResources(ctx);
+    }
+
+    private GenericKubernetesResource getResource(String resourceType, String resourceName) {
+        GenericKubernetesResource resource = call(() -> operation(resourceType).withName(resourceName).get());
+        if (resource == null) {
+            String msg = "Error from server (NotFound): " + resourceType + " \"" + resourceName + "\" not found";
+            throw new KubeClusterException.NotFound(new ExecResult(1, "", msg), msg);
+        }
+        return resource;
+    }
+
+    private ContainerResource logResource(String pod, String container) {
+        PodResource podResource = client().pods().inNamespace(ns()).withName(pod);
+        return container == null ? podResource : podResource.inContainer(container);
+    }
+
+    private void applyOperation(String subcommand, List<HasMetadata> resources) {
+        for (HasMetadata resource : resources) {
+            NamespaceableResource<HasMetadata> res = client().resource(resource);
+            Resource<HasMetadata> op = resource.getMetadata().getNamespace() == null && namespace != null
+                ? res.inNamespace(namespace) : res;
+            switch (subcommand) {
+                case "create" -> op.create();
+                case "apply" -> op.createOr(existing -> existing.patch(PatchContext.of(PatchType.JSON_MERGE)));
+                case "replace" -> op.update();
+                case "delete" -> op.delete();
+                default -> throw new IllegalArgumentException("Unsupported subcommand " + subcommand);
+            }
+        }
+    }
+
+    private void setUnschedulable(String nodeName, boolean unschedulable) {
+        call(() -> client().nodes().withName(nodeName).edit(node -> new NodeBuilder(node)
+            .editOrNewSpec()
+                .withUnschedulable(unschedulable)
+            .endSpec()
+            .build()));
+    }
+
+    private ExecResult execInContainer(boolean throwError, LogLevel logLevel, boolean logToOutput,
+                                       String pod, String container, String... command) {
+        LOGGER.info("Command (in pod {}): {}", pod, join(" ", command));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int ret = 1;
+        try (ExecWatch watch = logResource(pod, container).writingOutput(out).writingError(err).exec(command)) {
+            Integer code = timeout > 0
+                ? watch.exitCode().get(timeout, TimeUnit.MILLISECONDS)
+                : watch.exitCode().get();
+            ret = code == null ? 1 : code;
+        } catch (TimeoutException e) {
+            LOGGER.warn("Command in pod {} did not finish within {} ms", pod, timeout);
+        } catch (ExecutionException | KubernetesClientException e) {
+            throw new KubeClusterException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KubeClusterException(e);
+        }
+
+        ExecResult result = new ExecResult(ret, out.toString(StandardCharsets.UTF_8),
+            err.toString(StandardCharsets.UTF_8));
+        if (logToOutput) {
+            Level level = LogLevel.logLevelToLevel(logLevel);
+            LOGGER.atLevel(level).log("RETURN code: {}", ret);
+            if (!result.out().isEmpty()) {
+                LOGGER.atLevel(level).log("======STDOUT START=======");
+                LOGGER.atLevel(level).log(Exec.cutExecutorLog(result.out()));
+                LOGGER.atLevel(level).log("======STDOUT END======");
+            }
+            if (!result.err().isEmpty()) {
+                LOGGER.atLevel(level).log("======STDERR START=======");
+                LOGGER.atLevel(level).log(Exec.cutExecutorLog(result.err()));
+                LOGGER.atLevel(level).log("======STDERR END======");
+            }
+        }
+        if (throwError && ret != 0) {
+            throw new KubeClusterException(result, "`" + join(" ", command) + "` in pod " + pod
+                + " got status code " + ret + " and stderr:\n------\n" + result.err()
+                + "\n------\nand stdout:\n------\n" + result.out() + "\n------");
+        }
+        return result;
+    }
+
+    /**
+     * Invokes the API call and translates its failure into {@link KubeClusterException} the same way
+     * as the CLI failures are translated.
+     *
+     * @param apiCall API call
+     * @param <T>     type of the result
+     * @return result of the call
+     */
+    private static <T> T call(Supplier<T> apiCall) {
+        try {
+            return apiCall.get();
+        } catch (KubernetesClientException e) {
+            ExecResult result = new ExecResult(1, "", e.getMessage());
+            throw switch (e.getCode()) {
+                case 404 -> new KubeClusterException.NotFound(result, e.getMessage());
+                case 409 -> new KubeClusterException.AlreadyExists(result, e.getMessage());
+                case 422 -> new KubeClusterException.InvalidResource(result, e.getMessage());
+                default -> new KubeClusterException(result, e.getMessage());
+            };
+        }
+    }
+
+    private static void call(Runnable apiCall) {
+        call(() -> {
+            apiCall.run();
+            return null;
+        });
+    }
+
+    /**
+     * Filters lines matching any of the patterns, together with one preceding line
+     * (equivalent of {@code grep -e pattern -B 1})
+     *
+     * @param log      log to filter
+     * @param patterns patterns
+     * @return matching lines
+     */
+    static String grep(String log, String... patterns) {
+        if (log == null || log.isEmpty()) {
+            return "";
+        }
+        List<Pattern> compiled = Arrays.stream(patterns).map(Pattern::compile).toList();
+        String[] lines = log.split("\n");
+        StringBuilder sb = new StringBuilder();
+        int lastPrinted = -1;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (compiled.stream().noneMatch(p -> p.matcher(line).find())) {
+                continue;
+            }
+            int from = Math.max(i - 1, lastPrinted + 1);
+            if (lastPrinted >= 0 && from > lastPrinted + 1) {
+                sb.append("--\n");
+            }
+            for (int j = from; j <= i; j++) {
+                sb.append(lines[j]).append('\n');
+            }
+            lastPrinted = i;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients.cmdClient;
+
+import java.time.Duration;
+
+import io.skodjob.testframe.executor.ExecResult;
+
+/**
+ * Result of the command executed in one of the pods by {@link KubeCmdClient#execInPods}.
+ *
+ * @param pod       name of the pod
+ * @param container name of the container, {@code null} for the default container
+ * @param result    result of the execution
+ * @param duration  duration of the execution
+ */
+public record PodExecResult(String pod, String container, ExecResult result, Duration duration) {
+
+    /**
+     * Returns whether the command succeeded in the pod
+     *
+     * @return true if the return code is zero
+     */
+    public boolean exitStatus() {
+        return result.exitStatus();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients.cmdClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.fabric8.kubernetes.api.model.APIGroup;
+import io.fabric8.kubernetes.api.model.APIResource;
+import io.fabric8.kubernetes.api.model.APIResourceList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.ResourceDefinitionContext;
+import io.skodjob.testframe.clients.KubeClusterException;
+import io.skodjob.testframe.executor.ExecResult;
+
+/**
+ * Translates resource types used on the command line ({@code po}, {@code deploy}, {@code deployments.apps},
+ * {@code Kafka}, ...) into {@link ResourceDefinitionContext}.
+ * Well-known types are resolved from the builtin table, the rest of them via API discovery.
+ * Discovery is done on the first lookup and repeated when a type is not found, so types of CRDs installed later
+ * are resolved too. Repeated discovery is rate-limited by {@link #REDISCOVERY_INTERVAL}.
+ */
+class ResourceTypeResolver {
+
+    /**
+     * Minimal interval between two discoveries triggered by unknown resource types
+     */
+    static final Duration REDISCOVERY_INTERVAL = Duration.ofSeconds(5);
+
+    private static final Map<String, ResourceDefinitionContext> BUILTIN = new HashMap<>();
+
+    static {
+        builtin("", "v1", "Pod", "pods", true, "po");
+        builtin("", "v1", "Service", "services", true, "svc");
+        builtin("", "v1", "ConfigMap", "configmaps", true, "cm");
+        builtin("", "v1", "Secret", "secrets", true);
+        builtin("", "v1", "ServiceAccount", "serviceaccounts", true, "sa");
+        builtin("", "v1", "Endpoints", "endpoints", true, "ep");
+        builtin("", "v1", "Event", "events", true, "ev");
+        builtin("", "v1", "PersistentVolumeClaim", "persistentvolumeclaims", true, "pvc");
+        builtin("", "v1", "PersistentVolume", "persistentvolumes", false, "pv");
+        builtin("", "v1", "Namespace", "namespaces", false, "ns");
+        builtin("", "v1", "Node", "nodes", false, "no");
+        builtin("apps", "v1", "Deployment", "deployments", true, "deploy");
+        builtin("apps", "v1", "StatefulSet", "statefulsets", true, "sts");
+        builtin("apps", "v1", "DaemonSet", "daemonsets", true, "ds");
+        builtin("apps", "v1", "ReplicaSet", "replicasets", true, "rs");
+        builtin("batch", "v1", "Job", "jobs", true);
+        builtin("batch", "v1", "CronJob", "cronjobs", true, "cj");
+        builtin("networking.k8s.io", "v1", "Ingress", "ingresses", true, "ing");
+        builtin("networking.k8s.io", "v1", "NetworkPolicy", "networkpolicies", true, "netpol");
+        builtin("policy", "v1", "PodDisruptionBudget", "poddisruptionbudgets", true, "pdb");
+        builtin("rbac.authorization.k8s.io", "v1", "Role", "roles", true);
+        builtin("rbac.authorization.k8s.io", "v1", "RoleBinding", "rolebindings", true);
+        builtin("rbac.authorization.k8s.io", "v1", "ClusterRole", "clusterroles", false);
+        builtin("rbac.authorization.k8s.io", "v1", "ClusterRoleBinding", "clusterrolebindings", false);
+        builtin("apiextensions.k8s.io", "v1", "CustomResourceDefinition", "customresourcedefinitions", false,
+            "crd", "crds");
+        builtin("storage.k8s.io", "v1", "StorageClass", "storageclasses", false, "sc");
+        builtin("coordination.k8s.io", "v1", "Lease", "leases", true);
+    }
+
+    private final KubernetesClient client;
+    private final Duration rediscoveryInterval;
+    private final Map<String, ResourceDefinitionContext> discovered = new ConcurrentHashMap<>();
+    // System.nanoTime() of the last discovery, null when it was not done yet
+    private volatile Long lastDiscovery;
+
+    /**
+     * Constructor of the resolver
+     *
+     * @param client kubernetes client used for API discovery
+     */
+    ResourceTypeResolver(KubernetesClient client) {
+        this(client, REDISCOVERY_INTERVAL);
+    }
+
+    /**
+     * Constructor of the resolver
+     *
+     * @param client              kubernetes client used for API discovery
+     * @param rediscoveryInterval minimal interval between two discoveries triggered by unknown resource types
+     */
+    ResourceTypeResolver(KubernetesClient client, Duration rediscoveryInterval) {
+        this.client = client;
+        this.rediscoveryInterval = rediscoveryInterval;
+    }
+
+    /**
+     * Resolves the resource type
+     *
+     * @param resourceType resource type in any form accepted by kubectl
+     * @return resource definition context
+     * @throws KubeClusterException when the type is not served by the cluster
+     */
+    ResourceDefinitionContext resolve(String resourceType) {
+        String type = resourceType.toLowerCase(Locale.ROOT);
+        ResourceDefinitionContext ctx = BUILTIN.get(type);
+        if (ctx != null) {
+            return ctx;
+        }
+        if (lastDiscovery == null) {
+            discover(null);
+        }
+        ctx = discovered.get(type);
+        if (ctx == null) {
+            // the type might have been installed since the last discovery
+            discover(lastDiscovery);
+            ctx = discovered.get(type);
+        }
+        if (ctx == null) {
+            String msg = "the server doesn't have a resource type \"" + resourceType + "\"";
+            throw new KubeClusterException(new ExecResult(1, "", msg), msg);
+        }
+        return ctx;
+    }
+
+    /**
+     * Checks whether the resource type represents pods
+     *
+     * @param resourceType resource type
+     * @return true when the type is pod
+     */
+    static boolean isPod(String resourceType) {
+        ResourceDefinitionContext ctx = BUILTIN.get(resourceType.toLowerCase(Locale.ROOT));
+        return ctx != null && "pods".equals(ctx.getPlural());
+    }
+
+    /**
+     * Runs the discovery, unless other thread did it in the meantime or the last one is too recent
+     *
+     * @param previousDiscovery time of the discovery seen by the caller, null when there was none
+     */
+    private synchronized void discover(Long previousDiscovery) {
+        Long last = lastDiscovery;
+        if (last != null && (!last.equals(previousDiscovery)
+            || System.nanoTime() - last < rediscoveryInterval.toNanos())) {
+            return;
+        }
+        register("v1", "", client.getApiResources("v1"));
+        for (APIGroup group : client.getApiGroups().getGroups()) {
+            String groupVersion = group.getPreferredVersion().getGroupVersion();
+            register(groupVersion, group.getName(), client.getApiResources(groupVersion));
+        }
+        lastDiscovery = System.nanoTime();
+    }
+
+    private void register(String groupVersion, String group, APIResourceList resources) {
+        if (resources == null) {
+            return;
+        }
+        for (APIResource resource : resources.getResources()) {
+            // skip subresources like pods/log
+            if (resource.getName().contains("/")) {
+                continue;
+            }
+            ResourceDefinitionContext ctx = ResourceDefinitionContext.fromApiResource(groupVersion, resource);
+            // types from preferred groups are registered first, so they win in case of conflict
+            discovered.putIfAbsent(resource.getName().toLowerCase(Locale.ROOT), ctx);
+            discovered.putIfAbsent(resource.getKind().toLowerCase(Locale.ROOT), ctx);
+            if (resource.getSingularName() != null && !resource.getSingularName().isEmpty()) {
+                discovered.putIfAbsent(resource.getSingularName().toLowerCase(Locale.ROOT), ctx);
+            }
+            if (resource.getShortNames() != null) {
+                resource.getShortNames().forEach(s -> discovered.putIfAbsent(s.toLowerCase(Locale.ROOT), ctx));
+            }
+            if (!group.isEmpty()) {
+                discovered.put(resource.getName().toLowerCase(Locale.ROOT) + "." + group, ctx);
+                discovered.put(resource.getKind().toLowerCase(Locale.ROOT) + "." + group, ctx);
+            }
+        }
+    }
+
+    private static void builtin(String group, String version, String kind, String plural, boolean namespaced,
+                                String... shortNames) {
+        ResourceDefinitionContext ctx = new ResourceDefinitionContext.Builder()
+            .withGroup(group.isEmpty() ? null : group)
+            .withVersion(version)
+            .withKind(kind)
+            .withPlural(plural)
+            .withNamespaced(namespaced)
+            .build();
+        BUILTIN.put(plural, ctx);
+        BUILTIN.put(kind.toLowerCase(Locale.ROOT), ctx);
+        if (!group.isEmpty()) {
+            BUILTIN.put(plural + "." + group, ctx);
+        }
+        for (String shortName : shortNames) {
+            BUILTIN.put(shortName, ctx);
+        }
+    }
+}
@@ -4,20 +4,24 @@
  */
 package io.skodjob.testframe.executor;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -25,12 +29,17 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import io.fabric8.kubernetes.api.model.EnvVar;
+import io.skodjob.testframe.TestFrameEnv;
 import io.skodjob.testframe.clients.KubeClusterException;
 import io.skodjob.testframe.enums.LogLevel;
 import org.slf4j.Logger;
@@ -54,6 +63,17 @@ public class Exec {
     private static final Pattern PATH_SPLITTER = Pattern.compile(File.pathSeparator);
     private static final int MAXIMUM_EXEC_LOG_CHARACTER_SIZE = 2000;
     private static final Object LOCK = new Object();
+    private static final String STD_OUT_FILE = "stdOutput.log";
+    private static final String STD_ERR_FILE = "stdError.log";
+    private static final long READER_FINISH_TIMEOUT_MS = 500;
+
+    // Global limit of spawned processes shared by all executions (sync and async)
+    private static final int MAX_CONCURRENT_PROCESSES = Math.max(1, TestFrameEnv.EXEC_MAX_CONCURRENT_PROCESSES);
+    private static final Semaphore PROCESS_SLOTS = new Semaphore(MAX_CONCURRENT_PROCESSES, true);
+    private static final AtomicInteger RUNNING_PROCESSES = new AtomicInteger();
+    private static final AtomicInteger QUEUED_PROCESSES = new AtomicInteger();
+    private static final AtomicLong STARTED_PROCESSES = new AtomicLong();
+    private static final AtomicLong TOTAL_QUEUE_TIME_MS = new AtomicLong();
 
     private Process process;
     private String stdOut;
@@ -62,6 +82,9 @@ public class Exec {
     private StreamGobbler stdErrReader;
     private Path logPath;
     private final boolean appendLineSeparator;
+    private int tailLines;
+    private Consumer<String> stdOutConsumer;
+    private Consumer<String> stdErrConsumer;
 
     /**
      * Constructs a new Exec instance.
@@ -89,6 +112,26 @@ public class Exec {
         this.appendLineSeparator = appendLineSeparator;
     }
 
+    /**
+     * Constructs a new Exec instance which streams the output of the command.
+     * Every line of stdout and stderr is handed to the particular consumer as soon as it is read.
+     * When {@code tailLines} is greater than zero, only the last {@code tailLines} lines are kept in memory
+     * (and returned in {@link ExecResult}), so the heap usage stays flat regardless of the output size.
+     * In that case, the full output is streamed into the files in {@code logPath} (if specified).
+     *
+     * @param logPath        The path to log the output, can be {@code null}.
+     * @param tailLines      number of last lines kept in memory, {@code 0} keeps the whole output.
+     * @param stdOutConsumer consumer of stdout lines, can be {@code null}.
+     * @param stdErrConsumer consumer of stderr lines, can be {@code null}.
+     */
+    public Exec(Path logPath, int tailLines, Consumer<String> stdOutConsumer, Consumer<String> stdErrConsumer) {
+        this.appendLineSeparator = true;
+        this.logPath = logPath;
+        this.tailLines = Math.max(tailLines, 0);
+        this.stdOutConsumer = stdOutConsumer;
+        this.stdErrConsumer = stdErrConsumer;
+    }
+
     /**
      * Creates a new ExecBuilder instance.
      *
@@ -282,45 +325,117 @@ public class Exec {
      */
     public static ExecResult exec(String input, List<String> command, Set<EnvVar> envVars, int timeout,
                                   LogLevel logLevel, boolean logToOutput, boolean throwErrors) {
-        int ret;
-        ExecResult execResult;
-        try {
-            Exec executor = new Exec();
-            LOGGER.info("Command: {}", String.join(" ", command));
-            ret = executor.execute(input, command, envVars, timeout);
-            synchronized (LOCK) {
-                if (logToOutput) {
-                    Level level = LogLevel.logLevelToLevel(logLevel);
-
-                    LOGGER.atLevel(level).log("RETURN code: {}", ret);
-                    if (!executor.out().isEmpty()) {
-                        LOGGER.atLevel(level).log("======STDOUT START=======");
-                        LOGGER.atLevel(level).log(cutExecutorLog(executor.out()));
-                        LOGGER.atLevel(level).log("======STDOUT END======");
-                    }
-                    if (!executor.err().isEmpty()) {
-                        LOGGER.atLevel(level).log("======STDERR START=======");
-                        LOGGER.atLevel(level).log(cutExecutorLog(executor.err()));
-                        LOGGER.atLevel(level).log("======STDERR END======");
-                    }
-                }
-            }
+        return new Exec().run(input, command, envVars, timeout, logLevel, logToOutput, throwErrors);
+    }
+
+    /**
+     * Method executes external command asynchronously
+     *
+     * @param command arguments for command
+     * @return future with execution results
+     */
+    public static CompletableFuture<ExecResult> execAsync(String... command) {
+        return execAsync(Arrays.asList(command));
+    }
+
+    /**
+     * Method executes external command asynchronously
+     *
+     * @param command arguments for command
+     * @return future with execution results
+     */
+    public static CompletableFuture<ExecResult> execAsync(List<String> command) {
+        return execAsync(null, command, 0, false, true);
+    }
 
-            execResult = new ExecResult(ret, executor.out(), executor.err());
+    /**
+     * Method executes external command asynchronously.
+     * The process is spawned as soon as there is a free process slot (see {@link #stats()}),
+     * no thread is blocked while the process is running.
+     * In case of failure and {@code throwErrors} enabled, the future completes exceptionally
+     * with {@link KubeClusterException}.
+     *
+     * @param input       log input
+     * @param command     arguments for command
+     * @param timeout     timeout for execution
+     * @param logToOutput log output or not
+     * @param throwErrors look for errors in output and throws exception if true
+     * @return future with execution results
+     */
+    public static CompletableFuture<ExecResult> execAsync(String input, List<String> command, int timeout,
+                                                          boolean logToOutput, boolean throwErrors) {
+        return new Exec().runAsync(input, command, Collections.emptySet(), timeout, LogLevel.INFO,
+            logToOutput, throwErrors);
+    }
 
-            if (throwErrors && ret != 0) {
-                String msg = "`" + join(" ", command) + "` got status code " + ret
-                    + " and stderr:\n------\n" + executor.stdErr
-                    + "\n------\nand stdout:\n------\n" + executor.stdOut + "\n------";
+    /**
+     * Method executes batch of external commands in parallel and waits for all of them.
+     * Number of processes running at the same time is limited by the global process limit.
+     *
+     * @param commands list of commands, each of them represented by list of arguments
+     * @return execution results in the same order as the commands
+     */
+    public static List<ExecResult> execAll(List<List<String>> commands) {
+        return execAll(commands, 0, true);
+    }
 
-                Matcher errorMatcher = ERROR_PATTERN.matcher(executor.err());
-                Matcher invalidMatcher = INVALID_PATTERN.matcher(executor.err());
+    /**
+     * Method executes batch of external commands in parallel and waits for all of them.
+     * Number of processes running at the same time is limited by the global process limit.
+     * When {@code throwErrors} is enabled, the exception of the first failed command is thrown
+     * once all the commands are finished.
+     *
+     * @param commands    list of commands, each of them represented by list of arguments
+     * @param timeout     timeout for execution of each command
+     * @param throwErrors look for errors in output and throws exception if true
+     * @return execution results in the same order as the commands
+     */
+    public static List<ExecResult> execAll(List<List<String>> commands, int timeout, boolean throwErrors) {
+        List<CompletableFuture<ExecResult>> futures = commands.stream()
+            .map(command -> execAsync(null, command, timeout, false, throwErrors))
+            .toList();
 
-                throw createAppropriateException(
-                    errorMatcher, invalidMatcher, execResult, msg);
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            // rethrow the failure of the first command in order, all of them are finished now
+            for (CompletableFuture<ExecResult> future : futures) {
+                if (future.isCompletedExceptionally()) {
+                    throw unwrap(future);
+                }
             }
-            return new ExecResult(ret, executor.out(), executor.err());
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Returns statistics of spawned processes
+     *
+     * @return snapshot of process statistics
+     */
+    public static ExecStats stats() {
+        return new ExecStats(MAX_CONCURRENT_PROCESSES, RUNNING_PROCESSES.get(), QUEUED_PROCESSES.get(),
+            STARTED_PROCESSES.get(), TOTAL_QUEUE_TIME_MS.get());
+    }
 
+    /**
+     * Method executes external command using configuration of this executor
+     *
+     * @param input       log input
+     * @param command     arguments for command
+     * @param envVars     session environment
+     * @param timeout     timeout for execution
+     * @param logLevel    log level on which the messages should be logged
+     * @param logToOutput log output or not
+     * @param throwErrors look for errors in output and throws exception if true
+     * @return execution results
+     */
+    ExecResult run(String input, List<String> command, Set<EnvVar> envVars, int timeout,
+                   LogLevel logLevel, boolean logToOutput, boolean throwErrors) {
+        try {
+            LOGGER.info("Command: {}", String.join(" ", command));
+            int ret = execute(input, command, envVars, timeout);
+            return processResult(command, ret, logLevel, logToOutput, throwErrors);
         } catch (IOException | ExecutionException e) {
             throw new KubeClusterException(e);
         } catch (InterruptedException e) {
@@ -329,6 +444,71 @@ public class Exec {
         }
     }
 
+    /**
+     * Method executes external command asynchronously using configuration of this executor
+     *
+     * @param input       log input
+     * @param command     arguments for command
+     * @param envVars     session environment
+     * @param timeout     timeout for execution
+     * @param logLevel    log level on which the messages should be logged
+     * @param logToOutput log output or not
+     * @param throwErrors look for errors in output and throws exception if true
+     * @return future with execution results
+     */
+    CompletableFuture<ExecResult> runAsync(String input, List<String> command, Set<EnvVar> envVars, int timeout,
+                                           LogLevel logLevel, boolean logToOutput, boolean throwErrors) {
+        LOGGER.info("Command: {}", String.join(" ", command));
+        return executeAsync(input, command, envVars, timeout)
+            .thenApply(ret -> processResult(command, ret, logLevel, logToOutput, throwErrors));
+    }
+
+    /**
+     * Logs the outputs of finished execution and checks its return code
+     *
+     * @param command     arguments for command
+     * @param ret         return code of the command
+     * @param logLevel    log level on which the messages should be logged
+     * @param logToOutput log output or not
+     * @param throwErrors look for errors in output and throws exception if true
+     * @return execution results
+     */
+    private ExecResult processResult(List<String> command, int ret, LogLevel logLevel, boolean logToOutput,
+                                     boolean throwErrors) {
+        synchronized (LOCK) {
+            if (logToOutput) {
+                Level level = LogLevel.logLevelToLevel(logLevel);
+
+                LOGGER.atLevel(level).log("RETURN code: {}", ret);
+                if (!out().isEmpty()) {
+                    LOGGER.atLevel(level).log("======STDOUT START=======");
+                    LOGGER.atLevel(level).log(cutExecutorLog(out()));
+                    LOGGER.atLevel(level).log("======STDOUT END======");
+                }
+                if (!err().isEmpty()) {
+                    LOGGER.atLevel(level).log("======STDERR START=======");
+                    LOGGER.atLevel(level).log(cutExecutorLog(err()));
+                    LOGGER.atLevel(level).log("======STDERR END======");
+                }
+            }
+        }
+
+        ExecResult execResult = new ExecResult(ret, out(), err());
+
+        if (throwErrors && ret != 0) {
+            String msg = "`" + join(" ", command) + "` got status code " + ret
+                + " and stderr:\n------\n" + stdErr
+                + "\n------\nand stdout:\n------\n" + stdOut + "\n------";
+
+            Matcher errorMatcher = ERROR_PATTERN.matcher(err());
+            Matcher invalidMatcher = INVALID_PATTERN.matcher(err());
+
+            throw createAppropriateException(
+                errorMatcher, invalidMatcher, execResult, msg);
+        }
+        return execResult;
+    }
+
     /**
      * Method executes external command
      *
@@ -343,20 +523,7 @@ public class Exec {
      */
     public int execute(String input, List<String> commands, Set<EnvVar> envVars, long timeoutMs)
         throws IOException, InterruptedException, ExecutionException {
-        LOGGER.trace("Running command - {}", join(" ", commands.toArray(new String[0])));
-        ProcessBuilder builder = new ProcessBuilder();
-        builder.command(commands);
-        if (envVars != null) {
-            envVars.forEach(e -> builder.environment().put(e.getName(), e.getValue()));
-        }
-        builder.directory(new File(System.getProperty("user.dir")));
-        process = builder.start();
-        try (OutputStream outputStream = process.getOutputStream()) {
-            if (input != null) {
-                LOGGER.trace("With stdin {}", input);
-                outputStream.write(input.getBytes(Charset.defaultCharset()));
-            }
-        }
+        startProcess(input, commands, envVars);
 
         Future<String> output = readStdOutput();
         Future<String> error = readStdError();
@@ -373,14 +540,14 @@ public class Exec {
         }
 
         try {
-            stdOut = output.get(500, TimeUnit.MILLISECONDS);
+            stdOut = output.get(READER_FINISH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
         } catch (TimeoutException ex) {
             output.cancel(true);
             stdOut = stdOutReader.getData();
         }
 
         try {
-            stdErr = error.get(500, TimeUnit.MILLISECONDS);
+            stdErr = error.get(READER_FINISH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
         } catch (TimeoutException ex) {
             error.cancel(true);
             stdErr = stdErrReader.getData();
@@ -390,6 +557,131 @@ public class Exec {
         return retCode;
     }
 
+    /**
+     * Method executes external command asynchronously.
+     * Waiting for the free process slot happens on a virtual thread, the process exit is observed
+     * via {@link Process#onExit()}, so no thread is blocked while the process is running.
+     *
+     * @param input     log input
+     * @param commands  arguments for command
+     * @param envVars   session environments
+     * @param timeoutMs timeout in ms for kill
+     * @return future with return code of execution
+     */
+    public CompletableFuture<Integer> executeAsync(String input, List<String> commands, Set<EnvVar> envVars,
+                                                   long timeoutMs) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return startProcess(input, commands, envVars);
+            } catch (IOException e) {
+                throw new KubeClusterException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KubeClusterException(e);
+            }
+        }, EXECUTOR).thenCompose(startedProcess -> {
+            CompletableFuture<String> output = readStdOutput();
+            CompletableFuture<String> error = readStdError();
+
+            CompletableFuture<Integer> exitCode = startedProcess.onExit().thenApply(Process::exitValue);
+            if (timeoutMs > 0) {
+                exitCode = exitCode
+                    .completeOnTimeout(null, timeoutMs, TimeUnit.MILLISECONDS)
+                    .thenApply(code -> {
+                        if (code == null) {
+                            startedProcess.destroyForcibly();
+                            return 1;
+                        }
+                        return code;
+                    });
+            }
+
+            return exitCode.thenCompose(code -> output
+                .completeOnTimeout(null, READER_FINISH_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .thenCombine(error.completeOnTimeout(null, READER_FINISH_TIMEOUT_MS, TimeUnit.MILLISECONDS),
+                    (out, err) -> {
+                        stdOut = out != null ? out : stdOutReader.getData();
+                        stdErr = err != null ? err : stdErrReader.getData();
+                        storeOutputsToFile();
+                        return code;
+                    }));
+        });
+    }
+
+    /**
+     * Waits for a free process slot, starts the process and writes the input into it.
+     * The slot is released once the process exits.
+     *
+     * @param input    log input
+     * @param commands arguments for command
+     * @param envVars  session environments
+     * @return started process
+     * @throws IOException          IOException
+     * @throws InterruptedException InterruptedException
+     */
+    private Process startProcess(String input, List<String> commands, Set<EnvVar> envVars)
+        throws IOException, InterruptedException {
+        LOGGER.trace("Running command - {}", join(" ", commands.toArray(new String[0])));
+        ProcessBuilder builder = new ProcessBuilder();
+        builder.command(commands);
+        if (envVars != null) {
+            envVars.forEach(e -> builder.environment().put(e.getName(), e.getValue()));
+        }
+        builder.directory(new File(System.getProperty("user.dir")));
+
+        acquireProcessSlot();
+        try {
+            process = builder.start();
+        } catch (IOException | RuntimeException e) {
+            PROCESS_SLOTS.release();
+            throw e;
+        }
+        RUNNING_PROCESSES.incrementAndGet();
+        STARTED_PROCESSES.incrementAndGet();
+        process.onExit().whenComplete((p, t) -> {
+            RUNNING_PROCESSES.decrementAndGet();
+            PROCESS_SLOTS.release();
+        });
+
+        try (OutputStream outputStream = process.getOutputStream()) {
+            if (input != null) {
+                LOGGER.trace("With stdin {}", input);
+                outputStream.write(input.getBytes(Charset.defaultCharset()));
+            }
+        }
+        return process;
+    }
+
+    /**
+     * Blocks until there is a free process slot and records the time spent in the queue
+     *
+     * @throws InterruptedException InterruptedException
+     */
+    private static void acquireProcessSlot() throws InterruptedException {
+        if (PROCESS_SLOTS.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            return;
+        }
+        long start = System.nanoTime();
+        QUEUED_PROCESSES.incrementAndGet();
+        try {
+            PROCESS_SLOTS.acquire();
+        } finally {
+            QUEUED_PROCESSES.decrementAndGet();
+            TOTAL_QUEUE_TIME_MS.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Returns the exception which completed the future, unwrapped from {@link CompletionException}
+     *
+     * @param future exceptionally completed future
+     * @return cause of the failure
+     */
+    private static RuntimeException unwrap(CompletableFuture<?> future) {
+        Throwable cause = future.exceptionNow();
+        return cause instanceof RuntimeException re ? re : new KubeClusterException(cause);
+    }
+
     /**
      * Method kills process
      */
@@ -404,8 +696,8 @@ public class Exec {
      *
      * @return future string output
      */
-    private Future<String> readStdOutput() {
-        stdOutReader = new StreamGobbler(process.getInputStream());
+    private CompletableFuture<String> readStdOutput() {
+        stdOutReader = new StreamGobbler(process.getInputStream(), stdOutConsumer, spillFile(STD_OUT_FILE));
         return stdOutReader.read();
     }
 
@@ -414,21 +706,32 @@ public class Exec {
      *
      * @return future string error output
      */
-    private Future<String> readStdError() {
-        stdErrReader = new StreamGobbler(process.getErrorStream());
+    private CompletableFuture<String> readStdError() {
+        stdErrReader = new StreamGobbler(process.getErrorStream(), stdErrConsumer, spillFile(STD_ERR_FILE));
         return stdErrReader.read();
     }
 
+    /**
+     * Returns path of the file into which the output is streamed during the execution.
+     * The output is streamed only in case that just the tail of the output is kept in memory.
+     *
+     * @param fileName name of the output file
+     * @return path to the file or {@code null} when the output is not streamed into file
+     */
+    private Path spillFile(String fileName) {
+        return tailLines > 0 && logPath != null ? logPath.resolve(fileName) : null;
+    }
+
     /**
      * Get stdOut and stdErr and store it into files
      */
     private void storeOutputsToFile() {
-        if (logPath != null) {
+        if (logPath != null && tailLines == 0) {
             try {
                 Files.createDirectories(logPath);
-                Files.writeString(Paths.get(logPath.toString(), "stdOutput.log"),
+                Files.writeString(Paths.get(logPath.toString(), STD_OUT_FILE),
                     stdOut, Charset.defaultCharset());
-                Files.writeString(Paths.get(logPath.toString(), "stdError.log"),
+                Files.writeString(Paths.get(logPath.toString(), STD_ERR_FILE),
                     stdErr, Charset.defaultCharset());
             } catch (Exception ex) {
                 LOGGER.warn("Cannot save output of execution: " + ex.getMessage());
@@ -500,8 +803,14 @@ public class Exec {
      * Class represent async reader
      */
     class StreamGobbler {
+        // message of the IOException thrown by the process stream, which was closed once the process exited
+        private static final String STREAM_CLOSED = "Stream closed";
+
         private final InputStream is;
+        private final Consumer<String> lineConsumer;
+        private final Path spillFile;
         private final StringBuffer data = new StringBuffer();
+        private final Deque<String> tail = new ArrayDeque<>();
 
         /**
          * Constructor of StreamGobbler
@@ -509,7 +818,20 @@ public class Exec {
          * @param is input stream for reading
          */
         StreamGobbler(InputStream is) {
+            this(is, null, null);
+        }
+
+        /**
+         * Constructor of StreamGobbler
+         *
+         * @param is           input stream for reading
+         * @param lineConsumer consumer receiving every read line, can be {@code null}
+         * @param spillFile    file where the whole output is streamed into, can be {@code null}
+         */
+        StreamGobbler(InputStream is, Consumer<String> lineConsumer, Path spillFile) {
             this.is = is;
+            this.lineConsumer = lineConsumer;
+            this.spillFile = spillFile;
         }
 
         /**
@@ -518,7 +840,40 @@ public class Exec {
          * @return string of data
          */
         public String getData() {
-            return data.toString();
+            if (tailLines == 0) {
+                return data.toString();
+            }
+            synchronized (tail) {
+                StringBuilder sb = new StringBuilder();
+                for (String line : tail) {
+                    sb.append(line);
+                    if (appendLineSeparator) {
+                        sb.append(System.lineSeparator());
+                    }
+                }
+                return sb.toString();
+            }
+        }
+
+        /**
+         * Stores the line in memory - whole output or just its tail, based on configuration
+         *
+         * @param line line read from the stream
+         */
+        private void retain(String line) {
+            if (tailLines == 0) {
+                data.append(line);
+                if (appendLineSeparator) {
+                    data.append(System.lineSeparator());
+                }
+            } else {
+                synchronized (tail) {
+                    if (tail.size() == tailLines) {
+                        tail.removeFirst();
+                    }
+                    tail.addLast(line);
+                }
+            }
         }
 
         /**
@@ -526,21 +881,54 @@ public class Exec {
          *
          * @return return future string of output
          */
-        public Future<String> read() {
+        public CompletableFuture<String> read() {
             return CompletableFuture.supplyAsync(() -> {
-                try (Scanner scanner = new Scanner(is, StandardCharsets.UTF_8)) {
-                    while (scanner.hasNextLine()) {
-                        data.append(scanner.nextLine());
-                        if (appendLineSeparator) {
-                            data.append(System.lineSeparator());
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+                     BufferedWriter spill = openSpillFile()) {
+                    String line;
+                    while ((line = readLine(reader)) != null) {
+                        if (lineConsumer != null) {
+                            lineConsumer.accept(line);
                         }
+                        if (spill != null) {
+                            spill.write(line);
+                            spill.newLine();
+                        }
+                        retain(line);
                     }
-                    scanner.close();
-                    return data.toString();
+                    return getData();
                 } catch (Exception e) {
                     throw new CompletionException(e);
                 }
             }, EXECUTOR);
         }
+
+        /**
+         * Reads next line, the stream closed by the exited process is handled as its end (as Scanner does).
+         * Other read failures are rethrown, so the output is not silently truncated.
+         *
+         * @param reader reader of the stream
+         * @return line or {@code null} at the end of the stream
+         * @throws IOException If an I/O error other than the closed stream occurs.
+         */
+        private static String readLine(BufferedReader reader) throws IOException {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                if (!STREAM_CLOSED.equals(e.getMessage())) {
+                    throw e;
+                }
+                LOGGER.trace("Reading of the process output ended: {}", e.getMessage());
+                return null;
+            }
+        }
+
+        private BufferedWriter openSpillFile() throws IOException {
+            if (spillFile == null) {
+                return null;
+            }
+            Files.createDirectories(spillFile.getParent());
+            return Files.newBufferedWriter(spillFile, Charset.defaultCharset());
+        }
     }
 }
@@ -4,11 +4,15 @@
  */
 package io.skodjob.testframe.executor;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import io.fabric8.kubernetes.api.model.EnvVar;
+import io.skodjob.testframe.enums.LogLevel;
 
 /**
  * Builder class for creating and executing commands.
@@ -21,6 +25,10 @@ public class ExecBuilder {
     private int timeout;
     private boolean logToOutput;
     private boolean throwErrors;
+    private Path logPath;
+    private int tailLines;
+    private Consumer<String> stdOutConsumer;
+    private Consumer<String> stdErrConsumer;
 
     /**
      * Constructor
@@ -106,12 +114,69 @@ public class ExecBuilder {
         return this;
     }
 
+    /**
+     * Sets the directory where stdout and stderr of the command are stored.
+     *
+     * @param logPath The directory for the output files.
+     * @return The ExecBuilder instance.
+     */
+    public ExecBuilder withLogPath(Path logPath) {
+        this.logPath = logPath;
+        return this;
+    }
+
+    /**
+     * Sets the number of last lines of stdout and stderr, which are kept in memory and returned
+     * in {@link ExecResult}. With the log path set, the whole output is streamed into the files.
+     * Zero (default) keeps the whole output in memory.
+     *
+     * @param tailLines The number of lines kept in memory.
+     * @return The ExecBuilder instance.
+     */
+    public ExecBuilder withTailLines(int tailLines) {
+        this.tailLines = tailLines;
+        return this;
+    }
+
+    /**
+     * Sets the consumer, which receives every line of stdout as soon as it is read.
+     *
+     * @param stdOutConsumer The consumer of stdout lines.
+     * @return The ExecBuilder instance.
+     */
+    public ExecBuilder withStdOutConsumer(Consumer<String> stdOutConsumer) {
+        this.stdOutConsumer = stdOutConsumer;
+        return this;
+    }
+
+    /**
+     * Sets the consumer, which receives every line of stderr as soon as it is read.
+     *
+     * @param stdErrConsumer The consumer of stderr lines.
+     * @return The ExecBuilder instance.
+     */
+    public ExecBuilder withStdErrConsumer(Consumer<String> stdErrConsumer) {
+        this.stdErrConsumer = stdErrConsumer;
+        return this;
+    }
+
     /**
      * Executes the command with the provided configuration.
      *
      * @return The execution result.
      */
     public ExecResult exec() {
-        return Exec.exec(input, command, envVars, timeout, logToOutput, throwErrors);
+        return new Exec(logPath, tailLines, stdOutConsumer, stdErrConsumer)
+            .run(input, command, envVars, timeout, LogLevel.INFO, logToOutput, throwErrors);
+    }
+
+    /**
+     * Executes the command asynchronously with the provided configuration.
+     *
+     * @return The future with execution result.
+     */
+    public CompletableFuture<ExecResult> execAsync() {
+        return new Exec(logPath, tailLines, stdOutConsumer, stdErrConsumer)
+            .runAsync(input, command, envVars, timeout, LogLevel.INFO, logToOutput, throwErrors);
     }
 }
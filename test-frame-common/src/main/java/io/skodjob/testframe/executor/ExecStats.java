@@ -0,0 +1,18 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.executor;
+
+/**
+ * Snapshot of the process spawning statistics of {@link Exec}.
+ *
+ * @param maxConcurrentProcesses maximal number of processes running at the same time
+ * @param runningProcesses       number of currently running processes
+ * @param queuedProcesses        number of executions waiting for a free process slot
+ * @param startedProcesses       total number of started processes
+ * @param totalQueueTimeMs       total time in ms spent by executions waiting for a free process slot
+ */
+public record ExecStats(int maxConcurrentProcesses, int runningProcesses, int queuedProcesses,
+                        long startedProcesses, long totalQueueTimeMs) {
+}
@@ -39,5 +39,6 @@ public class ResourceManagerExtension
     @Override
     public void afterEach(ExtensionContext extensionContext) {
         KubeResourceManager.get().setTestContext(extensionContext);
+        KubeResourceManager.get().logApiCalls();
     }
 }
@@ -12,6 +12,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -27,11 +28,13 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import io.fabric8.kubernetes.api.model.Endpoints;
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.Node;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.ReplicationController;
@@ -42,13 +45,17 @@ import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.utils.Serialization;
 import io.skodjob.testframe.TestFrameConstants;
 import io.skodjob.testframe.TestFrameEnv;
+import io.skodjob.testframe.clients.ApiCallAccounting;
 import io.skodjob.testframe.clients.KubeClient;
+import io.skodjob.testframe.clients.cmdClient.BaseCmdKubeClient;
 import io.skodjob.testframe.clients.cmdClient.KubeCmdClient;
 import io.skodjob.testframe.clients.cmdClient.Kubectl;
+import io.skodjob.testframe.clients.cmdClient.NativeKubeCmdClient;
 import io.skodjob.testframe.clients.cmdClient.Oc;
 import io.skodjob.testframe.environment.TestEnvironmentVariables;
 import io.skodjob.testframe.interfaces.ResourceType;
 import io.skodjob.testframe.utils.LoggerUtils;
+import io.skodjob.testframe.utils.ResourceUtils;
 import io.skodjob.testframe.wait.Wait;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.slf4j.Logger;
@@ -106,6 +113,8 @@ public final class KubeResourceManager {
     private static final KubeResourceManager INSTANCE = new KubeResourceManager();
 
     private ResourceType<?>[] resourceTypes = new ResourceType<?>[]{};
+    private boolean elideNoopUpdates = TestFrameEnv.ELIDE_NOOP_UPDATES;
+    private final AtomicLong elidedUpdates = new AtomicLong();
     private final List<Consumer<HasMetadata>> createCallbacks = new CopyOnWriteArrayList<>();
     private final List<Consumer<HasMetadata>> deleteCallbacks = new CopyOnWriteArrayList<>();
 
@@ -183,7 +192,11 @@ public final class KubeResourceManager {
                 kube = new KubeClient();
             }
 
-            if (TestFrameEnv.CLIENT_TYPE.equals(TestFrameConstants.KUBERNETES_CLIENT)) {
+            if (TestFrameEnv.NATIVE_CMD_CLIENT) {
+                BaseCmdKubeClient<?> cli = TestFrameEnv.CLIENT_TYPE.equals(TestFrameConstants.KUBERNETES_CLIENT)
+                    ? new Kubectl(kube.getKubeconfigPath()) : new Oc(kube.getKubeconfigPath());
+                return new ClusterContext<>(kube, new NativeKubeCmdClient(kube, cli));
+            } else if (TestFrameEnv.CLIENT_TYPE.equals(TestFrameConstants.KUBERNETES_CLIENT)) {
                 Kubectl kubectl = new Kubectl(kube.getKubeconfigPath());
                 return new ClusterContext<>(kube, kubectl);
             } else {
@@ -294,6 +307,30 @@ public final class KubeResourceManager {
         TEST_CONTEXT.remove();
     }
 
+    /**
+     * Wraps the task, so it runs with the test extension context of the calling thread even when it is executed
+     * by another thread, e.g. by an executor
+     *
+     * @param task task
+     * @return task which sets the captured context for the time of its run
+     */
+    public Runnable withTestContext(Runnable task) {
+        ExtensionContext ctx = TEST_CONTEXT.get();
+        return () -> {
+            ExtensionContext previous = TEST_CONTEXT.get();
+            TEST_CONTEXT.set(ctx);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    TEST_CONTEXT.remove();
+                } else {
+                    TEST_CONTEXT.set(previous);
+                }
+            }
+        };
+    }
+
     /**
      * Clean test extension context
      */
@@ -301,6 +338,23 @@ public final class KubeResourceManager {
         CURRENT_CLUSTER_CONTEXT.remove();
     }
 
+    /**
+     * Logs the most frequent API requests issued by the current test in every connected cluster context.
+     * Size of the report is set by {@link TestFrameEnv#API_CALLS_REPORT_SIZE}, 0 disables the report.
+     */
+    public void logApiCalls() {
+        if (TestFrameEnv.API_CALLS_REPORT_SIZE <= 0 || getTestContext() == null) {
+            return;
+        }
+        String test = ApiCallAccounting.testName(getTestContext());
+        clientCache.forEach((id, ctx) -> {
+            String report = ctx.kubeClient().apiCalls().report(test, TestFrameEnv.API_CALLS_REPORT_SIZE);
+            if (!report.isEmpty()) {
+                LOGGER.info("Test {} in context {} issued {}", test, id, report);
+            }
+        });
+    }
+
     /**
      * Pushes a resource to the stack.
      *
@@ -350,6 +404,17 @@ public final class KubeResourceManager {
         return kubeClient().readResourcesFromFile(is);
     }
 
+    /**
+     * Reads Kubernetes resources from a classpath resource.
+     *
+     * @param resource name of the classpath resource
+     * @return A list of {@link HasMetadata} resources defined in the resource.
+     * @throws IOException If the resource does not exist or an I/O error occurs.
+     */
+    public List<HasMetadata> readResourcesFromClasspath(String resource) throws IOException {
+        return kubeClient().readResourcesFromClasspath(resource);
+    }
+
     /* ───────────────────────────  LOGGING HELPERS  ─────────────────────────── */
 
 
@@ -477,15 +542,19 @@ public final class KubeResourceManager {
             }
 
             if (type == null) {
-                if (allowUpdate && kubeClient().getClient().resource(resource).get() != null) {
+                HasMetadata live = allowUpdate ? kubeClient().getClient().resource(resource).get() : null;
+                T stamped = stampContentHash(resource, live);
+                if (stamped == null) {
+                    LoggerUtils.logResource("Skipping unchanged", resource);
+                } else if (live != null) {
                     LoggerUtils.logResource("Updating", resource);
-                    kubeClient().getClient().resource(resource).update();
+                    kubeClient().getClient().resource(stamped).update();
                 } else {
                     LoggerUtils.logResource("Creating", resource);
-                    kubeClient().getClient().resource(resource).create();
+                    kubeClient().getClient().resource(stamped).create();
                 }
                 if (waitReady) {
-                    CompletableFuture<Void> cf = CompletableFuture.runAsync(() ->
+                    CompletableFuture<Void> cf = CompletableFuture.runAsync(withTestContext(() ->
                         assertTrue(waitResourceCondition(resource,
                                 new ResourceCondition<>(p -> {
                                     if (isResourceWithReadiness(resource)) {
@@ -494,7 +563,7 @@ public final class KubeResourceManager {
                                     return kubeClient().getClient().resource(resource) != null;
                                 }, "ready")),
                             "Timed out waiting for " + resource.getKind() + "/" +
-                                resource.getMetadata().getName()), EXECUTOR);
+                                resource.getMetadata().getName())), EXECUTOR);
                     if (async) {
                         waiters.add(cf);
                     } else {
@@ -518,20 +587,24 @@ public final class KubeResourceManager {
                     }
                 }
             } else {
-                if (allowUpdate && kubeClient().getClient().resource(resource).get() != null) {
+                HasMetadata live = allowUpdate ? kubeClient().getClient().resource(resource).get() : null;
+                T stamped = stampContentHash(resource, live);
+                if (stamped == null) {
+                    LoggerUtils.logResource("Skipping unchanged", resource);
+                } else if (live != null) {
                     LoggerUtils.logResource("Updating", resource);
-                    type.update(resource);
+                    type.update(stamped);
                 } else {
                     LoggerUtils.logResource("Creating", resource);
-                    type.create(resource);
+                    type.create(stamped);
                 }
                 if (waitReady) {
                     long timeout = Objects.requireNonNullElse(type.getTimeoutForResourceReadiness(),
                         TestFrameConstants.GLOBAL_TIMEOUT_MEDIUM);
-                    CompletableFuture<Void> cf = CompletableFuture.runAsync(() ->
+                    CompletableFuture<Void> cf = CompletableFuture.runAsync(withTestContext(() ->
                         assertTrue(waitResourceCondition(resource, ResourceCondition.readiness(type), timeout),
                             "Timed out waiting for " + resource.getKind() + "/" +
-                                resource.getMetadata().getName()), EXECUTOR);
+                                resource.getMetadata().getName())), EXECUTOR);
                     if (async) {
                         waiters.add(cf);
                     } else {
@@ -567,6 +640,56 @@ public final class KubeResourceManager {
         }
     }
 
+    /**
+     * Enables or disables skipping of updates, which would not change the content applied last time.
+     * Created and updated resources are stamped with {@link TestFrameConstants#CONTENT_HASH_ANNOTATION}
+     * and the update is skipped when the live resource has the same hash and still has all values
+     * of the desired resource, see {@link ResourceUtils#hasContent(HasMetadata, HasMetadata)}. So the update
+     * is not skipped when others (e.g. the operator) changed any value set by the desired resource.
+     *
+     * @param elideNoopUpdates skip updates without change, default {@link TestFrameEnv#ELIDE_NOOP_UPDATES}
+     */
+    public void setElideNoopUpdates(boolean elideNoopUpdates) {
+        this.elideNoopUpdates = elideNoopUpdates;
+    }
+
+    /**
+     * Returns number of updates skipped, because they would not change the resource
+     *
+     * @return number of skipped updates
+     */
+    public long getElidedUpdates() {
+        return elidedUpdates.get();
+    }
+
+    /**
+     * Stamps copy of the resource with hash of its content when skipping of updates without change is enabled
+     *
+     * @param resource desired resource, it is not modified
+     * @param live     current resource in the cluster, {@code null} when it does not exist
+     * @param <T>      type of the resource
+     * @return resource to create or update, {@code null} when the live resource was applied with the same content,
+     * was not changed since and the update can be skipped
+     */
+    private <T extends HasMetadata> T stampContentHash(T resource, HasMetadata live) {
+        if (!elideNoopUpdates) {
+            return resource;
+        }
+        String hash = ResourceUtils.contentHash(resource);
+        if (live != null && live.getMetadata().getAnnotations() != null
+            && hash.equals(live.getMetadata().getAnnotations().get(TestFrameConstants.CONTENT_HASH_ANNOTATION))
+            && ResourceUtils.hasContent(live, resource)) {
+            elidedUpdates.incrementAndGet();
+            return null;
+        }
+        T stamped = kubeClient().getClient().getKubernetesSerialization().clone(resource);
+        if (stamped.getMetadata().getAnnotations() == null) {
+            stamped.getMetadata().setAnnotations(new HashMap<>());
+        }
+        stamped.getMetadata().getAnnotations().put(TestFrameConstants.CONTENT_HASH_ANNOTATION, hash);
+        return stamped;
+    }
+
     /**
      * Deletes resources with wait asynchronously.
      *
@@ -628,6 +751,9 @@ public final class KubeResourceManager {
                 LOGGER.error("Deletion of {}/{} failed with the following error: {}",
                     resource.getKind(), resource.getMetadata().getName(), e.getMessage(), e);
             }
+            if (resource instanceof Namespace) {
+                kubeClient().stopPodCache(resource.getMetadata().getName());
+            }
             deleteCallbacks.forEach(cb -> cb.accept(resource));
         }
 
@@ -643,12 +769,18 @@ public final class KubeResourceManager {
     @SafeVarargs
     public final <T extends HasMetadata> void updateResource(T... resources) {
         for (T resource : resources) {
+            T stamped = stampContentHash(resource,
+                elideNoopUpdates ? kubeClient().getClient().resource(resource).get() : null);
+            if (stamped == null) {
+                LoggerUtils.logResource("Skipping unchanged", resource);
+                continue;
+            }
             LoggerUtils.logResource("Updating", resource);
             ResourceType<T> type = findResourceType(resource);
             if (type != null) {
-                type.update(resource);
+                type.update(stamped);
             } else {
-                kubeClient().getClient().resource(resource).update();
+                kubeClient().getClient().resource(stamped).update();
             }
         }
     }
@@ -822,13 +954,13 @@ public final class KubeResourceManager {
         List<CompletableFuture<Void>> waiters = new ArrayList<>();
         while (!stack.isEmpty()) {
             ResourceItem<?> item = stack.pop();
-            CompletableFuture<Void> cf = CompletableFuture.runAsync(() -> {
+            CompletableFuture<Void> cf = CompletableFuture.runAsync(withTestContext(() -> {
                 try {
                     item.throwableRunner().run();
                 } catch (Exception e) {
                     throw new RuntimeException(e.getMessage(), e);
                 }
-            }, EXECUTOR);
+            }), EXECUTOR);
             if (async) {
                 waiters.add(cf);
             } else {
@@ -936,9 +1068,9 @@ public final class KubeResourceManager {
 
     /* test */ <T extends HasMetadata> void decideDeleteWaitAsync(
         List<CompletableFuture<Void>> waiters, boolean async, T res) {
-        CompletableFuture<Void> cf = CompletableFuture.runAsync(() ->
+        CompletableFuture<Void> cf = CompletableFuture.runAsync(withTestContext(() ->
             assertTrue(waitResourceCondition(res, ResourceCondition.deletion()),
-                "Timed out deleting " + res.getKind() + "/" + res.getMetadata().getName()), EXECUTOR);
+                "Timed out deleting " + res.getKind() + "/" + res.getMetadata().getName())), EXECUTOR);
         if (async) {
             waiters.add(cf);
         } else {
@@ -0,0 +1,351 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.resources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+
+/**
+ * Manifest compiled once into object trees with parameter slots, from which variants are instantiated
+ * by structural copying instead of parsing the YAML again (or forking {@code oc process}).
+ * Slots of the name, namespace and labels are in the metadata of every resource, slot of the replicas
+ * is {@code /spec/replicas} of the resources which have it and slots of the image are all containers and
+ * init containers of the resource. Any other value is set by its JSON pointer. Slots apply to every resource
+ * of the template, unless the variant is scoped to a kind or to the index of the resource in the template.
+ * The typed class of every resource is resolved during compilation.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * ManifestTemplate template = KubeResourceManager.get().kubeClient().compileTemplate(Path.of("kafka.yaml"));
+ * List<HasMetadata> clusters = template.instantiate(100, (i, v) -> v
+ *     .withName("cluster-" + i)
+ *     .withValue("/spec/kafka/replicas", 1)
+ *     .forKind("KafkaNodePool").withName("pool-" + i));
+ * }</pre>
+ */
+public final class ManifestTemplate {
+
+    private static final JsonPointer NAME = JsonPointer.compile("/metadata/name");
+    private static final JsonPointer NAMESPACE = JsonPointer.compile("/metadata/namespace");
+    private static final JsonPointer LABELS = JsonPointer.compile("/metadata/labels");
+    private static final JsonPointer REPLICAS = JsonPointer.compile("/spec/replicas");
+
+    private final KubernetesSerialization serialization;
+    private final List<Skeleton> skeletons;
+
+    private ManifestTemplate(KubernetesSerialization serialization, List<Skeleton> skeletons) {
+        this.serialization = serialization;
+        this.skeletons = skeletons;
+    }
+
+    /**
+     * Compiles the template from the resources
+     *
+     * @param serialization serialization of the client, which knows all the typed resources
+     * @param resources     resources of the template, e.g. read by
+     *                      {@link io.skodjob.testframe.clients.KubeClient#readResourcesFromFile}
+     * @return compiled template
+     */
+    public static ManifestTemplate compile(KubernetesSerialization serialization, List<HasMetadata> resources) {
+        List<Skeleton> skeletons = new ArrayList<>(resources.size());
+        for (HasMetadata resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            ObjectNode tree = serialization.convertValue(resource, ObjectNode.class);
+            List<JsonPointer> images = new ArrayList<>();
+            findImages(tree, JsonPointer.empty(), images);
+            skeletons.add(new Skeleton(skeletons.size(), tree, resource.getClass(), images));
+        }
+        return new ManifestTemplate(serialization, List.copyOf(skeletons));
+    }
+
+    /**
+     * Returns number of resources in the template
+     *
+     * @return number of resources
+     */
+    public int size() {
+        return skeletons.size();
+    }
+
+    /**
+     * Starts a new variant of the template
+     *
+     * @return variant with no parameter set
+     */
+    public Variant variant() {
+        return new Variant(new ArrayList<>(), skeleton -> true);
+    }
+
+    /**
+     * Instantiates many variants of the template
+     *
+     * @param count      number of variants
+     * @param parameters sets parameters of the variant with the index
+     * @return resources of all variants, variant after variant
+     */
+    public List<HasMetadata> instantiate(int count, BiConsumer<Integer, Variant> parameters) {
+        List<HasMetadata> resources = new ArrayList<>(count * skeletons.size());
+        for (int i = 0; i < count; i++) {
+            Variant variant = variant();
+            parameters.accept(i, variant);
+            resources.addAll(variant.build());
+        }
+        return resources;
+    }
+
+    /**
+     * Collects pointers to images of all containers and init containers in the tree
+     */
+    private static void findImages(JsonNode node, JsonPointer pointer, List<JsonPointer> images) {
+        if (node.isObject()) {
+            node.properties().forEach(e -> {
+                JsonPointer child = pointer.appendProperty(e.getKey());
+                if ((e.getKey().equals("containers") || e.getKey().equals("initContainers"))
+                    && e.getValue().isArray()) {
+                    for (int i = 0; i < e.getValue().size(); i++) {
+                        if (e.getValue().get(i).has("image")) {
+                            images.add(child.appendIndex(i).appendProperty("image"));
+                        }
+                    }
+                } else {
+                    findImages(e.getValue(), child, images);
+                }
+            });
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                findImages(node.get(i), pointer.appendIndex(i), images);
+            }
+        }
+    }
+
+    /**
+     * Sets the value at the pointer, missing parent objects are created
+     */
+    private static void set(ObjectNode root, JsonPointer pointer, JsonNode value) {
+        JsonNode parent = root;
+        JsonPointer current = pointer;
+        while (!current.tail().matches()) {
+            JsonNode next = parent.get(current.getMatchingProperty());
+            if (next == null && parent.isArray() && current.mayMatchElement()) {
+                next = parent.get(current.getMatchingIndex());
+            }
+            if (next == null || next.isNull()) {
+                if (!parent.isObject()) {
+                    throw new IllegalArgumentException("Cannot set " + pointer + ", missing element " + current);
+                }
+                next = ((ObjectNode) parent).putObject(current.getMatchingProperty());
+            }
+            parent = next;
+            current = current.tail();
+        }
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(current.getMatchingProperty(), value);
+        } else if (parent.isArray() && current.mayMatchElement() && current.getMatchingIndex() < parent.size()) {
+            ((ArrayNode) parent).set(current.getMatchingIndex(), value);
+        } else {
+            throw new IllegalArgumentException("Cannot set " + pointer + ", parent is not an object or array");
+        }
+    }
+
+    /**
+     * Parameters of one instance of the template. Parameters apply to all resources of the template, unless they
+     * are set on a view scoped by {@link #forKind(String)} or {@link #forResource(int)}.
+     */
+    public final class Variant {
+        private final List<Slot> slots;
+        private final Predicate<Skeleton> scope;
+
+        private Variant(List<Slot> slots, Predicate<Skeleton> scope) {
+            this.slots = slots;
+            this.scope = scope;
+        }
+
+        /**
+         * Returns view of this variant whose parameters apply only to the resources of the kind
+         *
+         * @param kind kind of the resources, e.g. {@code Deployment}
+         * @return scoped view, parameters set by it are part of this variant
+         */
+        public Variant forKind(String kind) {
+            return new Variant(slots, skeleton -> kind.equals(skeleton.tree.path("kind").asText()));
+        }
+
+        /**
+         * Returns view of this variant whose parameters apply only to the resource with the index
+         *
+         * @param index index of the resource in the template, i.e. its order in the manifest
+         * @return scoped view, parameters set by it are part of this variant
+         */
+        public Variant forResource(int index) {
+            if (index < 0 || index >= skeletons.size()) {
+                throw new IllegalArgumentException("Template has no resource with index " + index
+                    + ", it has " + skeletons.size() + " resources");
+            }
+            return new Variant(slots, skeleton -> skeleton.index == index);
+        }
+
+        /**
+         * Returns view of this variant whose parameters apply to all resources of the template
+         *
+         * @return unscoped view, parameters set by it are part of this variant
+         */
+        public Variant forAll() {
+            return new Variant(slots, skeleton -> true);
+        }
+
+        /**
+         * Sets name of the resources
+         *
+         * @param name name
+         * @return this variant
+         */
+        public Variant withName(String name) {
+            return withValue(NAME, name);
+        }
+
+        /**
+         * Sets namespace of the resources
+         *
+         * @param namespace namespace
+         * @return this variant
+         */
+        public Variant withNamespace(String namespace) {
+            return withValue(NAMESPACE, namespace);
+        }
+
+        /**
+         * Sets image of all containers and init containers of the resources
+         *
+         * @param image image
+         * @return this variant
+         */
+        public Variant withImage(String image) {
+            slots.add(new Slot(scope, (skeleton, tree) ->
+                skeleton.images.forEach(pointer -> set(tree, pointer, tree.textNode(image)))));
+            return this;
+        }
+
+        /**
+         * Sets {@code spec.replicas} of the resources which have it, other resources are left untouched
+         *
+         * @param replicas replicas
+         * @return this variant
+         */
+        public Variant withReplicas(int replicas) {
+            slots.add(new Slot(scope, (skeleton, tree) -> {
+                if (!tree.at(REPLICAS).isMissingNode()) {
+                    set(tree, REPLICAS, tree.numberNode(replicas));
+                }
+            }));
+            return this;
+        }
+
+        /**
+         * Adds label to the resources
+         *
+         * @param key   label key
+         * @param value label value
+         * @return this variant
+         */
+        public Variant withLabel(String key, String value) {
+            slots.add(new Slot(scope, (skeleton, tree) ->
+                set(tree, LABELS.appendProperty(key), tree.textNode(value))));
+            return this;
+        }
+
+        /**
+         * Adds labels to the resources
+         *
+         * @param labels labels
+         * @return this variant
+         */
+        public Variant withLabels(Map<String, String> labels) {
+            labels.forEach(this::withLabel);
+            return this;
+        }
+
+        /**
+         * Sets value in the resources, missing parent objects are created
+         *
+         * @param pointer JSON pointer, e.g. {@code /spec/kafka/replicas}
+         * @param value   value, converted to JSON as it would be serialized
+         * @return this variant
+         */
+        public Variant withValue(String pointer, Object value) {
+            return withValue(JsonPointer.compile(pointer), value);
+        }
+
+        private Variant withValue(JsonPointer pointer, Object value) {
+            JsonNode node = value == null ? NullNode.getInstance() : serialization.convertValue(value, JsonNode.class);
+            slots.add(new Slot(scope, (skeleton, tree) -> set(tree, pointer, node.deepCopy())));
+            return this;
+        }
+
+        /**
+         * Instantiates the resources of the template with the parameters of the whole variant,
+         * regardless of the scope of this view
+         *
+         * @return new typed resources
+         */
+        public List<HasMetadata> build() {
+            List<HasMetadata> resources = new ArrayList<>(skeletons.size());
+            for (Skeleton skeleton : skeletons) {
+                ObjectNode tree = skeleton.tree.deepCopy();
+                for (Slot slot : slots) {
+                    if (slot.scope.test(skeleton)) {
+                        slot.setter.accept(skeleton, tree);
+                    }
+                }
+                resources.add(serialization.convertValue(tree, skeleton.type));
+            }
+            return resources;
+        }
+
+        /**
+         * Instantiates the first resource of the template with the parameters
+         *
+         * @param <T> type of the resource
+         * @return new typed resource
+         */
+        @SuppressWarnings("unchecked")
+        public <T extends HasMetadata> T buildFirst() {
+            return (T) build().get(0);
+        }
+    }
+
+    /**
+     * Parameter of the variant, applied in order in which the parameters were set
+     *
+     * @param scope  resources to which the parameter applies
+     * @param setter sets the parameter in the copy of the resource tree
+     */
+    private record Slot(Predicate<Skeleton> scope, BiConsumer<Skeleton, ObjectNode> setter) {
+    }
+
+    /**
+     * Compiled resource of the template
+     *
+     * @param index  index of the resource in the template
+     * @param tree   object tree of the resource
+     * @param type   typed class of the resource
+     * @param images pointers to the images of the containers
+     */
+    private record Skeleton(int index, ObjectNode tree, Class<? extends HasMetadata> type,
+                            List<JsonPointer> images) {
+    }
+}
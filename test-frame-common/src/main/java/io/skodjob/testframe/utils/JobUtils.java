@@ -9,6 +9,7 @@ import io.fabric8.kubernetes.api.model.PodCondition;
 import io.fabric8.kubernetes.api.model.batch.v1.Job;
 import io.fabric8.kubernetes.api.model.batch.v1.JobCondition;
 import io.skodjob.testframe.TestFrameConstants;
+import io.skodjob.testframe.clients.KubeClient;
 import io.skodjob.testframe.resources.KubeResourceManager;
 import io.skodjob.testframe.wait.Wait;
 import org.slf4j.Logger;
@@ -41,9 +42,9 @@ public final class JobUtils {
         String jobPodName = KubeResourceManager.get().kubeClient()
             .listPodsByPrefixInName(namespace, jobName).get(0).getMetadata().getName();
 
-        Wait.until("Job contains log message: " + logMessage,
-            TestFrameConstants.GLOBAL_POLL_INTERVAL_LONG, TestFrameConstants.GLOBAL_TIMEOUT,
-            () -> KubeResourceManager.get().kubeClient().getLogsFromPod(namespace, jobPodName).contains(logMessage));
+        LOGGER.info("Waiting for Job: {}/{} to contain log message: {}", namespace, jobName, logMessage);
+        KubeResourceManager.get().kubeClient().followLog(namespace, jobPodName, null)
+            .waitFor(TestFrameConstants.GLOBAL_TIMEOUT, logMessage);
     }
 
     /**
@@ -65,9 +66,17 @@ public final class JobUtils {
      */
     public static void waitForJobDeletion(final String namespace, String jobName) {
         LOGGER.debug("Waiting for Job: {}/{} deletion", namespace, jobName);
-        Wait.until("deletion of Job: " + namespace + "/" + jobName,
-            TestFrameConstants.GLOBAL_POLL_INTERVAL_1_SEC, TestFrameConstants.GLOBAL_TIMEOUT_MEDIUM,
-            () -> KubeResourceManager.get().kubeClient().listPodsByPrefixInName(namespace, jobName).isEmpty());
+        KubeClient kubeClient = KubeResourceManager.get().kubeClient();
+        if (kubeClient.isPodCacheEnabled()) {
+            kubeClient.podCache().waitUntil("deletion of Job: " + namespace + "/" + jobName, namespace,
+                TestFrameConstants.GLOBAL_TIMEOUT_MEDIUM,
+                () -> kubeClient.podCache().listByPrefix(namespace, jobName).isEmpty(), () -> {
+                });
+        } else {
+            Wait.until("deletion of Job: " + namespace + "/" + jobName,
+                TestFrameConstants.GLOBAL_POLL_INTERVAL_1_SEC, TestFrameConstants.GLOBAL_TIMEOUT_MEDIUM,
+                () -> kubeClient.listPodsByPrefixInName(namespace, jobName).isEmpty());
+        }
         LOGGER.debug("Job: {}/{} was deleted", namespace, jobName);
     }
 
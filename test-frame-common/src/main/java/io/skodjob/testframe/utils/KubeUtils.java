@@ -4,6 +4,12 @@
  */
 package io.skodjob.testframe.utils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.LabelSelector;
+import io.fabric8.kubernetes.api.model.LabelSelectorRequirement;
 import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.NamespaceBuilder;
 import io.fabric8.openshift.api.model.operatorhub.v1alpha1.InstallPlan;
@@ -118,4 +124,67 @@ public final class KubeUtils {
     public static boolean isMultinode() {
         return KubeResourceManager.get().kubeClient().getClient().nodes().list().getItems().size() > 1;
     }
+
+    /**
+     * Converts label selector into its string form accepted by the API server and the CLI,
+     * e.g. {@code app=kafka,tier in (a,b),!legacy}
+     *
+     * @param selector label selector
+     * @return selector as string, empty string for empty selector
+     */
+    public static String labelSelectorToString(LabelSelector selector) {
+        List<String> requirements = new ArrayList<>();
+        if (selector.getMatchLabels() != null) {
+            selector.getMatchLabels().forEach((key, value) -> requirements.add(key + "=" + value));
+        }
+        if (selector.getMatchExpressions() != null) {
+            for (LabelSelectorRequirement expression : selector.getMatchExpressions()) {
+                String key = expression.getKey();
+                String values = expression.getValues() == null ? "" : String.join(",", expression.getValues());
+                requirements.add(switch (expression.getOperator()) {
+                    case "In" -> key + " in (" + values + ")";
+                    case "NotIn" -> key + " notin (" + values + ")";
+                    case "Exists" -> key;
+                    case "DoesNotExist" -> "!" + key;
+                    default -> throw new IllegalArgumentException("Unsupported operator " + expression.getOperator());
+                });
+            }
+        }
+        return String.join(",", requirements);
+    }
+
+    /**
+     * Checks whether the labels match the label selector, the same way as the API server does
+     *
+     * @param selector label selector, {@code null} matches everything
+     * @param labels   labels of the resource, can be {@code null}
+     * @return true if the labels match the selector
+     */
+    public static boolean matchesLabelSelector(LabelSelector selector, Map<String, String> labels) {
+        if (selector == null) {
+            return true;
+        }
+        Map<String, String> actual = labels == null ? Map.of() : labels;
+        if (selector.getMatchLabels() != null && !selector.getMatchLabels().entrySet().stream()
+            .allMatch(e -> e.getValue().equals(actual.get(e.getKey())))) {
+            return false;
+        }
+        if (selector.getMatchExpressions() != null) {
+            for (LabelSelectorRequirement expression : selector.getMatchExpressions()) {
+                String value = actual.get(expression.getKey());
+                List<String> values = expression.getValues() == null ? List.of() : expression.getValues();
+                boolean matches = switch (expression.getOperator()) {
+                    case "In" -> value != null && values.contains(value);
+                    case "NotIn" -> value == null || !values.contains(value);
+                    case "Exists" -> actual.containsKey(expression.getKey());
+                    case "DoesNotExist" -> !actual.containsKey(expression.getKey());
+                    default -> throw new IllegalArgumentException("Unsupported operator " + expression.getOperator());
+                };
+                if (!matches) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
 }
@@ -9,6 +9,7 @@ import io.fabric8.kubernetes.api.model.LabelSelector;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.readiness.Readiness;
 import io.skodjob.testframe.TestFrameConstants;
+import io.skodjob.testframe.clients.KubeClient;
 import io.skodjob.testframe.resources.KubeResourceManager;
 import io.skodjob.testframe.wait.Wait;
 import org.slf4j.Logger;
@@ -17,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -39,11 +41,11 @@ public final class PodUtils {
      * @param onTimeout       callback on timeout
      */
     public static void waitForPodsReady(String namespaceName, boolean containersReady, Runnable onTimeout) {
-        Wait.until("readiness of all Pods in namespace " + namespaceName,
-            TestFrameConstants.GLOBAL_POLL_INTERVAL_MEDIUM, READINESS_TIMEOUT,
+        KubeClient kubeClient = KubeResourceManager.get().kubeClient();
+        waitForPods(kubeClient, "readiness of all Pods in namespace " + namespaceName, namespaceName,
             () -> {
-                List<Pod> pods = KubeResourceManager.get().kubeClient().getClient()
-                    .pods().inNamespace(namespaceName).list().getItems();
+                List<Pod> pods = kubeClient.isPodCacheEnabled() ? kubeClient.podCache().list(namespaceName)
+                    : kubeClient.getClient().pods().inNamespace(namespaceName).list().getItems();
                 if (pods.isEmpty()) {
                     LOGGER.debug("There are no existing Pods in Namespace {}", namespaceName);
                     return false;
@@ -81,11 +83,13 @@ public final class PodUtils {
      */
     public static void waitForPodsReady(String namespaceName, LabelSelector selector, int expectPodsCount,
                                         boolean containers, Runnable onTimeout) {
-        Wait.until("readiness of all Pods matching " + selector + " in Namespace " + namespaceName,
-            TestFrameConstants.GLOBAL_POLL_INTERVAL_MEDIUM, READINESS_TIMEOUT,
+        KubeClient kubeClient = KubeResourceManager.get().kubeClient();
+        waitForPods(kubeClient, "readiness of all Pods matching " + selector + " in Namespace " + namespaceName,
+            namespaceName,
             () -> {
-                List<Pod> pods = KubeResourceManager.get().kubeClient().getClient().pods()
-                    .inNamespace(namespaceName).withLabelSelector(selector).list().getItems();
+                List<Pod> pods = kubeClient.isPodCacheEnabled() ? kubeClient.podCache().list(namespaceName, selector)
+                    : kubeClient.getClient().pods().inNamespace(namespaceName).withLabelSelector(selector).list()
+                    .getItems();
                 if (pods.isEmpty() && expectPodsCount == 0) {
                     LOGGER.debug("All expected Pods {} in Namespace {} are ready", selector, namespaceName);
                     return true;
@@ -120,6 +124,26 @@ public final class PodUtils {
             }, onTimeout);
     }
 
+    /**
+     * Waits for the pods condition, with enabled pod cache the condition is checked on every change of the pods
+     * instead of polling
+     *
+     * @param kubeClient    kube client
+     * @param description   information about on what we are waiting
+     * @param namespaceName namespace of the pods
+     * @param ready         condition
+     * @param onTimeout     callback on timeout
+     */
+    private static void waitForPods(KubeClient kubeClient, String description, String namespaceName,
+                                    BooleanSupplier ready, Runnable onTimeout) {
+        if (kubeClient.isPodCacheEnabled()) {
+            kubeClient.podCache().waitUntil(description, namespaceName, READINESS_TIMEOUT, ready, onTimeout);
+        } else {
+            Wait.until(description, TestFrameConstants.GLOBAL_POLL_INTERVAL_MEDIUM, READINESS_TIMEOUT, ready,
+                onTimeout);
+        }
+    }
+
     /**
      * Wait for pod ready, if not ready for timeout try to restart and check again
      *
@@ -4,10 +4,21 @@
  */
 package io.skodjob.testframe.utils;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.fabric8.kubernetes.api.model.GenericKubernetesResource;
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.skodjob.testframe.TestFrameConstants;
+import io.skodjob.testframe.clients.TypedResources;
 import io.skodjob.testframe.resources.KubeResourceManager;
 
 /**
@@ -15,6 +26,13 @@ import io.skodjob.testframe.resources.KubeResourceManager;
  */
 public class ResourceUtils {
     private static final JsonMapper JSON_MAPPER = new JsonMapper();
+    private static final JsonMapper SORTED_JSON_MAPPER = JsonMapper.builder()
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .build();
+
+    // metadata set by the API server, which are not part of the desired content
+    private static final List<String> SERVER_METADATA = List.of("resourceVersion", "uid", "creationTimestamp",
+        "generation", "managedFields", "selfLink", "deletionTimestamp", "deletionGracePeriodSeconds");
 
     private ResourceUtils() {
         // Private constructor to prevent instantiation
@@ -49,7 +67,133 @@ public class ResourceUtils {
             .withName(resourceName)
             .get();
 
-        JsonNode genericResourceJson = JSON_MAPPER.valueToTree(foundGenericResource);
-        return JSON_MAPPER.convertValue(genericResourceJson, resourceType);
+        // converted through token buffer, the intermediate JSON tree is not needed
+        return JSON_MAPPER.convertValue(foundGenericResource, resourceType);
+    }
+
+    /**
+     * Gets the resource of the API version deserialized directly from the API server response into
+     * the resource type, without {@link GenericKubernetesResource} as with
+     * {@link #getGenericResourceReturnSpecific(String, String, String, String, Class)}.
+     *
+     * @param namespaceName Name of the Namespace where the resource is present, {@code null} for cluster-scoped.
+     * @param resourceName  Name of the resource.
+     * @param apiVersion    Version of API by which the resource should be searched by.
+     * @param kind          Kind of the resource.
+     * @param resourceType  Class to which the object should be deserialized.
+     * @param <T>           generic that extends {@link HasMetadata}
+     * @return specific resource or {@code null} when it does not exist
+     */
+    public static <T extends HasMetadata> T getTypedResource(String namespaceName, String resourceName,
+                                                             String apiVersion, String kind, Class<T> resourceType) {
+        return KubeResourceManager.get().kubeClient().typedResources()
+            .get(namespaceName, resourceName, apiVersion, kind, resourceType);
+    }
+
+    /**
+     * Lists resources of the API version deserialized directly from the API server response into the resource type
+     *
+     * @param namespaceName Name of the Namespace, {@code null} for all namespaces or cluster-scoped resources.
+     * @param apiVersion    Version of API by which the resources should be searched by.
+     * @param kind          Kind of the resources.
+     * @param resourceType  Class to which the objects should be deserialized.
+     * @param <T>           generic that extends {@link HasMetadata}
+     * @return specific resources
+     */
+    public static <T extends HasMetadata> List<T> listTypedResources(String namespaceName, String apiVersion,
+                                                                     String kind, Class<T> resourceType) {
+        return KubeResourceManager.get().kubeClient().typedResources()
+            .list(namespaceName, apiVersion, kind, resourceType);
+    }
+
+    /**
+     * Watches resources of the API version, events are deserialized directly into the resource type
+     *
+     * @param namespaceName Name of the Namespace, {@code null} for all namespaces or cluster-scoped resources.
+     * @param apiVersion    Version of API by which the resources should be searched by.
+     * @param kind          Kind of the resources.
+     * @param resourceType  Class to which the objects should be deserialized.
+     * @param handler       Receives type of the event (ADDED, MODIFIED, DELETED) and the resource.
+     * @param <T>           generic that extends {@link HasMetadata}
+     * @return handle closing the watch, with resourceVersion of the last event
+     */
+    public static <T extends HasMetadata> TypedResources.TypedWatch watchTypedResources(String namespaceName,
+                                                                                        String apiVersion,
+                                                                                        String kind,
+                                                                                        Class<T> resourceType,
+                                                                                        BiConsumer<String, T> handler) {
+        return KubeResourceManager.get().kubeClient().typedResources()
+            .watch(namespaceName, apiVersion, kind, resourceType, handler);
+    }
+
+    /**
+     * Computes hash of the desired content of the resource.
+     * Status, metadata set by the API server and the {@link TestFrameConstants#CONTENT_HASH_ANNOTATION}
+     * are ignored and keys of the maps are sorted, so the same content always has the same hash.
+     *
+     * @param resource resource
+     * @return hex encoded SHA-256 hash
+     */
+    public static String contentHash(HasMetadata resource) {
+        ObjectNode tree = desiredContent(resource);
+        try {
+            byte[] content = SORTED_JSON_MAPPER.writeValueAsBytes(SORTED_JSON_MAPPER.treeToValue(tree, Object.class));
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute hash of " + resource.getKind() + "/"
+                + resource.getMetadata().getName(), e);
+        }
+    }
+
+    /**
+     * Checks whether the live resource has the desired content, i.e. every value set in the desired resource
+     * has the same value in the live resource. Values set only in the live resource, e.g. defaults filled in
+     * by the API server, are ignored, as well as status and metadata set by the API server.
+     *
+     * @param live    live resource
+     * @param desired desired resource
+     * @return true when the live resource has all values of the desired resource
+     */
+    public static boolean hasContent(HasMetadata live, HasMetadata desired) {
+        return contains(desiredContent(live), desiredContent(desired));
+    }
+
+    private static ObjectNode desiredContent(HasMetadata resource) {
+        ObjectNode tree = JSON_MAPPER.valueToTree(resource);
+        tree.remove("status");
+        if (tree.get("metadata") instanceof ObjectNode metadata) {
+            metadata.remove(SERVER_METADATA);
+            if (metadata.get("annotations") instanceof ObjectNode annotations) {
+                annotations.remove(TestFrameConstants.CONTENT_HASH_ANNOTATION);
+                if (annotations.isEmpty()) {
+                    metadata.remove("annotations");
+                }
+            }
+        }
+        return tree;
+    }
+
+    private static boolean contains(JsonNode live, JsonNode desired) {
+        if (desired == null || desired.isNull()) {
+            return live == null || live.isNull();
+        } else if (live == null) {
+            return false;
+        } else if (desired.isObject()) {
+            return live.isObject() && desired.properties().stream()
+                .allMatch(e -> contains(live.get(e.getKey()), e.getValue()));
+        } else if (desired.isArray()) {
+            if (!live.isArray() || live.size() != desired.size()) {
+                return false;
+            }
+            for (int i = 0; i < desired.size(); i++) {
+                if (!contains(live.get(i), desired.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (desired.isNumber() && live.isNumber()) {
+            return desired.decimalValue().compareTo(live.decimalValue()) == 0;
+        }
+        return desired.equals(live);
     }
 }
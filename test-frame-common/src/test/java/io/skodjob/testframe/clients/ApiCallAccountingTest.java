@@ -0,0 +1,114 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.resources.KubeResourceManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class ApiCallAccountingTest {
+    private KubernetesClient kubernetesClient;
+    private KubernetesMockServer server;
+
+    @AfterEach
+    void tearDown() {
+        KubeResourceManager.get().cleanTestContext();
+    }
+
+    @Test
+    void testCallsAreAccountedByTestVerbResourceAndStatus() throws NoSuchMethodException {
+        ExtensionContext ctx = mock(ExtensionContext.class);
+        when(ctx.getTestClass()).thenReturn(Optional.of(ApiCallAccountingTest.class));
+        when(ctx.getTestMethod()).thenReturn(Optional.of(
+            ApiCallAccountingTest.class.getDeclaredMethod("testCallsAreAccountedByTestVerbResourceAndStatus")));
+        KubeResourceManager.get().setTestContext(ctx);
+        String test = ApiCallAccounting.testName(ctx);
+        assertEquals("ApiCallAccountingTest.testCallsAreAccountedByTestVerbResourceAndStatus", test);
+
+        KubeClient cl = KubeClient.fromUrlAndToken(kubernetesClient.getConfiguration().getMasterUrl(),
+            kubernetesClient.getConfiguration().getOauthToken());
+        KubernetesClient client = cl.getClient();
+        client.configMaps().inNamespace("ns").resource(new ConfigMapBuilder()
+            .withNewMetadata().withName("cm").endMetadata().build()).create();
+        for (int i = 0; i < 3; i++) {
+            client.configMaps().inNamespace("ns").withName("cm").get();
+        }
+        client.configMaps().inNamespace("ns").withName("missing").get();
+        client.apps().deployments().inNamespace("ns").list();
+        client.nodes().list();
+
+        List<ApiCallStats> top = cl.apiCalls().topTalkers(test, 1);
+        assertEquals(1, top.size());
+        assertEquals(new ApiCall(test, "get", "configmaps", "ns", 200), top.get(0).call());
+        assertEquals(3, top.get(0).count());
+
+        List<ApiCallStats> stats = cl.apiCalls().stats(test);
+        assertTrue(stats.stream().anyMatch(s -> s.call().equals(new ApiCall(test, "create", "configmaps", "ns", 201))));
+        assertTrue(stats.stream().anyMatch(s -> s.call().equals(new ApiCall(test, "get", "configmaps", "ns", 404))));
+        assertTrue(stats.stream()
+            .anyMatch(s -> s.call().equals(new ApiCall(test, "list", "deployments.apps", "ns", 200))));
+        assertTrue(stats.stream().anyMatch(s -> s.call().equals(new ApiCall(test, "list", "nodes", "", 200))));
+        assertEquals(7, cl.apiCalls().totalCalls(test));
+        assertTrue(cl.apiCalls().report(test, 3).startsWith("7 API calls, top 3:"));
+
+        KubeResourceManager.get().cleanTestContext();
+        client.apps().deployments().inNamespace("ns").resource(new DeploymentBuilder()
+            .withNewMetadata().withName("dep").endMetadata().build()).delete();
+        assertEquals(1, cl.apiCalls().totalCalls(ApiCallAccounting.NO_TEST));
+        assertEquals(new ApiCall(ApiCallAccounting.NO_TEST, "delete", "deployments.apps", "ns", 404),
+            cl.apiCalls().stats(ApiCallAccounting.NO_TEST).get(0).call());
+
+        cl.apiCalls().reset();
+        assertEquals(0, cl.apiCalls().totalCalls(test));
+        assertEquals("", cl.apiCalls().report(test, 3));
+    }
+
+    @Test
+    void testCallsFromBulkTasksAndRetriesAreAccountedToTheTest() throws NoSuchMethodException {
+        ExtensionContext ctx = mock(ExtensionContext.class);
+        when(ctx.getTestClass()).thenReturn(Optional.of(ApiCallAccountingTest.class));
+        when(ctx.getTestMethod()).thenReturn(Optional.of(
+            ApiCallAccountingTest.class.getDeclaredMethod("testCallsFromBulkTasksAndRetriesAreAccountedToTheTest")));
+        KubeResourceManager.get().setTestContext(ctx);
+        String test = ApiCallAccounting.testName(ctx);
+
+        KubeClient cl = KubeClient.fromUrlAndToken(kubernetesClient.getConfiguration().getMasterUrl(),
+            kubernetesClient.getConfiguration().getOauthToken());
+        List<HasMetadata> configMaps = List.of(
+            new ConfigMapBuilder().withNewMetadata().withName("cm-1").withNamespace("ns").endMetadata().build(),
+            new ConfigMapBuilder().withNewMetadata().withName("cm-2").withNamespace("ns").endMetadata().build());
+        new BulkOperation(cl.getClient(), configMaps)
+            .withContextPropagation(KubeResourceManager.get()::withTestContext).create();
+        assertEquals(2, cl.apiCalls().stats(test).stream()
+            .filter(s -> s.call().verb().equals("create")).mapToLong(ApiCallStats::count).sum());
+
+        // the first attempt fails, the retry is sent by the scheduler thread of the client
+        server.expect().get().withPath("/api/v1/namespaces/ns/configmaps/cm-1").andReturn(503, "").once();
+        cl.getClient().configMaps().inNamespace("ns").withName("cm-1").get();
+        assertTrue(cl.apiCalls().stats(test).stream()
+            .anyMatch(s -> s.call().equals(new ApiCall(test, "get", "configmaps", "ns", 200))));
+        assertEquals(1, cl.apiCalls().stats(test).stream()
+            .filter(s -> s.call().statusCode() == 503).mapToLong(ApiCallStats::count).sum());
+        assertEquals(0, cl.apiCalls().totalCalls(ApiCallAccounting.NO_TEST));
+    }
+}
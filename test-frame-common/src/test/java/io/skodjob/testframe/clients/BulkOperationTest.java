@@ -0,0 +1,150 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.ServiceAccountBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class BulkOperationTest {
+    private static final String NAMESPACE = "bulk";
+
+    private KubernetesClient kubernetesClient;
+
+    private static HasMetadata configMap(String name) {
+        return new ConfigMapBuilder().withNewMetadata().withName(name).withNamespace(NAMESPACE).endMetadata()
+            .addToData("key", name).build();
+    }
+
+    @Test
+    void testCreateOrUpdateReportsEveryResource() {
+        kubernetesClient.resource(configMap("cm-0")).create();
+        List<HasMetadata> resources = IntStream.range(0, 20).mapToObj(i -> configMap("cm-" + i))
+            .collect(ArrayList::new, List::add, List::addAll);
+
+        BulkResult result = new BulkOperation(kubernetesClient, resources)
+            .withConcurrency(4)
+            .withModifier(r -> {
+                r.getMetadata().setLabels(Map.of("bulk", "true"));
+                return r;
+            })
+            .createOrUpdate();
+
+        assertTrue(result.isSuccess());
+        assertEquals(20, result.items().size());
+        assertEquals(BulkItemResult.Outcome.UPDATED, result.items().get(0).outcome());
+        assertEquals(BulkItemResult.Outcome.CREATED, result.items().get(19).outcome());
+        assertEquals("cm-19", result.items().get(19).resource().getMetadata().getName());
+        assertEquals(20, kubernetesClient.configMaps().inNamespace(NAMESPACE).withLabel("bulk", "true").list()
+            .getItems().size());
+    }
+
+    @Test
+    void testFailuresDoNotStopOtherResources() {
+        kubernetesClient.resource(configMap("existing")).create();
+        List<HasMetadata> resources = List.of(configMap("existing"), configMap("new"));
+
+        BulkResult result = new BulkOperation(kubernetesClient, resources).create();
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.failures().size());
+        assertEquals("existing", result.failures().getFirst().resource().getMetadata().getName());
+        assertEquals(BulkItemResult.Outcome.CREATED, result.items().get(1).outcome());
+        assertThrows(KubernetesClientException.class, result::throwOnFailure);
+    }
+
+    @Test
+    void testListMethodsOfClientAreSequentialAndStopAtFirstFailure() {
+        KubeClient client = KubeClient.fromUrlAndToken(kubernetesClient.getConfiguration().getMasterUrl(),
+            kubernetesClient.getConfiguration().getOauthToken());
+        kubernetesClient.resource(configMap("existing")).create();
+        List<String> order = new ArrayList<>();
+        List<HasMetadata> resources = List.of(configMap("first"),
+            new NamespaceBuilder().withNewMetadata().withName(NAMESPACE).endMetadata().build(),
+            configMap("existing"), configMap("last"));
+
+        assertThrows(KubernetesClientException.class, () -> client.create(resources, r -> {
+            order.add(Thread.currentThread().getName() + "/" + r.getMetadata().getName());
+            return r;
+        }));
+
+        String thread = Thread.currentThread().getName();
+        assertEquals(List.of(thread + "/first", thread + "/" + NAMESPACE, thread + "/existing"), order);
+        assertNull(kubernetesClient.configMaps().inNamespace(NAMESPACE).withName("last").get());
+    }
+
+    @Test
+    void testResourcesAreProcessedInStagesByKind() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<HasMetadata> resources = List.of(
+            configMap("config"),
+            new ServiceAccountBuilder().withNewMetadata().withName("sa").withNamespace(NAMESPACE).endMetadata()
+                .build(),
+            new NamespaceBuilder().withNewMetadata().withName(NAMESPACE).endMetadata().build());
+
+        new BulkOperation(kubernetesClient, resources).withModifier(r -> {
+            order.add(r.getKind());
+            return r;
+        }).create().throwOnFailure();
+        assertEquals(List.of("Namespace", "ServiceAccount", "ConfigMap"), order);
+
+        order.clear();
+        BulkResult deleted = new BulkOperation(kubernetesClient, resources).withModifier(r -> {
+            order.add(r.getKind());
+            return r;
+        }).delete();
+        assertEquals(List.of("ConfigMap", "ServiceAccount", "Namespace"), order);
+        assertTrue(deleted.items().stream().allMatch(i -> i.outcome() == BulkItemResult.Outcome.DELETED));
+        assertNull(kubernetesClient.namespaces().withName(NAMESPACE).get());
+    }
+
+    @Test
+    void testConcurrencyLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<HasMetadata> resources = IntStream.range(0, 12).mapToObj(i -> configMap("limited-" + i))
+            .collect(ArrayList::new, List::add, List::addAll);
+
+        BulkResult result = new BulkOperation(kubernetesClient, resources)
+            .withConcurrency(3)
+            .withModifier(r -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return null;
+            })
+            .create();
+
+        assertTrue(maxRunning.get() <= 3);
+        assertTrue(result.items().stream().allMatch(i -> i.outcome() == BulkItemResult.Outcome.SKIPPED));
+        assertNotNull(result.items().get(11).resource());
+    }
+}
@@ -110,6 +110,42 @@ class KubeResourceManagerTest {
         assertNotNull(KubeResourceManager.get().kubeClient().getClient().namespaces().withName("test4").get());
     }
 
+    @Test
+    void testElideNoopUpdates() {
+        KubeResourceManager.get().setElideNoopUpdates(true);
+        try {
+            ConfigMap cm = new ConfigMapBuilder().withNewMetadata().withName("elided").withNamespace("default")
+                .endMetadata().addToData("key", "value").build();
+            KubeResourceManager.get().createOrUpdateResourceWithoutWait(cm);
+            ConfigMap created = kubernetesClient.configMaps().inNamespace("default").withName("elided").get();
+            assertNotNull(created.getMetadata().getAnnotations().get(TestFrameConstants.CONTENT_HASH_ANNOTATION));
+
+            long elided = KubeResourceManager.get().getElidedUpdates();
+            KubeResourceManager.get().createOrUpdateResourceWithoutWait(new ConfigMapBuilder(cm).build());
+            KubeResourceManager.get().updateResource(new ConfigMapBuilder(cm).build());
+            assertEquals(elided + 2, KubeResourceManager.get().getElidedUpdates());
+            assertEquals(created.getMetadata().getResourceVersion(), kubernetesClient.configMaps()
+                .inNamespace("default").withName("elided").get().getMetadata().getResourceVersion());
+
+            KubeResourceManager.get().updateResource(new ConfigMapBuilder(cm).addToData("key", "changed").build());
+            assertEquals(elided + 2, KubeResourceManager.get().getElidedUpdates());
+            assertEquals("changed", kubernetesClient.configMaps().inNamespace("default").withName("elided").get()
+                .getData().get("key"));
+            assertNull(cm.getMetadata().getAnnotations().get(TestFrameConstants.CONTENT_HASH_ANNOTATION));
+
+            // change made by others is reverted although the stamp is the same
+            ConfigMap changed = new ConfigMapBuilder(cm).addToData("key", "changed").build();
+            kubernetesClient.configMaps().inNamespace("default").withName("elided")
+                .edit(c -> new ConfigMapBuilder(c).addToData("key", "external").build());
+            KubeResourceManager.get().updateResource(changed);
+            assertEquals(elided + 2, KubeResourceManager.get().getElidedUpdates());
+            assertEquals("changed", kubernetesClient.configMaps().inNamespace("default").withName("elided").get()
+                .getData().get("key"));
+        } finally {
+            KubeResourceManager.get().setElideNoopUpdates(false);
+        }
+    }
+
     @Test
     void testReplaceResource() {
         Namespace ns = new NamespaceBuilder().withNewMetadata().withName("test5").endMetadata().build();
@@ -0,0 +1,64 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.wait.WaitException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class LogFollowerTest {
+    private static final String NAMESPACE = "logs";
+    private static final String POD = "job-pod";
+    private static final String LOG = "starting\nstep 1 done\nstep 2 done\nfinished\n";
+
+    private KubernetesClient kubernetesClient;
+    private KubernetesMockServer server;
+
+    @BeforeEach
+    void setUp() {
+        kubernetesClient.pods().inNamespace(NAMESPACE).resource(new PodBuilder()
+            .withNewMetadata().withName(POD).endMetadata()
+            .withNewStatus().withPhase("Succeeded").endStatus()
+            .build()).create();
+        server.expect().get()
+            .withPath("/api/v1/namespaces/" + NAMESPACE + "/pods/" + POD + "/log?pretty=false&follow=true")
+            .andReturn(200, LOG)
+            .always();
+    }
+
+    @Test
+    void testWaitForResumesFromLastMatch() {
+        LogFollower follower = new LogFollower(kubernetesClient, NAMESPACE, POD, null);
+
+        LogMatch first = follower.waitFor(5000, "done");
+        assertEquals("done", first.pattern());
+        assertEquals(LOG.indexOf("step 1 done") + "step 1 done".length(), first.offset());
+
+        // the second search starts after the first match, so it finds the next occurrence
+        LogMatch second = follower.waitFor(5000, "done", "finished");
+        assertEquals("done", second.pattern());
+        assertEquals(LOG.indexOf("step 2 done") + "step 2 done".length(), second.offset());
+        assertEquals(second.offset(), follower.offset());
+    }
+
+    @Test
+    void testFinishedPodWithoutMatchFails() {
+        LogFollower follower = new LogFollower(kubernetesClient, NAMESPACE, POD, null)
+            .fromOffset(LOG.indexOf("finished"));
+
+        assertThrows(WaitException.class, () -> follower.waitFor(60_000, "starting"));
+        assertEquals(LOG.length(), follower.offset());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@TestVisualSeparator
+class LogPatternMatcherTest {
+
+    private static int feed(LogPatternMatcher matcher, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return matcher.feed(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void testFindsFirstOfMorePatterns() {
+        LogPatternMatcher matcher = new LogPatternMatcher("ERROR", "Started");
+
+        assertEquals(-1, feed(matcher, "INFO nothing here\n"));
+        assertEquals(12, feed(matcher, "INFO Started\nERROR later"));
+        assertEquals("Started", matcher.pattern(matcher.lastMatch()));
+    }
+
+    @Test
+    void testPatternSplitAcrossChunks() {
+        LogPatternMatcher matcher = new LogPatternMatcher("ready to serve");
+
+        assertEquals(-1, feed(matcher, "server is read"));
+        assertEquals(-1, feed(matcher, "y to se"));
+        assertEquals(3, feed(matcher, "rve"));
+        assertEquals(0, matcher.lastMatch());
+    }
+
+    @Test
+    void testOverlappingPatterns() {
+        LogPatternMatcher matcher = new LogPatternMatcher("abcd", "bc", "aab");
+
+        // failure link from "aa" has to continue with "ab"
+        assertEquals(3, feed(matcher, "aab"));
+        assertEquals("aab", matcher.pattern(matcher.lastMatch()));
+
+        matcher.reset();
+        // "bc" is a suffix of the partial match "abc"
+        assertEquals(3, feed(matcher, "abcd"));
+        assertEquals("bc", matcher.pattern(matcher.lastMatch()));
+    }
+
+    @Test
+    void testMultiByteCharacters() {
+        LogPatternMatcher matcher = new LogPatternMatcher("příliš");
+
+        assertEquals(-1, feed(matcher, "žluťoučký kůň "));
+        assertEquals(9, feed(matcher, "příliš"));
+    }
+
+    @Test
+    void testEmptyPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, LogPatternMatcher::new);
+        assertThrows(IllegalArgumentException.class, () -> new LogPatternMatcher("ok", ""));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class ManifestCacheTest {
+    private static final String MANIFEST = """
+        apiVersion: v1
+        kind: ConfigMap
+        metadata:
+          name: %s
+        data:
+          key: value
+        ---
+        apiVersion: v1
+        kind: Namespace
+        metadata:
+          name: cached
+        """;
+
+    private KubernetesClient kubernetesClient;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void testFileIsParsedOnceAndCopiesAreReturned() throws IOException {
+        ManifestCache cache = new ManifestCache(8);
+        Path file = dir.resolve("manifest.yaml");
+        Files.writeString(file, MANIFEST.formatted("first"));
+
+        List<HasMetadata> first = cache.read(kubernetesClient, file);
+        ((ConfigMap) first.get(0)).getData().put("key", "changed");
+        first.add(null);
+        List<HasMetadata> second = cache.read(kubernetesClient, file);
+
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(2, second.size());
+        assertEquals("value", ((ConfigMap) second.get(0)).getData().get("key"));
+        assertNotSame(first.get(1), second.get(1));
+
+        // same content with a new modification time is found by its hash
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        cache.read(kubernetesClient, file);
+        assertEquals(1, cache.misses());
+
+        // changed content is parsed again
+        Files.writeString(file, MANIFEST.formatted("second"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 20_000));
+        assertEquals("second", cache.read(kubernetesClient, file).get(0).getMetadata().getName());
+        assertEquals(2, cache.misses());
+
+        // stream with the same content shares the parsed manifest
+        cache.read(kubernetesClient, new ByteArrayInputStream(
+            MANIFEST.formatted("second").getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void testClasspathResource() throws IOException {
+        ManifestCache cache = new ManifestCache(8);
+        List<HasMetadata> first = cache.readClasspathResource(kubernetesClient, "resources.yaml");
+        List<HasMetadata> second = cache.readClasspathResource(kubernetesClient, "resources.yaml");
+
+        assertEquals(first, second);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertThrows(IOException.class, () -> cache.readClasspathResource(kubernetesClient, "missing.yaml"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedManifestIsEvicted() throws IOException {
+        ManifestCache cache = new ManifestCache(1);
+        Path a = dir.resolve("a.yaml");
+        Path b = dir.resolve("b.yaml");
+        Files.writeString(a, MANIFEST.formatted("a"));
+        Files.writeString(b, MANIFEST.formatted("b"));
+
+        cache.read(kubernetesClient, a);
+        cache.read(kubernetesClient, b);
+        cache.read(kubernetesClient, a);
+        assertEquals(3, cache.misses());
+
+        ManifestCache disabled = new ManifestCache(0);
+        disabled.read(kubernetesClient, a);
+        disabled.read(kubernetesClient, a);
+        assertEquals(0, disabled.misses());
+        assertEquals(0, disabled.hits());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.api.model.Volume;
+import io.fabric8.kubernetes.api.model.VolumeBuilder;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class NodeDrainerTest {
+    private static final String NAMESPACE = "drain";
+
+    private KubernetesClient kubernetesClient;
+    private KubernetesMockServer server;
+    private KubernetesClient drainClient;
+
+    private final List<DrainProgress> progress = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // the client retries 429 responses on its own, which would hide the blocked evictions
+        drainClient = new KubernetesClientBuilder().withConfig(new ConfigBuilder(
+            kubernetesClient.getConfiguration()).withRequestRetryBackoffLimit(0).build()).build();
+        for (String node : List.of("node-1", "node-2", "node-3")) {
+            kubernetesClient.nodes().resource(new NodeBuilder().withNewMetadata().withName(node).endMetadata()
+                .build()).create();
+        }
+        List<Pod> pods = List.of(
+            createPod("app-1", "node-1", "ReplicaSet"),
+            createPod("app-2", "node-2", "ReplicaSet"),
+            createPod("ds-1", "node-1", "DaemonSet"),
+            createPod("other", "node-3", null),
+            createPod("cache", "node-3", "ReplicaSet", new VolumeBuilder().withName("cache")
+                .withNewEmptyDir().endEmptyDir().build()));
+
+        // the mock server does not support spec.nodeName field selector
+        for (String node : List.of("node-1", "node-2", "node-3")) {
+            server.expect().get()
+                .withPath("/api/v1/pods?fieldSelector=spec.nodeName%3D" + node)
+                .andReturn(200, new PodListBuilder().withItems(pods.stream()
+                    .filter(p -> node.equals(p.getSpec().getNodeName())).toList()).build())
+                .always();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        drainClient.close();
+    }
+
+    private Pod createPod(String name, String node, String ownerKind, Volume... volumes) {
+        PodBuilder pod = new PodBuilder()
+            .withNewMetadata().withName(name).withNamespace(NAMESPACE).endMetadata()
+            .withNewSpec().withNodeName(node).withVolumes(volumes).endSpec();
+        if (ownerKind != null) {
+            pod.editMetadata().addNewOwnerReference().withKind(ownerKind).withName("owner").withController(true)
+                .endOwnerReference().endMetadata();
+        }
+        return kubernetesClient.pods().inNamespace(NAMESPACE).resource(pod.build()).create();
+    }
+
+    private void expectEviction(String pod, int code, int times) {
+        server.expect().post()
+            .withPath("/api/v1/namespaces/" + NAMESPACE + "/pods/" + pod + "/eviction")
+            .andReturn(code, "{}")
+            .times(times);
+    }
+
+    private NodeDrainer drainer(String... nodes) {
+        return new NodeDrainer(drainClient)
+            .withNodes(nodes)
+            .withRetryInterval(Duration.ofMillis(100))
+            .withTimeout(Duration.ofSeconds(30))
+            .withProgressListener(p -> {
+                progress.add(p);
+                // the mock server does not terminate evicted pods, so the test does it
+                if (p.state() == DrainProgress.State.EVICTING) {
+                    kubernetesClient.pods().inNamespace(p.namespace()).withName(p.pod()).delete();
+                }
+            });
+    }
+
+    private List<DrainProgress.State> states(String pod) {
+        return progress.stream().filter(p -> p.pod().equals(pod)).map(DrainProgress::state).toList();
+    }
+
+    @Test
+    void testDrainMoreNodesInParallel() {
+        expectEviction("app-1", 201, 1);
+        expectEviction("app-2", 201, 1);
+
+        drainer("node-1", "node-2").withMaxParallelNodes(2).ignoreDaemonSets(true).drain();
+
+        assertTrue(kubernetesClient.nodes().withName("node-1").get().getSpec().getUnschedulable());
+        assertTrue(kubernetesClient.nodes().withName("node-2").get().getSpec().getUnschedulable());
+        assertNull(kubernetesClient.nodes().withName("node-3").get().getSpec());
+
+        assertNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("app-1").get());
+        assertNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("app-2").get());
+        assertNotNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("ds-1").get());
+        assertNotNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("other").get());
+
+        assertEquals(List.of(DrainProgress.State.EVICTING, DrainProgress.State.EVICTED), states("app-1"));
+        assertEquals(List.of(DrainProgress.State.SKIPPED), states("ds-1"));
+        assertEquals(List.of(), states("other"));
+    }
+
+    @Test
+    void testEvictionBlockedByPodDisruptionBudgetIsRetried() {
+        expectEviction("app-2", 429, 2);
+        expectEviction("app-2", 201, 1);
+
+        drainer("node-2").drain();
+
+        assertEquals(List.of(DrainProgress.State.BLOCKED, DrainProgress.State.BLOCKED,
+            DrainProgress.State.EVICTING, DrainProgress.State.EVICTED), states("app-2"));
+        assertNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("app-2").get());
+    }
+
+    @Test
+    void testBlockedEvictionTimesOut() {
+        expectEviction("app-2", 429, 100);
+
+        KubeClusterException ex = assertThrows(KubeClusterException.class,
+            () -> drainer("node-2").withTimeout(Duration.ofMillis(500)).drain());
+
+        assertTrue(ex.getMessage().contains("node-2"));
+        assertEquals(DrainProgress.State.FAILED, states("app-2").getLast());
+        assertNotNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("app-2").get());
+    }
+
+    @Test
+    void testDaemonSetPodsFailDrainUnlessIgnored() {
+        KubeClusterException ex = assertThrows(KubeClusterException.class, () -> drainer("node-1").drain());
+
+        assertTrue(ex.getMessage().contains(NAMESPACE + "/ds-1"));
+        assertNotNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("app-1").get());
+    }
+
+    @Test
+    void testUnmanagedAndEmptyDirPodsFailDrainUnlessAllowed() {
+        KubeClusterException ex = assertThrows(KubeClusterException.class, () -> drainer("node-3").drain());
+
+        assertTrue(ex.getMessage().contains("(use force): [" + NAMESPACE + "/other]"));
+        assertTrue(ex.getMessage().contains("(use deleteEmptyDirData): [" + NAMESPACE + "/cache]"));
+        assertNotNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("other").get());
+
+        expectEviction("other", 201, 1);
+        expectEviction("cache", 201, 1);
+        drainer("node-3").force(true).deleteEmptyDirData(true).drain();
+
+        assertNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("other").get());
+        assertNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("cache").get());
+    }
+
+    @Test
+    void testDisabledEvictionDeletesPods() {
+        drainer("node-2").disableEviction(true).drain();
+
+        assertNull(kubernetesClient.pods().inNamespace(NAMESPACE).withName("app-2").get());
+        assertEquals(DrainProgress.State.EVICTED, states("app-2").getLast());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.LabelSelectorBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.wait.WaitException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class PodCacheTest {
+    private static final String NAMESPACE = "cache";
+
+    private KubernetesClient kubernetesClient;
+    private PodCache cache;
+
+    @BeforeEach
+    void setUp() {
+        createPod("job-a-1", "app", "job", "owner-a");
+        createPod("job-a-2", "app", "job", "owner-a");
+        createPod("job-b-1", "app", "other", "owner-b");
+        createPod("web-1", "tier", "front", null);
+        cache = new PodCache(kubernetesClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    private void createPod(String name, String labelKey, String labelValue, String ownerUid) {
+        PodBuilder pod = new PodBuilder()
+            .withNewMetadata().withName(name).withNamespace(NAMESPACE).addToLabels(labelKey, labelValue).endMetadata();
+        if (ownerUid != null) {
+            pod.editMetadata().addNewOwnerReference().withKind("Job").withName("job").withUid(ownerUid)
+                .endOwnerReference().endMetadata();
+        }
+        kubernetesClient.pods().inNamespace(NAMESPACE).resource(pod.build()).create();
+    }
+
+    private static List<String> names(List<Pod> pods) {
+        return pods.stream().map(p -> p.getMetadata().getName()).sorted().toList();
+    }
+
+    @Test
+    void testQueriesAreAnsweredFromIndexes() {
+        assertEquals(List.of("job-a-1", "job-a-2", "job-b-1", "web-1"), names(cache.list(NAMESPACE)));
+        assertEquals(List.of("job-a-1", "job-a-2"), names(cache.listByPrefix(NAMESPACE, "job-a")));
+        assertEquals(List.of(), names(cache.listByPrefix(NAMESPACE, "missing")));
+        assertEquals(List.of("job-a-1", "job-a-2"), names(cache.listByOwner(NAMESPACE, "owner-a")));
+        assertEquals(List.of("job-a-1", "job-a-2"), names(cache.list(NAMESPACE,
+            new LabelSelectorBuilder().addToMatchLabels("app", "job").build())));
+        assertEquals(List.of("job-b-1", "web-1"), names(cache.list(NAMESPACE,
+            new LabelSelectorBuilder().addNewMatchExpression().withKey("app").withOperator("NotIn")
+                .withValues("job").endMatchExpression().build())));
+    }
+
+    @Test
+    void testStoppedNamespaceIsWatchedAgainOnNextQuery() {
+        List<Pod> pods = cache.listByPrefix(NAMESPACE, "job");
+        // callers may modify the returned lists, same as the lists from the API server
+        pods.removeIf(pod -> pod.getMetadata().getName().startsWith("job-a"));
+        assertEquals(List.of("job-b-1"), names(pods));
+
+        cache.stop(NAMESPACE);
+        createPod("job-c-1", "app", "job", null);
+
+        assertEquals(List.of("job-a-1", "job-a-2", "job-b-1", "job-c-1"), names(cache.listByPrefix(NAMESPACE, "job")));
+    }
+
+    @Test
+    void testWaitIsWokenUpByCacheEvent() {
+        assertEquals(2, cache.listByPrefix(NAMESPACE, "job-a").size());
+        CompletableFuture.runAsync(() -> kubernetesClient.pods().inNamespace(NAMESPACE).withName("job-a-1").delete(),
+            CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+        CompletableFuture.runAsync(() -> kubernetesClient.pods().inNamespace(NAMESPACE).withName("job-a-2").delete(),
+            CompletableFuture.delayedExecutor(600, TimeUnit.MILLISECONDS));
+
+        long start = System.currentTimeMillis();
+        cache.waitUntil("deletion of job-a pods", NAMESPACE, 20_000,
+            () -> cache.listByPrefix(NAMESPACE, "job-a").isEmpty(), () -> {
+            });
+
+        // without the events the condition would be re-checked only after the re-check interval
+        assertTrue(System.currentTimeMillis() - start < 5_000);
+        assertEquals(List.of("job-b-1", "web-1"), names(cache.list(NAMESPACE)));
+    }
+
+    @Test
+    void testWaitTimeout() {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        assertThrows(WaitException.class, () -> cache.waitUntil("pod which never comes", NAMESPACE, 300,
+            () -> !cache.listByPrefix(NAMESPACE, "never").isEmpty(), () -> timedOut.set(true)));
+        assertTrue(timedOut.get());
+    }
+}
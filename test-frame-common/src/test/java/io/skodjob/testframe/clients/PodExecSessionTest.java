@@ -0,0 +1,79 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.executor.ExecResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestVisualSeparator
+class PodExecSessionTest {
+
+    private PodExecSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // local shell stands in for the shell in the pod, the framing is the same
+        Process process = new ProcessBuilder("sh").start();
+        session = new PodExecSession("local", process.getOutputStream(), process.getInputStream(),
+            process.getErrorStream(), process::destroy);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void testCommandsShareOneShell() {
+        ExecResult first = session.exec("echo", "first");
+        ExecResult second = session.exec("printf", "%s", "no new line");
+
+        assertEquals("first\n", first.out());
+        assertEquals("no new line", second.out());
+        assertTrue(second.exitStatus());
+    }
+
+    @Test
+    void testArgumentsAreQuoted() {
+        ExecResult result = session.exec("echo", "it's $HOME; exit 1");
+
+        assertEquals("it's $HOME; exit 1\n", result.out());
+        assertTrue(session.isOpen());
+    }
+
+    @Test
+    void testStdErrAndReturnCode() {
+        ExecResult result = session.exec(false, "sh", "-c", "echo out; echo err >&2; exit 3");
+
+        assertEquals(3, result.returnCode());
+        assertEquals("out\n", result.out());
+        assertEquals("err\n", result.err());
+        // session is still usable after failed command
+        assertEquals("next\n", session.exec("echo", "next").out());
+    }
+
+    @Test
+    void testFailureThrowsWhenRequested() {
+        KubeClusterException ex = assertThrows(KubeClusterException.class, () -> session.exec("false"));
+        assertEquals(1, ex.result.returnCode());
+    }
+
+    @Test
+    void testTimeoutClosesSession() {
+        assertThrows(KubeClusterException.class, () -> session.exec(false, 200, "sleep", "5"));
+        assertFalse(session.isOpen());
+        assertThrows(KubeClusterException.class, () -> session.exec("echo", "closed"));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients;
+
+import io.fabric8.kubernetes.api.model.APIResourceListBuilder;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResource;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResourceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class TypedResourcesTest {
+    private KubernetesClient kubernetesClient;
+    private KubernetesMockServer server;
+    private TypedResources typedResources;
+
+    @BeforeEach
+    void setUp() {
+        typedResources = new TypedResources(kubernetesClient);
+        for (String name : List.of("cm-1", "cm-2")) {
+            kubernetesClient.configMaps().inNamespace("typed").resource(new ConfigMapBuilder()
+                .withNewMetadata().withName(name).endMetadata().addToData("name", name).build()).create();
+        }
+        kubernetesClient.apps().deployments().inNamespace("typed").resource(new DeploymentBuilder()
+            .withNewMetadata().withName("dep").endMetadata().withNewSpec().withReplicas(2).endSpec().build()).create();
+    }
+
+    @Test
+    void testGetAndList() {
+        ConfigMap cm = typedResources.get("typed", "cm-1", "v1", "ConfigMap", ConfigMap.class);
+        assertEquals("cm-1", cm.getData().get("name"));
+        assertNull(typedResources.get("typed", "missing", "v1", "ConfigMap", ConfigMap.class));
+
+        List<ConfigMap> cms = typedResources.list("typed", "v1", "ConfigMap", ConfigMap.class);
+        assertEquals(List.of("cm-1", "cm-2"), cms.stream().map(c -> c.getMetadata().getName()).sorted().toList());
+
+        Deployment dep = typedResources.get("typed", "dep", "apps/v1", "Deployment", Deployment.class);
+        assertEquals(2, dep.getSpec().getReplicas());
+        assertEquals(1, typedResources.list(null, "apps/v1", "Deployment", Deployment.class).size());
+    }
+
+    @Test
+    void testErrorIsReported() {
+        server.expect().get().withPath("/api/v1/namespaces/typed/configmaps/broken")
+            .andReturn(403, "forbidden").always();
+        assertThrows(KubeClusterException.class,
+            () -> typedResources.get("typed", "broken", "v1", "ConfigMap", ConfigMap.class));
+    }
+
+    @Test
+    void testNameIsEncoded() {
+        server.expect().get().withPath("/api/v1/namespaces/typed/configmaps/a%2Fb")
+            .andReturn(200, new ConfigMapBuilder().withNewMetadata().withName("a").endMetadata().build()).once();
+        assertEquals("a", typedResources.get("typed", "a/b", "v1", "ConfigMap", ConfigMap.class)
+            .getMetadata().getName());
+    }
+
+    @Test
+    void testKindServedLaterIsDiscoveredAgain() {
+        server.expect().get().withPath("/apis/example.io/v1").andReturn(404, "not found").once();
+        server.expect().get().withPath("/apis/example.io/v1/namespaces/typed/widgets/w")
+            .andReturn(404, "not found").once();
+        assertNull(typedResources.get("typed", "w", "example.io/v1", "Widget", GenericKubernetesResource.class));
+
+        // the kind is installed as cluster-scoped with an unusual plural
+        server.expect().get().withPath("/apis/example.io/v1").andReturn(200, new APIResourceListBuilder()
+            .withGroupVersion("example.io/v1")
+            .addNewResource().withName("widgetry").withKind("Widget").withNamespaced(false).endResource()
+            .build()).always();
+        server.expect().get().withPath("/apis/example.io/v1/widgetry/w").andReturn(200,
+            new GenericKubernetesResourceBuilder().withApiVersion("example.io/v1").withKind("Widget")
+                .withNewMetadata().withName("w").endMetadata().build()).once();
+        assertEquals("w", typedResources.get("typed", "w", "example.io/v1", "Widget", GenericKubernetesResource.class)
+            .getMetadata().getName());
+    }
+
+    @Test
+    void testWatch() throws Exception {
+        server.expect().get().withPath("/api/v1/namespaces/watched/configmaps?watch=true")
+            .andReturn(200, """
+                {"type":"ADDED","object":{"apiVersion":"v1","kind":"ConfigMap","metadata":{"name":"a"}}}
+                {"type":"BOOKMARK","object":{"apiVersion":"v1","kind":"ConfigMap","metadata":{}}}
+                {"type":"DELETED","object":{"apiVersion":"v1","kind":"ConfigMap","metadata":{"name":"a"}}}
+                """).once();
+        List<String> events = new CopyOnWriteArrayList<>();
+        try (AutoCloseable watch = typedResources.watch("watched", "v1", "ConfigMap", ConfigMap.class,
+            (type, cm) -> events.add(type + " " + cm.getMetadata().getName()))) {
+            waitForEvents(events, 2);
+        }
+        assertEquals(List.of("ADDED a", "DELETED a"), events);
+    }
+
+    @Test
+    void testWatchContinuesFromLastResourceVersion() throws Exception {
+        server.expect().get().withPath("/api/v1/namespaces/watched/configmaps?watch=true")
+            .andReturn(200, """
+                {"type":"BOOKMARK","object":{"apiVersion":"v1","kind":"ConfigMap","metadata":{"resourceVersion":"5"}}}
+                {"type":"ADDED","object":{"apiVersion":"v1","kind":"ConfigMap",\
+                "metadata":{"name":"a","resourceVersion":"7"}}}
+                """).once();
+        server.expect().get().withPath("/api/v1/namespaces/watched/configmaps?watch=true&resourceVersion=7")
+            .andReturn(200, """
+                {"type":"DELETED","object":{"apiVersion":"v1","kind":"ConfigMap",\
+                "metadata":{"name":"a","resourceVersion":"8"}}}
+                """).once();
+        List<String> events = new CopyOnWriteArrayList<>();
+        String resourceVersion;
+        try (TypedResources.TypedWatch watch = typedResources.watch("watched", "v1", "ConfigMap", ConfigMap.class,
+            (type, cm) -> events.add(type + " " + cm.getMetadata().getName()))) {
+            waitForEvents(events, 1);
+            resourceVersion = watch.getResourceVersion();
+        }
+        assertEquals("7", resourceVersion);
+
+        try (TypedResources.TypedWatch watch = typedResources.watch("watched", "v1", "ConfigMap", ConfigMap.class,
+            resourceVersion, (type, cm) -> events.add(type + " " + cm.getMetadata().getName()))) {
+            waitForEvents(events, 2);
+            assertEquals("8", watch.getResourceVersion());
+        }
+        assertEquals(List.of("ADDED a", "DELETED a"), events);
+    }
+
+    private static void waitForEvents(List<String> events, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
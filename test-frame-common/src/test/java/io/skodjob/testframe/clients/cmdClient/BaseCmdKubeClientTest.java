@@ -4,6 +4,7 @@
  */
 package io.skodjob.testframe.clients.cmdClient;
 
+import io.fabric8.kubernetes.api.model.LabelSelectorBuilder;
 import io.skodjob.testframe.clients.KubeClusterException;
 import io.skodjob.testframe.enums.LogLevel;
 import io.skodjob.testframe.executor.Exec;
@@ -23,9 +24,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -219,14 +222,117 @@ class BaseCmdKubeClientTest {
 
         client.create(dir);
 
+        ArgumentCaptor<List<String>> listCaptor = ArgumentCaptor.forClass(List.class);
+        mockedExec.verify(() -> Exec.exec(isNull(), listCaptor.capture(), eq(0), eq(false), eq(false)),
+            times(1));
+
+        // all the files are passed in one invocation, in the sorted order
+        List<String> command = listCaptor.getValue();
+        assertTrue(command.indexOf(file2.getAbsolutePath()) < command.indexOf(file1.getAbsolutePath()));
+        assertTrue(command.contains(file1.getAbsolutePath()));
+        assertFalse(command.contains(nonYamlFile.getAbsolutePath()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchEndsAtFileWithCrd() throws IOException {
+        File configMap = Files.writeString(tempDir.resolve("01-cm.yaml"), "kind: ConfigMap").toFile();
+        File crd = Files.writeString(tempDir.resolve("02-crd.yaml"),
+            "apiVersion: v1\nkind: ConfigMap\n---\napiVersion: apiextensions.k8s.io/v1\n"
+                + "kind: CustomResourceDefinition\n").toFile();
+        File customResource = Files.writeString(tempDir.resolve("03-cr.yaml"), "kind: Kafka").toFile();
+        ExecResult mockResultSuccess = mockSuccessfulExecResult("created");
+        mockedExec.when(() -> Exec.exec(isNull(), anyList(), eq(0), eq(false), eq(false)))
+            .thenReturn(mockResultSuccess);
+
+        client.execFiles("create", List.of(configMap, crd, customResource));
+
         ArgumentCaptor<List<String>> listCaptor = ArgumentCaptor.forClass(List.class);
         mockedExec.verify(() -> Exec.exec(isNull(), listCaptor.capture(), eq(0), eq(false), eq(false)),
             times(2));
+        assertTrue(listCaptor.getAllValues().get(0).containsAll(List.of(configMap.getAbsolutePath(),
+            crd.getAbsolutePath())));
+        assertFalse(listCaptor.getAllValues().get(0).contains(customResource.getAbsolutePath()));
+        assertTrue(listCaptor.getAllValues().get(1).contains(customResource.getAbsolutePath()));
+    }
+
+    @Test
+    void testBatchFailureIsMappedToFile() throws IOException {
+        File good = Files.createFile(tempDir.resolve("good.yaml")).toFile();
+        File bad = Files.createFile(tempDir.resolve("bad.yaml")).toFile();
+        File nested = Files.createDirectories(tempDir.resolve("nested").resolve(tempDir.getRoot().relativize(
+            tempDir))).resolve("good.yaml").toFile();
+        // the second error belongs to a file whose path ends with the path of the good file
+        ExecResult mockResult = mockFailedExecResult("Error from server (AlreadyExists): error when creating \""
+            + bad.getAbsolutePath() + "\": configmaps \"cm\" already exists" + System.lineSeparator()
+            + "Error from server (AlreadyExists): error when creating \"" + nested.getAbsolutePath() + "\": exists", 1);
+        lenient().when(mockResult.out()).thenReturn("configmap/good created");
+        mockedExec.when(() -> Exec.exec(isNull(), anyList(), eq(0), eq(false), eq(false)))
+            .thenReturn(mockResult);
+
+        Map<File, ExecResult> results = client.execFiles("create", List.of(good, bad, nested));
 
-        List<List<String>> allCommands = listCaptor.getAllValues();
-        assertTrue(allCommands.get(0).contains(file2.getAbsolutePath()));
-        assertTrue(allCommands.get(1).contains(file1.getAbsolutePath()));
-        assertFalse(allCommands.stream().anyMatch(cmdList -> cmdList.contains(nonYamlFile.getAbsolutePath())));
+        assertTrue(results.get(good).exitStatus());
+        assertFalse(results.get(bad).exitStatus());
+        assertTrue(results.get(bad).err().contains("already exists"));
+        assertFalse(results.get(bad).err().contains(nested.getAbsolutePath()));
+        assertFalse(results.get(nested).exitStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFilesOfRejectedBatchAreExecutedOneByOne() throws IOException {
+        File good = Files.createFile(tempDir.resolve("good.yaml")).toFile();
+        File invalid = Files.createFile(tempDir.resolve("invalid.yaml")).toFile();
+        ExecResult rejected = mockFailedExecResult("error: error parsing " + invalid.getAbsolutePath()
+            + ": error converting YAML to JSON", 1);
+        ExecResult created = mockSuccessfulExecResult("configmap/good created");
+        mockedExec.when(() -> Exec.exec(isNull(), anyList(), eq(0), eq(false), eq(false)))
+            .thenAnswer(invocation -> ((List<String>) invocation.getArgument(1)).contains(invalid.getAbsolutePath())
+                ? rejected : created);
+
+        Map<File, ExecResult> results = client.execFiles("create", List.of(good, invalid));
+
+        assertSame(created, results.get(good));
+        assertFalse(results.get(invalid).exitStatus());
+        mockedExec.verify(() -> Exec.exec(isNull(), anyList(), eq(0), eq(false), eq(false)), times(2));
+    }
+
+    @Test
+    void testBatchFailureWithoutFileReferenceFailsAllFiles() throws IOException {
+        File first = Files.createFile(tempDir.resolve("first.yaml")).toFile();
+        File second = Files.createFile(tempDir.resolve("second.yaml")).toFile();
+        ExecResult mockResult = mockFailedExecResult("The connection to the server was refused", 1);
+        mockedExec.when(() -> Exec.exec(isNull(), anyList(), eq(0), eq(false), eq(false)))
+            .thenReturn(mockResult);
+
+        Map<File, ExecResult> results = client.execFiles("apply", List.of(first, second));
+
+        assertFalse(results.get(first).exitStatus());
+        assertFalse(results.get(second).exitStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLargeDeleteIsSplitIntoOrderedBatches() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            files.add(Files.createFile(tempDir.resolve("file-" + i + ".yaml")).toFile());
+        }
+        ExecResult mockResultSuccess = mockSuccessfulExecResult("deleted");
+        mockedExec.when(() -> Exec.exec(isNull(), anyList(), eq(0), eq(false), eq(false)))
+            .thenReturn(mockResultSuccess);
+
+        Map<File, ExecResult> results = client.execFiles("delete", files);
+
+        assertEquals(120, results.size());
+        assertTrue(results.values().stream().allMatch(ExecResult::exitStatus));
+        ArgumentCaptor<List<String>> listCaptor = ArgumentCaptor.forClass(List.class);
+        mockedExec.verify(() -> Exec.exec(isNull(), listCaptor.capture(), eq(0), eq(false), eq(false)),
+            times(3));
+        // the batches are executed one by one in order of the files
+        assertTrue(listCaptor.getAllValues().get(0).contains(files.get(0).getAbsolutePath()));
+        assertTrue(listCaptor.getAllValues().get(2).contains(files.get(119).getAbsolutePath()));
     }
 
     @Test
@@ -998,4 +1104,43 @@ class BaseCmdKubeClientTest {
 
         assertTrue(capturedLogLevel.equals(LogLevel.ERROR));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExecInPodsRunsInParallelWithinLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        TestableCmdKubeClient fanOutClient = new TestableCmdKubeClient(TEST_CMD) {
+            @Override
+            public KubeCmdClient<TestableCmdKubeClient> inNamespace(String namespace) {
+                return this;
+            }
+
+            @Override
+            public List<String> listResourcesByLabel(String resourceType, String label) {
+                assertEquals("app=test", label);
+                return List.of("pod-2", "pod-0", "pod-1", "pod-3");
+            }
+
+            @Override
+            public ExecResult execInPod(boolean throwError, LogLevel logLevel, String pod, String... command) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return new ExecResult(pod.equals("pod-3") ? 1 : 0, pod, "");
+            }
+        };
+
+        Map<String, PodExecResult> results = fanOutClient.execInPods("ns",
+            new LabelSelectorBuilder().addToMatchLabels("app", "test").build(), null, 2, "hostname");
+
+        assertEquals(List.of("pod-0", "pod-1", "pod-2", "pod-3"), List.copyOf(results.keySet()));
+        assertEquals("pod-1", results.get("pod-1").result().out());
+        assertFalse(results.get("pod-3").exitStatus());
+        assertTrue(results.get("pod-0").duration().toMillis() >= 200);
+        assertEquals(2, maxRunning.get());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients.cmdClient;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.clients.KubeClient;
+import io.skodjob.testframe.clients.KubeClusterException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+class NativeKubeCmdClientTest {
+    private KubernetesClient kubernetesClient;
+
+    private NativeKubeCmdClient cmdClient;
+
+    @BeforeEach
+    void setUp() {
+        KubeClient kubeClient = mock(KubeClient.class);
+        when(kubeClient.getClient()).thenReturn(kubernetesClient);
+        cmdClient = new NativeKubeCmdClient(kubeClient, new Kubectl()).inNamespace("native");
+    }
+
+    @Test
+    void testApplyContentGetAndDelete() {
+        cmdClient.applyContent("""
+            apiVersion: v1
+            kind: ConfigMap
+            metadata:
+              name: my-cm
+            data:
+              key: value
+            """);
+
+        assertEquals("value", kubernetesClient.configMaps().inNamespace("native").withName("my-cm").get()
+            .getData().get("key"));
+        assertTrue(cmdClient.get("cm", "my-cm").contains("key: \"value\""));
+        assertTrue(cmdClient.getResourceAsJson("configmap", "my-cm").contains("\"my-cm\""));
+        assertEquals(List.of("my-cm"), cmdClient.list("configmaps"));
+
+        cmdClient.deleteByName("ConfigMap", "my-cm");
+        assertNull(kubernetesClient.configMaps().inNamespace("native").withName("my-cm").get());
+    }
+
+    @Test
+    void testApplyUpdatesExistingResource() {
+        kubernetesClient.configMaps().inNamespace("native").resource(new ConfigMapBuilder()
+            .withNewMetadata().withName("applied").addToLabels("set-by", "operator").endMetadata()
+            .addToData("key", "old")
+            .build()).create();
+
+        cmdClient.applyContent("""
+            apiVersion: v1
+            kind: ConfigMap
+            metadata:
+              name: applied
+            data:
+              key: new
+            """);
+
+        ConfigMap applied = kubernetesClient.configMaps().inNamespace("native").withName("applied").get();
+        assertEquals("new", applied.getData().get("key"));
+        // fields which are not in the manifest are kept
+        assertEquals("operator", applied.getMetadata().getLabels().get("set-by"));
+    }
+
+    @Test
+    void testGetMissingResourceThrowsNotFound() {
+        assertThrows(KubeClusterException.NotFound.class, () -> cmdClient.getResourceAsYaml("pod", "missing"));
+    }
+
+    @Test
+    void testListResourcesByLabel() {
+        kubernetesClient.configMaps().inNamespace("native").resource(new ConfigMapBuilder()
+            .withNewMetadata().withName("labeled").addToLabels("app", "test").endMetadata().build()).create();
+        kubernetesClient.configMaps().inNamespace("native").resource(new ConfigMapBuilder()
+            .withNewMetadata().withName("other").endMetadata().build()).create();
+
+        assertEquals(List.of("labeled"), cmdClient.listResourcesByLabel("cm", "app=test"));
+        assertTrue(cmdClient.getResourcesAsYaml("cm").contains("kind: \"List\""));
+    }
+
+    @Test
+    void testCreateAndDeleteFromFiles() {
+        File file = new File(getClass().getClassLoader().getResource("resources.yaml").getPath());
+
+        cmdClient.create(file);
+        assertNotNull(kubernetesClient.namespaces().withName("test4").get());
+
+        cmdClient.delete(file);
+        assertNull(kubernetesClient.namespaces().withName("test4").get());
+    }
+
+    @Test
+    void testCreateAndDeleteNamespace() {
+        cmdClient.createNamespace("created-natively");
+        assertNotNull(kubernetesClient.namespaces().withName("created-natively").get());
+
+        cmdClient.deleteNamespace("created-natively");
+        assertNull(kubernetesClient.namespaces().withName("created-natively").get());
+    }
+
+    @Test
+    void testScaleByName() {
+        kubernetesClient.apps().deployments().inNamespace("native").resource(new DeploymentBuilder()
+            .withNewMetadata().withName("scaled").endMetadata()
+            .withNewSpec().withReplicas(1).endSpec()
+            .build()).create();
+
+        cmdClient.scaleByName("deploy", "scaled", 3);
+
+        assertEquals(3, kubernetesClient.apps().deployments().inNamespace("native").withName("scaled").get()
+            .getSpec().getReplicas());
+    }
+
+    @Test
+    void testCordonAndUncordon() {
+        kubernetesClient.nodes().resource(new NodeBuilder().withNewMetadata().withName("node-1").endMetadata()
+            .build()).create();
+
+        cmdClient.cordon("node-1");
+        assertTrue(kubernetesClient.nodes().withName("node-1").get().getSpec().getUnschedulable());
+
+        cmdClient.uncordon("node-1");
+        assertEquals(Boolean.FALSE, kubernetesClient.nodes().withName("node-1").get().getSpec().getUnschedulable());
+    }
+
+    @Test
+    void testCopiesKeepConfiguration() {
+        NativeKubeCmdClient other = cmdClient.inNamespace("other").withTimeout(1000);
+
+        assertEquals("other", other.getCurrentNamespace());
+        assertEquals(1000, other.timeout);
+        assertEquals("kubectl", other.cmd());
+        assertEquals("operators", other.defaultOlmNamespace());
+    }
+
+    @Test
+    void testGrepKeepsPrecedingLine() {
+        String log = "first\nsecond\nmatch one\nthird\nfourth\nmatch two\nmatch three\n";
+
+        assertEquals("second\nmatch one\n--\nfourth\nmatch two\nmatch three\n",
+            NativeKubeCmdClient.grep(log, "match"));
+        assertEquals("", NativeKubeCmdClient.grep(log, "missing"));
+    }
+}
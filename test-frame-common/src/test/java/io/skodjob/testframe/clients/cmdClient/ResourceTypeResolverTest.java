@@ -0,0 +1,77 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.clients.cmdClient;
+
+import io.fabric8.kubernetes.api.model.APIGroupBuilder;
+import io.fabric8.kubernetes.api.model.APIGroupListBuilder;
+import io.fabric8.kubernetes.api.model.APIResourceBuilder;
+import io.fabric8.kubernetes.api.model.APIResourceListBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.clients.KubeClusterException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@TestVisualSeparator
+class ResourceTypeResolverTest {
+    private KubernetesClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(KubernetesClient.class);
+        when(client.getApiResources("v1")).thenReturn(new APIResourceListBuilder().build());
+        when(client.getApiGroups()).thenReturn(new APIGroupListBuilder().build());
+    }
+
+    @Test
+    void testTypeInstalledAfterDiscoveryIsResolved() {
+        ResourceTypeResolver resolver = new ResourceTypeResolver(client, Duration.ZERO);
+        assertThrows(KubeClusterException.class, () -> resolver.resolve("Kafka"));
+
+        installKafkaCrd();
+
+        assertEquals("kafkas", resolver.resolve("Kafka").getPlural());
+        assertEquals("kafka.strimzi.io", resolver.resolve("kafkas.kafka.strimzi.io").getGroup());
+    }
+
+    @Test
+    void testRediscoveryIsRateLimited() {
+        ResourceTypeResolver resolver = new ResourceTypeResolver(client, Duration.ofHours(1));
+        assertThrows(KubeClusterException.class, () -> resolver.resolve("Kafka"));
+
+        installKafkaCrd();
+
+        assertThrows(KubeClusterException.class, () -> resolver.resolve("Kafka"));
+        assertEquals("pods", resolver.resolve("po").getPlural());
+        verify(client, times(1)).getApiGroups();
+    }
+
+    private void installKafkaCrd() {
+        when(client.getApiGroups()).thenReturn(new APIGroupListBuilder()
+            .addToGroups(new APIGroupBuilder()
+                .withName("kafka.strimzi.io")
+                .withNewPreferredVersion().withGroupVersion("kafka.strimzi.io/v1beta2").withVersion("v1beta2")
+                .endPreferredVersion()
+                .build())
+            .build());
+        when(client.getApiResources("kafka.strimzi.io/v1beta2")).thenReturn(new APIResourceListBuilder()
+            .addToResources(new APIResourceBuilder()
+                .withName("kafkas")
+                .withKind("Kafka")
+                .withSingularName("kafka")
+                .withNamespaced(true)
+                .build())
+            .build());
+    }
+}
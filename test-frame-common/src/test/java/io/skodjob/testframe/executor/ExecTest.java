@@ -20,6 +20,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -236,6 +239,118 @@ class ExecTest {
         assertFalse(result.err().isEmpty());
     }
 
+    @Test
+    void testExecBuilderWithLineConsumers() {
+        List<String> outLines = new CopyOnWriteArrayList<>();
+        List<String> errLines = new CopyOnWriteArrayList<>();
+
+        ExecResult result = Exec.builder()
+            .withCommand("bash", "-c", "echo first; echo second; echo problem >&2")
+            .withStdOutConsumer(outLines::add)
+            .withStdErrConsumer(errLines::add)
+            .exec();
+
+        assertTrue(result.exitStatus());
+        assertEquals(List.of("first", "second"), outLines);
+        assertEquals(List.of("problem"), errLines);
+        assertEquals("first\nsecond\n", result.out());
+    }
+
+    @Test
+    void testExecBuilderWithTailLines() {
+        ExecResult result = Exec.builder()
+            .withCommand("seq", "1", "1000")
+            .withTailLines(3)
+            .exec();
+
+        assertTrue(result.exitStatus());
+        assertEquals("998\n999\n1000\n", result.out());
+    }
+
+    @Test
+    void testExecBuilderWithTailLinesStreamsWholeOutputToFile() throws IOException {
+        Path logDir = tempDir.resolve("exec-tail-logs");
+
+        ExecResult result = Exec.builder()
+            .withCommand("seq", "1", "1000")
+            .withTailLines(1)
+            .withLogPath(logDir)
+            .exec();
+
+        assertEquals("1000\n", result.out());
+        List<String> storedLines = Files.readAllLines(logDir.resolve("stdOutput.log"));
+        assertEquals(1000, storedLines.size());
+        assertEquals("1", storedLines.get(0));
+        assertTrue(Files.exists(logDir.resolve("stdError.log")));
+    }
+
+    @Test
+    void testExecAsync() {
+        CompletableFuture<ExecResult> future = Exec.execAsync("echo", "async");
+
+        ExecResult result = future.join();
+        assertTrue(result.exitStatus());
+        assertEquals("async\n", result.out());
+    }
+
+    @Test
+    void testExecAsyncThrowErrors() {
+        CompletableFuture<ExecResult> future = Exec.execAsync("ls", "----h");
+
+        CompletionException ex = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(KubeClusterException.class, ex.getCause());
+    }
+
+    @Test
+    void testExecAsyncTimeout() {
+        long startTime = System.currentTimeMillis();
+        ExecResult result = Exec.execAsync(null, List.of("sleep", "10"), 500, false, false).join();
+
+        assertTrue((System.currentTimeMillis() - startTime) < 5000);
+        assertFalse(result.exitStatus());
+    }
+
+    @Test
+    void testExecBuilderExecAsync() {
+        ExecResult result = Exec.builder()
+            .withCommand("cat")
+            .withInput("async input")
+            .execAsync()
+            .join();
+
+        assertTrue(result.exitStatus());
+        assertEquals("async input\n", result.out());
+    }
+
+    @Test
+    void testExecAllKeepsOrderOfCommands() {
+        List<List<String>> commands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            commands.add(List.of("echo", String.valueOf(i)));
+        }
+
+        List<ExecResult> results = Exec.execAll(commands);
+
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + "\n", results.get(i).out());
+        }
+        ExecStats stats = Exec.stats();
+        assertTrue(stats.startedProcesses() >= 20);
+        assertTrue(stats.runningProcesses() <= stats.maxConcurrentProcesses());
+    }
+
+    @Test
+    void testExecAllThrowsFirstFailure() {
+        List<List<String>> commands = List.of(List.of("echo", "ok"), List.of("ls", "----h"));
+
+        assertThrows(KubeClusterException.class, () -> Exec.execAll(commands));
+
+        List<ExecResult> results = Exec.execAll(commands, 0, false);
+        assertTrue(results.get(0).exitStatus());
+        assertFalse(results.get(1).exitStatus());
+    }
+
     @Test
     void testCreateAppropriateExceptionNotFound() {
         // Test Java 21 Enhanced Pattern Matching for NotFound errors
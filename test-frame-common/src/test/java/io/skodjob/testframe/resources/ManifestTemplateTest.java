@@ -0,0 +1,145 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.resources;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResource;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResourceBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@TestVisualSeparator
+class ManifestTemplateTest {
+    private static final KubernetesSerialization SERIALIZATION = new KubernetesSerialization();
+
+    private static Deployment deployment() {
+        return new DeploymentBuilder()
+            .withNewMetadata().withName("template").addToLabels("app", "test").endMetadata()
+            .withNewSpec()
+                .withReplicas(1)
+                .withNewTemplate()
+                    .withNewSpec()
+                        .addNewInitContainer().withName("init").withImage("busybox:1").endInitContainer()
+                        .addNewContainer().withName("main").withImage("nginx:1").endContainer()
+                        .addNewContainer().withName("sidecar").withImage("envoy:1").endContainer()
+                    .endSpec()
+                .endTemplate()
+            .endSpec()
+            .build();
+    }
+
+    @Test
+    void testVariantsOfTypedResource() {
+        Deployment original = deployment();
+        ManifestTemplate template = ManifestTemplate.compile(SERIALIZATION, List.of(original));
+
+        Deployment variant = template.variant()
+            .withName("dep-1")
+            .withNamespace("ns")
+            .withReplicas(3)
+            .withImage("registry/image:2")
+            .withLabel("variant", "1")
+            .withLabels(Map.of("extra", "yes"))
+            .withValue("/spec/template/spec/containers/1/name", "proxy")
+            .withValue("/spec/minReadySeconds", 5)
+            .buildFirst();
+
+        assertEquals("dep-1", variant.getMetadata().getName());
+        assertEquals("ns", variant.getMetadata().getNamespace());
+        assertEquals(3, variant.getSpec().getReplicas());
+        assertEquals(5, variant.getSpec().getMinReadySeconds());
+        assertEquals(Map.of("app", "test", "variant", "1", "extra", "yes"), variant.getMetadata().getLabels());
+        assertEquals("registry/image:2",
+            variant.getSpec().getTemplate().getSpec().getInitContainers().get(0).getImage());
+        variant.getSpec().getTemplate().getSpec().getContainers()
+            .forEach(c -> assertEquals("registry/image:2", c.getImage()));
+        assertEquals("proxy", variant.getSpec().getTemplate().getSpec().getContainers().get(1).getName());
+
+        // the template and the original resource are untouched
+        Deployment plain = template.variant().buildFirst();
+        assertEquals(original, plain);
+        assertNull(plain.getMetadata().getNamespace());
+    }
+
+    @Test
+    void testManyVariantsOfCustomResource() {
+        GenericKubernetesResource cr = new GenericKubernetesResourceBuilder()
+            .withApiVersion("example.io/v1").withKind("Cluster")
+            .withNewMetadata().withName("cluster").endMetadata()
+            .withAdditionalProperties(Map.of("spec", Map.of("size", 1)))
+            .build();
+        ManifestTemplate template = ManifestTemplate.compile(SERIALIZATION, List.of(cr));
+
+        List<HasMetadata> variants = template.instantiate(1000, (i, v) -> v
+            .withName("cluster-" + i)
+            .withValue("/spec/size", i)
+            .withValue("/spec/config/nested", "value-" + i));
+
+        assertEquals(1000, variants.size());
+        GenericKubernetesResource last = assertInstanceOf(GenericKubernetesResource.class, variants.get(999));
+        assertEquals("cluster-999", last.getMetadata().getName());
+        assertEquals(999, ((Map<?, ?>) last.getAdditionalProperties().get("spec")).get("size"));
+        assertEquals("value-999", ((Map<?, ?>) ((Map<?, ?>) last.getAdditionalProperties().get("spec"))
+            .get("config")).get("nested"));
+        assertEquals("cluster-0", variants.get(0).getMetadata().getName());
+    }
+
+    @Test
+    void testScopedParametersOfMultiResourceTemplate() {
+        ConfigMap cm = new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata()
+            .addToData("key", "value").build();
+        Service svc = new ServiceBuilder().withNewMetadata().withName("service").endMetadata()
+            .withNewSpec().withType("ClusterIP").endSpec().build();
+        ManifestTemplate template = ManifestTemplate.compile(SERIALIZATION, List.of(deployment(), cm, svc));
+
+        ManifestTemplate.Variant variant = template.variant()
+            .withNamespace("ns")
+            .withReplicas(4)
+            .withLabel("variant", "1");
+        variant.forKind("Deployment").withName("dep-1")
+            .forKind("Service").withName("svc-1")
+            .forResource(1).withName("cm-1").withValue("/data/key", "other")
+            .forAll().withLabel("all", "yes");
+        List<HasMetadata> resources = variant.build();
+
+        Deployment dep = assertInstanceOf(Deployment.class, resources.get(0));
+        ConfigMap config = assertInstanceOf(ConfigMap.class, resources.get(1));
+        Service service = assertInstanceOf(Service.class, resources.get(2));
+        assertEquals("dep-1", dep.getMetadata().getName());
+        assertEquals(4, dep.getSpec().getReplicas());
+        assertEquals("cm-1", config.getMetadata().getName());
+        assertEquals(Map.of("key", "other"), config.getData());
+        assertEquals("svc-1", service.getMetadata().getName());
+        // replicas are not added to the resources which do not have them
+        assertEquals(new ServiceBuilder(svc).editMetadata().withName("svc-1").withNamespace("ns")
+            .withLabels(Map.of("variant", "1", "all", "yes")).endMetadata().build(), service);
+        resources.forEach(r -> assertEquals("ns", r.getMetadata().getNamespace()));
+        resources.forEach(r -> assertEquals("yes", r.getMetadata().getLabels().get("all")));
+
+        assertThrows(IllegalArgumentException.class, () -> template.variant().forResource(3));
+    }
+
+    @Test
+    void testInvalidPointer() {
+        ManifestTemplate template = ManifestTemplate.compile(SERIALIZATION, List.of(deployment()));
+        assertThrows(IllegalArgumentException.class, () -> template.variant()
+            .withValue("/spec/template/spec/containers/5/image", "x").build());
+    }
+}
@@ -21,6 +21,8 @@ import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.ScalableResource;
 import io.skodjob.testframe.annotations.TestVisualSeparator;
 import io.skodjob.testframe.clients.KubeClient;
+import io.skodjob.testframe.clients.LogFollower;
+import io.skodjob.testframe.clients.LogMatch;
 import io.skodjob.testframe.resources.KubeResourceManager;
 import io.skodjob.testframe.wait.Wait;
 import org.junit.jupiter.api.AfterEach;
@@ -38,6 +40,7 @@ import java.util.function.BooleanSupplier;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
@@ -111,19 +114,16 @@ class JobUtilsTest {
         Pod mockPod = new PodBuilder().withNewMetadata().withName(POD_NAME).endMetadata().build();
         when(mockKubeClient.listPodsByPrefixInName(NAMESPACE, JOB_NAME))
             .thenReturn(Collections.singletonList(mockPod));
-        when(mockKubeClient.getLogsFromPod(NAMESPACE, POD_NAME))
-            .thenReturn("This is a desired log message");
+        LogFollower mockFollower = mock(LogFollower.class);
+        when(mockKubeClient.followLog(NAMESPACE, POD_NAME, null)).thenReturn(mockFollower);
+        when(mockFollower.waitFor(anyLong(), eq("This is a desired log message")))
+            .thenReturn(new LogMatch("This is a desired log message", 29));
 
         JobUtils.waitForJobContainingLogMessage(NAMESPACE, JOB_NAME, "This is a desired log message");
 
         verify(mockKubeClient, times(1)).listPodsByPrefixInName(NAMESPACE, JOB_NAME);
-        verify(mockKubeClient, times(1)).getLogsFromPod(NAMESPACE, POD_NAME);
-        mockedStaticWait.verify(() -> Wait.until(
-            anyString(),
-            anyLong(),
-            anyLong(),
-            any(BooleanSupplier.class)
-        ));
+        verify(mockKubeClient, never()).getLogsFromPod(NAMESPACE, POD_NAME);
+        verify(mockFollower, times(1)).waitFor(anyLong(), eq("This is a desired log message"));
     }
 
     @Test
@@ -4,6 +4,8 @@
  */
 package io.skodjob.testframe.utils;
 
+import io.fabric8.kubernetes.api.model.LabelSelector;
+import io.fabric8.kubernetes.api.model.LabelSelectorBuilder;
 import io.fabric8.kubernetes.api.model.Namespace;
 import io.fabric8.kubernetes.api.model.NamespaceBuilder;
 import io.fabric8.kubernetes.api.model.Node;
@@ -31,8 +33,10 @@ import org.mockito.MockedStatic;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.UnaryOperator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -340,4 +344,32 @@ class KubeUtilsTest {
             assertNull(result);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLabelSelectorToString() {
+        LabelSelector selector = new LabelSelectorBuilder()
+            .addToMatchLabels("app", "kafka")
+            .addNewMatchExpression().withKey("tier").withOperator("In").withValues("a", "b").endMatchExpression()
+            .addNewMatchExpression().withKey("legacy").withOperator("DoesNotExist").endMatchExpression()
+            .build();
+
+        assertEquals("app=kafka,tier in (a,b),!legacy", KubeUtils.labelSelectorToString(selector));
+        assertEquals("", KubeUtils.labelSelectorToString(new LabelSelector()));
+    }
+
+    @Test
+    void testMatchesLabelSelector() {
+        LabelSelector selector = new LabelSelectorBuilder()
+            .addToMatchLabels("app", "kafka")
+            .addNewMatchExpression().withKey("tier").withOperator("In").withValues("a", "b").endMatchExpression()
+            .addNewMatchExpression().withKey("legacy").withOperator("DoesNotExist").endMatchExpression()
+            .build();
+
+        assertTrue(KubeUtils.matchesLabelSelector(selector, Map.of("app", "kafka", "tier", "b")));
+        assertFalse(KubeUtils.matchesLabelSelector(selector, Map.of("app", "kafka", "tier", "c")));
+        assertFalse(KubeUtils.matchesLabelSelector(selector, Map.of("app", "kafka", "tier", "a", "legacy", "")));
+        assertFalse(KubeUtils.matchesLabelSelector(selector, null));
+        assertTrue(KubeUtils.matchesLabelSelector(new LabelSelector(), null));
+        assertTrue(KubeUtils.matchesLabelSelector(null, Map.of("any", "label")));
+    }
+}
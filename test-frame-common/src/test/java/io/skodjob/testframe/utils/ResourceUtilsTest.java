@@ -13,6 +13,7 @@ import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.skodjob.testframe.TestFrameConstants;
 import io.skodjob.testframe.clients.KubeClient;
 import io.skodjob.testframe.resources.KubeResourceManager;
 import org.junit.jupiter.api.BeforeAll;
@@ -22,6 +23,9 @@ import org.mockito.MockedStatic;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -85,4 +89,42 @@ public class ResourceUtilsTest {
             assertEquals(secret, expectedSecret);
         }
     }
+
+    @Test
+    void testContentHash() {
+        Secret secret = new SecretBuilder()
+            .withNewMetadata().withName("hashed").addToLabels("a", "1").addToLabels("b", "2").endMetadata()
+            .addToData("key", "dmFsdWU=")
+            .build();
+        String hash = ResourceUtils.contentHash(secret);
+
+        Secret reordered = new SecretBuilder()
+            .withNewMetadata().withName("hashed").addToLabels("b", "2").addToLabels("a", "1")
+                .withResourceVersion("42").withUid("uid")
+                .addToAnnotations(TestFrameConstants.CONTENT_HASH_ANNOTATION, hash)
+            .endMetadata()
+            .addToData("key", "dmFsdWU=")
+            .build();
+        assertEquals(hash, ResourceUtils.contentHash(reordered));
+        assertNotEquals(hash, ResourceUtils.contentHash(new SecretBuilder(secret).addToData("key", "b3RoZXI=")
+            .build()));
+    }
+
+    @Test
+    void testHasContent() {
+        Secret desired = new SecretBuilder()
+            .withNewMetadata().withName("desired").addToLabels("a", "1").endMetadata()
+            .addToData("key", "dmFsdWU=")
+            .build();
+        Secret live = new SecretBuilder(desired)
+            .editMetadata().withResourceVersion("42").addToLabels("added", "by-others").endMetadata()
+            .withType("Opaque")
+            .build();
+
+        assertTrue(ResourceUtils.hasContent(live, desired));
+        assertFalse(ResourceUtils.hasContent(desired, live));
+        assertFalse(ResourceUtils.hasContent(new SecretBuilder(live).addToData("key", "b3RoZXI=").build(), desired));
+        assertFalse(ResourceUtils.hasContent(new SecretBuilder(live).editMetadata().removeFromLabels("a")
+            .endMetadata().build(), desired));
+    }
 }
@@ -0,0 +1,279 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compressed (zip) archive with all artifacts of one collection, used instead of thousands of small files.
+ * Content of every artifact is stored once as a blob named by its SHA-256 hash, so the same YAMLs and logs
+ * collected by several tests are not stored again and again. Blobs already stored by archives closed earlier
+ * in the same JVM are referenced instead of stored, as long as those archives exist.
+ * <p>
+ * The archive contains {@code blobs/<sha256>} entries and the {@link CollectorConstants#ARCHIVE_MANIFEST}
+ * mapping path of every artifact (relative to the collection folder) to its hash, size and the archive which
+ * holds the blob - empty for this archive, otherwise a path relative to the folder of this archive.
+ * Artifacts can be read back by {@link #read(Path, String)}.
+ */
+public class ArtifactArchive implements AutoCloseable {
+
+    private static final String MANIFEST_HEADER = "# path\tsha256\tsize\tarchive";
+
+    // blobs stored by the closed archives, by hash
+    private static final Map<String, Path> STORED_BLOBS = new ConcurrentHashMap<>();
+
+    private final Path folder;
+    private final Path file;
+    private final ZipOutputStream zip;
+    private final Map<String, Entry> manifest = new TreeMap<>();
+    private final Set<String> blobs = new HashSet<>();
+    private boolean closed;
+
+    /**
+     * Entry of the manifest
+     *
+     * @param path    path of the artifact relative to the collection folder
+     * @param sha256  hash of the content
+     * @param size    size of the content in bytes
+     * @param archive path to the archive holding the blob relative to the folder of the archive with the manifest,
+     *                empty when the blob is stored in the same archive
+     */
+    public record Entry(String path, String sha256, long size, String archive) {
+    }
+
+    private ArtifactArchive(Path folder, Path file) throws IOException {
+        this.folder = folder;
+        this.file = file;
+        this.zip = new ZipOutputStream(Files.newOutputStream(file));
+    }
+
+    /**
+     * Creates a new archive in the collection folder, named {@code artifacts-<n>.zip} with the first free number
+     *
+     * @param folder collection folder, paths of the artifacts are relative to it
+     * @return opened archive
+     * @throws IOException If an I/O error occurs creating the archive.
+     */
+    public static ArtifactArchive create(Path folder) throws IOException {
+        Path absoluteFolder = folder.toAbsolutePath().normalize();
+        Files.createDirectories(absoluteFolder);
+        for (int i = 0; ; i++) {
+            Path file = absoluteFolder.resolve(String.join(".", CollectorConstants.ARCHIVE + "-" + i,
+                CollectorConstants.ZIP));
+            if (!Files.exists(file)) {
+                return new ArtifactArchive(absoluteFolder, file);
+            }
+        }
+    }
+
+    /**
+     * Returns path to the archive file
+     *
+     * @return path to the archive
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Checks if the file path is inside the collection folder of this archive
+     *
+     * @param path path of the file
+     * @return true when the file belongs to this archive
+     */
+    public boolean covers(Path path) {
+        return path.toAbsolutePath().normalize().startsWith(folder);
+    }
+
+    /**
+     * Stores the artifact, empty data are skipped
+     *
+     * @param path path of the file inside the collection folder
+     * @param data content of the artifact
+     * @throws IOException If an I/O error occurs writing to the archive.
+     */
+    public void write(Path path, byte[] data) throws IOException {
+        if (data.length == 0) {
+            return;
+        }
+        String sha256 = HexFormat.of().formatHex(digest().digest(data));
+        synchronized (this) {
+            if (addToManifest(path, sha256, data.length)) {
+                zip.putNextEntry(new ZipEntry(blobEntryName(sha256)));
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Stores at most {@code maxBytes} of the stream as the artifact, the stream is closed.
+     * The stream is spooled to a temporary file first, as the hash has to be known before the blob is written.
+     *
+     * @param path     path of the file inside the collection folder
+     * @param is       stream with the content of the artifact
+     * @param maxBytes max number of bytes read from the stream, 0 for the whole stream
+     * @return number of bytes read from the stream
+     * @throws IOException If an I/O error occurs reading from the stream or writing to the archive.
+     */
+    public long write(Path path, InputStream is, long maxBytes) throws IOException {
+        Path spool = Files.createTempFile(CollectorConstants.ARCHIVE, null);
+        try {
+            long size = LogStreamWriter.write(is, spool, false, maxBytes);
+            if (size == 0) {
+                return 0;
+            }
+            String sha256 = hash(spool);
+            synchronized (this) {
+                if (addToManifest(path, sha256, size)) {
+                    zip.putNextEntry(new ZipEntry(blobEntryName(sha256)));
+                    Files.copy(spool, zip);
+                    zip.closeEntry();
+                }
+            }
+            return size;
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Writes the manifest and closes the archive, its blobs can be referenced by the archives created later
+     *
+     * @throws IOException If an I/O error occurs writing to the archive.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        StringBuilder content = new StringBuilder(MANIFEST_HEADER).append('\n');
+        manifest.values().forEach(entry -> content.append(String.join("\t", entry.path(), entry.sha256(),
+            String.valueOf(entry.size()), entry.archive())).append('\n'));
+
+        zip.putNextEntry(new ZipEntry(CollectorConstants.ARCHIVE_MANIFEST));
+        zip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+        zip.close();
+
+        blobs.forEach(sha256 -> STORED_BLOBS.put(sha256, file));
+    }
+
+    /**
+     * Reads manifest of the archive
+     *
+     * @param archive path to the archive
+     * @return entries of the manifest by paths of the artifacts
+     * @throws IOException If an I/O error occurs reading the archive.
+     */
+    public static Map<String, Entry> readManifest(Path archive) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try (ZipFile zipFile = new ZipFile(archive.toFile());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                 zipFile.getInputStream(zipFile.getEntry(CollectorConstants.ARCHIVE_MANIFEST)),
+                 StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                entries.put(fields[0], new Entry(fields[0], fields[1], Long.parseLong(fields[2]), fields[3]));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads content of the artifact, following the reference when the blob is stored in another archive
+     *
+     * @param archive path to the archive
+     * @param path    path of the artifact relative to the collection folder, with {@code /} as separator
+     * @return content of the artifact, {@code null} when it's not in the archive
+     * @throws IOException If an I/O error occurs reading the archives.
+     */
+    public static byte[] read(Path archive, String path) throws IOException {
+        Entry entry = readManifest(archive).get(path);
+        if (entry == null) {
+            return null;
+        }
+        Path blobArchive = entry.archive().isEmpty() ? archive : archive.resolveSibling(entry.archive());
+        try (ZipFile zipFile = new ZipFile(blobArchive.toFile())) {
+            ZipEntry blob = zipFile.getEntry(blobEntryName(entry.sha256()));
+            if (blob == null) {
+                throw new IOException(String.format("Blob %s of %s is missing in %s", entry.sha256(), path,
+                    blobArchive));
+            }
+            try (InputStream is = zipFile.getInputStream(blob)) {
+                return is.readAllBytes();
+            }
+        }
+    }
+
+    /**
+     * Adds the artifact to the manifest
+     *
+     * @return true when the blob should be written to this archive
+     */
+    private boolean addToManifest(Path path, String sha256, long size) {
+        if (closed) {
+            throw new IllegalStateException("Archive " + file + " is already closed");
+        }
+        String entryPath = folder.relativize(path.toAbsolutePath().normalize()).toString()
+            .replace(path.getFileSystem().getSeparator(), "/");
+        Path stored = blobs.contains(sha256) ? null : STORED_BLOBS.get(sha256);
+
+        if (stored != null && Files.exists(stored)) {
+            manifest.put(entryPath, new Entry(entryPath, sha256, size,
+                file.getParent().relativize(stored).toString().replace(path.getFileSystem().getSeparator(), "/")));
+            return false;
+        }
+        manifest.put(entryPath, new Entry(entryPath, sha256, size, ""));
+        return blobs.add(sha256);
+    }
+
+    private static String blobEntryName(String sha256) {
+        return String.join("/", CollectorConstants.ARCHIVE_BLOBS, sha256);
+    }
+
+    private static String hash(Path path) throws IOException {
+        MessageDigest digest = digest();
+        try (InputStream is = new DigestInputStream(Files.newInputStream(path), digest)) {
+            is.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.LabelSelector;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.skodjob.testframe.clients.KubeClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Captures logs of Pods continuously while the test is running, so logs of Pods which crashed and were replaced,
+ * or which were deleted before the failure was handled, are not lost.
+ * Pods matching the label selector are watched in every specified Namespace and logs of all their (init)
+ * containers are followed since they start. Every restart of a container is appended to the same file.
+ * The files are size-capped - once the file reaches the max size, it's rolled to the file with `.1` suffix
+ * (replacing the older one), so at most twice the max size is kept for every container.
+ * <p>
+ * The logs are stored in the same layout as {@link LogCollector} uses:
+ * {@code <folder>/<namespace>/pod/logs-pod-<pod>-container-<container>.log}.
+ * At the end of the test the capture is stopped by {@link #stop(boolean)}, which keeps the files only when
+ * the test failed. Otherwise only the files written by the capture are deleted, together with the directories
+ * it created once they are empty, so the folder can be shared with other collections.
+ */
+public class BackgroundLogCapture implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundLogCapture.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final KubeClient kubeClient;
+    private final Path folder;
+    private final List<String> namespaces;
+    private final LabelSelector podSelector;
+    private final long maxFileSize;
+    private final List<SharedIndexInformer<Pod>> informers = new ArrayList<>();
+    // followed container instances by pod uid, container name and restart count
+    private final Map<String, LogWatch> followed = new ConcurrentHashMap<>();
+    private final Map<String, RollingLogFile> files = new ConcurrentHashMap<>();
+    // guarded by this, so no container is followed once the capture is stopped
+    private boolean stopped;
+
+    /**
+     * Constructor of the capture, it is not started until {@link #start()} is called
+     *
+     * @param kubeClient  client used for watching of Pods and following of their logs
+     * @param folder      folder where the logs are stored
+     * @param namespaces  Namespaces where the Pods are watched
+     * @param podSelector label selector of the Pods, {@code null} for all Pods
+     * @param maxFileSize max size of one log file in bytes
+     */
+    public BackgroundLogCapture(KubeClient kubeClient, Path folder, List<String> namespaces,
+                                LabelSelector podSelector, long maxFileSize) {
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("maxFileSize should be positive, but it's " + maxFileSize);
+        }
+        this.kubeClient = kubeClient;
+        this.folder = folder;
+        this.namespaces = List.copyOf(namespaces);
+        this.podSelector = podSelector;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Starts watching of the Pods and following of their logs
+     *
+     * @return this capture
+     */
+    public synchronized BackgroundLogCapture start() {
+        if (!informers.isEmpty() || stopped) {
+            throw new IllegalStateException("Background log capture can be started only once");
+        }
+        LOGGER.info("Starting background log capture in Namespaces: {} into {}", namespaces, folder);
+        for (String namespaceName : namespaces) {
+            if (podSelector == null) {
+                informers.add(kubeClient.getClient().pods().inNamespace(namespaceName).inform(new PodHandler()));
+            } else {
+                informers.add(kubeClient.getClient().pods().inNamespace(namespaceName)
+                    .withLabelSelector(podSelector)
+                    .inform(new PodHandler()));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns folder with the captured logs
+     *
+     * @return folder with the logs
+     */
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Stops the capture and finalizes the files
+     *
+     * @param keep keep the captured logs, typically when the test failed, otherwise the captured files are deleted
+     */
+    public synchronized void stop(boolean keep) {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        informers.forEach(SharedIndexInformer::stop);
+        followed.values().forEach(LogWatch::close);
+        files.values().forEach(RollingLogFile::close);
+
+        if (keep) {
+            LOGGER.info("Background log capture stopped, logs are kept in {}", folder);
+        } else {
+            deleteFiles();
+        }
+    }
+
+    /**
+     * Stops the capture and keeps the captured logs
+     */
+    @Override
+    public void close() {
+        stop(true);
+    }
+
+    private void deleteFiles() {
+        List<Path> directories = new ArrayList<>();
+        try {
+            for (RollingLogFile file : files.values()) {
+                directories.addAll(file.delete());
+            }
+            // directories shared with other files of the capture are created only once, the deepest go first
+            directories.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+            for (Path directory : directories) {
+                if (isEmptyDirectory(directory)) {
+                    Files.delete(directory);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete background logs in {}, due to: {}", folder, e.getMessage());
+        }
+    }
+
+    private static boolean isEmptyDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (Stream<Path> content = Files.list(directory)) {
+            return content.findAny().isEmpty();
+        }
+    }
+
+    /**
+     * Follows the started containers of the Pod, synchronized with {@link #stop(boolean)}, so no log watch or file
+     * is opened after the capture is stopped
+     *
+     * @param pod the Pod
+     */
+    private synchronized void followContainers(Pod pod) {
+        if (stopped || pod.getStatus() == null) {
+            return;
+        }
+        List<ContainerStatus> statuses = new ArrayList<>();
+        if (pod.getStatus().getInitContainerStatuses() != null) {
+            statuses.addAll(pod.getStatus().getInitContainerStatuses());
+        }
+        if (pod.getStatus().getContainerStatuses() != null) {
+            statuses.addAll(pod.getStatus().getContainerStatuses());
+        }
+
+        for (ContainerStatus status : statuses) {
+            // waiting containers have no log yet
+            if (status.getState() == null
+                || (status.getState().getRunning() == null && status.getState().getTerminated() == null)) {
+                continue;
+            }
+            String key = String.join("/", pod.getMetadata().getUid(), status.getName(),
+                String.valueOf(status.getRestartCount()));
+            followed.computeIfAbsent(key, k -> follow(pod, status.getName()));
+        }
+    }
+
+    private LogWatch follow(Pod pod, String containerName) {
+        String namespaceName = pod.getMetadata().getNamespace();
+        String podName = pod.getMetadata().getName();
+        RollingLogFile file = files.computeIfAbsent(String.join("/", namespaceName, podName, containerName),
+            k -> new RollingLogFile(folder.resolve(namespaceName).resolve(CollectorConstants.POD)
+                .resolve(LogCollectorUtils.getLogFileNameForPodContainer(podName, containerName)), maxFileSize));
+
+        LOGGER.debug("Following log of Pod: {}/{} and container: {}", namespaceName, podName, containerName);
+        LogWatch watch = kubeClient.getClient().pods().inNamespace(namespaceName).withName(podName)
+            .inContainer(containerName).watchLog();
+        CompletableFuture.runAsync(() -> file.copy(watch.getOutput()), EXECUTOR);
+        return watch;
+    }
+
+    /**
+     * Starts following of containers of added and updated Pods, deleted Pods keep their logs
+     */
+    private final class PodHandler implements ResourceEventHandler<Pod> {
+        @Override
+        public void onAdd(Pod pod) {
+            followContainers(pod);
+        }
+
+        @Override
+        public void onUpdate(Pod oldPod, Pod newPod) {
+            followContainers(newPod);
+        }
+
+        @Override
+        public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+            // the log stream ends by itself, the file stays
+        }
+    }
+
+    /**
+     * Log file of one container, rolled to the file with `.1` suffix once it reaches the max size
+     */
+    static final class RollingLogFile {
+        private final Path file;
+        private final Path rolled;
+        private final long maxSize;
+        // directories which did not exist before the file was created, the deepest first
+        private final List<Path> createdDirectories = new ArrayList<>();
+        private FileChannel channel;
+        private long size;
+        private boolean closed;
+
+        /**
+         * Constructor of the file
+         *
+         * @param file    path to the file
+         * @param maxSize max size of the file in bytes
+         */
+        RollingLogFile(Path file, long maxSize) {
+            this.file = file;
+            this.rolled = file.resolveSibling(file.getFileName() + ".1");
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Copies the stream to the file until the stream ends, the stream is closed
+         *
+         * @param is stream with the log
+         */
+        void copy(InputStream is) {
+            byte[] buffer = new byte[CollectorConstants.STREAM_BUFFER_SIZE];
+            try (is) {
+                int read;
+                while ((read = is.read(buffer)) >= 0) {
+                    write(buffer, read);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Following of log {} ended: {}", file, e.getMessage());
+            }
+        }
+
+        /**
+         * Appends the data to the file, rolls the file when needed, nothing is written once the file is closed
+         *
+         * @param buffer data
+         * @param length length of the data in the buffer
+         * @throws IOException If an I/O error occurs writing to the file.
+         */
+        synchronized void write(byte[] buffer, int length) throws IOException {
+            int offset = 0;
+            while (offset < length && !closed) {
+                if (channel == null) {
+                    for (Path dir = file.getParent(); dir != null && !Files.exists(dir); dir = dir.getParent()) {
+                        createdDirectories.add(dir);
+                    }
+                    Files.createDirectories(file.getParent());
+                    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                    size = channel.size();
+                }
+                if (size >= maxSize) {
+                    roll();
+                    continue;
+                }
+                int chunk = (int) Math.min(length - offset, maxSize - size);
+                ByteBuffer data = ByteBuffer.wrap(buffer, offset, chunk);
+                while (data.hasRemaining()) {
+                    size += channel.write(data);
+                }
+                offset += chunk;
+            }
+        }
+
+        /**
+         * Closes the file
+         */
+        synchronized void close() {
+            closed = true;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Failed to close log {}: {}", file, e.getMessage());
+                }
+                channel = null;
+            }
+        }
+
+        /**
+         * Deletes the file and the rolled file, it should be closed already
+         *
+         * @return directories created for the file, the deepest first
+         * @throws IOException If an I/O error occurs deleting the files.
+         */
+        synchronized List<Path> delete() throws IOException {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(rolled);
+            return createdDirectories;
+        }
+
+        private void roll() throws IOException {
+            channel.close();
+            Files.move(file, rolled, StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Scheduler of the collection tasks of {@link LogCollector} with a global concurrency budget.
+ * Tasks are queued per priority lane and Namespace. Free slots are always given to the {@link Priority#HIGH} lane
+ * first and within a lane the Namespaces take turns, so one big Namespace cannot starve the others.
+ * Progress of every Namespace is counted from the last {@link #resetProgress(String)}, so the caller can report it
+ * once it joined all the tasks of the collection.
+ */
+public class CollectionScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CollectionScheduler.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Priority lanes of the collection tasks
+     */
+    public enum Priority {
+        /**
+         * Tasks collecting the most valuable data, like events and logs of failing Pods
+         */
+        HIGH,
+        /**
+         * All the other tasks
+         */
+        NORMAL
+    }
+
+    /**
+     * Progress of the collection in one Namespace
+     *
+     * @param namespaceName name of the Namespace
+     * @param submitted     number of submitted tasks
+     * @param finished      number of finished tasks (including the failed ones)
+     * @param failed        number of failed tasks
+     */
+    public record Progress(String namespaceName, int submitted, int finished, int failed) {
+    }
+
+    private final int maxConcurrency;
+    private final Map<Priority, LinkedHashMap<String, ArrayDeque<Task>>> lanes = new EnumMap<>(Priority.class);
+    private final Map<String, Progress> progress = new ConcurrentHashMap<>();
+    private int running;
+
+    /**
+     * Constructor of the scheduler
+     *
+     * @param maxConcurrency max number of tasks running at the same time
+     */
+    public CollectionScheduler(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency should be positive, but it's " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Submits the task, it is executed once there is a free slot and no task of higher priority is waiting
+     *
+     * @param namespaceName name of the Namespace the task collects from, used for fair interleaving and progress
+     * @param priority      priority lane of the task
+     * @param runnable      the collection itself
+     * @return future completed when the task is finished
+     */
+    public CompletableFuture<Void> submit(String namespaceName, Priority priority, Runnable runnable) {
+        Task task = new Task(namespaceName, runnable, new CompletableFuture<>());
+        synchronized (this) {
+            lanes.get(priority).computeIfAbsent(namespaceName, k -> new ArrayDeque<>()).add(task);
+            progress.merge(namespaceName, new Progress(namespaceName, 1, 0, 0),
+                (p, n) -> new Progress(namespaceName, p.submitted() + 1, p.finished(), p.failed()));
+        }
+        dispatch();
+        return task.future;
+    }
+
+    /**
+     * Starts counting the progress of a new collection in the Namespace, tasks of the previous collections
+     * should be finished already
+     *
+     * @param namespaceName name of the Namespace
+     */
+    public synchronized void resetProgress(String namespaceName) {
+        progress.remove(namespaceName);
+    }
+
+    /**
+     * Returns progress of the collection in the Namespace
+     *
+     * @param namespaceName name of the Namespace
+     * @return progress, with zero tasks when nothing was submitted for the Namespace
+     */
+    public Progress getProgress(String namespaceName) {
+        return progress.getOrDefault(namespaceName, new Progress(namespaceName, 0, 0, 0));
+    }
+
+    /**
+     * Returns number of tasks running right now
+     *
+     * @return number of running tasks
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    private void dispatch() {
+        while (true) {
+            Task task;
+            synchronized (this) {
+                if (running >= maxConcurrency) {
+                    return;
+                }
+                task = next();
+                if (task == null) {
+                    return;
+                }
+                running++;
+            }
+            CompletableFuture.runAsync(task.runnable, EXECUTOR).whenComplete((result, error) -> finished(task, error));
+        }
+    }
+
+    /**
+     * Takes the next task from the highest non-empty lane, the Namespace it belongs to moves to the end of the lane
+     *
+     * @return next task or {@code null} when nothing is waiting
+     */
+    private Task next() {
+        for (LinkedHashMap<String, ArrayDeque<Task>> lane : lanes.values()) {
+            Iterator<Map.Entry<String, ArrayDeque<Task>>> iterator = lane.entrySet().iterator();
+            if (iterator.hasNext()) {
+                Map.Entry<String, ArrayDeque<Task>> entry = iterator.next();
+                iterator.remove();
+                Task task = entry.getValue().poll();
+                if (!entry.getValue().isEmpty()) {
+                    lane.put(entry.getKey(), entry.getValue());
+                }
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void finished(Task task, Throwable error) {
+        Progress current;
+        synchronized (this) {
+            running--;
+            current = progress.computeIfPresent(task.namespaceName, (k, p) -> new Progress(k, p.submitted(),
+                p.finished() + 1, p.failed() + (error == null ? 0 : 1)));
+        }
+
+        if (current != null) {
+            LOGGER.debug("Collection in Namespace: {} finished {}/{} tasks", task.namespaceName,
+                current.finished(), current.submitted());
+        }
+
+        if (error == null) {
+            task.future.complete(null);
+        } else {
+            task.future.completeExceptionally(error);
+        }
+        dispatch();
+    }
+
+    /**
+     * Queued collection task
+     *
+     * @param namespaceName name of the Namespace
+     * @param runnable      the collection itself
+     * @param future        future completed when the task is finished
+     */
+    private record Task(String namespaceName, Runnable runnable, CompletableFuture<Void> future) {
+    }
+}
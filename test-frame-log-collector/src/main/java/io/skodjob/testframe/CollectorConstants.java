@@ -42,4 +42,75 @@ public interface CollectorConstants {
      * Suffix for "previous" logs of Pod and container
      */
     String PREVIOUS = "previous";
+
+    /**
+     * Suffix for files marking deleted resources
+     */
+    String DELETED = "deleted";
+
+    /**
+     * Name of the manifest listing resources which didn't change since the previous incremental collection,
+     * prefixed by `_`, so it cannot clash with YAML of any resource
+     */
+    String UNCHANGED_RESOURCES = "_unchanged.yaml";
+
+    /**
+     * Suffix for files compressed by gzip
+     */
+    String GZIP = "gz";
+
+    /**
+     * Size of the buffer used for streaming of logs to files
+     */
+    int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Default max number of logs streamed at the same time within the logs byte budget
+     */
+    int LOGS_BYTE_BUDGET_MAX_STREAMS = 16;
+
+    /**
+     * Default max size of one log file of the background log capture
+     */
+    long BACKGROUND_LOG_MAX_FILE_SIZE = 10 * 1024 * 1024;
+
+    /**
+     * Default max size of events recorded by the event recorder during one test
+     */
+    long EVENT_RECORDER_MAX_SIZE = 1024 * 1024;
+
+    /**
+     * Suffix for files with newline delimited JSON
+     */
+    String NDJSON = "ndjson";
+
+    /**
+     * Name of the file with index of the collected logs
+     */
+    String LOG_INDEX = "logs.idx";
+
+    /**
+     * Max number of indexed lines of one file for every token of the log index
+     */
+    int LOG_INDEX_MAX_POSTINGS = 1000;
+
+    /**
+     * Prefix of the archives with collected artifacts
+     */
+    String ARCHIVE = "artifacts";
+
+    /**
+     * Suffix of the archives with collected artifacts
+     */
+    String ZIP = "zip";
+
+    /**
+     * Name of the manifest inside the archive
+     */
+    String ARCHIVE_MANIFEST = "manifest.tsv";
+
+    /**
+     * Folder with content-addressed blobs inside the archive
+     */
+    String ARCHIVE_BLOBS = "blobs";
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
+import io.skodjob.testframe.clients.KubeClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records events of the Namespaces under test by watching them, instead of getting them at the time of the failure,
+ * when the older events are already gone. One watch is opened for every Namespace once it's tracked - by
+ * {@link #record(String...)}, or by {@link #track(HasMetadata)} for every created resource, for example when
+ * registered as {@code KubeResourceManager.get().addCreateCallback(recorder::track)}.
+ * When the watch is closed by the server (for example due to expired resourceVersion), it's reopened and a gap
+ * marker with action {@code GAP} is recorded, because events since then may be missing.
+ * <p>
+ * Every event is kept as one compact JSON line (NDJSON) in memory, bounded by the max size - the oldest lines are
+ * dropped first. The lines are written to {@code <folder>/<test>/events.ndjson} only by {@link #flush(String)},
+ * typically when the test failed, and {@link #clear()} starts recording of the next test.
+ */
+public class EventRecorder implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventRecorder.class);
+
+    private static final KubernetesSerialization SERIALIZATION = new KubernetesSerialization();
+    private static final long REOPEN_DELAY_MILLIS = 1000;
+    private static final String GAP = "GAP";
+    private static final Executor REOPEN_EXECUTOR = CompletableFuture.delayedExecutor(REOPEN_DELAY_MILLIS,
+        TimeUnit.MILLISECONDS, Executors.newVirtualThreadPerTaskExecutor());
+
+    private final KubeClient kubeClient;
+    private final Path folder;
+    private final long maxSize;
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    // resourceVersions of the last recorded events by Namespace, the reopened watch continues from them
+    private final Map<String, String> resourceVersions = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private long size;
+    private long dropped;
+    private volatile boolean closed;
+
+    /**
+     * Constructor of the recorder, nothing is recorded until some Namespace is tracked
+     *
+     * @param kubeClient client used for watching of the events
+     * @param folder     folder where the events are flushed
+     * @param maxSize    max size of the recorded events in bytes
+     */
+    public EventRecorder(KubeClient kubeClient, Path folder, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize should be positive, but it's " + maxSize);
+        }
+        this.kubeClient = kubeClient;
+        this.folder = folder;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Starts recording of events in the Namespaces, already recorded Namespaces are skipped
+     *
+     * @param namespacesNames Namespaces which should be recorded
+     * @return this recorder
+     */
+    public EventRecorder record(String... namespacesNames) {
+        for (String namespaceName : namespacesNames) {
+            if (closed) {
+                return this;
+            }
+            watches.computeIfAbsent(namespaceName, ns -> watch(ns, null));
+        }
+        return this;
+    }
+
+    /**
+     * Starts recording of events in the Namespace of the resource, or in the Namespace itself
+     *
+     * @param resource created resource
+     */
+    public void track(HasMetadata resource) {
+        if (resource instanceof Namespace) {
+            record(resource.getMetadata().getName());
+        } else if (resource.getMetadata() != null && resource.getMetadata().getNamespace() != null) {
+            record(resource.getMetadata().getNamespace());
+        }
+    }
+
+    /**
+     * Drops all recorded events, typically at the start of the test
+     */
+    public synchronized void clear() {
+        lines.clear();
+        size = 0;
+        dropped = 0;
+    }
+
+    /**
+     * Writes the recorded events to {@code <folder>/<testName>/events.ndjson}, one event per line, oldest first.
+     * Nothing is written when no event was recorded.
+     *
+     * @param testName name of the test, used as the folder name
+     * @return path to the written file, {@code null} when nothing was written
+     * @throws IOException If an I/O error occurs writing to the file.
+     */
+    public synchronized Path flush(String testName) throws IOException {
+        if (lines.isEmpty()) {
+            return null;
+        }
+        Path file = folder.resolve(testName).resolve(String.join(".", CollectorConstants.EVENTS,
+            CollectorConstants.NDJSON));
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        if (dropped > 0) {
+            LOGGER.info("{} oldest events were dropped from {} due to the max size {}", dropped, file, maxSize);
+        }
+        return file;
+    }
+
+    /**
+     * Closes all the watches
+     */
+    @Override
+    public void close() {
+        closed = true;
+        watches.values().forEach(Watch::close);
+        watches.clear();
+    }
+
+    /**
+     * Opens the watch of events in the Namespace, failure is only logged, so it doesn't break the test
+     *
+     * @param namespaceName   name of the Namespace
+     * @param resourceVersion resourceVersion to continue from, {@code null} for all current events
+     * @return the watch, {@code null} when it couldn't be opened
+     */
+    private Watch watch(String namespaceName, String resourceVersion) {
+        LOGGER.debug("Recording events in Namespace: {}", namespaceName);
+        try {
+            return openWatch(namespaceName, resourceVersion);
+        } catch (KubernetesClientException e) {
+            LOGGER.warn("Failed to record events in Namespace: {}, due to: {}", namespaceName, e.getMessage());
+            return null;
+        }
+    }
+
+    private Watch openWatch(String namespaceName, String resourceVersion) {
+        ListOptions options = new ListOptionsBuilder().withResourceVersion(resourceVersion).build();
+        return kubeClient.getClient().v1().events().inNamespace(namespaceName).watch(options, new Watcher<>() {
+            @Override
+            public void eventReceived(Action action, Event event) {
+                if (action != Action.BOOKMARK && action != Action.ERROR) {
+                    append(toLine(action, event));
+                }
+                if (event != null && event.getMetadata() != null
+                    && event.getMetadata().getResourceVersion() != null) {
+                    resourceVersions.put(namespaceName, event.getMetadata().getResourceVersion());
+                }
+            }
+
+            @Override
+            public void onClose(WatcherException cause) {
+                if (closed) {
+                    return;
+                }
+                LOGGER.warn("Recording of events in Namespace: {} was interrupted, due to: {}, reopening it",
+                    namespaceName, cause.getMessage());
+                append(gapLine(namespaceName, cause.getMessage()));
+                // expired resourceVersion can't be continued from
+                String lastVersion = cause.isHttpGone() ? null : resourceVersions.get(namespaceName);
+                CompletableFuture.runAsync(() -> reopen(namespaceName, lastVersion), REOPEN_EXECUTOR);
+            }
+        });
+    }
+
+    /**
+     * Reopens the watch of events in the Namespace, which was closed by the server
+     *
+     * @param namespaceName   name of the Namespace
+     * @param resourceVersion resourceVersion to continue from, {@code null} for all current events
+     */
+    private void reopen(String namespaceName, String resourceVersion) {
+        Watch watch = closed ? null : watch(namespaceName, resourceVersion);
+        if (watch == null) {
+            watches.remove(namespaceName);
+            return;
+        }
+        watches.put(namespaceName, watch);
+        if (closed) {
+            // the recorder was closed in the meantime
+            watches.remove(namespaceName);
+            watch.close();
+        }
+    }
+
+    /**
+     * Appends the line, the oldest lines are dropped to stay within the max size
+     *
+     * @param line JSON line without the line separator
+     */
+    synchronized void append(String line) {
+        long lineSize = line.getBytes(StandardCharsets.UTF_8).length + 1L;
+        lines.addLast(line);
+        size += lineSize;
+        while (size > maxSize && !lines.isEmpty()) {
+            size -= lines.removeFirst().getBytes(StandardCharsets.UTF_8).length + 1L;
+            dropped++;
+        }
+    }
+
+    /**
+     * Converts the event to the compact JSON line, only fields needed for the timeline are kept
+     *
+     * @param action type of the watch event
+     * @param event  the event
+     * @return JSON line
+     */
+    static String toLine(Watcher.Action action, Event event) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("time", firstNonNull(event.getLastTimestamp(),
+            event.getEventTime() == null ? null : event.getEventTime().getTime(),
+            event.getFirstTimestamp(), event.getMetadata().getCreationTimestamp()));
+        line.put("action", action.name());
+        line.put("namespace", event.getMetadata().getNamespace());
+        line.put("type", event.getType());
+        line.put("reason", event.getReason());
+        if (event.getInvolvedObject() != null) {
+            line.put("kind", event.getInvolvedObject().getKind());
+            line.put("name", event.getInvolvedObject().getName());
+        }
+        line.put("count", event.getCount());
+        line.put("message", event.getMessage());
+        line.values().removeIf(Objects::isNull);
+        return SERIALIZATION.asJson(line);
+    }
+
+    /**
+     * Creates JSON line marking a gap in the recorded events
+     *
+     * @param namespaceName name of the Namespace
+     * @param reason        reason why the recording was interrupted
+     * @return JSON line
+     */
+    static String gapLine(String namespaceName, String reason) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("time", Instant.now().truncatedTo(ChronoUnit.SECONDS).toString());
+        line.put("action", GAP);
+        line.put("namespace", namespaceName);
+        line.put("message", String.format("Recording of events was interrupted, events may be missing: %s",
+            reason));
+        return SERIALIZATION.asJson(line);
+    }
+
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
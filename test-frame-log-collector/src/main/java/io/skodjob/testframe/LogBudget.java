@@ -0,0 +1,200 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.ToLongBiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Byte budget shared by logs of many containers, allocated smallest-first (max-min fairness).
+ * Sizes of the logs are not known upfront, so all logs are streamed at the same time and every stream can be read
+ * up to a common level, which starts at an equal share of the budget. Once a log ends below the level,
+ * its unused share raises the level of the logs which are still streamed. When all the remaining logs reached
+ * the level, the budget is spent and their streams are ended. So every log is downloaded only once and exactly
+ * up to its final share.
+ * <p>
+ * Number of streams open at the same time is limited, the next logs are started as the open ones end.
+ * When all the open streams reached the level while some logs were not started yet, the last one to reach it
+ * is ended at the level, so the next log can start. Its unused share goes to the logs started later.
+ */
+public final class LogBudget {
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final long budget;
+    private final long maxBytes;
+    private final int maxOpen;
+    private int active;
+    private int open;
+    private int waiting;
+    private long finishedBytes;
+    private long level;
+    private boolean spent;
+
+    private LogBudget(long budget, long maxBytes, int logs, int maxOpen) {
+        this.budget = budget;
+        this.maxBytes = maxBytes;
+        this.maxOpen = maxOpen;
+        this.active = logs;
+        this.level = cap(budget / logs);
+    }
+
+    /**
+     * Fetches the logs within the budget
+     *
+     * @param budget   total number of bytes for all the logs
+     * @param maxBytes max number of bytes of one log, 0 for no limit
+     * @param logs     logs which should be fetched
+     * @param maxOpen  max number of logs fetched at the same time
+     * @param fetch    fetches the log, whose stream has to be passed through the given operator, which ends
+     *                 the stream once the share of the log is read, and returns number of fetched bytes,
+     *                 negative on failure
+     * @param <T>      type describing the log
+     * @return number of bytes fetched for every log, in order of the logs
+     */
+    public static <T> Map<T, Long> fetch(long budget, long maxBytes, List<T> logs, int maxOpen,
+                                         ToLongBiFunction<T, UnaryOperator<InputStream>> fetch) {
+        Map<T, Long> fetched = new LinkedHashMap<>();
+        if (logs.isEmpty()) {
+            return fetched;
+        }
+
+        LogBudget shares = new LogBudget(budget, maxBytes, logs.size(), Math.max(1, maxOpen));
+        Semaphore slots = new Semaphore(shares.maxOpen, true);
+        List<CompletableFuture<Long>> results = logs.stream()
+            .map(log -> CompletableFuture.supplyAsync(() -> {
+                slots.acquireUninterruptibly();
+                Share share = shares.new Share();
+                shares.start();
+                try {
+                    return fetch.applyAsLong(log, share::wrap);
+                } finally {
+                    shares.finish(share);
+                    slots.release();
+                }
+            }, EXECUTOR))
+            .toList();
+
+        for (int i = 0; i < logs.size(); i++) {
+            fetched.put(logs.get(i), Math.max(results.get(i).join(), 0));
+        }
+        return fetched;
+    }
+
+    private long cap(long share) {
+        return maxBytes > 0 ? Math.min(share, maxBytes) : share;
+    }
+
+    /**
+     * Waits until the log can read more bytes
+     *
+     * @param share  share of the log
+     * @param length number of bytes the log wants to read
+     * @return number of bytes the log can read, -1 when its share is read and the budget is spent
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private synchronized int acquire(Share share, int length) throws InterruptedException {
+        while (share.consumed >= level) {
+            if (spent || (maxBytes > 0 && level >= maxBytes)) {
+                return -1;
+            }
+            if (waiting + 1 == maxOpen && open < active) {
+                // all the open logs reached the level, so make room for the logs which were not started yet
+                return -1;
+            }
+            if (waiting + 1 == open && open == active) {
+                // no other log can end below the level and free up its share
+                spent = true;
+                notifyAll();
+                return -1;
+            }
+            waiting++;
+            try {
+                wait();
+            } finally {
+                waiting--;
+            }
+        }
+        return (int) Math.min(length, level - share.consumed);
+    }
+
+    private synchronized void start() {
+        open++;
+    }
+
+    private synchronized void finish(Share share) {
+        active--;
+        open--;
+        finishedBytes += share.consumed;
+        if (active > 0) {
+            level = Math.max(level, cap((budget - finishedBytes) / active));
+        }
+        notifyAll();
+    }
+
+    /**
+     * Share of the budget used by one log
+     */
+    private final class Share {
+        private long consumed;
+
+        private InputStream wrap(InputStream stream) {
+            return new FilterInputStream(stream) {
+                @Override
+                public int read() throws IOException {
+                    byte[] b = new byte[1];
+                    return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    int allowed;
+                    try {
+                        allowed = acquire(Share.this, len);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the log budget", e);
+                    }
+                    if (allowed < 0) {
+                        return -1;
+                    }
+                    int read = super.read(b, off, allowed);
+                    if (read > 0) {
+                        synchronized (LogBudget.this) {
+                            consumed += read;
+                        }
+                    }
+                    return read;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    if (n <= 0) {
+                        return 0;
+                    }
+                    return Math.max(read(new byte[(int) Math.min(n, CollectorConstants.STREAM_BUFFER_SIZE)]), 0);
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -6,8 +6,15 @@ package io.skodjob.testframe;
 
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResource;
+import io.fabric8.kubernetes.api.model.GenericKubernetesResourceList;
 import io.fabric8.kubernetes.api.model.LabelSelector;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
+import io.fabric8.kubernetes.client.dsl.Loggable;
+import io.fabric8.kubernetes.client.dsl.TailPrettyLoggable;
+import io.fabric8.kubernetes.client.dsl.TimeTailPrettyLoggable;
+import io.fabric8.kubernetes.client.utils.KubernetesSerialization;
 import io.skodjob.testframe.clients.KubeClient;
 import io.skodjob.testframe.clients.cmdClient.KubeCmdClient;
 import io.skodjob.testframe.clients.cmdClient.Kubectl;
@@ -16,18 +23,29 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * LogCollector class containing all methods used for logs and YAML collection.
@@ -36,10 +54,29 @@ public class LogCollector {
     private static final Logger LOGGER = LoggerFactory.getLogger(LogCollector.class);
 
     private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final KubernetesSerialization SERIALIZATION = new KubernetesSerialization();
 
     protected final List<String> namespacedResources;
     protected final List<String> clusterWideResources;
     protected final boolean collectPreviousLogs;
+    protected final boolean streamLogs;
+    protected final boolean compressLogs;
+    protected final boolean listBasedCollection;
+    protected final int maxConcurrency;
+    protected final long backgroundLogMaxFileSize;
+    protected final Instant logsSince;
+    protected final int tailLines;
+    protected final int limitBytes;
+    protected final long logsByteBudget;
+    protected final boolean archiveOutput;
+    protected final long eventRecorderMaxSize;
+    protected final boolean incrementalCollection;
+    protected final boolean indexLogs;
+    private final CollectionScheduler scheduler;
+    // resourceVersions and files of the collected resources by `<namespace or cluster>/<type>/<name>`
+    private final Map<String, CollectedVersion> collectedVersions = new ConcurrentHashMap<>();
+    // archives and log indexers of the running collections by their folders
+    private final Map<Path, OpenCollection> openCollections = new HashMap<>();
     protected String rootFolderPath;
     private KubeCmdClient<?> kubeCmdClient = new Kubectl();
     private KubeClient kubeClient = new KubeClient();
@@ -55,6 +92,20 @@ public class LogCollector {
         this.clusterWideResources = builder.getClusterWideResources() == null ?
             Collections.emptyList() : builder.getClusterWideResources();
         this.collectPreviousLogs = builder.shouldCollectPreviousLogs();
+        this.streamLogs = builder.shouldStreamLogs();
+        this.compressLogs = builder.shouldCompressLogs();
+        this.listBasedCollection = builder.shouldUseListBasedCollection();
+        this.maxConcurrency = builder.getMaxConcurrency();
+        this.backgroundLogMaxFileSize = builder.getBackgroundLogMaxFileSize();
+        this.logsSince = builder.getLogsSince();
+        this.tailLines = builder.getTailLines();
+        this.limitBytes = builder.getLimitBytes();
+        this.logsByteBudget = builder.getLogsByteBudget();
+        this.archiveOutput = builder.shouldArchiveOutput();
+        this.eventRecorderMaxSize = builder.getEventRecorderMaxSize();
+        this.incrementalCollection = builder.shouldCollectIncrementally();
+        this.indexLogs = builder.shouldIndexLogs();
+        this.scheduler = maxConcurrency > 0 ? new CollectionScheduler(maxConcurrency) : null;
 
         if (builder.getRootFolderPath() == null) {
             throw new RuntimeException("rootFolderPath should be filled, but it's empty");
@@ -98,7 +149,7 @@ public class LogCollector {
             .map(namespace -> namespace.getMetadata().getName())
             .toList();
 
-        namespacesWithLabel.forEach(namespace -> collectFromNamespaceToFolder(namespace, folderPath));
+        collectFromNamespacesToFolder(namespacesWithLabel, folderPath);
     }
 
     /**
@@ -119,7 +170,22 @@ public class LogCollector {
      * @param folderPath      additional folder path for the log collection
      */
     public void collectFromNamespacesToFolder(List<String> namespacesNames, String folderPath) {
-        namespacesNames.forEach(namespace -> collectFromNamespaceToFolder(namespace, folderPath));
+        collectToFolder(folderPath, () -> {
+            if (scheduler == null) {
+                namespacesNames.forEach(namespace -> collectFromNamespaceToFolder(namespace, folderPath));
+            } else {
+                // all Namespaces are queued at once, the scheduler interleaves them within the concurrency budget
+                List<CompletableFuture<Void>> collectList = new ArrayList<>();
+                namespacesNames.forEach(namespace ->
+                    collectList.addAll(scheduleCollectionFromNamespace(namespace, folderPath)));
+
+                try {
+                    CompletableFuture.allOf(collectList.toArray(new CompletableFuture[0])).join();
+                } finally {
+                    namespacesNames.forEach(this::logProgress);
+                }
+            }
+        });
     }
 
     /**
@@ -132,6 +198,48 @@ public class LogCollector {
         collectFromNamespaceToFolder(namespaceName, null);
     }
 
+    /**
+     * Method that starts {@link BackgroundLogCapture} of logs from Pods matching the LabelSelector in specified
+     * Namespaces, captured into {@link #rootFolderPath} with {@param folderPath}.
+     * The capture should be stopped at the end of the test by {@link BackgroundLogCapture#stop(boolean)}.
+     *
+     * @param folderPath      additional folder path for the captured logs
+     * @param podSelector     LabelSelector of the Pods, `null` for all Pods
+     * @param namespacesNames Namespaces where the Pods are watched
+     * @return started {@link BackgroundLogCapture}
+     */
+    public BackgroundLogCapture startBackgroundLogCapture(
+        String folderPath,
+        LabelSelector podSelector,
+        String... namespacesNames
+    ) {
+        return new BackgroundLogCapture(
+            kubeClient,
+            Paths.get(LogCollectorUtils.getFolderPath(rootFolderPath, folderPath)),
+            Arrays.asList(namespacesNames),
+            podSelector,
+            backgroundLogMaxFileSize
+        ).start();
+    }
+
+    /**
+     * Method that starts {@link EventRecorder} of events in specified Namespaces, flushed into {@link #rootFolderPath}
+     * with {@param folderPath}. More Namespaces can be tracked by {@link EventRecorder#record(String...)}
+     * and {@link EventRecorder#track(io.fabric8.kubernetes.api.model.HasMetadata)}.
+     * The recorder should be closed once it's not needed.
+     *
+     * @param folderPath      additional folder path for the recorded events
+     * @param namespacesNames Namespaces where the events are recorded
+     * @return started {@link EventRecorder}
+     */
+    public EventRecorder startEventRecorder(String folderPath, String... namespacesNames) {
+        return new EventRecorder(
+            kubeClient,
+            Paths.get(LogCollectorUtils.getFolderPath(rootFolderPath, folderPath)),
+            eventRecorderMaxSize
+        ).record(namespacesNames);
+    }
+
     /**
      * Method that collects YAML of cluster wide resources
      * {@link #rootFolderPath}.
@@ -158,28 +266,172 @@ public class LogCollector {
      * @param folderPath    additional folder path for the log collection
      */
     public void collectFromNamespaceToFolder(String namespaceName, String folderPath) {
+        collectToFolder(folderPath, () -> {
+            List<CompletableFuture<Void>> collectList = scheduleCollectionFromNamespace(namespaceName, folderPath);
+
+            try {
+                CompletableFuture.allOf(collectList.toArray(new CompletableFuture[0])).join();
+            } finally {
+                logProgress(namespaceName);
+            }
+        });
+    }
+
+    /**
+     * Method that runs the collection into {@link #rootFolderPath} with {@param folderPath}.
+     * When {@link #archiveOutput} is enabled, all artifacts written by the collection (including nested collections
+     * into the same folder) are stored into one {@link ArtifactArchive}, which is closed once the collection
+     * is finished. When {@link #indexLogs} is enabled, the collected logs are indexed by {@link LogIndexer} and
+     * the index is written to {@link CollectorConstants#LOG_INDEX} in the folder once the collection is finished.
+     *
+     * @param folderPath additional folder path for the collection
+     * @param collection the collection itself
+     */
+    private void collectToFolder(String folderPath, Runnable collection) {
+        if (!archiveOutput && !indexLogs) {
+            collection.run();
+            return;
+        }
+
+        Path folder = Paths.get(LogCollectorUtils.getFolderPath(rootFolderPath, folderPath)).toAbsolutePath()
+            .normalize();
+        OpenCollection openCollection;
+        synchronized (openCollections) {
+            openCollection = openCollections.get(folder);
+            if (openCollection == null) {
+                try {
+                    openCollection = new OpenCollection(folder, archiveOutput ? ArtifactArchive.create(folder) : null,
+                        indexLogs ? new LogIndexer(folder) : null);
+                } catch (IOException e) {
+                    throw new RuntimeException(
+                        String.format("Failed to create archive in %s due to: %s", folder, e.getMessage())
+                    );
+                }
+                openCollections.put(folder, openCollection);
+            }
+            openCollection.holders++;
+        }
+
+        try {
+            collection.run();
+        } finally {
+            synchronized (openCollections) {
+                if (--openCollection.holders == 0) {
+                    openCollections.remove(folder);
+                    closeCollection(openCollection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that writes the log index and closes the archive of finished collection, failures are only logged
+     *
+     * @param openCollection the finished collection
+     */
+    private void closeCollection(OpenCollection openCollection) {
+        if (openCollection.indexer != null && !openCollection.indexer.isEmpty()) {
+            Path indexFile = openCollection.folder.resolve(CollectorConstants.LOG_INDEX);
+            try {
+                Files.createDirectories(openCollection.folder);
+                openCollection.indexer.write(indexFile);
+                LOGGER.info("Collected logs are indexed in {}", indexFile);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write log index {}, due to: {}", indexFile, e.getMessage());
+            }
+        }
+        if (openCollection.archive != null) {
+            try {
+                openCollection.archive.close();
+                LOGGER.info("Collected artifacts are stored in {}", openCollection.archive.getFile());
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close archive {}, due to: {}", openCollection.archive.getFile(),
+                    e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Method that finds the archive of running collection where the file belongs to
+     *
+     * @param filePath path of the file
+     * @return the archive, {@code null} when the file should be written to the file system
+     */
+    private ArtifactArchive archiveFor(Path filePath) {
+        if (!archiveOutput) {
+            return null;
+        }
+        OpenCollection openCollection = openCollectionFor(filePath);
+        return openCollection == null ? null : openCollection.archive;
+    }
+
+    /**
+     * Method that finds the log indexer of running collection where the file belongs to
+     *
+     * @param filePath path of the log file
+     * @return the indexer, {@code null} when the log should not be indexed
+     */
+    private LogIndexer indexerFor(Path filePath) {
+        if (!indexLogs) {
+            return null;
+        }
+        OpenCollection openCollection = openCollectionFor(filePath);
+        return openCollection == null ? null : openCollection.indexer;
+    }
+
+    /**
+     * Method that finds the running collection where the file belongs to, the innermost one for nested collections
+     *
+     * @param filePath path of the file
+     * @return the collection, {@code null} when the file is not collected by a running collection
+     */
+    private OpenCollection openCollectionFor(Path filePath) {
+        Path file = filePath.toAbsolutePath().normalize();
+        synchronized (openCollections) {
+            return openCollections.values().stream()
+                .filter(openCollection -> file.startsWith(openCollection.folder))
+                .max(Comparator.comparingInt(openCollection -> openCollection.folder.getNameCount()))
+                .orElse(null);
+        }
+    }
+
+    /**
+     * Method that schedules collection of all logs and YAML files from specified Namespace, collected into
+     * {@link #rootFolderPath} with {@param folderPath}.
+     *
+     * @param namespaceName name of Namespace from which the logs should be collected
+     * @param folderPath    additional folder path for the log collection
+     * @return list of {@link CompletableFuture} of the scheduled collection, empty when the Namespace doesn't exist
+     */
+    private List<CompletableFuture<Void>> scheduleCollectionFromNamespace(String namespaceName, String folderPath) {
+        List<CompletableFuture<Void>> collectList = new ArrayList<>();
+
         // check if Namespace exists
         if (kubeClient.getClient().namespaces().withName(namespaceName).get() != null) {
+            if (scheduler != null) {
+                scheduler.resetProgress(namespaceName);
+            }
             String namespaceFolderPath = createNamespaceDirectory(namespaceName,
                 LogCollectorUtils.getFolderPath(rootFolderPath, folderPath));
 
-            List<CompletableFuture<Void>> collectList = new ArrayList<>(
-                collectLogsFromPodsInNamespace(namespaceName, namespaceFolderPath)
-            );
             collectList.add(
-                CompletableFuture.runAsync(
-                    () -> collectEventsFromNamespace(namespaceName, namespaceFolderPath),
-                    EXECUTOR
+                runAsync(
+                    namespaceName,
+                    CollectionScheduler.Priority.HIGH,
+                    () -> collectEventsFromNamespace(namespaceName, namespaceFolderPath)
                 )
             );
+            collectList.addAll(
+                collectLogsFromPodsInNamespace(namespaceName, namespaceFolderPath)
+            );
             collectList.addAll(
                 collectResourcesDescInNamespace(namespaceName, namespaceFolderPath)
             );
-
-            CompletableFuture.allOf(collectList.toArray(new CompletableFuture[0])).join();
         } else {
             LOGGER.warn("Specified Namespace: {} doesn't exist", namespaceName);
         }
+
+        return collectList;
     }
 
     /**
@@ -200,7 +452,7 @@ public class LogCollector {
      * @param folderPath folder path for the log collection
      */
     public void collectClusterWideResourcesToFolder(boolean logPerFile, String folderPath) {
-        clusterWideResources.forEach(resourceType -> {
+        collectToFolder(folderPath, () -> clusterWideResources.forEach(resourceType -> {
             LOGGER.info("Collecting YAMLs of {}", resourceType);
 
             String clusterWideFolderPath = createNamespaceDirectory(CollectorConstants.CLUSTER_WIDE_FOLDER,
@@ -220,7 +472,7 @@ public class LogCollector {
 
                 writeDataToFile(filePath, yaml);
             }
-        });
+        }));
     }
 
     /**
@@ -253,26 +505,50 @@ public class LogCollector {
         if (pods != null && !pods.isEmpty()) {
             String podsFolderPath = createResourceDirectoryInNamespaceDir(namespaceFolderPath, CollectorConstants.POD);
 
+            if (logsByteBudget > 0) {
+                // logs of all the containers share the budget, so they are collected together
+                collectList.add(
+                    runAsync(
+                        namespaceName,
+                        pods.stream().anyMatch(LogCollector::isPodFailing)
+                            ? CollectionScheduler.Priority.HIGH : CollectionScheduler.Priority.NORMAL,
+                        () -> collectLogsFromPodsWithinBudget(namespaceName, podsFolderPath, pods)
+                    )
+                );
+            }
+
             pods.forEach(pod -> {
                 String podName = pod.getMetadata().getName();
+                CollectionScheduler.Priority priority = isPodFailing(pod)
+                    ? CollectionScheduler.Priority.HIGH : CollectionScheduler.Priority.NORMAL;
 
                 List<String> containers = pod.getSpec().getContainers().stream().map(Container::getName).toList();
                 List<String> initContainers = pod.getSpec().getInitContainers().stream()
                     .map(Container::getName).toList();
 
+                collectList.add(
+                    runAsync(
+                        namespaceName,
+                        priority,
+                        () -> collectPodDescription(namespaceName, podsFolderPath, podName)
+                    )
+                );
+
+                if (logsByteBudget > 0) {
+                    return;
+                }
+
                 collectList.addAll(
                     List.of(
-                        CompletableFuture.runAsync(
-                            () -> collectPodDescription(namespaceName, podsFolderPath, podName),
-                            EXECUTOR
-                        ),
-                        CompletableFuture.runAsync(
-                            () -> collectLogsFromPodContainers(namespaceName, podsFolderPath, podName, containers),
-                            EXECUTOR
+                        runAsync(
+                            namespaceName,
+                            priority,
+                            () -> collectLogsFromPodContainers(namespaceName, podsFolderPath, podName, containers)
                         ),
-                        CompletableFuture.runAsync(
-                            () -> collectLogsFromPodContainers(namespaceName, podsFolderPath, podName, initContainers),
-                            EXECUTOR
+                        runAsync(
+                            namespaceName,
+                            priority,
+                            () -> collectLogsFromPodContainers(namespaceName, podsFolderPath, podName, initContainers)
                         )
                     )
                 );
@@ -282,6 +558,104 @@ public class LogCollector {
         return collectList;
     }
 
+    /**
+     * Method that collects logs (and previous logs, when enabled) of all containers of the Pods within
+     * {@link #logsByteBudget}, allocated by {@link LogBudget} smallest-first.
+     * Previous logs are collected for containers which were terminated according to the listed Pods.
+     * At most {@link #maxConcurrency} logs (or {@link CollectorConstants#LOGS_BYTE_BUDGET_MAX_STREAMS} when it's
+     * not set) are streamed at the same time.
+     *
+     * @param namespaceName  name of Namespace where the Pods are present
+     * @param podsFolderPath path to the "pod" folder (for example: /tmp/logs/namespace/pods)
+     * @param pods           Pods from which the logs should be collected
+     */
+    private void collectLogsFromPodsWithinBudget(String namespaceName, String podsFolderPath, List<Pod> pods) {
+        List<LogTarget> targets = new ArrayList<>();
+
+        pods.forEach(pod -> {
+            String podName = pod.getMetadata().getName();
+            Stream.concat(pod.getSpec().getContainers().stream(), pod.getSpec().getInitContainers().stream())
+                .map(Container::getName)
+                .forEach(containerName -> targets.add(new LogTarget(podName, containerName, false,
+                    LogCollectorUtils.getFullPathForFolderPathAndFileName(podsFolderPath,
+                        LogCollectorUtils.getLogFileNameForPodContainer(podName, containerName)))));
+
+            if (collectPreviousLogs && pod.getStatus() != null && pod.getStatus().getContainerStatuses() != null) {
+                pod.getStatus().getContainerStatuses().stream()
+                    .filter(cs -> cs.getLastState() != null && cs.getLastState().getTerminated() != null)
+                    .forEach(cs -> targets.add(new LogTarget(podName, cs.getName(), true,
+                        LogCollectorUtils.getFullPathForFolderPathAndFileName(podsFolderPath,
+                            LogCollectorUtils.getLogFileNameForPreviousPodContainer(podName, cs.getName())))));
+            }
+        });
+
+        int maxStreams = maxConcurrency > 0 ? maxConcurrency : CollectorConstants.LOGS_BYTE_BUDGET_MAX_STREAMS;
+        Map<LogTarget, Long> fetched = LogBudget.fetch(logsByteBudget, limitBytes, targets, maxStreams,
+            (target, share) -> streamLogToFile(namespaceName, target.podName(), target.containerName(),
+                target.previous(), target.filePath(), limitBytes, share));
+
+        LOGGER.info("Collected {} bytes of logs from {} containers in Namespace: {}",
+            fetched.values().stream().mapToLong(Long::longValue).sum(), targets.size(), namespaceName);
+    }
+
+    /**
+     * Method that checks if the Pod is failing - it's not running or succeeded, or some of its containers
+     * is not ready or was restarted. Data of such Pods are collected with higher priority.
+     *
+     * @param pod Pod which should be checked
+     * @return true when the Pod is failing
+     */
+    static boolean isPodFailing(Pod pod) {
+        if (pod.getStatus() == null) {
+            return false;
+        }
+
+        String phase = pod.getStatus().getPhase();
+        if (phase != null && !phase.equals("Running") && !phase.equals("Succeeded")) {
+            return true;
+        }
+
+        return pod.getStatus().getContainerStatuses() != null && pod.getStatus().getContainerStatuses().stream()
+            .anyMatch(cs -> Boolean.FALSE.equals(cs.getReady())
+                || (cs.getRestartCount() != null && cs.getRestartCount() > 0));
+    }
+
+    /**
+     * Method that logs the progress of the collection in the Namespace, once all of its tasks were joined
+     *
+     * @param namespaceName name of Namespace from which the data were collected
+     */
+    private void logProgress(String namespaceName) {
+        if (scheduler == null) {
+            return;
+        }
+        CollectionScheduler.Progress progress = scheduler.getProgress(namespaceName);
+        if (progress.submitted() > 0) {
+            LOGGER.info("Collection in Namespace: {} finished {}/{} tasks ({} failed)", namespaceName,
+                progress.finished(), progress.submitted(), progress.failed());
+        }
+    }
+
+    /**
+     * Method that runs the collection asynchronously, in {@link CollectionScheduler} when the concurrency is limited
+     *
+     * @param namespaceName name of Namespace from which the data are collected
+     * @param priority      priority of the collection
+     * @param runnable      the collection itself
+     * @return {@link CompletableFuture} of the collection
+     */
+    private CompletableFuture<Void> runAsync(
+        String namespaceName,
+        CollectionScheduler.Priority priority,
+        Runnable runnable
+    ) {
+        if (scheduler == null) {
+            return CompletableFuture.runAsync(runnable, EXECUTOR);
+        }
+
+        return scheduler.submit(namespaceName, priority, runnable);
+    }
+
     /**
      * Method that for each container collects the log using
      * {@link #collectLogsFromPodContainer(String, String, String, String)}
@@ -315,14 +689,19 @@ public class LogCollector {
         String podName,
         String containerName
     ) {
-        String containerLog = executeCollectionCall(
-            String.format("collecting logs from Pod: %s and container: %s", podName, containerName),
-            () -> kubeCmdClient.inNamespace(namespaceName).logs(podName, containerName)
-        );
         String podConLogFileName = LogCollectorUtils.getLogFileNameForPodContainer(podName, containerName);
         String filePath = LogCollectorUtils.getFullPathForFolderPathAndFileName(podsFolderPath, podConLogFileName);
 
-        writeDataToFile(filePath, containerLog);
+        if (useLogApi()) {
+            streamLogToFile(namespaceName, podName, containerName, false, filePath, limitBytes);
+        } else {
+            String containerLog = executeCollectionCall(
+                String.format("collecting logs from Pod: %s and container: %s", podName, containerName),
+                () -> kubeCmdClient.inNamespace(namespaceName).logs(podName, containerName)
+            );
+
+            writeLogToFile(filePath, containerLog);
+        }
 
         if (collectPreviousLogs) {
             // check if container failed previously
@@ -343,24 +722,139 @@ public class LogCollector {
                     // check that the container was terminated
                     if (containerStatus.get().getLastState().getTerminated() != null) {
                         // collect previous logs for Pod and container
-                        String previousContainerLog = executeCollectionCall(
-                            String.format(
-                                "collecting previous log from Pod: %s and container: %s",
-                                podName, containerName
-                            ),
-                            () -> kubeCmdClient.inNamespace(namespaceName).previousLogs(podName, containerName)
-                        );
-
                         String file = LogCollectorUtils.getLogFileNameForPreviousPodContainer(podName, containerName);
                         filePath = LogCollectorUtils.getFullPathForFolderPathAndFileName(podsFolderPath, file);
 
-                        writeDataToFile(filePath, previousContainerLog);
+                        if (useLogApi()) {
+                            streamLogToFile(namespaceName, podName, containerName, true, filePath, limitBytes);
+                        } else {
+                            String previousContainerLog = executeCollectionCall(
+                                String.format(
+                                    "collecting previous log from Pod: %s and container: %s",
+                                    podName, containerName
+                                ),
+                                () -> kubeCmdClient.inNamespace(namespaceName).previousLogs(podName, containerName)
+                            );
+
+                            writeLogToFile(filePath, previousContainerLog);
+                        }
                     }
                 }
             }
         }
     }
 
+    /**
+     * Method that checks if logs should be read from the API server instead of the {@link #kubeCmdClient} -
+     * when they should be streamed, or some of the options, which are passed to the API, is set.
+     *
+     * @return true when the logs should be read from the API server
+     */
+    private boolean useLogApi() {
+        return streamLogs || logsSince != null || tailLines > 0 || limitBytes > 0 || logsByteBudget > 0;
+    }
+
+    /**
+     * Method that streams log of specified Pod and Container directly from the API server into the file,
+     * optionally compressed by gzip (then the file name gets `.gz` suffix).
+     * The {@link #logsSince} and {@link #tailLines} are passed to the API, as well as the {@param maxBytes} for
+     * the current logs. The fabric8 client doesn't support byte limit together with previous logs, although the API
+     * does ({@code previous=true&limitBytes=}), so for previous logs it's applied on the stream.
+     * Nothing is kept when the log is empty, same as in {@link #writeDataToFile(String, String)}.
+     *
+     * @param namespaceName name of Namespace where the Pod is present
+     * @param podName       name of Pod from which the log should be collected
+     * @param containerName name of container from which the log should be collected
+     * @param previous      stream log of the previous (terminated) instance of the container
+     * @param fullFilePath  full path to the log file
+     * @param maxBytes      max number of bytes of the log, 0 for no limit
+     * @return number of bytes of the log, -1 when the log couldn't be collected
+     */
+    private long streamLogToFile(
+        String namespaceName,
+        String podName,
+        String containerName,
+        boolean previous,
+        String fullFilePath,
+        long maxBytes
+    ) {
+        return streamLogToFile(namespaceName, podName, containerName, previous, fullFilePath, maxBytes,
+            UnaryOperator.identity());
+    }
+
+    /**
+     * Method that streams log of specified Pod and Container into the file,
+     * same as {@link #streamLogToFile(String, String, String, boolean, String, long)}, but the stream is passed
+     * through the {@param share} first, e.g. to end it once the share of {@link LogBudget} is read.
+     *
+     * @param namespaceName name of Namespace where the Pod is present
+     * @param podName       name of Pod from which the log should be collected
+     * @param containerName name of container from which the log should be collected
+     * @param previous      stream log of the previous (terminated) instance of the container
+     * @param fullFilePath  full path to the log file
+     * @param maxBytes      max number of bytes of the log, 0 for no limit
+     * @param share         wraps the stream of the log
+     * @return number of bytes of the log, -1 when the log couldn't be collected
+     */
+    private long streamLogToFile(
+        String namespaceName,
+        String podName,
+        String containerName,
+        boolean previous,
+        String fullFilePath,
+        long maxBytes,
+        UnaryOperator<InputStream> share
+    ) {
+        String operation = String.format("stream %slog from Pod: %s and container: %s",
+            previous ? "previous " : "", podName, containerName);
+        InputStream log = executeCollectionCall(operation, () -> {
+            ContainerResource container = kubeClient.getClient().pods().inNamespace(namespaceName)
+                .withName(podName).inContainer(containerName);
+            TimeTailPrettyLoggable timeLoggable = previous ? container.terminated()
+                : maxBytes > 0 ? container.limitBytes((int) Math.min(maxBytes, Integer.MAX_VALUE)) : container;
+            TailPrettyLoggable tailLoggable = logsSince == null ? timeLoggable
+                : timeLoggable.sinceTime(logsSince.truncatedTo(ChronoUnit.SECONDS).toString());
+            Loggable loggable = tailLines > 0 ? tailLoggable.tailingLines(tailLines) : tailLoggable;
+            return loggable.getLogInputStream();
+        });
+
+        if (log == null) {
+            return -1;
+        }
+        log = share.apply(log);
+
+        ArtifactArchive archive = archiveFor(Paths.get(fullFilePath));
+        // the archive is compressed as a whole
+        Path file = Paths.get(compressLogs && archive == null
+            ? String.join(".", fullFilePath, CollectorConstants.GZIP) : fullFilePath);
+
+        LogIndexer indexer = indexerFor(file);
+        if (indexer != null) {
+            // the log is indexed while it's written, offsets are within the uncompressed log
+            log = indexer.wrap(file, log);
+        }
+
+        if (archive != null) {
+            try {
+                return archive.write(file, log, maxBytes);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to {}, due to: {}", operation, e.getMessage());
+                return -1;
+            }
+        }
+
+        try {
+            long size = LogStreamWriter.write(log, file, compressLogs, maxBytes);
+            if (size == 0) {
+                Files.deleteIfExists(file);
+            }
+            return size;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to {}, due to: {}", operation, e.getMessage());
+            return -1;
+        }
+    }
+
     /**
      * Method that collects description of specified Pod
      *
@@ -386,6 +880,16 @@ public class LogCollector {
      * @param resourceType          resource kind for collect
      */
     private void collectClusterWideResourcesPerFile(String clusterWideFolderPath, String resourceType) {
+        if (listBasedCollection || incrementalCollection) {
+            collectResourcesFromList(
+                String.format("list resources of type: %s", resourceType),
+                () -> kubeCmdClient.getResourcesAsYaml(resourceType),
+                () -> createResourceDirectoryInNamespaceDir(clusterWideFolderPath, resourceType),
+                String.join("/", CollectorConstants.CLUSTER_WIDE_FOLDER, resourceType)
+            );
+            return;
+        }
+
         List<String> resources = kubeCmdClient.list(resourceType);
         if (resources != null && !resources.isEmpty()) {
             String fullFolderPath = createResourceDirectoryInNamespaceDir(clusterWideFolderPath, resourceType);
@@ -418,7 +922,7 @@ public class LogCollector {
         String eventsFileName = LogCollectorUtils.getLogFileNameForResource(CollectorConstants.EVENTS);
         String fileName = LogCollectorUtils.getFullPathForFolderPathAndFileName(namespaceFolderPath, eventsFileName);
 
-        writeDataToFile(fileName, events);
+        writeLogToFile(fileName, events);
     }
 
     /**
@@ -440,9 +944,10 @@ public class LogCollector {
         List<CompletableFuture<Void>> collectList = new ArrayList<>();
 
         namespacedResources.forEach(resource ->
-            collectList.add(CompletableFuture.runAsync(
-                () -> collectDescriptionOfResourceInNamespace(namespaceName, namespaceFolderPath, resource),
-                EXECUTOR
+            collectList.add(runAsync(
+                namespaceName,
+                CollectionScheduler.Priority.NORMAL,
+                () -> collectDescriptionOfResourceInNamespace(namespaceName, namespaceFolderPath, resource)
             ))
         );
 
@@ -466,6 +971,16 @@ public class LogCollector {
         String resourceType
     ) {
         LOGGER.info("Collecting YAMLs of {} from Namespace: {}", resourceType, namespaceName);
+        if (listBasedCollection || incrementalCollection) {
+            collectResourcesFromList(
+                String.format("list resources of type: %s in Namespace: %s", resourceType, namespaceName),
+                () -> kubeCmdClient.inNamespace(namespaceName).getResourcesAsYaml(resourceType),
+                () -> createResourceDirectoryInNamespaceDir(namespaceFolderPath, resourceType),
+                String.join("/", namespaceName, resourceType)
+            );
+            return;
+        }
+
         List<String> resources = executeCollectionCall(
             String.format("list resources of type: %s in Namespace: %s", resourceType, namespaceName),
             () -> kubeCmdClient.inNamespace(namespaceName).list(resourceType)
@@ -487,6 +1002,141 @@ public class LogCollector {
         }
     }
 
+    /**
+     * Method that collects YAML descriptions of all resources of one type from single list call.
+     * The list is split locally and every resource is stored in its own YAML file, same as when the resources
+     * are collected one by one. The folder is created only when there is something to store.
+     * When {@link #incrementalCollection} is enabled, only resources whose resourceVersion changed since the previous
+     * collection by this instance are stored, and resources which disappeared since then get a deletion marker.
+     * The unchanged resources are listed in {@link CollectorConstants#UNCHANGED_RESOURCES} manifest with paths
+     * (relative to {@link #rootFolderPath}) of the files where their last copies are stored.
+     *
+     * @param errorOperationMessage message for the list operation, for error logging
+     * @param listCall              Supplier returning YAML of the list with all the resources
+     * @param folderSupplier        Supplier creating the folder for the resource type and returning its path
+     * @param versionsKey           key of the resource type for tracking of the collected resourceVersions,
+     *                              for example `my-namespace/secret`
+     */
+    private void collectResourcesFromList(
+        String errorOperationMessage,
+        Supplier<String> listCall,
+        Supplier<String> folderSupplier,
+        String versionsKey
+    ) {
+        List<GenericKubernetesResource> resources = executeCollectionCall(
+            errorOperationMessage,
+            () -> parseResourceList(listCall.get())
+        );
+
+        if (resources == null) {
+            return;
+        }
+
+        String keyPrefix = versionsKey + "/";
+        Map<String, GenericKubernetesResource> changed = new LinkedHashMap<>();
+        Map<String, String> deleted = new LinkedHashMap<>();
+        Map<String, String> unchanged = new LinkedHashMap<>();
+        if (incrementalCollection) {
+            Map<String, CollectedVersion> previousVersions = new HashMap<>();
+            collectedVersions.forEach((key, version) -> {
+                if (key.startsWith(keyPrefix)) {
+                    previousVersions.put(key.substring(keyPrefix.length()), version);
+                }
+            });
+
+            resources.forEach(resource -> {
+                String resourceName = resource.getMetadata().getName();
+                String version = resource.getMetadata().getResourceVersion();
+                CollectedVersion previousVersion = previousVersions.remove(resourceName);
+                if (version != null && previousVersion != null && version.equals(previousVersion.resourceVersion())) {
+                    unchanged.put(resourceName, previousVersion.file());
+                } else {
+                    changed.put(resourceName, resource);
+                }
+            });
+
+            previousVersions.forEach((resourceName, version) -> {
+                collectedVersions.remove(keyPrefix + resourceName);
+                deleted.put(resourceName, String.format("name: %s%nlastResourceVersion: \"%s\"%n",
+                    resourceName, version.resourceVersion()));
+            });
+
+            LOGGER.debug("Resources {} changed: {}, deleted: {}, unchanged: {}", versionsKey, changed.size(),
+                deleted.size(), unchanged.size());
+        } else {
+            resources.forEach(resource -> changed.put(resource.getMetadata().getName(), resource));
+        }
+
+        if (!changed.isEmpty() || !deleted.isEmpty() || !unchanged.isEmpty()) {
+            String fullFolderPath = folderSupplier.get();
+
+            changed.forEach((resourceName, resource) -> {
+                String resFileName = LogCollectorUtils.getYamlFileNameForResource(resourceName);
+                String fileName = LogCollectorUtils.getFullPathForFolderPathAndFileName(fullFolderPath, resFileName);
+                writeDataToFile(fileName, SERIALIZATION.asYaml(resource));
+                String version = resource.getMetadata().getResourceVersion();
+                if (incrementalCollection && version != null) {
+                    collectedVersions.put(keyPrefix + resourceName,
+                        new CollectedVersion(version, relativeToRootFolder(fileName)));
+                }
+            });
+            deleted.forEach((resourceName, marker) -> {
+                String resFileName = LogCollectorUtils.getDeletedFileNameForResource(resourceName);
+                String fileName = LogCollectorUtils.getFullPathForFolderPathAndFileName(fullFolderPath, resFileName);
+                writeDataToFile(fileName, marker);
+            });
+            if (!unchanged.isEmpty()) {
+                StringBuilder manifest = new StringBuilder();
+                unchanged.forEach((resourceName, file) ->
+                    manifest.append(String.format("%s: \"%s\"%n", resourceName, file)));
+                writeDataToFile(LogCollectorUtils.getFullPathForFolderPathAndFileName(fullFolderPath,
+                    CollectorConstants.UNCHANGED_RESOURCES), manifest.toString());
+            }
+        }
+    }
+
+    /**
+     * Method returning path of the file relative to {@link #rootFolderPath}, with `/` as separator
+     *
+     * @param fileName path of the file
+     * @return relative path of the file
+     */
+    private String relativeToRootFolder(String fileName) {
+        Path root = Paths.get(rootFolderPath).toAbsolutePath().normalize();
+        Path file = Paths.get(fileName).toAbsolutePath().normalize();
+        return root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Method that parses YAML of resource list (for example output of `kubectl get secret -o yaml`)
+     *
+     * @param listYaml YAML of the list
+     * @return resources of the list, in order of the list
+     */
+    static List<GenericKubernetesResource> parseResourceList(String listYaml) {
+        if (listYaml == null || listYaml.isBlank()) {
+            return List.of();
+        }
+
+        GenericKubernetesResourceList list = SERIALIZATION.unmarshal(listYaml, GenericKubernetesResourceList.class);
+        return list == null || list.getItems() == null ? List.of() : list.getItems();
+    }
+
+    /**
+     * Method that splits YAML of resource list (for example output of `kubectl get secret -o yaml`)
+     * into YAMLs of the particular resources.
+     *
+     * @param listYaml YAML of the list
+     * @return map of resource names and their YAML descriptions, in order of the list
+     */
+    static Map<String, String> splitResourceList(String listYaml) {
+        Map<String, String> resources = new LinkedHashMap<>();
+        parseResourceList(listYaml).forEach(item ->
+            resources.put(item.getMetadata().getName(), SERIALIZATION.asYaml(item)));
+
+        return resources;
+    }
+
     /**
      * Method that creates directory for specified Namespace in the {@param folderPath}
      *
@@ -525,7 +1175,8 @@ public class LogCollector {
     private String createLogDirOnPath(String fullPathToDirectory) {
         File logDir = Paths.get(fullPathToDirectory).toFile();
 
-        if (!logDir.exists()) {
+        // files of archived collection are not written to the file system
+        if (!logDir.exists() && archiveFor(logDir.toPath()) == null) {
             if (!logDir.mkdirs()) {
                 throw new RuntimeException(
                     String.format("Failed to create root log directories on path: %s", logDir.getAbsolutePath())
@@ -545,7 +1196,13 @@ public class LogCollector {
     /** test **/ protected void writeDataToFile(String fullFilePath, String data) {
         if (data != null && !data.isEmpty()) {
             try {
-                Files.writeString(Paths.get(fullFilePath), data, StandardCharsets.UTF_8);
+                Path file = Paths.get(fullFilePath);
+                ArtifactArchive archive = archiveFor(file);
+                if (archive != null) {
+                    archive.write(file, data.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    Files.writeString(file, data, StandardCharsets.UTF_8);
+                }
             } catch (IOException e) {
                 throw new RuntimeException(
                     String.format("Failed to write to the %s file due to: %s", fullFilePath, e.getMessage())
@@ -554,6 +1211,21 @@ public class LogCollector {
         }
     }
 
+    /**
+     * Method that writes the log to file, same as {@link #writeDataToFile(String, String)}, and indexes it
+     * when {@link #indexLogs} is enabled
+     *
+     * @param fullFilePath full path to file (for example: /tmp/logs/my-namespace/pods/logs-pod-my-pod.log)
+     * @param log          the log which should be written to file
+     */
+    private void writeLogToFile(String fullFilePath, String log) {
+        LogIndexer indexer = indexerFor(Paths.get(fullFilePath));
+        if (indexer != null) {
+            indexer.index(Paths.get(fullFilePath), log);
+        }
+        writeDataToFile(fullFilePath, log);
+    }
+
     /**
      * Method for executing the collection (or list) call, which handles the exceptions when the resource is not found
      * (or was removed during the process). That way the LogCollector will continue with collection of other resources.
@@ -571,4 +1243,40 @@ public class LogCollector {
             return null;
         }
     }
+
+    /**
+     * Log of one container, collected within the byte budget
+     *
+     * @param podName       name of the Pod
+     * @param containerName name of the container
+     * @param previous      log of the previous (terminated) instance of the container
+     * @param filePath      full path to the log file
+     */
+    private record LogTarget(String podName, String containerName, boolean previous, String filePath) {
+    }
+
+    /**
+     * Collected version of a resource
+     *
+     * @param resourceVersion resourceVersion of the resource
+     * @param file            path of the file with its last copy, relative to {@link #rootFolderPath}
+     */
+    private record CollectedVersion(String resourceVersion, String file) {
+    }
+
+    /**
+     * Archive and log indexer of running collection with number of collections using it
+     */
+    private static final class OpenCollection {
+        private final Path folder;
+        private final ArtifactArchive archive;
+        private final LogIndexer indexer;
+        private int holders;
+
+        private OpenCollection(Path folder, ArtifactArchive archive, LogIndexer indexer) {
+            this.folder = folder;
+            this.archive = archive;
+            this.indexer = indexer;
+        }
+    }
 }
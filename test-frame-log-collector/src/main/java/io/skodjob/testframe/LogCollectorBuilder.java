@@ -6,7 +6,10 @@ package io.skodjob.testframe;
 
 import io.skodjob.testframe.clients.KubeClient;
 import io.skodjob.testframe.clients.cmdClient.KubeCmdClient;
+import io.skodjob.testframe.listeners.TestExceptionCallbackListener;
+import org.junit.jupiter.api.extension.ExtensionContext;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -21,6 +24,19 @@ public class LogCollectorBuilder {
     private List<String> namespacedResources;
     private List<String> clusterWideResources;
     private boolean collectPreviousLogs = false;
+    private boolean streamLogs = false;
+    private boolean compressLogs = false;
+    private boolean listBasedCollection = false;
+    private int maxConcurrency = 0;
+    private long backgroundLogMaxFileSize = CollectorConstants.BACKGROUND_LOG_MAX_FILE_SIZE;
+    private Instant logsSince;
+    private int tailLines = 0;
+    private int limitBytes = 0;
+    private long logsByteBudget = 0;
+    private boolean archiveOutput = false;
+    private long eventRecorderMaxSize = CollectorConstants.EVENT_RECORDER_MAX_SIZE;
+    private boolean incrementalCollection = false;
+    private boolean indexLogs = false;
     private KubeClient kubeClient;
     private KubeCmdClient<?> kubeCmdClient;
 
@@ -35,6 +51,19 @@ public class LogCollectorBuilder {
         this.namespacedResources = logCollector.namespacedResources;
         this.clusterWideResources = logCollector.clusterWideResources;
         this.collectPreviousLogs = logCollector.collectPreviousLogs;
+        this.streamLogs = logCollector.streamLogs;
+        this.compressLogs = logCollector.compressLogs;
+        this.listBasedCollection = logCollector.listBasedCollection;
+        this.maxConcurrency = logCollector.maxConcurrency;
+        this.backgroundLogMaxFileSize = logCollector.backgroundLogMaxFileSize;
+        this.logsSince = logCollector.logsSince;
+        this.tailLines = logCollector.tailLines;
+        this.limitBytes = logCollector.limitBytes;
+        this.logsByteBudget = logCollector.logsByteBudget;
+        this.archiveOutput = logCollector.archiveOutput;
+        this.eventRecorderMaxSize = logCollector.eventRecorderMaxSize;
+        this.incrementalCollection = logCollector.incrementalCollection;
+        this.indexLogs = logCollector.indexLogs;
     }
 
     /**
@@ -110,6 +139,287 @@ public class LogCollectorBuilder {
         return this;
     }
 
+    /**
+     * Encapsulation for {@link #withStreamedLogs(boolean)} method, setting the {@link #streamLogs} to `true`.
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withStreamedLogs() {
+        return withStreamedLogs(true);
+    }
+
+    /**
+     * Setter for specifying if LogCollector should stream logs of containers directly from the API server
+     * to the files, instead of reading the whole log by `kubectl logs` into memory.
+     * Memory used by the collection then doesn't depend on the size of the logs.
+     * Default is `false`.
+     *
+     * @param streamLogs    Boolean value representing if the logs should be streamed to the files
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withStreamedLogs(boolean streamLogs) {
+        this.streamLogs = streamLogs;
+
+        return this;
+    }
+
+    /**
+     * Encapsulation for {@link #withCompressedLogs(boolean)} method, setting the {@link #compressLogs} to `true`.
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withCompressedLogs() {
+        return withCompressedLogs(true);
+    }
+
+    /**
+     * Setter for specifying if the streamed logs of containers should be compressed by gzip on the fly,
+     * the log files then have `.gz` suffix. Takes effect only together with {@link #withStreamedLogs(boolean)}.
+     * Default is `false`.
+     *
+     * @param compressLogs  Boolean value representing if the streamed logs should be compressed
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withCompressedLogs(boolean compressLogs) {
+        this.compressLogs = compressLogs;
+
+        return this;
+    }
+
+    /**
+     * Encapsulation for {@link #withListBasedCollection(boolean)} method, setting the {@link #listBasedCollection}
+     * to `true`.
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withListBasedCollection() {
+        return withListBasedCollection(true);
+    }
+
+    /**
+     * Setter for specifying if LogCollector should collect YAMLs of every resource type by single list call,
+     * which is split into the per-resource files locally, instead of listing the names and getting each resource
+     * separately. With {@link io.skodjob.testframe.clients.cmdClient.Kubectl} that is one process per resource type,
+     * with {@link io.skodjob.testframe.clients.cmdClient.NativeKubeCmdClient} one API call.
+     * Default is `false`.
+     *
+     * @param listBasedCollection   Boolean value representing if the resources should be collected by single list
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withListBasedCollection(boolean listBasedCollection) {
+        this.listBasedCollection = listBasedCollection;
+
+        return this;
+    }
+
+    /**
+     * Setter for the global concurrency budget of the collection. When it's set, the collection tasks
+     * (events, logs and descriptions of Pods, YAMLs of resources) are run by {@link CollectionScheduler}
+     * with at most this many tasks at the same time. Events and data of failing Pods are collected first
+     * and the Namespaces collected by {@link LogCollector#collectFromNamespacesToFolder(List, String)} are interleaved.
+     * Default is `0`, meaning that all the tasks are run at once and the Namespaces one after another.
+     *
+     * @param maxConcurrency    max number of collection tasks running at the same time, `0` for unlimited
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+
+        return this;
+    }
+
+    /**
+     * Setter for the max size of one log file written by {@link BackgroundLogCapture} started by
+     * {@link LogCollector#startBackgroundLogCapture(String, io.fabric8.kubernetes.api.model.LabelSelector, String...)}.
+     * Once the file reaches the size it is rolled, so at most twice the size is kept for every container.
+     * Default is {@link CollectorConstants#BACKGROUND_LOG_MAX_FILE_SIZE}.
+     *
+     * @param backgroundLogMaxFileSize  max size of one log file in bytes
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withBackgroundLogMaxFileSize(long backgroundLogMaxFileSize) {
+        this.backgroundLogMaxFileSize = backgroundLogMaxFileSize;
+
+        return this;
+    }
+
+    /**
+     * Setter for the time since which the logs of containers are collected, it's passed to the API server
+     * (with precision to seconds), so older lines are not transferred at all.
+     * Default is `null`, meaning that whole logs are collected.
+     *
+     * @param logsSince     time since which the logs are collected
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withLogsSince(Instant logsSince) {
+        this.logsSince = logsSince;
+
+        return this;
+    }
+
+    /**
+     * Setter collecting only logs since the start of the current test (or test class, when used outside of a test),
+     * as recorded by {@link TestExceptionCallbackListener}. When the start time is not recorded, whole logs are
+     * collected.
+     *
+     * @param context   extension context of the test
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withLogsSinceTestStart(ExtensionContext context) {
+        return withLogsSince(TestExceptionCallbackListener.getTestStartTime(context));
+    }
+
+    /**
+     * Setter for the number of lines from the end of the log of every container, which are collected.
+     * Default is `0`, meaning that all lines are collected.
+     *
+     * @param tailLines     number of lines from the end of the log, `0` for all
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withTailLines(int tailLines) {
+        this.tailLines = tailLines;
+
+        return this;
+    }
+
+    /**
+     * Setter for the max number of bytes of the log of every container. The limit is passed to the API server,
+     * except previous logs for which it's applied on the received stream.
+     * Default is `0`, meaning no limit.
+     *
+     * @param limitBytes    max number of bytes of one log, `0` for no limit
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withLimitBytes(int limitBytes) {
+        this.limitBytes = limitBytes;
+
+        return this;
+    }
+
+    /**
+     * Setter for the byte budget shared by logs of all containers in one Namespace. The budget is allocated
+     * by {@link LogBudget} smallest-first - small logs are collected whole and the rest of the budget is split
+     * evenly among the bigger logs, which are truncated. The {@link #limitBytes} still caps every single log.
+     * At most {@link #maxConcurrency} logs (16 when it's not set) are streamed at the same time.
+     * Default is `0`, meaning no budget.
+     *
+     * @param logsByteBudget    total number of bytes of logs collected from one Namespace, `0` for no budget
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withLogsByteBudget(long logsByteBudget) {
+        this.logsByteBudget = logsByteBudget;
+
+        return this;
+    }
+
+    /**
+     * Encapsulation for {@link #withArchiveOutput(boolean)} method, setting the {@link #archiveOutput} to `true`.
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withArchiveOutput() {
+        return withArchiveOutput(true);
+    }
+
+    /**
+     * Setter for specifying if LogCollector should store all artifacts (logs, descriptions and YAMLs) of every
+     * collection into one zip archive in the collection folder, instead of thousands of separate files.
+     * Content of the artifacts is deduplicated - every distinct content is stored once in the JVM and referenced
+     * from the manifest of the archives thereafter, see {@link ArtifactArchive}.
+     * Default is `false`.
+     *
+     * @param archiveOutput     boolean parameter determining if the artifacts should be stored in archives
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withArchiveOutput(boolean archiveOutput) {
+        this.archiveOutput = archiveOutput;
+
+        return this;
+    }
+
+    /**
+     * Setter for the max size of events recorded during one test by {@link EventRecorder} started by
+     * {@link LogCollector#startEventRecorder(String, String...)}. Once the size is reached, the oldest events
+     * are dropped.
+     * Default is {@link CollectorConstants#EVENT_RECORDER_MAX_SIZE}.
+     *
+     * @param eventRecorderMaxSize  max size of the recorded events in bytes
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withEventRecorderMaxSize(long eventRecorderMaxSize) {
+        this.eventRecorderMaxSize = eventRecorderMaxSize;
+
+        return this;
+    }
+
+    /**
+     * Encapsulation for {@link #withIncrementalCollection(boolean)} method, setting the {@link #incrementalCollection}
+     * to `true`.
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withIncrementalCollection() {
+        return withIncrementalCollection(true);
+    }
+
+    /**
+     * Setter for specifying if LogCollector should collect YAMLs of resources incrementally. The resourceVersion
+     * of every collected resource is tracked by the {@link LogCollector} instance and the next collection stores
+     * only resources which changed since the previous one, plus deletion markers
+     * ({@link LogCollectorUtils#getDeletedFileNameForResource(String)}) of the resources which were deleted.
+     * The unchanged resources are listed in {@link CollectorConstants#UNCHANGED_RESOURCES} manifest, which refers
+     * to the files of the previous collections with their last copies.
+     * Resources are listed by one call per type, same as with {@link #withListBasedCollection(boolean)}.
+     * Default is `false`.
+     *
+     * @param incrementalCollection     Boolean value representing if the resources should be collected incrementally
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withIncrementalCollection(boolean incrementalCollection) {
+        this.incrementalCollection = incrementalCollection;
+
+        return this;
+    }
+
+    /**
+     * Encapsulation for {@link #withLogIndex(boolean)} method, setting the {@link #indexLogs} to `true`.
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withLogIndex() {
+        return withLogIndex(true);
+    }
+
+    /**
+     * Setter for specifying if LogCollector should index the collected logs (logs of containers and events) while
+     * they are written. The index maps log levels, exception names and request IDs to files and offsets of lines,
+     * it's written to {@link CollectorConstants#LOG_INDEX} in the collection folder and can be searched by
+     * {@link LogIndex}, also from the command line.
+     * Default is `false`.
+     *
+     * @param indexLogs     Boolean value representing if the collected logs should be indexed
+     *
+     * @return  {@link LogCollectorBuilder} object
+     */
+    public LogCollectorBuilder withLogIndex(boolean indexLogs) {
+        this.indexLogs = indexLogs;
+
+        return this;
+    }
+
     /**
      * Setter for kubeClient
      *
@@ -168,6 +478,123 @@ public class LogCollectorBuilder {
         return this.collectPreviousLogs;
     }
 
+    /**
+     * Getter returning currently configured {@link #streamLogs}.
+     *
+     * @return  value of {@link #streamLogs}.
+     */
+    public boolean shouldStreamLogs() {
+        return this.streamLogs;
+    }
+
+    /**
+     * Getter returning currently configured {@link #compressLogs}.
+     *
+     * @return  value of {@link #compressLogs}.
+     */
+    public boolean shouldCompressLogs() {
+        return this.compressLogs;
+    }
+
+    /**
+     * Getter returning currently configured {@link #listBasedCollection}.
+     *
+     * @return  value of {@link #listBasedCollection}.
+     */
+    public boolean shouldUseListBasedCollection() {
+        return this.listBasedCollection;
+    }
+
+    /**
+     * Getter returning currently configured {@link #maxConcurrency}.
+     *
+     * @return  value of {@link #maxConcurrency}.
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Getter returning currently configured {@link #backgroundLogMaxFileSize}.
+     *
+     * @return  value of {@link #backgroundLogMaxFileSize}.
+     */
+    public long getBackgroundLogMaxFileSize() {
+        return this.backgroundLogMaxFileSize;
+    }
+
+    /**
+     * Getter returning currently configured {@link #logsSince}.
+     *
+     * @return  value of {@link #logsSince}.
+     */
+    public Instant getLogsSince() {
+        return this.logsSince;
+    }
+
+    /**
+     * Getter returning currently configured {@link #tailLines}.
+     *
+     * @return  value of {@link #tailLines}.
+     */
+    public int getTailLines() {
+        return this.tailLines;
+    }
+
+    /**
+     * Getter returning currently configured {@link #limitBytes}.
+     *
+     * @return  value of {@link #limitBytes}.
+     */
+    public int getLimitBytes() {
+        return this.limitBytes;
+    }
+
+    /**
+     * Getter returning currently configured {@link #logsByteBudget}.
+     *
+     * @return  value of {@link #logsByteBudget}.
+     */
+    public long getLogsByteBudget() {
+        return this.logsByteBudget;
+    }
+
+    /**
+     * Getter returning currently configured {@link #archiveOutput}.
+     *
+     * @return  value of {@link #archiveOutput}.
+     */
+    public boolean shouldArchiveOutput() {
+        return this.archiveOutput;
+    }
+
+    /**
+     * Getter returning currently configured {@link #eventRecorderMaxSize}.
+     *
+     * @return  value of {@link #eventRecorderMaxSize}.
+     */
+    public long getEventRecorderMaxSize() {
+        return this.eventRecorderMaxSize;
+    }
+
+    /**
+     * Getter returning currently configured {@link #incrementalCollection}.
+     *
+     * @return  value of {@link #incrementalCollection}.
+     */
+    public boolean shouldCollectIncrementally() {
+        return this.incrementalCollection;
+    }
+
+    /**
+     * Getter returning currently configured {@link #indexLogs}.
+     *
+     * @return  value of {@link #indexLogs}.
+     */
+    public boolean shouldIndexLogs() {
+        return this.indexLogs;
+    }
+
     /**
      * Getter for kubeClient
      *
@@ -29,6 +29,16 @@ public class LogCollectorUtils {
         return getFileNameForResourceAndType(resourceName, YAML_TYPE);
     }
 
+    /**
+     * Method returning name of the YAML file marking deletion of particular resource
+     *
+     * @param resourceName name of the resource
+     * @return name of the YAML file marking deletion of particular resource
+     */
+    public static String getDeletedFileNameForResource(String resourceName) {
+        return getFileNameForResourceAndType(String.join(".", resourceName, CollectorConstants.DELETED), YAML_TYPE);
+    }
+
     /**
      * Method returning name of the log file for particular resource
      *
@@ -0,0 +1,208 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Offline searchable index of the collected logs, built by {@link LogIndexer} during the collection.
+ * It maps tokens (log levels, exception names and request IDs) to postings - files relative to the folder of
+ * the index and offsets of the lines containing the token. Offsets are in the uncompressed content of the files.
+ * <p>
+ * The index is a binary file: magic number, version, list of files and list of tokens sorted by name, each with
+ * its postings grouped by file, where the offsets are delta-encoded variable-length numbers.
+ * <p>
+ * It can be queried from the command line as well:
+ * {@code java -cp <classpath> io.skodjob.testframe.LogIndex <index-file> <token>...},
+ * where token ending with {@code *} matches all tokens with the prefix, for example {@code exception:*}.
+ */
+public final class LogIndex {
+
+    /**
+     * Magic number of the index file, `TFLI`
+     */
+    static final int MAGIC = 0x54464c49;
+
+    /**
+     * Version of the format of the index file
+     */
+    static final int VERSION = 1;
+
+    private final Path indexFile;
+    private final NavigableMap<String, List<Posting>> postings;
+
+    /**
+     * Line of a file containing the token
+     *
+     * @param file   path of the file relative to the folder of the index, with {@code /} as separator
+     * @param offset offset of the line in the uncompressed content of the file
+     */
+    public record Posting(String file, long offset) {
+    }
+
+    private LogIndex(Path indexFile, NavigableMap<String, List<Posting>> postings) {
+        this.indexFile = indexFile;
+        this.postings = postings;
+    }
+
+    /**
+     * Reads the index
+     *
+     * @param indexFile path to the index file
+     * @return the index
+     * @throws IOException If an I/O error occurs reading the file, or it's not an index.
+     */
+    public static LogIndex read(Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException(String.format("File %s is not a log index of version %d", indexFile, VERSION));
+            }
+            List<String> files = new ArrayList<>();
+            for (long i = readVarLong(in); i > 0; i--) {
+                files.add(in.readUTF());
+            }
+
+            NavigableMap<String, List<Posting>> postings = new TreeMap<>();
+            for (long i = readVarLong(in); i > 0; i--) {
+                String token = in.readUTF();
+                List<Posting> tokenPostings = new ArrayList<>();
+                for (long j = readVarLong(in); j > 0; j--) {
+                    String file = files.get((int) readVarLong(in));
+                    long offset = 0;
+                    for (long k = readVarLong(in); k > 0; k--) {
+                        offset += readVarLong(in);
+                        tokenPostings.add(new Posting(file, offset));
+                    }
+                }
+                postings.put(token, Collections.unmodifiableList(tokenPostings));
+            }
+            return new LogIndex(indexFile, postings);
+        }
+    }
+
+    /**
+     * Returns all tokens of the index
+     *
+     * @return sorted tokens
+     */
+    public List<String> getTokens() {
+        return List.copyOf(postings.keySet());
+    }
+
+    /**
+     * Finds lines containing the token
+     *
+     * @param token the token, for example {@code level:error}
+     * @return postings grouped by file in order of indexing and ordered by offset, empty when the token
+     * is not indexed
+     */
+    public List<Posting> find(String token) {
+        return postings.getOrDefault(token, List.of());
+    }
+
+    /**
+     * Finds lines containing any token with the prefix
+     *
+     * @param prefix prefix of the tokens, for example {@code exception:}
+     * @return postings ordered by file and offset
+     */
+    public List<Posting> findPrefix(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().stream()
+            .flatMap(List::stream)
+            .distinct()
+            .sorted(Comparator.comparing(Posting::file).thenComparingLong(Posting::offset))
+            .toList();
+    }
+
+    /**
+     * Reads the line of the posting from the indexed file, gzip compressed files are decompressed
+     *
+     * @param posting the posting
+     * @return the line
+     * @throws IOException If an I/O error occurs reading the file.
+     */
+    public String readLine(Posting posting) throws IOException {
+        Path file = indexFile.toAbsolutePath().getParent().resolve(posting.file());
+        try (InputStream is = file.toString().endsWith("." + CollectorConstants.GZIP)
+            ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            is.skipNBytes(posting.offset());
+            return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8)).readLine();
+        }
+    }
+
+    /**
+     * Prints lines of the indexed logs containing the tokens
+     *
+     * @param args path to the index file followed by the tokens, token ending with {@code *} is a prefix
+     * @throws IOException If an I/O error occurs reading the index or the logs.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LogIndex <index-file> <token>... (for example level:error or exception:*)");
+            System.exit(1);
+        }
+        LogIndex index = read(Paths.get(args[0]));
+        for (int i = 1; i < args.length; i++) {
+            String token = args[i];
+            List<Posting> found = token.endsWith("*")
+                ? index.findPrefix(token.substring(0, token.length() - 1)) : index.find(token);
+            for (Posting posting : found) {
+                String line;
+                try {
+                    line = index.readLine(posting);
+                } catch (IOException e) {
+                    // for example logs stored in an archive
+                    line = "";
+                }
+                System.out.printf("%s:%d: %s%n", posting.file(), posting.offset(), line);
+            }
+        }
+    }
+
+    /**
+     * Writes the number as a variable-length number, 7 bits per byte
+     *
+     * @param out    target output
+     * @param number non-negative number
+     * @throws IOException If an I/O error occurs writing to the output.
+     */
+    static void writeVarLong(DataOutput out, long number) throws IOException {
+        long value = number;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in the log index");
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds {@link LogIndex} of the logs while they are collected, so the logs are not read again.
+ * Every line of the indexed logs is split into tokens - log level ({@code level:error}), names of exceptions
+ * ({@code exception:java.io.IOException} and {@code exception:IOException}) and request IDs ({@code id:<id>},
+ * UUIDs and values of fields like {@code requestId=...}). For every token the indexer keeps offsets of the first
+ * {@link CollectorConstants#LOG_INDEX_MAX_POSTINGS} lines in every file, which contain it.
+ * The index is written by {@link #write(Path)}.
+ */
+public class LogIndexer {
+
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+    private static final Pattern LEVEL = Pattern.compile("\\b(TRACE|DEBUG|INFO|WARN|WARNING|ERROR|FATAL)\\b");
+    private static final Pattern EXCEPTION = Pattern.compile(
+        "\\b((?:[a-z_$][\\w$]*\\.)*[A-Z][\\w$]*(?:Exception|Error|Throwable))\\b");
+    private static final Pattern UUID = Pattern.compile(
+        "\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b");
+    private static final Pattern REQUEST_ID = Pattern.compile(
+        "(?i)\\b(?:request|req|trace|correlation)[-_]?id[\"']?\\s*[:=]\\s*[\"']?([\\w.:-]+)");
+
+    private final Path folder;
+    // indexed files relative to the folder, the index in the list is the id of the file
+    private final List<String> files = new ArrayList<>();
+    // offsets of lines by token and id of the file
+    private final Map<String, Map<Integer, long[]>> postings = new TreeMap<>();
+
+    /**
+     * Constructor of the indexer
+     *
+     * @param folder folder of the collection, paths of the indexed files are stored relative to it
+     */
+    public LogIndexer(Path folder) {
+        this.folder = folder.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Wraps the stream, so it's indexed while it's read. The postings are added once the stream is closed.
+     *
+     * @param file path of the file with the log
+     * @param is   stream with the log
+     * @return stream indexing the data read from it
+     */
+    public InputStream wrap(Path file, InputStream is) {
+        return new IndexingInputStream(file, is);
+    }
+
+    /**
+     * Indexes the log
+     *
+     * @param file path of the file with the log
+     * @param log  the log
+     */
+    public void index(Path file, String log) {
+        if (log == null || log.isEmpty()) {
+            return;
+        }
+        FileTokens fileTokens = new FileTokens();
+        long offset = 0;
+        int start = 0;
+        while (start < log.length()) {
+            int end = log.indexOf('\n', start);
+            String line = log.substring(start, end < 0 ? log.length() : end);
+            fileTokens.addLine(line, offset);
+            offset += line.getBytes(StandardCharsets.UTF_8).length + 1L;
+            start = end < 0 ? log.length() : end + 1;
+        }
+        add(file, fileTokens);
+    }
+
+    /**
+     * Writes the index to the file, see {@link LogIndex} for the format
+     *
+     * @param indexFile path to the index file
+     * @throws IOException If an I/O error occurs writing to the file.
+     */
+    public synchronized void write(Path indexFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(LogIndex.MAGIC);
+            out.writeByte(LogIndex.VERSION);
+            LogIndex.writeVarLong(out, files.size());
+            for (String file : files) {
+                out.writeUTF(file);
+            }
+            LogIndex.writeVarLong(out, postings.size());
+            for (Map.Entry<String, Map<Integer, long[]>> token : postings.entrySet()) {
+                out.writeUTF(token.getKey());
+                LogIndex.writeVarLong(out, token.getValue().size());
+                for (Map.Entry<Integer, long[]> filePostings : token.getValue().entrySet()) {
+                    LogIndex.writeVarLong(out, filePostings.getKey());
+                    LogIndex.writeVarLong(out, filePostings.getValue().length);
+                    long previous = 0;
+                    for (long offset : filePostings.getValue()) {
+                        LogIndex.writeVarLong(out, offset - previous);
+                        previous = offset;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true when nothing was indexed
+     *
+     * @return true when the index is empty
+     */
+    public synchronized boolean isEmpty() {
+        return postings.isEmpty();
+    }
+
+    /**
+     * Extracts tokens from the line of the log
+     *
+     * @param line line of the log
+     * @return tokens of the line, in order of their occurrence
+     */
+    static Set<String> tokens(String line) {
+        Set<String> tokens = new LinkedHashSet<>();
+
+        Matcher level = LEVEL.matcher(line);
+        if (level.find()) {
+            String name = level.group(1).equals("WARNING") ? "WARN" : level.group(1);
+            tokens.add("level:" + name.toLowerCase(Locale.ROOT));
+        }
+
+        if (line.contains("Exception") || line.contains("Error") || line.contains("Throwable")) {
+            Matcher exception = EXCEPTION.matcher(line);
+            while (exception.find()) {
+                String className = exception.group(1);
+                tokens.add("exception:" + className);
+                tokens.add("exception:" + className.substring(className.lastIndexOf('.') + 1));
+            }
+        }
+
+        Matcher uuid = UUID.matcher(line);
+        while (uuid.find()) {
+            tokens.add("id:" + uuid.group().toLowerCase(Locale.ROOT));
+        }
+        Matcher requestId = REQUEST_ID.matcher(line);
+        while (requestId.find()) {
+            tokens.add("id:" + requestId.group(1).toLowerCase(Locale.ROOT));
+        }
+
+        return tokens;
+    }
+
+    private synchronized void add(Path file, FileTokens fileTokens) {
+        if (fileTokens.offsets.isEmpty()) {
+            return;
+        }
+        String relativePath = folder.relativize(file.toAbsolutePath().normalize()).toString()
+            .replace(file.getFileSystem().getSeparator(), "/");
+        int fileId = files.indexOf(relativePath);
+        if (fileId < 0) {
+            fileId = files.size();
+            files.add(relativePath);
+        }
+        int id = fileId;
+        fileTokens.offsets.forEach((token, offsets) -> postings.computeIfAbsent(token, k -> new TreeMap<>())
+            .put(id, offsets.stream().mapToLong(Long::longValue).toArray()));
+    }
+
+    /**
+     * Tokens of one file with offsets of the lines
+     */
+    private static final class FileTokens {
+        private final Map<String, List<Long>> offsets = new LinkedHashMap<>();
+
+        private void addLine(String line, long offset) {
+            for (String token : tokens(line)) {
+                List<Long> tokenOffsets = offsets.computeIfAbsent(token, k -> new ArrayList<>());
+                if (tokenOffsets.size() < CollectorConstants.LOG_INDEX_MAX_POSTINGS) {
+                    tokenOffsets.add(offset);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stream splitting the data read from it into lines, which are indexed
+     */
+    private final class IndexingInputStream extends FilterInputStream {
+        private final Path file;
+        private final FileTokens fileTokens = new FileTokens();
+        private final byte[] line = new byte[MAX_LINE_LENGTH];
+        private int lineLength;
+        private long lineOffset;
+        private long offset;
+        private boolean closed;
+
+        private IndexingInputStream(Path file, InputStream in) {
+            super(in);
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume((byte) b);
+            } else {
+                endLine();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read < 0) {
+                endLine();
+            }
+            for (int i = 0; i < read; i++) {
+                consume(b[off + i]);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped data have to be indexed as well
+            byte[] buffer = new byte[(int) Math.min(n, CollectorConstants.STREAM_BUFFER_SIZE)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                endLine();
+                add(file, fileTokens);
+            }
+            super.close();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void consume(byte b) {
+            offset++;
+            if (b == '\n') {
+                endLine();
+                lineOffset = offset;
+            } else if (lineLength < line.length) {
+                // only the beginning of very long lines is indexed
+                line[lineLength++] = b;
+            }
+        }
+
+        private void endLine() {
+            if (lineLength > 0) {
+                fileTokens.addLine(new String(line, 0, lineLength, StandardCharsets.UTF_8), lineOffset);
+                lineLength = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes streams (typically logs of containers) directly to files.
+ * The data are transferred in chunks of {@link CollectorConstants#STREAM_BUFFER_SIZE}, so the memory used
+ * does not depend on the size of the stream, optionally compressed by gzip on the fly.
+ */
+public final class LogStreamWriter {
+
+    private LogStreamWriter() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Writes the stream to the file, the stream is closed and the file is overwritten
+     *
+     * @param is       stream with the data
+     * @param file     target file
+     * @param compress compress the data by gzip
+     * @return number of bytes read from the stream
+     * @throws IOException If an I/O error occurs reading from the stream or writing to the file.
+     */
+    public static long write(InputStream is, Path file, boolean compress) throws IOException {
+        return write(is, file, compress, 0);
+    }
+
+    /**
+     * Writes at most {@code maxBytes} of the stream to the file, the stream is closed and the file is overwritten
+     *
+     * @param is       stream with the data
+     * @param file     target file
+     * @param compress compress the data by gzip
+     * @param maxBytes max number of bytes read from the stream, 0 for the whole stream
+     * @return number of bytes read from the stream
+     * @throws IOException If an I/O error occurs reading from the stream or writing to the file.
+     */
+    public static long write(InputStream is, Path file, boolean compress, long maxBytes) throws IOException {
+        long limit = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        try (is; FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return compress ? compress(is, channel, limit) : transfer(is, channel, limit);
+        }
+    }
+
+    private static long transfer(InputStream is, FileChannel channel, long limit) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(is);
+        long position = 0;
+        long transferred;
+        // blocking source channel returns 0 only at the end of the stream
+        while (position < limit && (transferred = channel.transferFrom(source, position,
+            Math.min(CollectorConstants.STREAM_BUFFER_SIZE, limit - position))) > 0) {
+            position += transferred;
+        }
+        return position;
+    }
+
+    private static long compress(InputStream is, FileChannel channel, long limit) throws IOException {
+        byte[] buffer = new byte[CollectorConstants.STREAM_BUFFER_SIZE];
+        long total = 0;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel),
+            CollectorConstants.STREAM_BUFFER_SIZE)) {
+            int read;
+            while (total < limit
+                && (read = is.read(buffer, 0, (int) Math.min(buffer.length, limit - total))) >= 0) {
+                gzip.write(buffer, 0, read);
+                total += read;
+            }
+        }
+        return total;
+    }
+}
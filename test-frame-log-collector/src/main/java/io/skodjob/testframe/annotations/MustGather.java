@@ -4,6 +4,7 @@
  */
 package io.skodjob.testframe.annotations;
 
+import io.skodjob.testframe.interfaces.AsyncMustGatherSupplier;
 import io.skodjob.testframe.interfaces.MustGatherSupplier;
 import io.skodjob.testframe.listeners.TestExceptionCallbackListener;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,4 +34,42 @@ public @interface MustGather {
      * @return MustGatherSupplier implementation
      */
     Class<? extends MustGatherSupplier> config() default MustGatherSupplier.class;
+
+    /**
+     * Enables background capture of logs during every test, started by
+     * {@link MustGatherSupplier#startBackgroundLogCapture(org.junit.jupiter.api.extension.ExtensionContext)}.
+     * The captured logs are kept only when the test failed.
+     *
+     * @return true when the logs should be captured in background
+     */
+    boolean backgroundLogCapture() default false;
+
+    /**
+     * Enables recording of events by {@link io.skodjob.testframe.EventRecorder} started once for the test class by
+     * {@link MustGatherSupplier#startEventRecorder(org.junit.jupiter.api.extension.ExtensionContext)}.
+     * The recorded events are flushed only when the test failed.
+     *
+     * @return true when the events should be recorded
+     */
+    boolean eventRecording() default false;
+
+    /**
+     * Runs must gather in background, so the failed test doesn't wait for the collection.
+     * The collection is run by {@link AsyncMustGatherSupplier#saveKubernetesState(java.util.List)}, suppliers
+     * which don't implement {@link AsyncMustGatherSupplier} run the collection synchronously.
+     * Outstanding collections are joined after all tests of the class.
+     *
+     * @return true when must gather should run in background
+     */
+    boolean async() default false;
+
+    /**
+     * Debounce window of the background must gather in milliseconds. The collection starts once the window after
+     * the first failure passes and further failures of the class hitting the same Namespaces
+     * ({@link AsyncMustGatherSupplier#getNamespaces(org.junit.jupiter.api.extension.ExtensionContext)})
+     * within the window are coalesced into it. Used only when {@link #async()} is enabled.
+     *
+     * @return debounce window in milliseconds, 0 for starting the collection right away
+     */
+    long debounceMillis() default 0;
 }
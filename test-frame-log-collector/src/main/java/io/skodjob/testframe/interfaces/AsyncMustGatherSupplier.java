@@ -0,0 +1,39 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.interfaces;
+
+import io.skodjob.testframe.listeners.TestSnapshot;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Must gather supplier which can run the collection in background, when
+ * {@link io.skodjob.testframe.annotations.MustGather#async()} is enabled
+ */
+public interface AsyncMustGatherSupplier extends MustGatherSupplier {
+
+    /**
+     * Save kubernetes state in background. It runs after the extension contexts of the tests were closed,
+     * so only their snapshots are available, for example {@link io.skodjob.testframe.LogCollectorBuilder#withLogsSince}
+     * can be used with the start time of the first failed test.
+     * Use your own LogCollector configuration
+     *
+     * @param tests snapshots of the failed tests coalesced into the collection, in order of the failures
+     * @return folder where the state is stored, or null when it's not known
+     */
+    Path saveKubernetesState(List<TestSnapshot> tests);
+
+    /**
+     * Namespaces collected by {@link #saveKubernetesState(List)}, used for coalescing of background must gather.
+     *
+     * @param context junit5 extension context
+     * @return collected Namespaces, empty when all collections of the supplier should be coalesced
+     */
+    default List<String> getNamespaces(ExtensionContext context) {
+        return List.of();
+    }
+}
@@ -4,6 +4,8 @@
  */
 package io.skodjob.testframe.interfaces;
 
+import io.skodjob.testframe.BackgroundLogCapture;
+import io.skodjob.testframe.EventRecorder;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
 /**
@@ -18,4 +20,30 @@ public interface MustGatherSupplier {
      * @param context junit5 extension context
      */
     void saveKubernetesState(ExtensionContext context);
+
+    /**
+     * Start background capture of logs before the test, when it's enabled by
+     * {@link io.skodjob.testframe.annotations.MustGather#backgroundLogCapture()}.
+     * Use your own LogCollector configuration, for example
+     * {@link io.skodjob.testframe.LogCollector#startBackgroundLogCapture}
+     *
+     * @param context junit5 extension context
+     * @return started capture, or null when nothing should be captured
+     */
+    default BackgroundLogCapture startBackgroundLogCapture(ExtensionContext context) {
+        return null;
+    }
+
+    /**
+     * Start recording of events before all tests of the class, when it's enabled by
+     * {@link io.skodjob.testframe.annotations.MustGather#eventRecording()}.
+     * Use your own LogCollector configuration, for example
+     * {@link io.skodjob.testframe.LogCollector#startEventRecorder}
+     *
+     * @param context junit5 extension context of the test class
+     * @return started recorder, or null when nothing should be recorded
+     */
+    default EventRecorder startEventRecorder(ExtensionContext context) {
+        return null;
+    }
 }
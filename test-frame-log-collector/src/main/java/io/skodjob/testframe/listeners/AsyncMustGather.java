@@ -0,0 +1,134 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.listeners;
+
+import io.skodjob.testframe.interfaces.AsyncMustGatherSupplier;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs must gather of {@link TestExceptionCallbackListener} in background, so the failed test doesn't block
+ * the suite for the whole collection. Collection is started once the debounce window after the first failure
+ * passes, and all failures in the same test class hitting the same Namespaces within the window are coalesced
+ * into that one collection. The supplier gets only snapshots of the failed tests, because their extension contexts
+ * are closed once the collection starts. Outstanding collections of the test class are joined by {@link #join(Class)}
+ * after all its tests.
+ */
+public final class AsyncMustGather {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncMustGather.class);
+
+    private static final Executor EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // collections waiting for the end of the debounce window
+    private static final Map<Key, Pending> PENDING = new ConcurrentHashMap<>();
+    // all not yet joined collections by test class
+    private static final Map<Class<?>, List<CompletableFuture<Void>>> OUTSTANDING = new ConcurrentHashMap<>();
+
+    private AsyncMustGather() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Submits the collection, or coalesces it with the one which didn't start yet
+     *
+     * @param context        extension context of the failed test
+     * @param supplier       supplier running the collection
+     * @param debounceMillis debounce window in milliseconds
+     * @return future completed when the collection is finished, failures of the collection are only logged
+     */
+    public static CompletableFuture<Void> submit(ExtensionContext context, AsyncMustGatherSupplier supplier,
+                                                 long debounceMillis) {
+        TestSnapshot test = TestSnapshot.of(context);
+        Key key = new Key(test.testClass(), supplier.getClass(), List.copyOf(supplier.getNamespaces(context)));
+
+        Pending pending = PENDING.compute(key, (k, existing) -> {
+            if (existing != null && existing.started().get()) {
+                existing = null;
+            }
+            if (existing != null) {
+                LOGGER.info("Must gather of {} for Namespaces {} is coalesced with the pending one of {}",
+                    test.displayName(), k.namespaces(), existing.tests().getFirst().displayName());
+                existing.tests().add(test);
+                return existing;
+            }
+            return schedule(k, test, supplier, debounceMillis);
+        });
+
+        return pending.future();
+    }
+
+    /**
+     * Waits for all collections of the test class, including the ones waiting for the end of the debounce window
+     *
+     * @param testClass test class
+     */
+    public static void join(Class<?> testClass) {
+        List<CompletableFuture<Void>> futures = OUTSTANDING.remove(testClass);
+        if (futures != null && !futures.isEmpty()) {
+            LOGGER.info("Waiting for {} must gather collections of {}", futures.size(), testClass.getName());
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+    }
+
+    private static Pending schedule(Key key, TestSnapshot test, AsyncMustGatherSupplier supplier,
+                                    long debounceMillis) {
+        AtomicBoolean started = new AtomicBoolean(false);
+        List<TestSnapshot> tests = new CopyOnWriteArrayList<>(List.of(test));
+        Executor executor = debounceMillis > 0
+            ? CompletableFuture.delayedExecutor(debounceMillis, TimeUnit.MILLISECONDS, EXECUTOR) : EXECUTOR;
+
+        LOGGER.info("Must gather of {} is scheduled in background", test.displayName());
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            // failures reported since now need a new collection
+            started.set(true);
+            PENDING.computeIfPresent(key, (k, pending) -> pending.started() == started ? null : pending);
+            List<String> names = tests.stream().map(TestSnapshot::displayName).toList();
+            LOGGER.info("Must gather of {} for Namespaces {} started", names, key.namespaces());
+            try {
+                Path folder = supplier.saveKubernetesState(List.copyOf(tests));
+                if (folder != null) {
+                    LOGGER.info("Must gather of {} is stored in {}", names, folder);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Failed to run must gather of {}, due to: {}", names, e.getMessage());
+            }
+        }, executor);
+
+        OUTSTANDING.computeIfAbsent(key.testClass(), k -> new CopyOnWriteArrayList<>()).add(future);
+        return new Pending(future, started, tests);
+    }
+
+    /**
+     * Requests with the same key are coalesced
+     *
+     * @param testClass     test class
+     * @param supplierClass class of the supplier
+     * @param namespaces    Namespaces collected by the supplier
+     */
+    private record Key(Class<?> testClass, Class<?> supplierClass, List<String> namespaces) {
+    }
+
+    /**
+     * Scheduled collection
+     *
+     * @param future  future of the collection
+     * @param started true once the collection started
+     * @param tests   failed tests coalesced into the collection
+     */
+    private record Pending(CompletableFuture<Void> future, AtomicBoolean started, List<TestSnapshot> tests) {
+    }
+}
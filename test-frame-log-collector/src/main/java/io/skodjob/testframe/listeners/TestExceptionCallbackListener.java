@@ -4,29 +4,128 @@
  */
 package io.skodjob.testframe.listeners;
 
+import io.skodjob.testframe.BackgroundLogCapture;
+import io.skodjob.testframe.EventRecorder;
 import io.skodjob.testframe.annotations.MustGather;
+import io.skodjob.testframe.interfaces.AsyncMustGatherSupplier;
 import io.skodjob.testframe.interfaces.MustGatherSupplier;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.LifecycleMethodExecutionExceptionHandler;
 import org.junit.jupiter.api.extension.TestExecutionExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
 
 /**
- * jUnit5 specific class which listening on test exception callbacks
+ * jUnit5 specific class which listening on test exception callbacks.
+ * When background log capture is enabled, it also starts the capture before each test and stops it after.
+ * When event recording is enabled, events recorded during every test are stored when the test failed.
+ * Start time of the test class and of every test is recorded, so only logs since the start can be collected.
+ * When {@link MustGather#async()} is enabled, must gather runs in background by {@link AsyncMustGather}
+ * and outstanding collections are joined after all tests of the class.
  */
-public class TestExceptionCallbackListener implements
-    TestExecutionExceptionHandler, LifecycleMethodExecutionExceptionHandler {
+public class TestExceptionCallbackListener implements TestExecutionExceptionHandler,
+    LifecycleMethodExecutionExceptionHandler, BeforeAllCallback, BeforeEachCallback, AfterEachCallback,
+    AfterAllCallback {
     static final Logger LOGGER = LoggerFactory.getLogger(TestExceptionCallbackListener.class);
 
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(TestExceptionCallbackListener.class);
+    private static final String CAPTURE_KEY = "backgroundLogCapture";
+    private static final String START_TIME_KEY = "testStartTime";
+    private static final String RECORDER_KEY = "eventRecorder";
+
     private TestExceptionCallbackListener() {
         // Private constructor to prevent instantiation
     }
 
+    /**
+     * Returns start time of the test, or of the test class when called outside of a test
+     *
+     * @param context extension context of the test
+     * @return start time, {@code null} when the listener is not registered for the test
+     */
+    public static Instant getTestStartTime(ExtensionContext context) {
+        return context.getStore(NAMESPACE).get(START_TIME_KEY, Instant.class);
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        context.getStore(NAMESPACE).put(START_TIME_KEY, Instant.now());
+        Optional<MustGather> annotation = findAnnotation(context.getRequiredTestClass(), MustGather.class);
+        if (annotation.isPresent() && annotation.get().eventRecording() && annotation.get().config() != null) {
+            MustGatherSupplier supplierInstance = annotation.get().config().getDeclaredConstructor().newInstance();
+            EventRecorder recorder = supplierInstance.startEventRecorder(context);
+            if (recorder != null) {
+                context.getStore(NAMESPACE).put(RECORDER_KEY, recorder);
+            }
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        context.getStore(NAMESPACE).put(START_TIME_KEY, Instant.now());
+        EventRecorder recorder = context.getStore(NAMESPACE).get(RECORDER_KEY, EventRecorder.class);
+        if (recorder != null) {
+            recorder.clear();
+        }
+        Optional<MustGather> annotation = findAnnotation(context.getRequiredTestClass(), MustGather.class);
+        if (annotation.isPresent() && annotation.get().backgroundLogCapture() && annotation.get().config() != null) {
+            MustGatherSupplier supplierInstance = annotation.get().config().getDeclaredConstructor().newInstance();
+            BackgroundLogCapture capture = supplierInstance.startBackgroundLogCapture(context);
+            if (capture != null) {
+                context.getStore(NAMESPACE).put(CAPTURE_KEY, capture);
+            }
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        BackgroundLogCapture capture = context.getStore(NAMESPACE).remove(CAPTURE_KEY, BackgroundLogCapture.class);
+        if (capture != null) {
+            // logs are needed only for analysis of the failure
+            capture.stop(context.getExecutionException().isPresent());
+        }
+        EventRecorder recorder = context.getStore(NAMESPACE).get(RECORDER_KEY, EventRecorder.class);
+        if (recorder != null && context.getExecutionException().isPresent()) {
+            flushEvents(recorder, context.getRequiredTestMethod().getName());
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        AsyncMustGather.join(context.getRequiredTestClass());
+        EventRecorder recorder = context.getStore(NAMESPACE).remove(RECORDER_KEY, EventRecorder.class);
+        if (recorder != null) {
+            // failure of before all or after all methods
+            if (context.getExecutionException().isPresent()) {
+                flushEvents(recorder, context.getRequiredTestClass().getSimpleName());
+            }
+            recorder.close();
+        }
+    }
+
+    private static void flushEvents(EventRecorder recorder, String testName) {
+        try {
+            Path file = recorder.flush(testName);
+            if (file != null) {
+                LOGGER.info("Recorded events are stored in {}", file);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to store recorded events of {}, due to: {}", testName, e.getMessage());
+        }
+    }
+
     @Override
     public void handleTestExecutionException(ExtensionContext context, Throwable throwable) throws Throwable {
         LOGGER.error("Test failed at {} : {}", "Test execution", throwable.getMessage(), throwable);
@@ -67,7 +166,15 @@ public class TestExceptionCallbackListener implements
         if (annotation.isPresent() && annotation.get().config() != null) {
             Class<? extends MustGatherSupplier> supplierClass = annotation.get().config();
             MustGatherSupplier supplierInstance = supplierClass.getDeclaredConstructor().newInstance();
-            supplierInstance.saveKubernetesState(context);
+            if (annotation.get().async() && supplierInstance instanceof AsyncMustGatherSupplier asyncSupplier) {
+                AsyncMustGather.submit(context, asyncSupplier, annotation.get().debounceMillis());
+            } else {
+                if (annotation.get().async()) {
+                    LOGGER.warn("{} doesn't implement {}, so must gather runs synchronously", supplierClass.getName(),
+                        AsyncMustGatherSupplier.class.getSimpleName());
+                }
+                supplierInstance.saveKubernetesState(context);
+            }
         }
         throw throwable;
     }
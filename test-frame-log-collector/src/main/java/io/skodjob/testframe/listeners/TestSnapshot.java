@@ -0,0 +1,35 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.listeners;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+
+/**
+ * Snapshot of the failed test taken when the failure is reported, so it can be used by background must gather
+ * after the extension context of the test was closed.
+ *
+ * @param testClass   test class
+ * @param methodName  name of the test method, {@code null} for failures of the test class lifecycle
+ * @param displayName display name of the test
+ * @param startTime   start time of the test recorded by {@link TestExceptionCallbackListener},
+ *                    {@code null} when it's not recorded
+ */
+public record TestSnapshot(Class<?> testClass, String methodName, String displayName, Instant startTime) {
+
+    /**
+     * Takes snapshot of the test
+     *
+     * @param context extension context of the test
+     * @return the snapshot
+     */
+    public static TestSnapshot of(ExtensionContext context) {
+        return new TestSnapshot(context.getRequiredTestClass(),
+            context.getTestMethod().map(Method::getName).orElse(null), context.getDisplayName(),
+            TestExceptionCallbackListener.getTestStartTime(context));
+    }
+}
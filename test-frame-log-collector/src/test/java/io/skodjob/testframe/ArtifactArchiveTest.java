@@ -0,0 +1,92 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@TestVisualSeparator
+final class ArtifactArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIdenticalContentIsStoredOnce() throws IOException {
+        Path archiveFile;
+        try (ArtifactArchive archive = ArtifactArchive.create(tempDir)) {
+            archiveFile = archive.getFile();
+            archive.write(tempDir.resolve("ns-a").resolve("events.log"), bytes("same events"));
+            archive.write(tempDir.resolve("ns-b").resolve("events.log"), bytes("same events"));
+            archive.write(tempDir.resolve("ns-b").resolve("empty.log"), new byte[0]);
+            assertEquals(11, archive.write(tempDir.resolve("ns-b").resolve("pod.log"),
+                new ByteArrayInputStream(bytes("streamed log, truncated")), 11));
+        }
+
+        Map<String, ArtifactArchive.Entry> manifest = ArtifactArchive.readManifest(archiveFile);
+        assertEquals(3, manifest.size());
+        assertEquals("streamed lo", new String(ArtifactArchive.read(archiveFile, "ns-b/pod.log"),
+            StandardCharsets.UTF_8));
+        assertNull(ArtifactArchive.read(archiveFile, "ns-b/empty.log"));
+        try (ZipFile zipFile = new ZipFile(archiveFile.toFile())) {
+            // two blobs and the manifest
+            assertEquals(3, zipFile.size());
+        }
+    }
+
+    @Test
+    void testBlobsOfClosedArchivesAreReferenced() throws IOException {
+        Path firstFolder = tempDir.resolve("first");
+        Path secondFolder = tempDir.resolve("second");
+        Path firstFile;
+        Path secondFile;
+        try (ArtifactArchive first = ArtifactArchive.create(firstFolder)) {
+            firstFile = first.getFile();
+            first.write(firstFolder.resolve("node.yaml"), bytes("cluster-wide node"));
+        }
+        try (ArtifactArchive second = ArtifactArchive.create(secondFolder)) {
+            secondFile = second.getFile();
+            second.write(secondFolder.resolve("node.yaml"), bytes("cluster-wide node"));
+        }
+
+        assertEquals("../first/artifacts-0.zip", ArtifactArchive.readManifest(secondFile).get("node.yaml").archive());
+        assertEquals("cluster-wide node", new String(ArtifactArchive.read(secondFile, "node.yaml"),
+            StandardCharsets.UTF_8));
+
+        // once the referenced archive is gone, the blob is stored again
+        Files.delete(firstFile);
+        try (ArtifactArchive third = ArtifactArchive.create(secondFolder)) {
+            assertEquals("artifacts-1.zip", third.getFile().getFileName().toString());
+            third.write(secondFolder.resolve("node.yaml"), bytes("cluster-wide node"));
+            third.close();
+            assertEquals("", ArtifactArchive.readManifest(third.getFile()).get("node.yaml").archive());
+        }
+    }
+
+    @Test
+    void testClosedArchiveCannotBeWritten() throws IOException {
+        ArtifactArchive archive = ArtifactArchive.create(tempDir);
+        archive.close();
+
+        assertThrows(IllegalStateException.class, () -> archive.write(tempDir.resolve("late.log"), bytes("late")));
+    }
+
+    private static byte[] bytes(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.fabric8.kubernetes.api.model.LabelSelectorBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.clients.KubeClient;
+import io.skodjob.testframe.wait.Wait;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+final class BackgroundLogCaptureTest {
+    private static final String NAMESPACE = "capture";
+    private static final String LOG_PATH =
+        "/api/v1/namespaces/capture/pods/app/log?pretty=false&container=main&follow=true";
+
+    private KubernetesClient kubernetesClient;
+    private KubernetesMockServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLogsAreCapturedAndKept() {
+        server.expect().get().withPath(LOG_PATH)
+            .andReturn(200, "first line\nsecond line\n").always();
+        createPod("app", "app");
+        createPod("other", "other");
+
+        LogCollector logCollector = new LogCollectorBuilder()
+            .withRootFolderPath(tempDir.toString())
+            .withKubeClient(KubeClient.fromUrlAndToken(kubernetesClient.getMasterUrl().toString(), "token"))
+            .build();
+        BackgroundLogCapture capture = logCollector.startBackgroundLogCapture("background",
+            new LabelSelectorBuilder().addToMatchLabels("app", "app").build(), NAMESPACE);
+
+        Path logFile = tempDir.resolve("background").resolve(NAMESPACE).resolve(CollectorConstants.POD)
+            .resolve(LogCollectorUtils.getLogFileNameForPodContainer("app", "main"));
+        Wait.until("log is captured", 100, 10_000, () -> read(logFile).equals("first line\nsecond line\n"));
+
+        kubernetesClient.pods().inNamespace(NAMESPACE).withName("app").delete();
+        capture.stop(true);
+
+        assertTrue(Files.exists(logFile));
+        assertFalse(Files.exists(logFile.resolveSibling(
+            LogCollectorUtils.getLogFileNameForPodContainer("other", "main"))));
+    }
+
+    @Test
+    void testLogsAreDiscarded() {
+        server.expect().get().withPath(LOG_PATH)
+            .andReturn(200, "line\n").always();
+        createPod("app", "app");
+
+        Path folder = tempDir.resolve("discarded");
+        BackgroundLogCapture capture = new BackgroundLogCapture(
+            KubeClient.fromUrlAndToken(kubernetesClient.getMasterUrl().toString(), "token"),
+            folder, List.of(NAMESPACE), null, 1024).start();
+
+        Wait.until("log is captured", 100, 10_000, () -> Files.exists(folder));
+        capture.stop(false);
+
+        assertFalse(Files.exists(folder));
+    }
+
+    @Test
+    void testOnlyCapturedFilesAreDiscarded() throws IOException {
+        server.expect().get().withPath(LOG_PATH)
+            .andReturn(200, "line\n").always();
+        createPod("app", "app");
+
+        // the folder is shared with the must-gather collected into the same root folder
+        Path collected = tempDir.resolve(NAMESPACE).resolve(CollectorConstants.POD).resolve("collected.yaml");
+        Files.createDirectories(collected.getParent());
+        Files.writeString(collected, "kind: Pod");
+        Path otherNamespace = Files.createDirectories(tempDir.resolve("other"));
+
+        BackgroundLogCapture capture = new BackgroundLogCapture(
+            KubeClient.fromUrlAndToken(kubernetesClient.getMasterUrl().toString(), "token"),
+            tempDir, List.of(NAMESPACE), null, 1024).start();
+        Path logFile = collected.resolveSibling(LogCollectorUtils.getLogFileNameForPodContainer("app", "main"));
+        Wait.until("log is captured", 100, 10_000, () -> read(logFile).equals("line\n"));
+        capture.stop(false);
+
+        assertFalse(Files.exists(logFile));
+        assertEquals("kind: Pod", read(collected));
+        assertTrue(Files.isDirectory(otherNamespace));
+    }
+
+    @Test
+    void testRollingLogFile() throws IOException {
+        Path file = tempDir.resolve("pod").resolve("log.log");
+        BackgroundLogCapture.RollingLogFile logFile = new BackgroundLogCapture.RollingLogFile(file, 10);
+
+        byte[] data = "0123456789abcdefghij-rest".getBytes(StandardCharsets.UTF_8);
+        logFile.write(data, data.length);
+        logFile.close();
+        logFile.write(data, data.length);
+
+        assertEquals("-rest", read(file));
+        assertEquals("abcdefghij", read(file.resolveSibling("log.log.1")));
+    }
+
+    private void createPod(String name, String app) {
+        Pod pod = new PodBuilder()
+            .withNewMetadata()
+                .withName(name)
+                .withNamespace(NAMESPACE)
+                .addToLabels("app", app)
+            .endMetadata()
+            .withNewSpec()
+                .addNewContainer().withName("main").withImage("busybox").endContainer()
+            .endSpec()
+            .withNewStatus()
+                .addNewContainerStatus()
+                    .withName("main")
+                    .withRestartCount(0)
+                    .withNewState().withNewRunning().endRunning().endState()
+                .endContainerStatus()
+            .endStatus()
+            .build();
+        kubernetesClient.pods().inNamespace(NAMESPACE).resource(pod).create();
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.exists(file) ? Files.readString(file) : "";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestVisualSeparator
+final class CollectionSchedulerTest {
+
+    @Test
+    void testPriorityAndFairInterleaving() throws InterruptedException {
+        CollectionScheduler scheduler = new CollectionScheduler(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(scheduler.submit("a", CollectionScheduler.Priority.NORMAL, () -> {
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        for (String task : List.of("a1", "a2", "b1", "b2")) {
+            futures.add(scheduler.submit(task.substring(0, 1), CollectionScheduler.Priority.NORMAL,
+                () -> order.add(task)));
+        }
+        futures.add(scheduler.submit("c", CollectionScheduler.Priority.HIGH, () -> order.add("c1")));
+        assertEquals(1, scheduler.getRunning());
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(List.of("c1", "a1", "b1", "a2", "b2"), order);
+        assertEquals(new CollectionScheduler.Progress("a", 3, 3, 0), scheduler.getProgress("a"));
+        assertEquals(new CollectionScheduler.Progress("b", 2, 2, 0), scheduler.getProgress("b"));
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    @Test
+    void testConcurrencyLimit() {
+        CollectionScheduler scheduler = new CollectionScheduler(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(scheduler.submit("ns-" + i % 4, CollectionScheduler.Priority.NORMAL, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep();
+                running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(8, scheduler.getProgress("ns-0").finished());
+    }
+
+    @Test
+    void testFailedTask() {
+        CollectionScheduler scheduler = new CollectionScheduler(1);
+
+        CompletableFuture<Void> failed = scheduler.submit("ns", CollectionScheduler.Priority.NORMAL, () -> {
+            throw new IllegalStateException("failure");
+        });
+        CompletableFuture<Void> next = scheduler.submit("ns", CollectionScheduler.Priority.NORMAL, () -> { });
+
+        assertThrows(CompletionException.class, failed::join);
+        next.join();
+        assertEquals(new CollectionScheduler.Progress("ns", 2, 2, 1), scheduler.getProgress("ns"));
+        assertThrows(IllegalArgumentException.class, () -> new CollectionScheduler(0));
+    }
+
+    @Test
+    void testProgressIsCountedPerCollection() {
+        CollectionScheduler scheduler = new CollectionScheduler(2);
+        scheduler.submit("ns", CollectionScheduler.Priority.NORMAL, () -> { }).join();
+        scheduler.submit("ns", CollectionScheduler.Priority.HIGH, () -> { }).join();
+        assertEquals(new CollectionScheduler.Progress("ns", 2, 2, 0), scheduler.getProgress("ns"));
+
+        scheduler.resetProgress("ns");
+        assertEquals(new CollectionScheduler.Progress("ns", 0, 0, 0), scheduler.getProgress("ns"));
+        scheduler.submit("ns", CollectionScheduler.Priority.NORMAL, () -> { }).join();
+        assertEquals(new CollectionScheduler.Progress("ns", 1, 1, 0), scheduler.getProgress("ns"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.clients.KubeClient;
+import io.skodjob.testframe.wait.Wait;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnableKubernetesMockClient(crud = true)
+@TestVisualSeparator
+final class EventRecorderTest {
+    private static final String NAMESPACE = "recorded";
+
+    private KubernetesClient kubernetesClient;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEventsOfTrackedNamespaceAreRecorded() throws IOException {
+        try (EventRecorder recorder = new EventRecorder(
+            KubeClient.fromUrlAndToken(kubernetesClient.getMasterUrl().toString(), "token"), tempDir, 1024)) {
+
+            recorder.track(new NamespaceBuilder().withNewMetadata().withName(NAMESPACE).endMetadata().build());
+            createEvent("first", "Scheduled");
+            createEvent("second", "BackOff");
+
+            Wait.until("events are recorded", 100, 10_000, () -> lines(recorder, "test").size() == 2);
+
+            recorder.clear();
+            assertNull(recorder.flush("cleared"));
+        }
+    }
+
+    @Test
+    void testRecordedEventsAreBounded() throws IOException {
+        EventRecorder recorder = new EventRecorder(null, tempDir, 20);
+
+        recorder.append("{\"reason\":\"first\"}");
+        recorder.append("{\"reason\":\"second\"}");
+
+        assertEquals(List.of("{\"reason\":\"second\"}"), Files.readAllLines(recorder.flush("bounded")));
+    }
+
+    @Test
+    void testEventIsCompactJsonLine() {
+        String line = EventRecorder.toLine(Watcher.Action.ADDED, event("pod-failed", "BackOff"));
+
+        assertEquals("{\"time\":\"2026-10-19T10:00:00Z\",\"action\":\"ADDED\",\"namespace\":\"recorded\","
+            + "\"type\":\"Warning\",\"reason\":\"BackOff\",\"kind\":\"Pod\",\"name\":\"app\","
+            + "\"message\":\"Back-off restarting failed container\"}", line);
+    }
+
+    @Test
+    void testGapIsMarkedWithJsonLine() {
+        String line = EventRecorder.gapLine(NAMESPACE, "too old resource version");
+
+        assertTrue(line.matches("\\{\"time\":\"[^\"]+\",\"action\":\"GAP\",\"namespace\":\"recorded\","
+            + "\"message\":\"Recording of events was interrupted, events may be missing: "
+            + "too old resource version\"}"), line);
+    }
+
+    private void createEvent(String name, String reason) {
+        kubernetesClient.v1().events().inNamespace(NAMESPACE).resource(event(name, reason)).create();
+    }
+
+    private static Event event(String name, String reason) {
+        return new EventBuilder()
+            .withNewMetadata()
+                .withName(name)
+                .withNamespace(NAMESPACE)
+            .endMetadata()
+            .withType("Warning")
+            .withReason(reason)
+            .withLastTimestamp("2026-10-19T10:00:00Z")
+            .withMessage("Back-off restarting failed container")
+            .withNewInvolvedObject()
+                .withKind("Pod")
+                .withName("app")
+            .endInvolvedObject()
+            .build();
+    }
+
+    private static List<String> lines(EventRecorder recorder, String testName) {
+        try {
+            Path file = recorder.flush(testName);
+            return file == null ? List.of() : Files.readAllLines(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongBiFunction;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestVisualSeparator
+final class LogBudgetTest {
+
+    @Test
+    void testSmallLogsAreCompleteAndBigOnesShareTheRest() {
+        Map<String, Long> sizes = Map.of("small", 10L, "medium", 40L, "big", 1000L, "huge", 5000L);
+        Map<String, AtomicLong> downloaded = new ConcurrentHashMap<>();
+
+        Map<String, Long> fetched = LogBudget.fetch(1000, 0, List.of("small", "medium", "big", "huge"), 4,
+            fetchFrom(sizes, downloaded));
+
+        assertEquals(10L, fetched.get("small"));
+        assertEquals(40L, fetched.get("medium"));
+        assertEquals(475L, fetched.get("big"));
+        assertEquals(475L, fetched.get("huge"));
+        // every log is downloaded only once and only up to its share
+        fetched.forEach((log, bytes) -> assertEquals(bytes, downloaded.get(log).get()));
+    }
+
+    @Test
+    void testEveryLogIsCappedByMaxBytes() {
+        Map<String, Long> sizes = Map.of("small", 10L, "big", 1000L);
+
+        Map<String, Long> fetched = LogBudget.fetch(10_000, 100, List.of("small", "big"), 2,
+            fetchFrom(sizes, new ConcurrentHashMap<>()));
+
+        assertEquals(10L, fetched.get("small"));
+        assertEquals(100L, fetched.get("big"));
+    }
+
+    @Test
+    void testFailedLogsDoNotUseTheBudget() {
+        Map<String, Long> sizes = Map.of("big", 1000L);
+        ToLongBiFunction<String, UnaryOperator<InputStream>> fetch = fetchFrom(sizes, new ConcurrentHashMap<>());
+
+        Map<String, Long> fetched = LogBudget.fetch(300, 0, List.of("failed", "big"), 2,
+            (log, share) -> "failed".equals(log) ? -1 : fetch.applyAsLong(log, share));
+
+        assertEquals(0L, fetched.get("failed"));
+        assertEquals(300L, fetched.get("big"));
+    }
+
+    @Test
+    void testNumberOfOpenStreamsIsLimited() {
+        Map<String, Long> sizes = Map.of("big", 1000L, "huge", 5000L, "small", 10L, "medium", 40L);
+        ToLongBiFunction<String, UnaryOperator<InputStream>> fetch = fetchFrom(sizes, new ConcurrentHashMap<>());
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+
+        Map<String, Long> fetched = LogBudget.fetch(1000, 0, List.of("big", "huge", "small", "medium"), 2,
+            (log, share) -> {
+                maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                try {
+                    return fetch.applyAsLong(log, share);
+                } finally {
+                    open.decrementAndGet();
+                }
+            });
+
+        assertTrue(maxOpen.get() <= 2);
+        assertEquals(10L, fetched.get("small"));
+        assertEquals(40L, fetched.get("medium"));
+        // the budget is spent by the big logs, the one ended first to start the small ones gets a smaller share
+        assertEquals(1000L, fetched.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private static ToLongBiFunction<String, UnaryOperator<InputStream>> fetchFrom(Map<String, Long> sizes,
+                                                                                  Map<String, AtomicLong> downloaded) {
+        return (log, share) -> {
+            AtomicLong counter = downloaded.computeIfAbsent(log, k -> new AtomicLong());
+            InputStream source = new ByteArrayInputStream(new byte[sizes.get(log).intValue()]) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    int read = super.read(b, off, len);
+                    counter.addAndGet(Math.max(read, 0));
+                    return read;
+                }
+            };
+            try (InputStream is = share.apply(source)) {
+                long total = 0;
+                byte[] buffer = new byte[7];
+                int read;
+                while ((read = is.read(buffer)) >= 0) {
+                    total += read;
+                }
+                return total;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
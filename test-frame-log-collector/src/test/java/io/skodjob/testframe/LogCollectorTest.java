@@ -18,11 +18,13 @@ import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.PodList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.ContainerResource;
 import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
 import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.TimeTailPrettyLoggable;
 import io.skodjob.testframe.annotations.TestVisualSeparator;
 import io.skodjob.testframe.clients.KubeClient;
 import io.skodjob.testframe.clients.cmdClient.KubeCmdClient;
@@ -39,14 +41,19 @@ import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -54,12 +61,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -458,6 +468,335 @@ final class LogCollectorTest {
         assertPodFolderContainsPreviousLogs(namespaceFolder, namespaceName, null, true);
     }
 
+    @Test
+    void testCollectStreamedLogs() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withCollectPreviousLogs()
+            .withStreamedLogs()
+            .build();
+
+        String namespaceName = "streamed-logs-namespace";
+        String podName = "streamed";
+
+        mockNamespaces(namespaceName);
+        mockPods(namespaceName, true, false, true, podName);
+
+        localLogCollector.collectFromNamespace(namespaceName);
+
+        File podFolder = Paths.get(getFolderPathForTest(), namespaceName, CollectorConstants.POD).toFile();
+
+        assertPodFolderContainsEverything(podFolder.getParentFile(), true, false, podName);
+        assertEquals("this is log for pod: streamed and container: init-streamed", Files.readString(
+            podFolder.toPath().resolve(LogCollectorUtils.getLogFileNameForPodContainer(podName, "init-" + podName))));
+        assertEquals("this is previous log for pod: streamed and container: failed", Files.readString(
+            podFolder.toPath().resolve(LogCollectorUtils.getLogFileNameForPreviousPodContainer(podName, "failed"))));
+    }
+
+    @Test
+    void testCollectLogsWithinByteBudget() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withCollectPreviousLogs()
+            .withLogsByteBudget(200)
+            .build();
+
+        String namespaceName = "budget-namespace";
+        String podName = "budget";
+
+        mockNamespaces(namespaceName);
+        mockPods(namespaceName, true, false, true, podName);
+
+        localLogCollector.collectFromNamespace(namespaceName);
+
+        Path podFolder = Paths.get(getFolderPathForTest(), namespaceName, CollectorConstants.POD);
+
+        // both logs of 49 bytes fit into the first share of 50 bytes, the other two share the rest
+        assertEquals("this is log for pod: budget and container: budget", Files.readString(
+            podFolder.resolve(LogCollectorUtils.getLogFileNameForPodContainer(podName, podName))));
+        assertEquals("this is log for pod: budget and container: failed", Files.readString(
+            podFolder.resolve(LogCollectorUtils.getLogFileNameForPodContainer(podName, "failed"))));
+        assertEquals(51, Files.size(
+            podFolder.resolve(LogCollectorUtils.getLogFileNameForPodContainer(podName, "init-" + podName))));
+        assertEquals(51, Files.size(
+            podFolder.resolve(LogCollectorUtils.getLogFileNameForPreviousPodContainer(podName, "failed"))));
+        verify(mockCmdClient.inNamespace(namespaceName), never()).logs(any(), any());
+    }
+
+    @Test
+    void testCollectIntoArchive() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withNamespacedResources(SECRET)
+            .withArchiveOutput()
+            .build();
+
+        mockNamespaces("archive-first", "archive-second");
+        mockEvents();
+        mockSecrets("archive-first", "secret1");
+        mockSecrets("archive-second", "secret1");
+        mockPods("archive-first", false, false, "pod1");
+        mockPods("archive-second", false, false, "pod2");
+
+        localLogCollector.collectFromNamespacesToFolder(List.of("archive-first", "archive-second"), "archived");
+        localLogCollector.collectFromNamespacesToFolder(List.of("archive-first", "archive-second"), "archived");
+
+        Path folder = Paths.get(getFolderPathForTest(), "archived");
+        Path first = folder.resolve("artifacts-0.zip");
+        Path second = folder.resolve("artifacts-1.zip");
+
+        assertFolderExistsAndContainsCorrectNumberOfFiles(folder.toFile(), 2);
+
+        Map<String, ArtifactArchive.Entry> manifest = ArtifactArchive.readManifest(first);
+        ArtifactArchive.Entry firstEvents = manifest.get("archive-first/events.log");
+        ArtifactArchive.Entry secondEvents = manifest.get("archive-second/events.log");
+
+        // the same content is stored once, everything in the second archive references the first one
+        assertEquals(firstEvents.sha256(), secondEvents.sha256());
+        assertEquals("", secondEvents.archive());
+        assertTrue(ArtifactArchive.readManifest(second).values().stream()
+            .allMatch(entry -> "artifacts-0.zip".equals(entry.archive())));
+        assertEquals("this is description of Secret: secret1", new String(
+            ArtifactArchive.read(second, "archive-second/secret/secret1.yaml"), StandardCharsets.UTF_8));
+        assertEquals("this is log for pod: pod2 and container: pod2", new String(ArtifactArchive.read(second,
+            "archive-second/pod/" + LogCollectorUtils.getLogFileNameForPodContainer("pod2", "pod2")),
+            StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCollectStreamedCompressedLogs() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withStreamedLogs()
+            .withCompressedLogs()
+            .build();
+
+        String namespaceName = "compressed-logs-namespace";
+        String podName = "compressed";
+
+        mockNamespaces(namespaceName);
+        mockPods(namespaceName, false, false, podName);
+
+        localLogCollector.collectFromNamespace(namespaceName);
+
+        Path logFile = Paths.get(getFolderPathForTest(), namespaceName, CollectorConstants.POD,
+            LogCollectorUtils.getLogFileNameForPodContainer(podName, podName) + "." + CollectorConstants.GZIP);
+
+        assertTrue(Files.exists(logFile));
+        try (GZIPInputStream is = new GZIPInputStream(Files.newInputStream(logFile))) {
+            assertEquals("this is log for pod: compressed and container: compressed",
+                new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testCollectWithLogIndex() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withStreamedLogs()
+            .withCompressedLogs()
+            .withLogIndex()
+            .build();
+
+        String namespaceName = "indexed-namespace";
+        String podName = "req-7f3c2a10-1b2c-4d5e-8f90-123456789abc";
+
+        mockNamespaces(namespaceName);
+        mockPods(namespaceName, false, false, podName);
+        when(mockCmdClient.inNamespace(namespaceName).getEvents()).thenReturn("""
+            LAST SEEN   TYPE      REASON    OBJECT         MESSAGE
+            5s          Warning   BackOff   pod/operator   ERROR java.lang.IllegalStateException: broken
+            """);
+
+        localLogCollector.collectFromNamespace(namespaceName);
+
+        LogIndex index = LogIndex.read(Paths.get(getFolderPathForTest(), CollectorConstants.LOG_INDEX));
+        String logFile = String.join("/", namespaceName, CollectorConstants.POD,
+            LogCollectorUtils.getLogFileNameForPodContainer(podName, podName) + "." + CollectorConstants.GZIP);
+
+        // streamed logs are indexed within their uncompressed content
+        assertEquals(List.of(new LogIndex.Posting(logFile, 0)), index.find("id:7f3c2a10-1b2c-4d5e-8f90-123456789abc"));
+        assertEquals("this is log for pod: " + podName + " and container: " + podName,
+            index.readLine(index.find("id:7f3c2a10-1b2c-4d5e-8f90-123456789abc").get(0)));
+
+        List<LogIndex.Posting> errors = index.find("level:error");
+        assertEquals(1, errors.size());
+        assertEquals(namespaceName + "/events.log", errors.get(0).file());
+        assertEquals(errors, index.find("exception:IllegalStateException"));
+    }
+
+    @Test
+    void testListBasedCollection() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder()
+            .withRootFolderPath(getFolderPathForTest())
+            .withNamespacedResources(SECRET, CONFIG_MAP)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withListBasedCollection()
+            .build();
+
+        String namespaceName = "list-namespace";
+
+        mockNamespaces(namespaceName);
+        mockEvents();
+        when(mockCmdClient.inNamespace(namespaceName).getResourcesAsYaml(SECRET)).thenReturn("""
+            apiVersion: v1
+            kind: List
+            items:
+            - apiVersion: v1
+              kind: Secret
+              metadata:
+                name: secret1
+                namespace: list-namespace
+              data:
+                key: dmFsdWU=
+            - apiVersion: v1
+              kind: Secret
+              metadata:
+                name: secret2
+                namespace: list-namespace
+            """);
+        when(mockCmdClient.inNamespace(namespaceName).getResourcesAsYaml(CONFIG_MAP)).thenReturn("""
+            apiVersion: v1
+            kind: List
+            items: []
+            """);
+
+        localLogCollector.collectFromNamespace(namespaceName);
+
+        File namespaceFolder = Paths.get(getFolderPathForTest(), namespaceName).toFile();
+
+        assertFolderExistsAndContainsCorrectNumberOfFiles(namespaceFolder, 2);
+        assertFolderForResourceTypeExistsAndContainsFiles(namespaceFolder, SECRET, "secret1", "secret2");
+        assertNamespaceFolderContainsEventsLog(namespaceFolder);
+
+        String secret = Files.readString(namespaceFolder.toPath().resolve(SECRET).resolve("secret1.yaml"));
+        assertTrue(secret.contains("kind: \"Secret\""));
+        assertTrue(secret.contains("key: \"dmFsdWU=\""));
+        assertFalse(secret.contains("secret2"));
+        verify(mockCmdClient, never()).getResourceAsYaml(SECRET, "secret1");
+    }
+
+    @Test
+    void testIncrementalCollection() throws IOException {
+        LogCollector localLogCollector = new LogCollectorBuilder()
+            .withRootFolderPath(getFolderPathForTest())
+            .withNamespacedResources(SECRET)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withIncrementalCollection()
+            .build();
+
+        String namespaceName = "incremental-namespace";
+
+        mockNamespaces(namespaceName);
+        mockEvents();
+        when(mockCmdClient.inNamespace(namespaceName).getResourcesAsYaml(SECRET)).thenReturn(
+            secretList("secret1", "1", "secret2", "1"),
+            secretList("secret1", "2", "secret3", "1"),
+            secretList("secret1", "2", "secret3", "1")
+        );
+
+        localLogCollector.collectFromNamespaceToFolder(namespaceName, "first");
+        localLogCollector.collectFromNamespaceToFolder(namespaceName, "second");
+        localLogCollector.collectFromNamespaceToFolder(namespaceName, "third");
+
+        File firstFolder = Paths.get(getFolderPathForTest(), "first", namespaceName).toFile();
+        Path secondSecrets = Paths.get(getFolderPathForTest(), "second", namespaceName, SECRET);
+        Path thirdSecrets = Paths.get(getFolderPathForTest(), "third", namespaceName, SECRET);
+
+        assertFolderForResourceTypeExistsAndContainsFiles(firstFolder, SECRET, "secret1", "secret2");
+        // secret1 changed, secret2 was deleted and secret3 created
+        assertEquals(List.of("secret1.yaml", "secret2.deleted.yaml", "secret3.yaml"),
+            Arrays.stream(secondSecrets.toFile().list()).sorted().toList());
+        assertEquals(String.format("name: secret2%nlastResourceVersion: \"1\"%n"),
+            Files.readString(secondSecrets.resolve("secret2.deleted.yaml")));
+        // nothing changed, the manifest refers to the last copies
+        assertEquals(List.of(CollectorConstants.UNCHANGED_RESOURCES), Arrays.asList(thirdSecrets.toFile().list()));
+        assertEquals(String.format("secret1: \"second/%1$s/secret/secret1.yaml\"%n"
+                + "secret3: \"second/%1$s/secret/secret3.yaml\"%n", namespaceName),
+            Files.readString(thirdSecrets.resolve(CollectorConstants.UNCHANGED_RESOURCES)));
+    }
+
+    private static String secretList(String firstName, String firstVersion, String secondName, String secondVersion) {
+        return String.format("""
+            apiVersion: v1
+            kind: List
+            items:
+            - apiVersion: v1
+              kind: Secret
+              metadata:
+                name: %s
+                resourceVersion: "%s"
+            - apiVersion: v1
+              kind: Secret
+              metadata:
+                name: %s
+                resourceVersion: "%s"
+            """, firstName, firstVersion, secondName, secondVersion);
+    }
+
+    @Test
+    void testCollectWithMaxConcurrency() {
+        LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
+            .withKubeClient(mockClient)
+            .withKubeCmdClient(mockCmdClient)
+            .withCollectPreviousLogs()
+            .withMaxConcurrency(2)
+            .build();
+
+        String[] namespaceNames = new String[]{"scheduled-namespace-1", "scheduled-namespace-2"};
+        String[] secretNames = new String[]{"secret1", "secret2"};
+
+        mockNamespaces(namespaceNames);
+        mockEvents();
+        for (String namespaceName : namespaceNames) {
+            mockSecrets(namespaceName, secretNames);
+            mockPods(namespaceName, true, false, true, "pod1");
+        }
+
+        localLogCollector.collectFromNamespaces(namespaceNames);
+
+        File rootFolder = Paths.get(getFolderPathForTest()).toFile();
+
+        assertFolderExistsAndContainsCorrectNumberOfFiles(rootFolder, 2);
+        assertFolderContainsFolders(rootFolder, namespaceNames);
+
+        for (File namespaceFolder : rootFolder.listFiles()) {
+            assertPodFolderContainsEverything(namespaceFolder, true, false, "pod1");
+            assertPodFolderContainsPreviousLogs(namespaceFolder, "pod1", "failed", true);
+            assertFolderForResourceTypeExistsAndContainsFiles(namespaceFolder, SECRET, secretNames);
+            assertNamespaceFolderContainsEventsLog(namespaceFolder);
+        }
+    }
+
+    @Test
+    void testIsPodFailing() {
+        Pod running = new PodBuilder()
+            .withNewStatus()
+                .withPhase("Running")
+                .addNewContainerStatus().withName("c").withReady(true).withRestartCount(0).endContainerStatus()
+            .endStatus()
+            .build();
+
+        assertFalse(LogCollector.isPodFailing(running));
+        assertFalse(LogCollector.isPodFailing(new PodBuilder().build()));
+        assertTrue(LogCollector.isPodFailing(new PodBuilder()
+            .withNewStatus().withPhase("Pending").endStatus()
+            .build()));
+        assertTrue(LogCollector.isPodFailing(new PodBuilder(running)
+            .editStatus().editFirstContainerStatus().withRestartCount(2).endContainerStatus().endStatus()
+            .build()));
+        assertTrue(LogCollector.isPodFailing(new PodBuilder(running)
+            .editStatus().editFirstContainerStatus().withReady(false).endContainerStatus().endStatus()
+            .build()));
+    }
+
     @Test
     void testCollectFromFailedPodsWithCollectPreviousPodsDisabled() {
         LogCollector localLogCollector = new LogCollectorBuilder(logCollector)
@@ -650,6 +989,21 @@ final class LogCollectorTest {
             when(mockPodOperation.inNamespace(namespaceName)).thenReturn(nonNamespaceOp);
             when(nonNamespaceOp.withName(podName)).thenReturn(mockPodResource);
             when(mockPodResource.get()).thenReturn(mockPod);
+            when(mockPodResource.inContainer(anyString())).thenAnswer(invocation -> {
+                String container = invocation.getArgument(0);
+                ContainerResource mockContainerResource = mock(ContainerResource.class);
+                TimeTailPrettyLoggable mockPreviousLog = mock(TimeTailPrettyLoggable.class);
+
+                when(mockContainerResource.getLogInputStream()).thenAnswer(i -> new ByteArrayInputStream(
+                    ("this is log for pod: " + podName + " and container: " + container)
+                        .getBytes(StandardCharsets.UTF_8)));
+                when(mockContainerResource.terminated()).thenReturn(mockPreviousLog);
+                when(mockContainerResource.limitBytes(anyInt())).thenReturn(mockContainerResource);
+                when(mockPreviousLog.getLogInputStream()).thenAnswer(i -> new ByteArrayInputStream(
+                    ("this is previous log for pod: " + podName + " and container: " + container)
+                        .getBytes(StandardCharsets.UTF_8)));
+                return mockContainerResource;
+            });
             when(mockCmdClient.inNamespace(namespaceName).describe(CollectorConstants.POD, podName))
                 .thenReturn("this is description of " + podName);
             when(mockCmdClient.inNamespace(namespaceName).logs(any(), any()))
@@ -22,6 +22,14 @@ final class LogCollectorUtilsTest {
         assertEquals(expectedFileName, LogCollectorUtils.getYamlFileNameForResource(resourceName));
     }
 
+    @Test
+    void testDeletedFileNameForResource() {
+        String resourceName = "secret-RESOURCE";
+        String expectedFileName = "secret-resource.deleted.yaml";
+
+        assertEquals(expectedFileName, LogCollectorUtils.getDeletedFileNameForResource(resourceName));
+    }
+
     @Test
     void testLogFileNameForResource() {
         String resourceName = "pod-name-RES";
@@ -0,0 +1,83 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestVisualSeparator
+final class LogIndexTest {
+
+    private static final String LOG = """
+        2024-05-01 10:00:00 INFO Starting operator
+        2024-05-01 10:00:01 WARN Reconciliation of requestId=abc-123 is slow
+        2024-05-01 10:00:02 ERROR Reconciliation failed
+        java.lang.IllegalStateException: Broken for 7f3c2a10-1b2c-4d5e-8f90-123456789ABC
+        """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testTokens() {
+        assertEquals(Set.of("level:warn", "id:abc-123"),
+            LogIndexer.tokens("10:00:01 WARNING requestId=abc-123 is slow"));
+        assertEquals(Set.of("exception:io.fabric8.kubernetes.client.KubernetesClientException",
+                "exception:KubernetesClientException", "exception:OutOfMemoryError"),
+            LogIndexer.tokens("io.fabric8.kubernetes.client.KubernetesClientException caused OutOfMemoryError"));
+        assertEquals(Set.of(), LogIndexer.tokens("Errors are information as well"));
+    }
+
+    @Test
+    void testIndexStreamedAndWrittenLogs() throws IOException {
+        Path streamed = tempDir.resolve("pod").resolve("logs-pod-operator.log");
+        Path written = tempDir.resolve("events.log");
+        Files.createDirectories(streamed.getParent());
+
+        LogIndexer indexer = new LogIndexer(tempDir);
+        try (InputStream is = indexer.wrap(streamed, new ByteArrayInputStream(LOG.getBytes(StandardCharsets.UTF_8)));
+             OutputStream os = Files.newOutputStream(streamed)) {
+            is.transferTo(os);
+        }
+        indexer.index(written, "5s Warning BackOff pod/operator ERROR back-off restarting failed container\n");
+        indexer.write(tempDir.resolve(CollectorConstants.LOG_INDEX));
+
+        LogIndex index = LogIndex.read(tempDir.resolve(CollectorConstants.LOG_INDEX));
+
+        assertEquals(List.of(new LogIndex.Posting("pod/logs-pod-operator.log", 112),
+            new LogIndex.Posting("events.log", 0)), index.find("level:error"));
+        assertEquals(List.of(), index.find("level:debug"));
+        assertTrue(index.getTokens().contains("id:7f3c2a10-1b2c-4d5e-8f90-123456789abc"));
+
+        List<LogIndex.Posting> exceptions = index.findPrefix("exception:");
+        assertEquals(1, exceptions.size());
+        assertEquals("java.lang.IllegalStateException: Broken for 7f3c2a10-1b2c-4d5e-8f90-123456789ABC",
+            index.readLine(exceptions.get(0)));
+        assertEquals("2024-05-01 10:00:01 WARN Reconciliation of requestId=abc-123 is slow",
+            index.readLine(index.find("id:abc-123").get(0)));
+    }
+
+    @Test
+    void testReadInvalidIndex() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("not-an-index"), "plain text");
+
+        assertThrows(IOException.class, () -> LogIndex.read(file));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe;
+
+import io.skodjob.testframe.annotations.MustGather;
+import io.skodjob.testframe.annotations.TestVisualSeparator;
+import io.skodjob.testframe.helpers.MustGatherAsyncTestSupplier;
+import io.skodjob.testframe.helpers.TestListener;
+import io.skodjob.testframe.helpers.ValueHolder;
+import io.skodjob.testframe.listeners.AsyncMustGather;
+import io.skodjob.testframe.listeners.TestSnapshot;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@TestVisualSeparator
+@ExtendWith(TestListener.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@MustGather(config = MustGatherAsyncTestSupplier.class, async = true, debounceMillis = 2000)
+final class MustGatherAsyncHandlerTest {
+
+    @Test
+    @Order(1)
+    void testFailFirst() {
+        fail();
+    }
+
+    @Test
+    @Order(2)
+    void testFailSecond() {
+        fail();
+    }
+
+    @Test
+    @Order(3)
+    void testFailuresAreCoalescedInBackground() {
+        // the collection waits for the end of the debounce window
+        assertEquals(0, ValueHolder.get().asyncCallbackCalls.get());
+
+        AsyncMustGather.join(MustGatherAsyncHandlerTest.class);
+
+        assertEquals(1, ValueHolder.get().asyncCallbackCalls.get());
+        List<TestSnapshot> tests = ValueHolder.get().asyncTests;
+        assertEquals(List.of("testFailFirst", "testFailSecond"), tests.stream().map(TestSnapshot::methodName).toList());
+        tests.forEach(test -> {
+            assertEquals(MustGatherAsyncHandlerTest.class, test.testClass());
+            assertNotNull(test.startTime());
+        });
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright Skodjob authors.
+ * License: Apache License 2.0 (see the file LICENSE or http://apache.org/licenses/LICENSE-2.0.html).
+ */
+package io.skodjob.testframe.helpers;
+
+import io.skodjob.testframe.interfaces.AsyncMustGatherSupplier;
+import io.skodjob.testframe.listeners.TestSnapshot;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class MustGatherAsyncTestSupplier implements AsyncMustGatherSupplier {
+    @Override
+    public void saveKubernetesState(ExtensionContext context) {
+        throw new IllegalStateException("Must gather should run in background");
+    }
+
+    @Override
+    public Path saveKubernetesState(List<TestSnapshot> tests) {
+        ValueHolder.get().asyncCallbackCalls.incrementAndGet();
+        ValueHolder.get().asyncTests.addAll(tests);
+        return null;
+    }
+
+    @Override
+    public List<String> getNamespaces(ExtensionContext context) {
+        return List.of("default");
+    }
+}
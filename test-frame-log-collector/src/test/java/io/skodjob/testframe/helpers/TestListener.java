@@ -15,7 +15,7 @@ public class TestListener implements TestExecutionExceptionHandler {
 
     @Override
     public void handleTestExecutionException(ExtensionContext context, Throwable throwable) throws Throwable {
-        if (!context.getDisplayName().contains("testFailAnCallMustGather")) {
+        if (!context.getDisplayName().startsWith("testFail")) {
             throw throwable;
         }
     }
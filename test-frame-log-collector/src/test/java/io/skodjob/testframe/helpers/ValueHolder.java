@@ -4,15 +4,24 @@
  */
 package io.skodjob.testframe.helpers;
 
+import io.skodjob.testframe.listeners.TestSnapshot;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ValueHolder {
 
     static ValueHolder instance;
     public AtomicBoolean callbackCalled;
+    public AtomicInteger asyncCallbackCalls;
+    public List<TestSnapshot> asyncTests;
 
     private ValueHolder() {
         callbackCalled = new AtomicBoolean(false);
+        asyncCallbackCalls = new AtomicInteger(0);
+        asyncTests = new CopyOnWriteArrayList<>();
     }
 
     public static ValueHolder get() {